@@ -0,0 +1,27 @@
+package com.bookify.bookify_app.config;
+
+// ********************************************************************************************
+// * AsyncConfig enables @Async and makes request context flow into asynchronous work.        *
+// *                                                                                          *
+// * - Spring Boot applies the TaskDecorator below to its application task executor, which    *
+// *   runs @Async methods. Each task gets the tenant and correlation ID of the caller.       *
+// * - With spring.threads.virtual.enabled=true, Tomcat serves every request on its own       *
+// *   virtual thread and the application executor starts a virtual thread per task.          *
+// * - Custom executors can be wrapped with RequestContext.wrap(executor).                    *
+// ********************************************************************************************
+
+import com.bookify.bookify_app.util.RequestContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.scheduling.annotation.EnableAsync;
+
+@Configuration
+@EnableAsync
+public class AsyncConfig {
+
+    @Bean
+    public TaskDecorator requestContextTaskDecorator() {
+        return RequestContext::wrap;
+    }
+}
@@ -0,0 +1,66 @@
+package com.bookify.bookify_app.config;
+
+// ********************************************************************************************
+// * AuthProperties binds "bookify.auth.*" and configures login state and lookups.            *
+// *                                                                                          *
+// * Example (application.properties):                                                        *
+// *   bookify.auth.mode=TOKEN                    (default SESSION)                           *
+// *   bookify.auth.token.secret=<32+ random bytes, base64>                                   *
+// *   bookify.auth.token.access-ttl=15m                                                      *
+// *   bookify.auth.token.refresh-ttl=14d                                                     *
+// *   bookify.auth.principal-cache.ttl=60s                                                   *
+// *   bookify.auth.principal-cache.max-entries=10000                                         *
+// *                                                                                          *
+// * SESSION keeps the login in an HttpSession (sticky sessions or replication when scaled).  *
+// * TOKEN issues HMAC-signed bearer tokens (AccessTokenService) that every node verifies     *
+// * without I/O; all nodes must then share the same secret.                                  *
+// *                                                                                          *
+// * Principal cache: writes on this node evict entries at once; writes on other nodes are    *
+// * picked up after "ttl" at the latest, so keep it short.                                   *
+// ********************************************************************************************
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "bookify.auth")
+public class AuthProperties {
+
+    public enum Mode { SESSION, TOKEN }
+
+    /** How a login is remembered between requests. */
+    private Mode mode = Mode.SESSION;
+
+    private Token token = new Token();
+    private PrincipalCache principalCache = new PrincipalCache();
+
+    @Getter
+    @Setter
+    public static class Token {
+        /**
+         * Base64 HMAC-SHA256 key, at least 32 bytes, identical on every node.
+         * Empty = random key per start (single node, logins do not survive a restart).
+         */
+        private String secret = "";
+
+        /** Lifetime of an access token; it cannot be revoked before it expires. */
+        private Duration accessTtl = Duration.ofMinutes(15);
+
+        /** Lifetime of a refresh token; a password change invalidates it earlier. */
+        private Duration refreshTtl = Duration.ofDays(14);
+    }
+
+    @Getter
+    @Setter
+    public static class PrincipalCache {
+        /** How long a loaded user is served from memory; 0 disables the cache. */
+        private Duration ttl = Duration.ofSeconds(60);
+
+        /** Upper bound of cached users. */
+        private int maxEntries = 10_000;
+    }
+}
@@ -0,0 +1,174 @@
+package com.bookify.bookify_app.config;
+
+// ********************************************************************************************
+// * BoundedPasswordEncoder runs BCrypt on a small, dedicated thread pool.                    *
+// *                                                                                          *
+// * HOW IT WORKS:                                                                            *
+// * - encode() and matches() are handed to a fixed pool (one thread per core by default)     *
+// *   with a bounded queue. When the queue is full the call fails at once with               *
+// *   HashingBusyException, which GlobalExceptionHandler turns into 503 + Retry-After.       *
+// * - The BCrypt cost is calibrated at startup to the highest value whose hash still takes   *
+// *   at most target-latency on this machine (within min/max strength), unless fixed.        *
+// * - upgradeEncoding() reports hashes stored with a lower cost; Spring Security then        *
+// *   re-hashes the password on the next successful login (UserService.updatePassword).      *
+// *   Higher costs are kept: calibrated nodes may differ, and a hash must not flip between   *
+// *   them on every login.                                                                   *
+// *                                                                                          *
+// * WHY: Hashing is CPU-bound by design. A login burst used to occupy every request thread   *
+// * with BCrypt and starve cheap endpoints; now it can only occupy the hashing pool.         *
+// ********************************************************************************************
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class BoundedPasswordEncoder implements PasswordEncoder, AutoCloseable {
+
+    private final BCryptPasswordEncoder delegate;
+    private final int strength;
+    private final int threads;
+    private final ThreadPoolExecutor executor;
+    // Recent duration of one hash, used to estimate Retry-After
+    private volatile long hashNanos;
+
+    public BoundedPasswordEncoder(int strength, int threads, int queueCapacity) {
+        this.delegate = new BCryptPasswordEncoder(strength);
+        this.strength = strength;
+        this.threads = threads;
+
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "password-hashing-" + counter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Build from configuration, calibrating the cost when none is fixed.
+     */
+
+    public static BoundedPasswordEncoder create(PasswordHashingProperties properties) {
+        int threads = properties.getThreads() > 0 ? properties.getThreads() : Runtime.getRuntime().availableProcessors();
+        int strength = properties.getStrength() > 0
+                ? properties.getStrength()
+                : calibrateStrength(properties.getTargetLatency(), properties.getMinStrength(), properties.getMaxStrength());
+        return new BoundedPasswordEncoder(strength, threads, properties.getQueueCapacity());
+    }
+
+    /**
+     * The highest BCrypt cost in [min, max] whose hash takes at most target on this machine.
+     * Each extra cost step doubles the work, so one timed hash at min predicts the rest.
+     */
+
+    public static int calibrateStrength(Duration target, int min, int max) {
+        BCryptPasswordEncoder probe = new BCryptPasswordEncoder(min);
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < 3; i++) { // best of three: skip JIT warm-up and GC noise
+            long start = System.nanoTime();
+            probe.encode("calibration");
+            best = Math.min(best, System.nanoTime() - start);
+        }
+
+        int strength = min;
+        long estimate = best;
+        while (strength < max && estimate * 2 <= target.toNanos()) {
+            estimate *= 2;
+            strength++;
+        }
+        return strength;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return run(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return run(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * True when the stored hash uses a lower cost than the current one, so the password is
+     * re-hashed with the current cost on the next login. A higher cost is never downgraded.
+     */
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        // "$2a$10$..." -> 10
+        if (encodedPassword == null || encodedPassword.length() < 7 || encodedPassword.charAt(3) != '$') {
+            return false;
+        }
+        char tens = encodedPassword.charAt(4);
+        char ones = encodedPassword.charAt(5);
+        if (!Character.isDigit(tens) || !Character.isDigit(ones)) {
+            return false;
+        }
+        return (tens - '0') * 10 + (ones - '0') < strength;
+    }
+
+    public int getStrength() {
+        return strength;
+    }
+
+    private <T> T run(Callable<T> hashing) {
+        try {
+            return executor.submit(() -> {
+                long start = System.nanoTime();
+                T result = hashing.call();
+                hashNanos = System.nanoTime() - start;
+                return result;
+            }).get();
+        } catch (RejectedExecutionException e) {
+            throw new HashingBusyException(retryAfterSeconds());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing password", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    // Time until the queued work is done, at least one second
+    private long retryAfterSeconds() {
+        long queuedNanos = hashNanos * (executor.getQueue().size() + threads) / threads;
+        return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(queuedNanos) + 1);
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    /**
+     * Thrown when the hashing queue is full; the client should retry after the given delay.
+     */
+
+    public static class HashingBusyException extends RuntimeException {
+        private final long retryAfterSeconds;
+
+        public HashingBusyException(long retryAfterSeconds) {
+            super("Too many password operations in progress, please retry shortly");
+            this.retryAfterSeconds = retryAfterSeconds;
+        }
+
+        public long getRetryAfterSeconds() {
+            return retryAfterSeconds;
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.bookify.bookify_app.config;
 
 import com.bookify.bookify_app.model.Clinic;
 import com.bookify.bookify_app.repository.ClinicRepository;
+import com.bookify.bookify_app.service.ClinicRegistryWatcher;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -10,7 +11,7 @@ import org.springframework.context.annotation.Configuration;
 public class DataSeeder {
 
     @Bean
-    CommandLineRunner seedClinics(ClinicRepository repo) {
+    CommandLineRunner seedClinics(ClinicRepository repo, ClinicRegistryWatcher registryWatcher) {
         return args -> {
             if (repo.findBySubdomain("hudvardskliniken").isEmpty()) {
                 Clinic clinic = new Clinic();
@@ -21,6 +22,9 @@ public class DataSeeder {
                 repo.save(clinic);
                 System.out.println("✅ Seeded clinic: hudvardskliniken");
             }
+
+            // Hold every clinic in memory from now on (includes the seeded one)
+            registryWatcher.start();
         };
     }
 }
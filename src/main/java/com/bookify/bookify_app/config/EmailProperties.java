@@ -0,0 +1,61 @@
+package com.bookify.bookify_app.config;
+
+// ********************************************************************************************
+// * EmailProperties binds "bookify.mail.*" and configures the email outbox pipeline.         *
+// *                                                                                          *
+// * Example (application.properties):                                                        *
+// *   spring.mail.host=smtp.example.com      (unset = log mails instead of sending)          *
+// *   bookify.mail.from=no-reply@minapp.se                                                   *
+// *   bookify.mail.batch-size=50                                                             *
+// *   bookify.mail.per-provider-limit=100    (mails per recipient domain and window)         *
+// *   bookify.mail.expose-tokens=false       (production: never return tokens in responses)  *
+// ********************************************************************************************
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "bookify.mail")
+public class EmailProperties {
+
+    /** Sender address of all outgoing mail. */
+    private String from = "no-reply@minapp.se";
+
+    /** Base URL of links in mails, e.g. <base>/verify-email?token=... */
+    private String linkBaseUrl = "https://minapp.se";
+
+    /** Also return verification/reset tokens in API responses (development and tests only). */
+    private boolean exposeTokens = false;
+
+    /** How often the dispatcher looks for due mails. */
+    private Duration pollInterval = Duration.ofSeconds(2);
+
+    /** Max mails claimed and sent per round (one SMTP connection). */
+    private int batchSize = 50;
+
+    /** Delivery attempts before a mail is marked FAILED. */
+    private int maxAttempts = 8;
+
+    /** Delay before the first retry; doubles per attempt up to maxBackoff. */
+    private Duration initialBackoff = Duration.ofSeconds(30);
+
+    private Duration maxBackoff = Duration.ofHours(1);
+
+    /** How long a claimed mail stays reserved for one node before others may take it over. */
+    private Duration claimLease = Duration.ofMinutes(2);
+
+    /** Max mails per recipient domain (gmail.com, outlook.com, ...) per window. */
+    private int perProviderLimit = 100;
+
+    private Duration perProviderWindow = Duration.ofMinutes(1);
+
+    /** Sent mails are deleted after this time; their body is cleared as soon as they are sent. */
+    private Duration sentRetention = Duration.ofDays(1);
+
+    /** Failed mails (body cleared, lastError kept) are deleted after this time. */
+    private Duration retention = Duration.ofDays(7);
+}
@@ -0,0 +1,48 @@
+package com.bookify.bookify_app.config;
+
+// ********************************************************************************************
+// * HttpSessionProperties binds "bookify.session.*" and configures where HTTP sessions live. *
+// *                                                                                          *
+// * Example (application.properties):                                                        *
+// *   bookify.session.store=MONGO               (default MEMORY = servlet container)         *
+// *   bookify.session.timeout=30m                                                            *
+// *   bookify.session.near-cache-ttl=10s                                                     *
+// *   bookify.session.near-cache-max-entries=10000                                           *
+// *   bookify.session.touch-interval=1m                                                      *
+// *   bookify.session.flush-interval=1s                                                      *
+// ********************************************************************************************
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "bookify.session")
+public class HttpSessionProperties {
+
+    public enum Store { MEMORY, MONGO }
+
+    /** MEMORY = per-node container sessions; MONGO = shared sessions (MongoSessionRepository). */
+    private Store store = Store.MEMORY;
+
+    /** Sessions expire after this long without a request. */
+    private Duration timeout = Duration.ofMinutes(30);
+
+    /**
+     * How long a session read from Mongo is served from memory. Bounds how late a logout on
+     * another node is noticed here.
+     */
+    private Duration nearCacheTtl = Duration.ofSeconds(10);
+
+    /** Upper bound of sessions held in memory per node, however many users are logged in. */
+    private int nearCacheMaxEntries = 10_000;
+
+    /** A request that changes no attribute extends the stored expiry at most this often. */
+    private Duration touchInterval = Duration.ofMinutes(1);
+
+    /** How often pending expiry extensions are written (one bulk write). */
+    private Duration flushInterval = Duration.ofSeconds(1);
+}
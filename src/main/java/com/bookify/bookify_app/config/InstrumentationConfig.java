@@ -0,0 +1,94 @@
+package com.bookify.bookify_app.config;
+
+// ********************************************************************************************
+// * InstrumentationConfig adds the CONTROLLER and MONGO phases to RequestTimings.            *
+// *                                                                                          *
+// * - CONTROLLER: a HandlerInterceptor spanning the handler call and view/body rendering.    *
+// * - MONGO: every Spring Data repository gets an extra advice (through the repository       *
+// *   factory's proxy post-processor hook) that times each call, adds it to the request's    *
+// *   MONGO phase and to a per-method histogram in LatencyRecorder.                          *
+// *                                                                                          *
+// * The same advice tells QueryProfiler which repository method a driver command belongs to. *
+// *                                                                                          *
+// * Direct MongoTemplate use (TokenService, session store, rate-limit counters) is not       *
+// * timed here; it shows up in the CONTROLLER phase instead.                                 *
+// ********************************************************************************************
+
+import com.bookify.bookify_app.service.LatencyRecorder;
+import com.bookify.bookify_app.service.QueryProfiler;
+import com.bookify.bookify_app.util.RequestTimings;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.lang.NonNull;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@ConditionalOnProperty(prefix = "bookify.instrumentation", name = "enabled", matchIfMissing = true)
+public class InstrumentationConfig implements WebMvcConfigurer {
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new HandlerInterceptor() {
+            @Override
+            public boolean preHandle(@NonNull HttpServletRequest req, @NonNull HttpServletResponse res,
+                                     @NonNull Object handler) {
+                RequestTimings.begin(RequestTimings.Phase.CONTROLLER);
+                return true;
+            }
+
+            @Override
+            public void afterCompletion(@NonNull HttpServletRequest req, @NonNull HttpServletResponse res,
+                                        @NonNull Object handler, Exception ex) {
+                RequestTimings.end(RequestTimings.Phase.CONTROLLER);
+            }
+        });
+    }
+
+    /**
+     * Registers the timing advice on every repository factory before it creates its proxy.
+     * Static and lazy on LatencyRecorder so that post-processor registration does not pull
+     * the recorder (and its dependencies) in early.
+     */
+
+    @Bean
+    public static BeanPostProcessor repositoryTimingPostProcessor(ObjectProvider<LatencyRecorder> recorder) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(@NonNull Object bean, @NonNull String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+                    factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+                            (proxy, info) -> proxy.addAdvice(timing(
+                                    info.getRepositoryInterface().getSimpleName(), recorder))));
+                }
+                return bean;
+            }
+        };
+    }
+
+    private static MethodInterceptor timing(String repository, ObjectProvider<LatencyRecorder> recorder) {
+        return invocation -> {
+            String method = repository + "." + invocation.getMethod().getName();
+            // Lets QueryProfiler attribute the driver commands of this call to the method
+            String outer = QueryProfiler.enterRepositoryMethod(method);
+            long started = System.nanoTime();
+            try {
+                return invocation.proceed();
+            } finally {
+                long nanos = System.nanoTime() - started;
+                QueryProfiler.exitRepositoryMethod(outer);
+                RequestTimings.add(RequestTimings.Phase.MONGO, nanos);
+                recorder.getObject().recordRepositoryCall(method, nanos);
+            }
+        };
+    }
+}
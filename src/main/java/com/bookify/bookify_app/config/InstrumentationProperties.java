@@ -0,0 +1,38 @@
+package com.bookify.bookify_app.config;
+
+// ********************************************************************************************
+// * InstrumentationProperties binds "bookify.instrumentation.*" (request phase timing).      *
+// *                                                                                          *
+// * Example (application.properties):                                                        *
+// *   bookify.instrumentation.enabled=true                                                   *
+// *   bookify.instrumentation.max-tenants=1000      (further clinics are counted as "other") *
+// *   bookify.instrumentation.max-endpoints=500                                              *
+// *   bookify.instrumentation.highest-latency=60s   (longer requests are recorded as 60s)    *
+// ********************************************************************************************
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "bookify.instrumentation")
+public class InstrumentationProperties {
+
+    /** Time request phases and repository calls; false = no filter, interceptor or proxy. */
+    private boolean enabled = true;
+
+    /** Clinics with their own histograms; bounds memory on a platform with many tenants. */
+    private int maxTenants = 1000;
+
+    /** Endpoints (method + route pattern) with their own histograms. */
+    private int maxEndpoints = 500;
+
+    /** Upper bound of a recorded duration; histogram size grows with it. */
+    private Duration highestLatency = Duration.ofSeconds(60);
+
+    /** Decimal digits of precision kept by each histogram (1-5); 2 = within 1%. */
+    private int significantDigits = 2;
+}
@@ -0,0 +1,125 @@
+package com.bookify.bookify_app.config;
+
+// ********************************************************************************************
+// * MongoIndexInitializer creates the indexes declared on the entities at startup.           *
+// *                                                                                          *
+// * WHAT                                                                                     *
+// * - Resolves @Indexed / @CompoundIndex(es) of every @Document class and creates them.      *
+// * - Creating an index that already exists with the same definition is a no-op.             *
+// * - An index on the same keys under Mongo's default name (e.g. "expiresAt_1", created by   *
+// *   older versions) is dropped first; Mongo refuses the same keys under two names.         *
+// * - Indexes listed in RETIRED were replaced by a differently defined one and are dropped.  *
+// *                                                                                          *
+// * WHY                                                                                      *
+// * - spring.data.mongodb.auto-index-creation is off by default in Boot 3, so the annotated  *
+// *   indexes (time-window lookups, booking uniqueness, TTL expiry) would never exist.       *
+// * - The annotations stay the single definition of each index; nothing else creates them.   *
+// ********************************************************************************************
+
+import jakarta.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mapping.context.MappingContext;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentProperty;
+import org.springframework.data.mongodb.core.index.IndexField;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@Component
+public class MongoIndexInitializer {
+
+    private static final Logger log = LoggerFactory.getLogger(MongoIndexInitializer.class);
+
+    // Collection -> index names no longer declared; an index cannot change options in place
+    private static final Map<String, List<String>> RETIRED = Map.of(
+            // Now unique_staff_booking, filtered to bookings with a staff member
+            "bookings", List.of("unique_booking"));
+
+    private final MongoTemplate mongoTemplate;
+
+    public MongoIndexInitializer(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @PostConstruct
+    public void createIndexes() {
+        MappingContext<? extends MongoPersistentEntity<?>, MongoPersistentProperty> mappingContext =
+                mongoTemplate.getConverter().getMappingContext();
+        IndexResolver resolver = IndexResolver.create(mappingContext);
+
+        for (MongoPersistentEntity<?> entity : mappingContext.getPersistentEntities()) {
+            if (!entity.isAnnotationPresent(Document.class)) {
+                continue;
+            }
+            IndexOperations indexOps = mongoTemplate.indexOps(entity.getType());
+            List<IndexInfo> existing = indexOps.getIndexInfo();
+            dropRetired(indexOps, existing, entity.getCollection());
+            for (IndexDefinition index : resolver.resolveIndexFor(entity.getType())) {
+                try {
+                    dropUnnamedCopy(indexOps, existing, index);
+                    indexOps.createIndex(index);
+                } catch (DataAccessException e) {
+                    // One conflicting index (e.g. changed by hand) must not keep the app from starting
+                    log.warn("Could not create index {} on {}: {}", index.getIndexOptions().get("name"),
+                            entity.getCollection(), e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void dropRetired(IndexOperations indexOps, List<IndexInfo> existing, String collection) {
+        List<String> retired = RETIRED.getOrDefault(collection, List.of());
+        for (IndexInfo info : existing) {
+            if (retired.contains(info.getName())) {
+                log.info("Dropping retired index {} on {}", info.getName(), collection);
+                indexOps.dropIndex(info.getName());
+            }
+        }
+    }
+
+    private void dropUnnamedCopy(IndexOperations indexOps, List<IndexInfo> existing, IndexDefinition index) {
+        Object name = index.getIndexOptions().get("name");
+        String defaultName = defaultName(index.getIndexKeys());
+        if (name == null || name.equals(defaultName)) {
+            return;
+        }
+        for (IndexInfo info : existing) {
+            if (info.getName().equals(defaultName) && defaultName(info).equals(defaultName)) {
+                log.info("Replacing index {} by {}", defaultName, name);
+                indexOps.dropIndex(defaultName);
+            }
+        }
+    }
+
+    // Mongo's name for an unnamed index: "<field>_<direction>" joined by "_"
+    private static String defaultName(Map<String, Object> keys) {
+        return keys.entrySet().stream()
+                .map(key -> key.getKey() + "_" + key.getValue())
+                .collect(Collectors.joining("_"));
+    }
+
+    private static String defaultName(IndexInfo info) {
+        return info.getIndexFields().stream()
+                .map(field -> field.getKey() + "_" + direction(field))
+                .collect(Collectors.joining("_"));
+    }
+
+    private static String direction(IndexField field) {
+        if (field.getDirection() == null) {
+            return "?";
+        }
+        return field.getDirection().isAscending() ? "1" : "-1";
+    }
+}
@@ -0,0 +1,40 @@
+package com.bookify.bookify_app.config;
+
+// ********************************************************************************************
+// * PasswordHashingProperties binds "bookify.password-hashing.*" (BoundedPasswordEncoder).   *
+// *                                                                                          *
+// * Example (application.properties):                                                        *
+// *   bookify.password-hashing.threads=4          (0 = number of CPU cores)                  *
+// *   bookify.password-hashing.queue-capacity=64  (beyond it requests get 503)               *
+// *   bookify.password-hashing.target-latency=250ms                                          *
+// *   bookify.password-hashing.strength=0         (0 = calibrate to target-latency)          *
+// ********************************************************************************************
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "bookify.password-hashing")
+public class PasswordHashingProperties {
+
+    /** Hashing threads; 0 = one per CPU core. */
+    private int threads = 0;
+
+    /** Hash requests waiting for a thread; when full, new ones are rejected with 503. */
+    private int queueCapacity = 64;
+
+    /** Fixed BCrypt cost (4-31); 0 = pick the highest cost within target-latency at startup. */
+    private int strength = 0;
+
+    /** Time one hash should take on this machine when the cost is calibrated. */
+    private Duration targetLatency = Duration.ofMillis(250);
+
+    /** Bounds for the calibrated cost; 10 is Spring Security's default. */
+    private int minStrength = 10;
+
+    private int maxStrength = 14;
+}
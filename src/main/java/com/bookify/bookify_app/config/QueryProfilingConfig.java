@@ -0,0 +1,24 @@
+package com.bookify.bookify_app.config;
+
+// ********************************************************************************************
+// * QueryProfilingConfig registers QueryProfiler as a command listener on the MongoClient    *
+// * that Spring Boot builds, so every command (repositories, MongoTemplate, session store)   *
+// * is measured at the driver.                                                               *
+// ********************************************************************************************
+
+import com.bookify.bookify_app.service.QueryProfiler;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConditionalOnProperty(prefix = "bookify.query-profiling", name = "enabled", matchIfMissing = true)
+public class QueryProfilingConfig {
+
+    @Bean
+    public MongoClientSettingsBuilderCustomizer queryProfilingCustomizer(QueryProfiler profiler) {
+        return settings -> settings.addCommandListener(profiler);
+    }
+}
@@ -0,0 +1,39 @@
+package com.bookify.bookify_app.config;
+
+// ********************************************************************************************
+// * QueryProfilingProperties binds "bookify.query-profiling.*" (QueryProfiler).              *
+// *                                                                                          *
+// * Example (application.properties):                                                        *
+// *   bookify.query-profiling.enabled=true                                                   *
+// *   bookify.query-profiling.slow-threshold=100ms   (slower commands are logged and kept)   *
+// *   bookify.query-profiling.slow-query-capacity=200                                        *
+// *   bookify.query-profiling.explain=true           (look up the index each method uses)    *
+// *   bookify.query-profiling.max-methods=500                                                *
+// ********************************************************************************************
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "bookify.query-profiling")
+public class QueryProfilingProperties {
+
+    /** Listen to every command the Mongo driver sends; false = no listener is registered. */
+    private boolean enabled = true;
+
+    /** Commands at least this slow are logged (WARN) and kept in the slow-query list. */
+    private Duration slowThreshold = Duration.ofMillis(100);
+
+    /** Most recent slow queries kept for /actuator/queries; older ones are dropped. */
+    private int slowQueryCapacity = 200;
+
+    /** Run a queryPlanner explain (in the background) the first time a method is seen and for slow queries. */
+    private boolean explain = true;
+
+    /** Repository methods / commands with their own statistics; the rest share "other". */
+    private int maxMethods = 500;
+}
@@ -0,0 +1,75 @@
+package com.bookify.bookify_app.config;
+
+// ********************************************************************************************
+// * RateLimitProperties binds "bookify.rate-limit.*" and configures RateLimitFilter.         *
+// *                                                                                          *
+// * Example (application.properties):                                                        *
+// *   bookify.rate-limit.max-keys=100000                                                     *
+// *   bookify.rate-limit.rules[0].path=/api/v1/auth/login                                    *
+// *   bookify.rate-limit.rules[0].limit=20                                                   *
+// *   bookify.rate-limit.rules[0].window=60s                                                 *
+// *   bookify.rate-limit.rules[0].algorithm=TOKEN_BUCKET                                     *
+// *   bookify.rate-limit.store=MONGO          (share counters across nodes, see below)       *
+// *   bookify.rate-limit.flush-interval=1s                                                   *
+// *                                                                                          *
+// * With store=MONGO every rule uses a sliding-window counter whose counts are flushed to    *
+// * and reconciled with Mongo in the background (RateLimitCounterStore).                     *
+// *                                                                                          *
+// * Without configured rules, login, register and public bookings are limited to 20          *
+// * requests per minute per client (sliding window), as before.                              *
+// ********************************************************************************************
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "bookify.rate-limit")
+public class RateLimitProperties {
+
+    public enum Algorithm { TOKEN_BUCKET, SLIDING_WINDOW }
+
+    public enum Store { LOCAL, MONGO }
+
+    /** LOCAL limits per JVM; MONGO shares counts between all nodes. */
+    private Store store = Store.LOCAL;
+
+    /** How often local counts are flushed to Mongo (store=MONGO only). */
+    private Duration flushInterval = Duration.ofSeconds(1);
+
+    /** Upper bound of tracked client keys per rule; beyond it new clients share one bucket. */
+    private int maxKeys = 100_000;
+
+    /** How often idle client keys are evicted. */
+    private Duration sweepInterval = Duration.ofSeconds(30);
+
+    private List<Rule> rules = new ArrayList<>(List.of(
+            new Rule("/api/v1/auth/login", 20, Duration.ofMinutes(1), Algorithm.SLIDING_WINDOW),
+            new Rule("/api/v1/auth/register", 20, Duration.ofMinutes(1), Algorithm.SLIDING_WINDOW),
+            new Rule("/api/v1/public/bookings", 20, Duration.ofMinutes(1), Algorithm.SLIDING_WINDOW),
+            new Rule("/api/v1/public/holds", 20, Duration.ofMinutes(1), Algorithm.SLIDING_WINDOW)
+    ));
+
+    @Getter
+    @Setter
+    public static class Rule {
+        private String path;
+        private int limit = 20;
+        private Duration window = Duration.ofMinutes(1);
+        private Algorithm algorithm = Algorithm.SLIDING_WINDOW;
+
+        public Rule() {}
+
+        public Rule(String path, int limit, Duration window, Algorithm algorithm) {
+            this.path = path;
+            this.limit = limit;
+            this.window = window;
+            this.algorithm = algorithm;
+        }
+    }
+}
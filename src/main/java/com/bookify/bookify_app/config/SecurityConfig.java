@@ -4,19 +4,29 @@ package com.bookify.bookify_app.config;
 // * SecurityConfig defines the security setup for the application using Spring Security.     *
 // * It configures CSRF, CORS, request authorization, and important security headers.         *
 // * Additionally, it exposes beans for AuthenticationManager, PasswordEncoder, and CORS.     *
+// *                                                                                          *
+// * bookify.auth.mode selects how a login is kept: SESSION (HttpSession, default) or TOKEN   *
+// * (stateless; BearerTokenFilter verifies signed tokens, no session is ever created).       *
 // ********************************************************************************************
 
+import com.bookify.bookify_app.filter.BearerTokenFilter;
+import com.bookify.bookify_app.service.AccessTokenService;
+import com.bookify.bookify_app.util.RequestTimings;
+
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configurers.HeadersConfigurer;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.access.intercept.AuthorizationFilter;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.security.web.csrf.CookieCsrfTokenRepository;
 import org.springframework.security.web.header.writers.ReferrerPolicyHeaderWriter.ReferrerPolicy;
+import org.springframework.security.web.session.DisableEncodeUrlFilter;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
@@ -27,24 +37,35 @@ import java.util.List;
 public class SecurityConfig {
 
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity http, AuthProperties authProperties,
+                                                   AccessTokenService accessTokenService) throws Exception {
+        boolean tokenMode = authProperties.getMode() == AuthProperties.Mode.TOKEN;
+
         http
-                .csrf(csrf -> csrf
-                        // Aktivera CSRF med cookie, HttpOnly=false så frontend kan läsa token
-                        .csrfTokenRepository(CookieCsrfTokenRepository.withHttpOnlyFalse())
-                )
+                .csrf(csrf -> {
+                    // Aktivera CSRF med cookie, HttpOnly=false så frontend kan läsa token
+                    csrf.csrfTokenRepository(CookieCsrfTokenRepository.withHttpOnlyFalse());
+                    if (tokenMode) {
+                        // Bearer tokens are never sent by the browser on its own: no CSRF risk
+                        csrf.ignoringRequestMatchers(BearerTokenFilter::hasBearerToken)
+                                .ignoringRequestMatchers("/api/v1/auth/refresh");
+                    }
+                })
                 .cors(cors -> {})
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers(
                                 "/api/v1/auth/csrf",
                                 "/api/v1/auth/register",
                                 "/api/v1/auth/login",
+                                "/api/v1/auth/refresh",
                                 "/api/v1/auth/verify-email",
                                 "/api/v1/auth/forgot-password",
                                 "/api/v1/auth/reset-password",
                                 "/api/v1/public/**",
                                 "/actuator/health"
                         ).permitAll()
+                        .requestMatchers("/actuator/latency", "/actuator/latency/**",
+                                "/actuator/queries", "/actuator/queries/**").hasRole("SUPERADMIN")
                         .anyRequest().authenticated()
                 )
                 .headers(headers -> headers
@@ -55,6 +76,24 @@ public class SecurityConfig {
                         .contentTypeOptions(withDefaults -> {})
                 );
 
+        // Mark the start and end of the security chain as the AUTH phase of RequestTimings
+        http
+                .addFilterBefore((req, res, chain) -> {
+                    RequestTimings.begin(RequestTimings.Phase.AUTH);
+                    chain.doFilter(req, res);
+                }, DisableEncodeUrlFilter.class)
+                .addFilterAfter((req, res, chain) -> {
+                    RequestTimings.end(RequestTimings.Phase.AUTH);
+                    chain.doFilter(req, res);
+                }, AuthorizationFilter.class);
+
+        if (tokenMode) {
+            http
+                    .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                    .addFilterBefore(new BearerTokenFilter(accessTokenService),
+                            UsernamePasswordAuthenticationFilter.class);
+        }
+
         return http.build();
     }
 
@@ -70,11 +109,12 @@ public class SecurityConfig {
 
     /**
      * PasswordEncoder bean used for authentication and user registration.
+     * BCrypt runs on a bounded hashing pool with a calibrated cost (BoundedPasswordEncoder).
      */
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(PasswordHashingProperties properties) {
+        return BoundedPasswordEncoder.create(properties);
     }
 
     /**
@@ -0,0 +1,18 @@
+package com.bookify.bookify_app.config;
+
+// ********************************************************************************************
+// * SessionConfig replaces the servlet container's in-memory HttpSession with sessions       *
+// * shared through Mongo (MongoSessionRepository) when bookify.session.store=MONGO.          *
+// * Controllers keep using HttpSession as before; Spring Session's filter swaps the          *
+// * implementation underneath and tracks the session with a "SESSION" cookie.                *
+// ********************************************************************************************
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.session.config.annotation.web.http.EnableSpringHttpSession;
+
+@Configuration
+@EnableSpringHttpSession
+@ConditionalOnProperty(prefix = "bookify.session", name = "store", havingValue = "MONGO")
+public class SessionConfig {
+}
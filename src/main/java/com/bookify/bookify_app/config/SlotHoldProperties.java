@@ -0,0 +1,34 @@
+package com.bookify.bookify_app.config;
+
+// ********************************************************************************************
+// * SlotHoldProperties binds "bookify.holds.*" (SlotHoldService).                            *
+// *                                                                                          *
+// * Example (application.properties):                                                        *
+// *   bookify.holds.ttl=5m     (how long a slot stays reserved during checkout)              *
+// *   bookify.holds.tick=1s    (expiry resolution of the timing wheel)                       *
+// *   bookify.holds.max-per-client=2   (open holds per client and clinic, across all nodes)  *
+// ********************************************************************************************
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "bookify.holds")
+public class SlotHoldProperties {
+
+    /** How long a hold keeps its slot; the customer must book within this time. */
+    private Duration ttl = Duration.ofMinutes(5);
+
+    /** Expiry resolution: holds are released at most one tick after they expire. */
+    private Duration tick = Duration.ofSeconds(1);
+
+    /** Most open holds one client (IP) may have per clinic; a checkout needs one. */
+    private int maxPerClient = 2;
+
+    /** Most holds one clinic may have at a time on this node; a last line against hoarding. */
+    private int maxPerClinic = 500;
+}
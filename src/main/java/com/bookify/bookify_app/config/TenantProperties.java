@@ -0,0 +1,65 @@
+package com.bookify.bookify_app.config;
+
+// ********************************************************************************************
+// * TenantProperties binds "bookify.tenant.*" and configures subdomain -> clinic resolution. *
+// *                                                                                          *
+// * Example (application.properties):                                                        *
+// *   bookify.tenant.base-domains=minapp.se,localhost                                        *
+// *   bookify.tenant.dev-subdomain=hudvardskliniken                                          *
+// *   bookify.tenant.cache.ttl=5m                                                            *
+// *   bookify.tenant.cache.negative-ttl=30s                                                  *
+// *   bookify.tenant.cache.max-entries=10000                                                 *
+// *   bookify.tenant.registry.change-stream=true                                             *
+// *   bookify.tenant.registry.poll-interval=30s                                              *
+// *                                                                                          *
+// * The cache only serves lookups until the full registry has been loaded at startup.        *
+// ********************************************************************************************
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "bookify.tenant")
+public class TenantProperties {
+
+    /**
+     * Domains clinics live under: "<sub>.<base domain>" resolves to the clinic "<sub>".
+     * "localhost" lets browsers reach "<sub>.localhost:8080" during development.
+     */
+    private List<String> baseDomains = new ArrayList<>(List.of("minapp.se", "localhost"));
+
+    /** Clinic used for a bare localhost / 127.0.0.1 host; empty = no tenant (default). */
+    private String devSubdomain = "";
+
+    private Cache cache = new Cache();
+    private Registry registry = new Registry();
+
+    @Getter
+    @Setter
+    public static class Cache {
+        /** How long a resolved subdomain is served from memory. */
+        private Duration ttl = Duration.ofMinutes(5);
+
+        /** How long an unknown subdomain is remembered as unknown. */
+        private Duration negativeTtl = Duration.ofSeconds(30);
+
+        /** Upper bound of cached subdomains, known and unknown each. */
+        private int maxEntries = 10_000;
+    }
+
+    @Getter
+    @Setter
+    public static class Registry {
+        /** Follow the clinics collection through a change stream (needs a replica set). */
+        private boolean changeStream = true;
+
+        /** Reload interval when change streams are disabled or unavailable. */
+        private Duration pollInterval = Duration.ofSeconds(30);
+    }
+}
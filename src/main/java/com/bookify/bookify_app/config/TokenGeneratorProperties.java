@@ -0,0 +1,25 @@
+package com.bookify.bookify_app.config;
+
+// ********************************************************************************************
+// * TokenGeneratorProperties binds "bookify.token-generator.*" (TokenGenerator).             *
+// *                                                                                          *
+// * Example (application.properties):                                                        *
+// *   bookify.token-generator.stripes=0     (0 = two per CPU core, rounded to a power of 2)  *
+// *   bookify.token-generator.prefill=256   (0 = generate every token on demand)             *
+// ********************************************************************************************
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "bookify.token-generator")
+public class TokenGeneratorProperties {
+
+    /** Independent DRBG instances; 0 = two per CPU core. */
+    private int stripes = 0;
+
+    /** Tokens kept ready by a background thread for bursts (e.g. a register storm); 0 = off. */
+    private int prefill = 0;
+}
@@ -4,10 +4,18 @@ package com.bookify.bookify_app.controller;
 // * AuthController exposes REST endpoints for authentication and user management.            *
 // * It supports login, logout, registration, CSRF token retrieval, and fetching user info.   *
 // * Uses Spring Security’s AuthenticationManager and SecurityContext for session handling.   *
+// * With bookify.auth.mode=TOKEN, login returns signed access/refresh tokens instead of      *
+// * creating a session, and /refresh exchanges a refresh token for a new pair.               *
+// * Verification and reset mails are queued through EmailService (outbox); the request       *
+// * never waits for the mail server.                                                         *
 // ********************************************************************************************
 
+import com.bookify.bookify_app.config.AuthProperties;
+import com.bookify.bookify_app.config.EmailProperties;
 import com.bookify.bookify_app.model.User;
 import com.bookify.bookify_app.model.VerificationToken;
+import com.bookify.bookify_app.service.AccessTokenService;
+import com.bookify.bookify_app.service.EmailService;
 import com.bookify.bookify_app.service.TokenService;
 import com.bookify.bookify_app.service.UserService;
 import com.bookify.bookify_app.model.PasswordResetToken;
@@ -22,10 +30,12 @@ import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.csrf.CsrfToken;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -39,6 +49,10 @@ public class AuthController {
     private final AuthenticationManager authenticationManager;
     private final UserService userService;
     private final TokenService tokenService;
+    private final EmailService emailService;
+    private final EmailProperties emailProperties;
+    private final AuthProperties authProperties;
+    private final AccessTokenService accessTokenService;
 
     @PostMapping("/login")
     public ResponseEntity<?> login(@RequestBody LoginRequest req, HttpServletRequest request) {
@@ -46,6 +60,12 @@ public class AuthController {
                 new UsernamePasswordAuthenticationToken(req.email(), req.password())
         );
 
+        // Stateless mode: hand out signed tokens, never touch the session
+        if (authProperties.getMode() == AuthProperties.Mode.TOKEN) {
+            UserDetails user = userService.loadUserByUsername(auth.getName());
+            return ResponseEntity.ok(accessTokenService.issue(user));
+        }
+
         // ensure a session exists
         request.getSession(true);
 
@@ -63,6 +83,17 @@ public class AuthController {
         return ResponseEntity.ok(new MeResponse(auth.getName(), roles));
     }
 
+    @PostMapping("/refresh")
+    public ResponseEntity<?> refresh(@RequestBody RefreshRequest req) {
+        if (authProperties.getMode() != AuthProperties.Mode.TOKEN) {
+            return ResponseEntity.notFound().build();
+        }
+        // Issues a new pair with the user's current roles; fails once the password changed
+        return accessTokenService.refresh(req.refreshToken())
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(401).body(Map.of("error", "Invalid refresh token")));
+    }
+
     @PostMapping("/logout")
     public ResponseEntity<?> logout(HttpServletRequest req) throws ServletException {
         // Logs out the current user and clears the security context
@@ -78,24 +109,24 @@ public class AuthController {
         // Create a verification token (valid 24h)
         VerificationToken token = tokenService.createVerificationToken(u.getId(), 60 * 24);
 
-        // In production: send email with a link containing token
-        // For development, include token in response (dev only)
-        return ResponseEntity.ok(Map.of(
-                "email", u.getEmail(),
-                "roles", u.getRoles(),
-                "verificationToken", token.getToken()
-        ));
+        // Queue the verification mail (delivered in the background by EmailDispatcher)
+        emailService.sendVerificationEmail(u.getEmail(), token.getToken());
+
+        Map<String, Object> body = new HashMap<>();
+        body.put("email", u.getEmail());
+        body.put("roles", u.getRoles());
+        // For development, include token in response (bookify.mail.expose-tokens)
+        if (emailProperties.isExposeTokens()) {
+            body.put("verificationToken", token.getToken());
+        }
+        return ResponseEntity.ok(body);
     }
 
     @GetMapping("/verify-email")
     public ResponseEntity<?> verifyEmail(@RequestParam("token") String tokenValue) {
-        Optional<VerificationToken> tokenOpt = tokenService.validateVerificationToken(tokenValue);
-
-        if (tokenOpt.isPresent()) {
-            VerificationToken verificationToken = tokenOpt.get();
-            userService.activateUser(verificationToken.getUserId());
-            tokenService.markVerificationTokenUsed(verificationToken);
-        }
+        // Validates and marks the token used in one atomic step (single-use enforcement)
+        tokenService.consumeVerificationToken(tokenValue)
+                .ifPresent(verificationToken -> userService.activateUser(verificationToken.getUserId()));
 
         // Always return the same response to avoid leaking info
         return ResponseEntity.ok(Map.of("message", "If the token was valid, the account has been activated."));
@@ -131,12 +162,16 @@ public class AuthController {
             // Create a password reset token valid for 30 minutes
             PasswordResetToken token = tokenService.createPasswordResetToken(user.getId(), 30);
 
-            // In production: send a reset link via email.
+            // Queue the reset link mail (delivered in the background by EmailDispatcher)
+            emailService.sendPasswordResetEmail(user.getEmail(), token.getToken());
+
             // For development/demo: return token directly (never expose in real systems).
-            return ResponseEntity.ok(Map.of(
-                    "message", "If an account exists, a password reset link has been sent.",
-                    "resetToken", token.getToken() // dev only
-            ));
+            if (emailProperties.isExposeTokens()) {
+                return ResponseEntity.ok(Map.of(
+                        "message", "If an account exists, a password reset link has been sent.",
+                        "resetToken", token.getToken() // dev only
+                ));
+            }
         }
 
         return ResponseEntity.ok(Map.of("message", "If an account exists, a password reset link has been sent."));
@@ -144,15 +179,10 @@ public class AuthController {
 
     @PostMapping("/reset-password")
     public ResponseEntity<?> resetPassword(@RequestBody ResetPasswordRequest req) {
-        Optional<PasswordResetToken> tokenOpt = tokenService.validatePasswordResetToken(req.token());
-
-        if (tokenOpt.isPresent()) {
-            PasswordResetToken token = tokenOpt.get();
-            // Update user password if token is valid
-            userService.updatePassword(token.getUserId(), req.newPassword());
-            // Invalidate token after successful use (single-use enforcement)
-            tokenService.markPasswordResetTokenUsed(token);
-        }
+        // Validates and marks the token used in one atomic step (single-use enforcement),
+        // then updates the user password if the token was valid
+        tokenService.consumePasswordResetToken(req.token())
+                .ifPresent(token -> userService.updatePassword(token.getUserId(), req.newPassword()));
 
         // Always return the same response, regardless of validity (avoid information leaks)
         return ResponseEntity.ok(Map.of("message", "If the token was valid, the password has been reset."));
@@ -164,6 +194,7 @@ public class AuthController {
 
     // Request/response DTOs as Java records
     public record LoginRequest(String email, String password) {}
+    public record RefreshRequest(String refreshToken) {}
     public record RegisterRequest(String email, String password) {}
     public record MeResponse(String email, List<String> roles) {}
 }
\ No newline at end of file
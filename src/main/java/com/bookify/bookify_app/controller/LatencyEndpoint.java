@@ -0,0 +1,38 @@
+package com.bookify.bookify_app.controller;
+
+// ********************************************************************************************
+// * LatencyEndpoint exposes LatencyRecorder as the actuator endpoint /actuator/latency       *
+// * (SUPERADMIN only, see SecurityConfig).                                                   *
+// *                                                                                          *
+// * - GET    /actuator/latency : p50/p90/p99/p99.9/max in ms per endpoint and phase, per     *
+// *                              clinic (slowest p99 first) and per repository method.       *
+// * - DELETE /actuator/latency : start over, e.g. before a load test.                        *
+// ********************************************************************************************
+
+import com.bookify.bookify_app.service.LatencyRecorder;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+@Component
+@Endpoint(id = "latency")
+public class LatencyEndpoint {
+
+    private final LatencyRecorder recorder;
+
+    public LatencyEndpoint(LatencyRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    @ReadOperation
+    public LatencyRecorder.Snapshot snapshot() {
+        return recorder.snapshot();
+    }
+
+    @DeleteOperation
+    public void reset() {
+        recorder.reset();
+    }
+}
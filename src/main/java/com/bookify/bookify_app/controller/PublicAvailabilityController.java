@@ -0,0 +1,50 @@
+package com.bookify.bookify_app.controller;
+
+// ********************************************************************************************
+// * PublicAvailabilityController exposes free booking slots for the current clinic.          *
+// * The clinic is resolved from the subdomain by TenantSubdomainFilter (TenantContext).      *
+// * WHY: Public booking pages need availability without loading every booking client-side.   *
+// ********************************************************************************************
+
+import com.bookify.bookify_app.filter.TenantContext;
+import com.bookify.bookify_app.service.AvailabilityService;
+import com.bookify.bookify_app.service.ClinicService;
+
+import lombok.RequiredArgsConstructor;
+
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/public/availability")
+@RequiredArgsConstructor
+public class PublicAvailabilityController {
+
+    private final AvailabilityService availabilityService;
+
+    /**
+     * Returns free start times for a treatment variant on a given date.
+     *
+     * Example:
+     *   GET /api/v1/public/availability?date=2025-10-20&variantId=64f2...&staffId=64f3...
+     *
+     * Example response:
+     *   [ { "startTime": "2025-10-20T09:00:00+02:00", "endTime": "2025-10-20T09:45:00+02:00" } ]
+     */
+
+    @GetMapping
+    public ResponseEntity<List<AvailabilityService.FreeSlot>> freeSlots(
+            @RequestParam("date") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam("variantId") String variantId,
+            @RequestParam(value = "staffId", required = false) String staffId) {
+        String clinicId = TenantContext.getClinicId();
+        if (clinicId == null) {
+            throw new ClinicService.ClinicNotFoundException("Unknown clinic for request");
+        }
+        return ResponseEntity.ok(availabilityService.findFreeSlots(clinicId, date, variantId, staffId));
+    }
+}
@@ -0,0 +1,112 @@
+package com.bookify.bookify_app.controller;
+
+// ********************************************************************************************
+// * PublicSlotHoldController lets the public booking page hold a slot during checkout and    *
+// * then book it (or give it back).                                                          *
+// * WHY: Without a hold, a slot picked at the start of checkout may be taken by the time the *
+// * customer confirms; with one, the slot leaves availability for everyone else until the    *
+// * hold is booked, released or expires.                                                     *
+// ********************************************************************************************
+
+import com.bookify.bookify_app.filter.RateLimitFilter;
+import com.bookify.bookify_app.filter.TenantContext;
+import com.bookify.bookify_app.model.Booking;
+import com.bookify.bookify_app.model.SlotHold;
+import com.bookify.bookify_app.service.BookingService;
+import com.bookify.bookify_app.service.ClinicService;
+import com.bookify.bookify_app.service.SlotHoldService;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import lombok.RequiredArgsConstructor;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/v1/public/holds")
+@RequiredArgsConstructor
+public class PublicSlotHoldController {
+
+    private final SlotHoldService holdService;
+    private final BookingService bookingService;
+
+    /**
+     * Holds a free start time for a treatment variant (409 if it was just taken, 429 if this
+     * client already has max-per-client open holds).
+     *
+     * Example:
+     *   POST /api/v1/public/holds
+     *   { "variantId": "64f2...", "startTime": "2025-10-20T09:00:00+02:00", "staffId": null }
+     *
+     * Example response:
+     *   { "holdId": "q8Xv...", "startTime": "2025-10-20T09:00:00+02:00",
+     *     "endTime": "2025-10-20T09:45:00+02:00", "expiresAt": "2025-10-20T07:05:00Z" }
+     */
+
+    @PostMapping
+    public ResponseEntity<?> hold(@RequestBody HoldRequest request, HttpServletRequest http) {
+        String clinicId = clinicId();
+        try {
+            SlotHold hold = holdService.hold(clinicId, request.variantId(), request.startTime(), request.staffId(),
+                    RateLimitFilter.clientKey(http));
+            return ResponseEntity.ok(new HoldResponse(hold.getId(), hold.getStartTime(), hold.getEndTime(),
+                    hold.getExpiresAt()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Books the held slot. An expired or unknown hold answers 410 Gone: the slot may already
+     * be someone else's, so the customer has to pick (and hold) a start time again.
+     */
+
+    @PostMapping("/{holdId}/confirm")
+    public ResponseEntity<?> confirm(@PathVariable String holdId, @RequestBody ConfirmRequest request) {
+        String clinicId = clinicId();
+        SlotHold hold = holdService.find(clinicId, holdId).orElse(null);
+        if (hold == null) {
+            return ResponseEntity.status(410).body(Map.of("error", "Hold has expired"));
+        }
+        Booking booking = new Booking();
+        booking.setClinicId(clinicId);
+        booking.setTreatmentVariantId(hold.getTreatmentVariantId());
+        booking.setStartTime(hold.getStartTime());
+        booking.setCustomerName(request.customerName());
+        booking.setCustomerEmail(request.customerEmail());
+        booking.setStatus("BOOKED");
+        try {
+            return ResponseEntity.ok(bookingService.save(booking, holdId));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Gives the slot back (checkout abandoned). Unknown or expired holds are ignored.
+     */
+
+    @DeleteMapping("/{holdId}")
+    public ResponseEntity<Void> release(@PathVariable String holdId) {
+        holdService.release(clinicId(), holdId);
+        return ResponseEntity.noContent().build();
+    }
+
+    private static String clinicId() {
+        String clinicId = TenantContext.getClinicId();
+        if (clinicId == null) {
+            throw new ClinicService.ClinicNotFoundException("Unknown clinic for request");
+        }
+        return clinicId;
+    }
+
+    // Request/response DTOs as Java records
+    public record HoldRequest(String variantId, ZonedDateTime startTime, String staffId) {}
+    public record HoldResponse(String holdId, ZonedDateTime startTime, ZonedDateTime endTime, Instant expiresAt) {}
+    public record ConfirmRequest(String customerName, String customerEmail) {}
+}
@@ -0,0 +1,41 @@
+package com.bookify.bookify_app.controller;
+
+// ********************************************************************************************
+// * QueryProfileEndpoint exposes QueryProfiler as the actuator endpoint /actuator/queries    *
+// * (SUPERADMIN only, see SecurityConfig).                                                   *
+// *                                                                                          *
+// * - GET    /actuator/queries : per repository method: commands, documents returned,        *
+// *                              p50/p99/max ms and index plan (COLLSCAN = missing index);   *
+// *                              plus the latest slow queries with their correlation ID.     *
+// * - DELETE /actuator/queries : start over.                                                 *
+// ********************************************************************************************
+
+import com.bookify.bookify_app.service.QueryProfiler;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+@Component
+@Endpoint(id = "queries")
+@ConditionalOnProperty(prefix = "bookify.query-profiling", name = "enabled", matchIfMissing = true)
+public class QueryProfileEndpoint {
+
+    private final QueryProfiler profiler;
+
+    public QueryProfileEndpoint(QueryProfiler profiler) {
+        this.profiler = profiler;
+    }
+
+    @ReadOperation
+    public QueryProfiler.Snapshot snapshot() {
+        return profiler.snapshot();
+    }
+
+    @DeleteOperation
+    public void reset() {
+        profiler.reset();
+    }
+}
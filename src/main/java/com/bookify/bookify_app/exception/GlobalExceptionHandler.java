@@ -6,12 +6,18 @@ package com.bookify.bookify_app.exception;
 // * error details, request URI, and the correlation ID for traceability.                     *
 // ********************************************************************************************
 
+import com.bookify.bookify_app.config.BoundedPasswordEncoder;
+import com.bookify.bookify_app.service.BookingService;
 import com.bookify.bookify_app.service.ClinicService;
+import com.bookify.bookify_app.service.SlotHoldService;
 import com.bookify.bookify_app.util.CorrelationIdHolder;
 
 import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
 import org.springframework.web.ErrorResponseException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -52,6 +58,100 @@ public class GlobalExceptionHandler {
         return problem;
     }
 
+    /**
+     * Handles bookings that would overlap another booking on the same staff member or room.
+     *
+     * Response:
+     *   {
+     *     "type": "https://bookify.dev/errors/booking-conflict",
+     *     "title": "Booking Conflict",
+     *     "status": 409,
+     *     "detail": "Staff member 64f3... is already booked at that time",
+     *     "instance": "/api/v1/public/bookings",
+     *     "correlationID": "abc1234..."
+     *   }
+     *
+     * WHY:
+     *   - Lets clients tell "slot just got taken" apart from real server errors.
+     */
+
+    @ExceptionHandler(BookingService.BookingConflictException.class)
+    public ProblemDetail handleBookingConflict(BookingService.BookingConflictException ex, HttpServletRequest request) {
+        ProblemDetail problem = ProblemDetail.forStatusAndDetail(HttpStatus.CONFLICT, ex.getMessage());
+        problem.setType(URI.create("https://bookify.dev/errors/booking-conflict"));
+        problem.setTitle("Booking Conflict");
+        problem.setProperty("instance", request.getRequestURI());
+        problem.setProperty("correlationID", CorrelationIdHolder.getId());
+        return problem;
+    }
+
+    /**
+     * Handles a client (or clinic) with too many open slot holds.
+     *
+     * Response: 429 with a Retry-After header (holds expire within the hold ttl) and
+     *   {
+     *     "type": "https://bookify.dev/errors/too-many-holds",
+     *     "title": "Too Many Holds",
+     *     "status": 429,
+     *     ...
+     *   }
+     */
+
+    @ExceptionHandler(SlotHoldService.HoldLimitException.class)
+    public ResponseEntity<ProblemDetail> handleHoldLimit(SlotHoldService.HoldLimitException ex,
+                                                         HttpServletRequest request) {
+        ProblemDetail problem = ProblemDetail.forStatusAndDetail(HttpStatus.TOO_MANY_REQUESTS, ex.getMessage());
+        problem.setType(URI.create("https://bookify.dev/errors/too-many-holds"));
+        problem.setTitle("Too Many Holds");
+        problem.setProperty("instance", request.getRequestURI());
+        problem.setProperty("correlationID", CorrelationIdHolder.getId());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(problem);
+    }
+
+    /**
+     * Handles a full password hashing queue (login/registration burst).
+     *
+     * Response: 503 with a Retry-After header and
+     *   {
+     *     "type": "https://bookify.dev/errors/hashing-busy",
+     *     "title": "Service Busy",
+     *     "status": 503,
+     *     ...
+     *   }
+     *
+     * WHY:
+     *   - Failing fast keeps request threads free for everything else.
+     */
+
+    @ExceptionHandler(BoundedPasswordEncoder.HashingBusyException.class)
+    public ResponseEntity<ProblemDetail> handleHashingBusy(BoundedPasswordEncoder.HashingBusyException ex,
+                                                           HttpServletRequest request) {
+        ProblemDetail problem = ProblemDetail.forStatusAndDetail(HttpStatus.SERVICE_UNAVAILABLE, ex.getMessage());
+        problem.setType(URI.create("https://bookify.dev/errors/hashing-busy"));
+        problem.setTitle("Service Busy");
+        problem.setProperty("instance", request.getRequestURI());
+        problem.setProperty("correlationID", CorrelationIdHolder.getId());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(problem);
+    }
+
+    /**
+     * Spring Security wraps failures inside user lookup (including the dummy hash it computes
+     * for unknown users) in InternalAuthenticationServiceException; unwrap a busy hashing pool.
+     */
+
+    @ExceptionHandler(InternalAuthenticationServiceException.class)
+    public ResponseEntity<ProblemDetail> handleInternalAuthentication(InternalAuthenticationServiceException ex,
+                                                                      HttpServletRequest request) {
+        if (ex.getCause() instanceof BoundedPasswordEncoder.HashingBusyException busy) {
+            return handleHashingBusy(busy, request);
+        }
+        return ResponseEntity.internalServerError().body(handlerException((Exception) ex, request));
+    }
+
     /**
      * Fallback for all unhandled exceptions.
      * - Returns 500 Internal Server Error
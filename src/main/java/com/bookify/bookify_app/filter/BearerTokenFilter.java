@@ -0,0 +1,63 @@
+package com.bookify.bookify_app.filter;
+
+// ********************************************************************************************
+// * BearerTokenFilter authenticates requests carrying "Authorization: Bearer <token>" when   *
+// * bookify.auth.mode=TOKEN. The token is verified by its signature (AccessTokenService);    *
+// * there is no session and no database lookup per request.                                  *
+// *                                                                                          *
+// * Registered inside the Spring Security chain by SecurityConfig (not a @Component, so it   *
+// * is not also added to the servlet filter chain). Invalid tokens are ignored here and the  *
+// * request continues unauthenticated, so protected endpoints answer 401/403 as usual.       *
+// ********************************************************************************************
+
+import com.bookify.bookify_app.service.AccessTokenService;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.springframework.lang.NonNull;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+public class BearerTokenFilter extends OncePerRequestFilter {
+
+    public static final String PREFIX = "Bearer ";
+
+    private final AccessTokenService tokenService;
+
+    public BearerTokenFilter(AccessTokenService tokenService) {
+        this.tokenService = tokenService;
+    }
+
+    /**
+     * True if the request carries a bearer token (such requests need no CSRF token: nothing
+     * is sent by the browser on its own).
+     */
+
+    public static boolean hasBearerToken(HttpServletRequest request) {
+        String header = request.getHeader("Authorization");
+        return header != null && header.regionMatches(true, 0, PREFIX, 0, PREFIX.length());
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain chain) throws ServletException, IOException {
+
+        if (hasBearerToken(request)) {
+            String token = request.getHeader("Authorization").substring(PREFIX.length()).trim();
+            tokenService.authenticate(token).ifPresent(auth -> {
+                SecurityContext context = SecurityContextHolder.createEmptyContext();
+                context.setAuthentication(auth);
+                SecurityContextHolder.setContext(context);
+            });
+        }
+        chain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,174 @@
+package com.bookify.bookify_app.filter;
+
+// ********************************************************************************************
+// * DistributedRateLimiter: sliding-window counter whose counts are shared across nodes.     *
+// *                                                                                          *
+// * HOW IT WORKS (local quota / global reconcile):                                           *
+// * - The request path only touches local state: the last known global count of the current  *
+// *   and previous window plus requests not yet flushed. No Mongo round trip, no lock.       *
+// * - RateLimitCounterStore periodically flushes local counts ($inc) and reads back the      *
+// *   global counts, which include the other nodes' traffic.                                 *
+// * - If Mongo is unavailable the counts stay local and are retried on the next flush, so    *
+// *   the node degrades to per-node limiting instead of failing requests.                    *
+// *                                                                                          *
+// * Between two flushes other nodes' new requests are not yet visible; the overshoot is      *
+// * bounded by (nodes - 1) x (requests per flush interval).                                  *
+// ********************************************************************************************
+
+import com.bookify.bookify_app.service.RateLimitCounterStore;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class DistributedRateLimiter implements RateLimiter, RateLimitCounterStore.Flushable {
+
+    private final String name;
+    private final int limit;
+    private final long windowMillis;
+    private final int maxKeys;
+
+    private final Map<String, WindowCounter> counters = new ConcurrentHashMap<>();
+    // Counters of finished windows that still hold unflushed requests
+    private final Queue<WindowCounter> retired = new ConcurrentLinkedQueue<>();
+
+    /**
+     * @param name         unique name of the rule (e.g. the guarded path); part of the counter id
+     * @param limit        max requests per window across all nodes
+     * @param windowMillis window length
+     * @param maxKeys      upper bound of tracked client keys; beyond it new clients share one counter
+     */
+    public DistributedRateLimiter(String name, int limit, long windowMillis, int maxKeys) {
+        this.name = name;
+        this.limit = limit;
+        this.windowMillis = windowMillis;
+        this.maxKeys = maxKeys;
+    }
+
+    @Override
+    public long tryAcquire(String key, long nowMillis) {
+        long window = nowMillis / windowMillis;
+        WindowCounter counter = counter(key, window);
+
+        double previousWeight = 1.0 - (double) (nowMillis % windowMillis) / windowMillis;
+        long local = counter.pending.incrementAndGet();
+        double estimate = counter.previousTotal() * previousWeight + counter.global + counter.inFlight + local;
+
+        if (estimate > limit) {
+            counter.pending.decrementAndGet();
+            return windowMillis - (nowMillis % windowMillis);
+        }
+        return 0;
+    }
+
+    @Override
+    public int trackedKeys() {
+        return counters.size();
+    }
+
+    /**
+     * Push local counts to Mongo and pull the global counts back.
+     * Runs on the store's flusher thread; synchronized so manual flushes cannot interleave.
+     */
+
+    @Override
+    public synchronized void flush(RateLimitCounterStore store, long nowMillis) {
+        long currentWindow = nowMillis / windowMillis;
+
+        List<WindowCounter> batch = new ArrayList<>(counters.values());
+        for (WindowCounter c; (c = retired.poll()) != null; ) {
+            batch.add(c);
+        }
+
+        Map<String, Long> deltas = new HashMap<>();
+        for (WindowCounter c : batch) {
+            long delta = c.pending.getAndSet(0);
+            c.inFlight += delta;
+            if (delta > 0) {
+                deltas.merge(c.id, delta, Long::sum);
+            }
+        }
+
+        try {
+            // Keep counters until the window after next has started; they feed the sliding estimate
+            store.increment(deltas, Instant.ofEpochMilli((currentWindow + 2) * windowMillis));
+            Map<String, Long> globals = store.readCounts(batch.stream().map(c -> c.id).distinct().toList());
+            for (WindowCounter c : batch) {
+                c.global = globals.getOrDefault(c.id, c.global + c.inFlight);
+                c.inFlight = 0;
+            }
+        } catch (RuntimeException e) {
+            // Mongo unavailable: keep counting locally and retry the same requests next time
+            for (WindowCounter c : batch) {
+                c.pending.addAndGet(c.inFlight);
+                c.inFlight = 0;
+                if (c.window < currentWindow && !counters.containsValue(c)) {
+                    retired.add(c);
+                }
+            }
+            throw e;
+        }
+
+        // Idle eviction: windows older than the previous one no longer influence any decision
+        counters.values().removeIf(c -> c.window < currentWindow - 1 && c.pending.get() == 0);
+    }
+
+    private WindowCounter counter(String key, long window) {
+        WindowCounter counter = counters.get(key);
+        if (counter != null && counter.window == window) {
+            return counter;
+        }
+        if (counter == null && counters.size() >= maxKeys) {
+            key = KeyedRateLimiter.OVERFLOW_KEY;
+        }
+        return counters.compute(key, (k, old) -> {
+            if (old != null && old.window == window) {
+                return old;
+            }
+            WindowCounter next = new WindowCounter(k, window, name);
+            if (old != null) {
+                if (old.window == window - 1) {
+                    next.previous = old;
+                }
+                old.previous = null; // never keep more than one window of history
+                if (old.pending.get() > 0) {
+                    retired.add(old);
+                }
+            }
+            return next;
+        });
+    }
+
+    /**
+     * Counts of one client key in one window.
+     */
+
+    private static final class WindowCounter {
+        final String id;
+        final long window;
+        final AtomicLong pending = new AtomicLong(); // admitted here, not yet flushed
+        volatile long inFlight;                       // being flushed right now
+        volatile long global;                         // last known count across all nodes
+        volatile WindowCounter previous;              // the preceding window, if consecutive
+
+        WindowCounter(String key, long window, String name) {
+            this.id = name + "|" + key + "|" + window;
+            this.window = window;
+        }
+
+        long total() {
+            return global + inFlight + pending.get();
+        }
+
+        long previousTotal() {
+            WindowCounter p = previous;
+            return p == null ? 0 : p.total();
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.bookify.bookify_app.filter;
+
+// ********************************************************************************************
+// * KeyedRateLimiter stores one AtomicLong of state per client key and bounds memory.        *
+// *                                                                                          *
+// * HOW IT WORKS:                                                                            *
+// * - Subclasses encode their whole state in a single long and update it with CAS.           *
+// * - Keys whose state is "idle" (no longer limiting) are evicted by a periodic sweep that   *
+// *   runs inline on whichever request first notices it is due.                              *
+// * - While the map is full, new keys share one overflow state until the next sweep. Spoofed *
+// *   X-Forwarded-For values therefore cannot grow the heap (or force a scan per request);   *
+// *   they throttle each other.                                                              *
+// ********************************************************************************************
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+public abstract class KeyedRateLimiter implements RateLimiter {
+
+    static final String OVERFLOW_KEY = "__overflow__";
+
+    private final Map<String, AtomicLong> states = new ConcurrentHashMap<>();
+    private final AtomicLong overflow = new AtomicLong();
+    private final int maxKeys;
+    private final long sweepIntervalMillis;
+    private final AtomicLong nextSweepAt = new AtomicLong();
+
+    protected KeyedRateLimiter(int maxKeys, long sweepIntervalMillis) {
+        this.maxKeys = maxKeys;
+        this.sweepIntervalMillis = sweepIntervalMillis;
+    }
+
+    @Override
+    public long tryAcquire(String key, long nowMillis) {
+        maybeSweep(nowMillis);
+
+        AtomicLong state = states.get(key);
+        if (state == null) {
+            // Full map: no extra sweep (that would scan every key per new client); new keys
+            // share the overflow state until the next scheduled sweep frees room
+            state = states.size() < maxKeys
+                    ? states.computeIfAbsent(key, k -> new AtomicLong(initialState()))
+                    : overflow;
+        }
+
+        while (true) {
+            long current = state.get();
+            long next = acquire(current, nowMillis);
+            if (next == REJECT) {
+                return retryAfterMillis(current, nowMillis);
+            }
+            if (state.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    @Override
+    public int trackedKeys() {
+        return states.size();
+    }
+
+    /** Returned by {@link #acquire(long, long)} when the request must be rejected. */
+    protected static final long REJECT = Long.MIN_VALUE;
+
+    /** State for a key that has not been seen before. */
+    protected abstract long initialState();
+
+    /**
+     * Compute the state after admitting one request, or {@link #REJECT}.
+     * Must be side-effect free; it may be retried after a lost CAS.
+     */
+    protected abstract long acquire(long state, long nowMillis);
+
+    /** Milliseconds until a rejected client may retry. */
+    protected abstract long retryAfterMillis(long state, long nowMillis);
+
+    /** True if the state no longer restricts the client and the key can be dropped. */
+    protected abstract boolean isIdle(long state, long nowMillis);
+
+    private void maybeSweep(long nowMillis) {
+        long due = nextSweepAt.get();
+        if (nowMillis >= due && nextSweepAt.compareAndSet(due, nowMillis + sweepIntervalMillis)) {
+            sweep(nowMillis);
+        }
+    }
+
+    private void sweep(long nowMillis) {
+        states.values().removeIf(s -> isIdle(s.get(), nowMillis));
+    }
+}
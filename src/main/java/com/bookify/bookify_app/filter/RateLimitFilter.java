@@ -1,38 +1,65 @@
 package com.bookify.bookify_app.filter;
 
 // ********************************************************************************************
-// * RateLimitFilter applies simple request rate limiting to sensitive endpoints.             *
-// * It restricts clients to a maximum number of requests per time window (sliding window).   *
+// * RateLimitFilter applies request rate limiting to sensitive endpoints.                    *
+// * Each guarded path has its own RateLimiter (token bucket or sliding-window counter),      *
+// * configured through RateLimitProperties. Per-client state is a single CAS-updated long,   *
+// * idle clients are evicted and the number of tracked clients is capped.                    *
+// * With bookify.rate-limit.store=MONGO the limits apply across all nodes                    *
+// * (DistributedRateLimiter + RateLimitCounterStore).                                        *
 // * If the limit is exceeded, a 429 Too Many Requests response is returned.                  *
 // * Runs first in the filter chain to block early before processing continues.               *
 // ********************************************************************************************
 
+import com.bookify.bookify_app.config.RateLimitProperties;
+import com.bookify.bookify_app.service.RateLimitCounterStore;
+import com.bookify.bookify_app.util.RequestTimings;
+
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.core.annotation.Order;
 import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.HashMap;
+import java.util.Map;
 
 @Component
 @Order(0) // Executes before other filters (e.g. CorrelationIdFilter @Order(1))
 public class RateLimitFilter extends OncePerRequestFilter {
 
-    private static final int LIMIT = 20;              // max requests per window
-    private static final long WINDOW_MS = 60_000L;    // 1 minute
-    private static final Set<String> GUARDED = Set.of(
-            "/api/v1/auth/login",
-            "/api/v1/auth/register",
-            "/api/v1/public/bookings"
-    );
+    // Immutable after construction; lookups are lock-free
+    private final Map<String, RateLimiter> limiters = new HashMap<>();
 
-    private final Map<String, Deque<Long>> limits = new ConcurrentHashMap<>();
+    public RateLimitFilter(RateLimitProperties properties, ObjectProvider<RateLimitCounterStore> counterStore) {
+        long sweepMillis = properties.getSweepInterval().toMillis();
+        RateLimitCounterStore store = properties.getStore() == RateLimitProperties.Store.MONGO
+                ? counterStore.getObject()
+                : null;
+
+        for (RateLimitProperties.Rule rule : properties.getRules()) {
+            long windowMillis = rule.getWindow().toMillis();
+            if (store != null) {
+                DistributedRateLimiter limiter = new DistributedRateLimiter(
+                        rule.getPath(), rule.getLimit(), windowMillis, properties.getMaxKeys());
+                store.register(limiter);
+                limiters.put(rule.getPath(), limiter);
+                continue;
+            }
+            RateLimiter limiter = switch (rule.getAlgorithm()) {
+                case TOKEN_BUCKET -> new TokenBucketRateLimiter(
+                        rule.getLimit(), windowMillis, properties.getMaxKeys(), sweepMillis);
+                case SLIDING_WINDOW -> new SlidingWindowRateLimiter(
+                        rule.getLimit(), windowMillis, properties.getMaxKeys(), sweepMillis);
+            };
+            limiters.put(rule.getPath(), limiter);
+        }
+    }
 
     @Override
     protected void doFilterInternal(
@@ -41,31 +68,41 @@ public class RateLimitFilter extends OncePerRequestFilter {
             @NonNull FilterChain fc
     ) throws ServletException, IOException {
 
-        String path = req.getRequestURI();
-        if (GUARDED.contains(path)) {
-            String key = Optional.ofNullable(req.getHeader("X-Forwarded-For"))
-                    .orElse(req.getRemoteAddr());
-
-            long now = System.currentTimeMillis();
-            Deque<Long> q = limits.computeIfAbsent(key, k -> new ArrayDeque<>());
-
-            synchronized (q) {
-                // Remove timestamps outside of the current time window
-                while (!q.isEmpty() && (now - q.peekFirst()) > WINDOW_MS) {
-                    q.pollFirst();
-                }
-
-                // If request count exceeds the limit, block and return 429
-                if (q.size() >= LIMIT) {
-                    res.setStatus(429); // Too Many Requests
-                    res.setHeader("Retry-After", String.valueOf(WINDOW_MS / 1000));
-                    return;
-                }
-                // Record current request timestamp
-                q.addLast(now);
+        RateLimiter limiter = limiters.get(req.getRequestURI());
+        if (limiter != null) {
+            long started = System.nanoTime();
+            long retryAfterMillis = limiter.tryAcquire(clientKey(req), System.currentTimeMillis());
+            RequestTimings.add(RequestTimings.Phase.RATE_LIMIT, System.nanoTime() - started);
+
+            // If request count exceeds the limit, block and return 429
+            if (retryAfterMillis > 0) {
+                res.setStatus(429); // Too Many Requests
+                res.setHeader("Retry-After", String.valueOf((retryAfterMillis + 999) / 1000));
+                return;
             }
         }
 
         fc.doFilter(req, res);
     }
+
+    /**
+     * The client key: first address in X-Forwarded-For (set by the proxy), else the peer address.
+     */
+
+    public static String clientKey(HttpServletRequest req) {
+        String forwarded = req.getHeader("X-Forwarded-For");
+        if (forwarded == null || forwarded.isBlank()) {
+            return req.getRemoteAddr();
+        }
+        int comma = forwarded.indexOf(',');
+        return (comma < 0 ? forwarded : forwarded.substring(0, comma)).trim();
+    }
+
+    /**
+     * The limiter guarding a path, or null (for monitoring and tests).
+     */
+
+    public RateLimiter limiterFor(String path) {
+        return limiters.get(path);
+    }
 }
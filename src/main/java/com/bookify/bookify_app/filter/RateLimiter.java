@@ -0,0 +1,25 @@
+package com.bookify.bookify_app.filter;
+
+// ********************************************************************************************
+// * RateLimiter is the pluggable engine behind RateLimitFilter.                              *
+// * Implementations keep a fixed-size primitive state per client key and update it with      *
+// * CAS, so a guarded request never takes a lock or allocates per-request history.           *
+// ********************************************************************************************
+
+public interface RateLimiter {
+
+    /**
+     * Try to consume one permit for the given client key.
+     *
+     * @param key       client identifier (e.g. IP address)
+     * @param nowMillis current time in epoch milliseconds
+     * @return 0 if the request is allowed, otherwise the number of milliseconds
+     *         after which the client may retry
+     */
+    long tryAcquire(String key, long nowMillis);
+
+    /**
+     * Number of client keys currently tracked (for monitoring and tests).
+     */
+    int trackedKeys();
+}
@@ -0,0 +1,63 @@
+package com.bookify.bookify_app.filter;
+
+// ********************************************************************************************
+// * RequestTimingFilter times every request end to end and hands the result to               *
+// * LatencyRecorder. It runs before every other filter (including Spring Security), so the   *
+// * total covers rate limiting, authentication and tenant resolution; those steps add their  *
+// * own phases to RequestTimings on the way through.                                         *
+// *                                                                                          *
+// * The endpoint is the matched route pattern ("/api/v1/clinics/{id}"), not the raw URI, so  *
+// * ids do not create a histogram each.                                                      *
+// ********************************************************************************************
+
+import com.bookify.bookify_app.service.LatencyRecorder;
+import com.bookify.bookify_app.util.RequestTimings;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE) // Before Spring Security (-100) and RateLimitFilter (0)
+@ConditionalOnProperty(prefix = "bookify.instrumentation", name = "enabled", matchIfMissing = true)
+public class RequestTimingFilter extends OncePerRequestFilter {
+
+    private final LatencyRecorder recorder;
+
+    public RequestTimingFilter(LatencyRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest req,
+            @NonNull HttpServletResponse res,
+            @NonNull FilterChain chain
+    ) throws ServletException, IOException {
+
+        RequestTimings timings = RequestTimings.start();
+        try {
+            chain.doFilter(req, res);
+        } finally {
+            long total = timings.finish();
+            RequestTimings.clear();
+            recorder.recordRequest(endpoint(req), timings, total);
+        }
+    }
+
+    static String endpoint(HttpServletRequest req) {
+        Object pattern = req.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern != null ? req.getMethod() + " " + pattern : null;
+    }
+}
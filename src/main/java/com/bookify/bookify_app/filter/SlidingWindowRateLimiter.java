@@ -0,0 +1,78 @@
+package com.bookify.bookify_app.filter;
+
+// ********************************************************************************************
+// * SlidingWindowRateLimiter: sliding-window counter packed into one long per key.           *
+// *                                                                                          *
+// * Layout: [window index: 32 bits][previous count: 16 bits][current count: 16 bits]         *
+// * The estimated count is previous * (remaining share of the previous window) + current,    *
+// * which approximates a true sliding window without storing a timestamp per request.        *
+// * A key is idle once both stored windows lie entirely in the past.                         *
+// ********************************************************************************************
+
+public class SlidingWindowRateLimiter extends KeyedRateLimiter {
+
+    private static final long WINDOW_MASK = 0xFFFFFFFFL;
+    private static final long COUNT_MASK = 0xFFFFL;
+    private static final long MAX_COUNT = COUNT_MASK;
+
+    private final int limit;
+    private final long windowMillis;
+
+    public SlidingWindowRateLimiter(int limit, long windowMillis, int maxKeys, long sweepIntervalMillis) {
+        super(maxKeys, sweepIntervalMillis);
+        this.limit = (int) Math.min(limit, MAX_COUNT);
+        this.windowMillis = windowMillis;
+    }
+
+    @Override
+    protected long initialState() {
+        return 0L;
+    }
+
+    @Override
+    protected long acquire(long state, long nowMillis) {
+        long window = windowIndex(nowMillis);
+        long stored = windowOf(state);
+
+        // Roll the stored counts forward to the current window
+        long previous;
+        long current;
+        if (stored == window) {
+            previous = (state >>> 16) & COUNT_MASK;
+            current = state & COUNT_MASK;
+        } else if (stored == ((window - 1) & WINDOW_MASK)) {
+            previous = state & COUNT_MASK;
+            current = 0;
+        } else {
+            previous = 0;
+            current = 0;
+        }
+
+        double previousWeight = 1.0 - (double) (nowMillis % windowMillis) / windowMillis;
+        if (previous * previousWeight + current >= limit) {
+            return REJECT;
+        }
+        return (window << 32) | (previous << 16) | Math.min(current + 1, MAX_COUNT);
+    }
+
+    @Override
+    protected long retryAfterMillis(long state, long nowMillis) {
+        // Conservative: by the start of the next window the current count becomes "previous"
+        return windowMillis - (nowMillis % windowMillis);
+    }
+
+    @Override
+    protected boolean isIdle(long state, long nowMillis) {
+        long window = windowIndex(nowMillis);
+        long stored = windowOf(state);
+        return stored != window && stored != ((window - 1) & WINDOW_MASK);
+    }
+
+    private long windowIndex(long nowMillis) {
+        return (nowMillis / windowMillis) & WINDOW_MASK;
+    }
+
+    private static long windowOf(long state) {
+        return state >>> 32;
+    }
+}
@@ -4,6 +4,7 @@ package com.bookify.bookify_app.filter;
 // * TenantContext holds the current clinic (tenant) identifier in a ThreadLocal variable.    *
 // * Provides methods to set, get, and clear the clinic ID for the current request thread.    *
 // * WHY: Enables multi-tenant request handling by isolating clinic context per request.      *
+// * Use RequestContext to carry the clinic ID into @Async work or other threads.             *
 // ********************************************************************************************
 
 public final class TenantContext {
@@ -0,0 +1,136 @@
+package com.bookify.bookify_app.filter;
+
+// ********************************************************************************************
+// * TenantHostParser extracts the clinic subdomain from a Host / X-Forwarded-Host value.     *
+// *                                                                                          *
+// * Accepted: "<sub>.<base domain>[:port]" for every configured base domain, matched         *
+// * case-insensitively. "<sub>" is a single label (no dots), as with the former regex        *
+// * "^(?<sub>[^.]+)\.minapp\.se(:\d+)?$". For a comma-separated X-Forwarded-Host the first   *
+// * entry is used.                                                                           *
+// *                                                                                          *
+// * HOW: one backwards scan over the chars, comparing the base domains in place with         *
+// * regionMatches. No lower-cased copy, no Matcher, no Optional. The result is the packed    *
+// * [start, end) of the subdomain, so only a caller that needs the String allocates it.      *
+// ********************************************************************************************
+
+import java.util.List;
+import java.util.Locale;
+
+public final class TenantHostParser {
+
+    /** Returned by find() when the host carries no subdomain. */
+    public static final long NONE = -1L;
+
+    private final String[] baseDomains;
+
+    /**
+     * @param baseDomains e.g. ["minapp.se", "localhost"]; compared case-insensitively
+     */
+
+    public TenantHostParser(List<String> baseDomains) {
+        this.baseDomains = baseDomains.stream()
+                .map(d -> d.trim().toLowerCase(Locale.ROOT))
+                .filter(d -> !d.isEmpty())
+                .toArray(String[]::new);
+    }
+
+    /**
+     * Locate the subdomain in a host value.
+     *
+     * @return (start << 32 | end) of the subdomain, or NONE
+     */
+
+    public long find(String host) {
+        if (host == null) {
+            return NONE;
+        }
+        int end = hostEnd(host);
+        if (end <= 0) {
+            return NONE;
+        }
+
+        // Skip leading blanks (", " separated X-Forwarded-Host)
+        int start = 0;
+        while (start < end && host.charAt(start) == ' ') {
+            start++;
+        }
+
+        for (String base : baseDomains) {
+            int dot = end - base.length() - 1; // position of the '.' before the base domain
+            if (dot <= start || host.charAt(dot) != '.'
+                    || !host.regionMatches(true, dot + 1, base, 0, base.length())) {
+                continue;
+            }
+            // The subdomain is a single label
+            for (int i = start; i < dot; i++) {
+                if (host.charAt(i) == '.') {
+                    return NONE;
+                }
+            }
+            return ((long) start << 32) | dot;
+        }
+        return NONE;
+    }
+
+    /**
+     * The lower-cased subdomain of a host value, or null.
+     */
+
+    public String subdomain(String host) {
+        long range = find(host);
+        if (range == NONE) {
+            return null;
+        }
+        String sub = host.substring((int) (range >>> 32), (int) range);
+        // Hosts are almost always lower case already; only copy when they are not
+        for (int i = 0; i < sub.length(); i++) {
+            if (Character.isUpperCase(sub.charAt(i))) {
+                return sub.toLowerCase(Locale.ROOT);
+            }
+        }
+        return sub;
+    }
+
+    /**
+     * True for a bare loopback host ("localhost", "127.0.0.1", "[::1]", with or without port).
+     */
+
+    public static boolean isLoopback(String host) {
+        if (host == null) {
+            return false;
+        }
+        int end = hostEnd(host);
+        return regionIs(host, end, "localhost") || regionIs(host, end, "127.0.0.1") || regionIs(host, end, "[::1]");
+    }
+
+    /**
+     * End of the host name: before the first ',' and before a trailing ":<digits>" port.
+     */
+
+    private static int hostEnd(String host) {
+        int end = host.indexOf(',');
+        if (end < 0) {
+            end = host.length();
+        }
+        while (end > 0 && host.charAt(end - 1) == ' ') {
+            end--;
+        }
+
+        int i = end;
+        while (i > 0 && Character.isDigit(host.charAt(i - 1))) {
+            i--;
+        }
+        if (i < end && i > 0 && host.charAt(i - 1) == ':') {
+            return i - 1;
+        }
+        return end;
+    }
+
+    private static boolean regionIs(String host, int end, String name) {
+        int start = 0;
+        while (start < end && host.charAt(start) == ' ') {
+            start++;
+        }
+        return end - start == name.length() && host.regionMatches(true, start, name, 0, name.length());
+    }
+}
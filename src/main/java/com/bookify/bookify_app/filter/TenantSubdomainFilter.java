@@ -6,8 +6,11 @@ package com.bookify.bookify_app.filter;
 // *                                                                                          *
 // * HOW IT WORKS:                                                                            *
 // * - Extracts the Host header (or X-Forwarded-Host when behind proxies).                    *
-// * - Matches subdomains using the regex: "<sub>.minapp.se[:port]"                           *
-// * - If a valid subdomain is found, it attempts to resolve a clinicId via ClinicService.    *
+// * - TenantHostParser finds "<sub>.<base domain>[:port]" for the configured base domains    *
+// *   (bookify.tenant.base-domains, default minapp.se and localhost) without allocating.     *
+// * - A bare localhost host maps to bookify.tenant.dev-subdomain when that is set.           *
+// * - If a valid subdomain is found, it resolves a clinicId via ClinicService (in-memory     *
+// *   registry, no database round trip once loaded at startup).                              *
 // * - If a match is found, the clinicId is stored in TenantContext for the current request.  *
 // * - After the request finishes, TenantContext is cleared to prevent cross-request leaks.   *
 // *                                                                                          *
@@ -15,7 +18,9 @@ package com.bookify.bookify_app.filter;
 // * their subdomain (e.g., clinic1.minapp.se -> clinic1’s ID).                               *
 // ********************************************************************************************
 
+import com.bookify.bookify_app.config.TenantProperties;
 import com.bookify.bookify_app.service.ClinicService;
+import com.bookify.bookify_app.util.RequestTimings;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -26,21 +31,21 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.Optional;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 @Component
 @Order(2) // Runs after CorrelationIdFilter (1), before controller logic
 public class TenantSubdomainFilter extends OncePerRequestFilter {
 
-    // Regex pattern that extracts the subdomain from "<sub>.minapp.se" (optionally with a port, e.g., ":443")
-    private static final Pattern SUB = Pattern.compile("^(?<sub>[^.]+)\\.minapp\\.se(:\\d+)?$");
-
     private final ClinicService clinicService;
+    private final TenantHostParser hostParser;
+    private final String devSubdomain;
 
-    public TenantSubdomainFilter(ClinicService clinicService) {
+    public TenantSubdomainFilter(ClinicService clinicService, TenantProperties properties) {
         this.clinicService = clinicService;
+        this.hostParser = new TenantHostParser(properties.getBaseDomains());
+        this.devSubdomain = properties.getDevSubdomain() == null || properties.getDevSubdomain().isBlank()
+                ? null
+                : properties.getDevSubdomain().trim();
     }
 
     @Override
@@ -50,23 +55,28 @@ public class TenantSubdomainFilter extends OncePerRequestFilter {
             @NonNull FilterChain chain
     ) throws ServletException, IOException {
 
-        // Use forwarded host if available (proxy/load balancer), otherwise fall back to Host header
-        String hostHeader = Optional.ofNullable(req.getHeader("X-Forwarded-Host"))
-                .orElseGet(() -> Optional.ofNullable(req.getHeader("Host")).orElse(""))
-                .toLowerCase();
+        long started = System.nanoTime();
 
-        Matcher m = SUB.matcher(hostHeader);
+        // Use forwarded host if available (proxy/load balancer), otherwise fall back to Host header
+        String host = req.getHeader("X-Forwarded-Host");
+        if (host == null) {
+            host = req.getHeader("Host");
+        }
 
-        if (m.find()) {
-            String sub = m.group("sub");
+        String sub = hostParser.subdomain(host);
+        if (sub == null && devSubdomain != null && TenantHostParser.isLoopback(host)) {
+            sub = devSubdomain;
+        }
 
+        if (sub != null) {
             // Resolve clinicId based on subdomain (non-throwing; only set if found)
-            clinicService.resolveClinicIdBySubdomainOptional(sub)
-                    .ifPresent(TenantContext::setClinicId);
-        } else {
-            // Optional extension point: support localhost or other dev/test domains
-            // Example: if (hostHeader.startsWith("localhost")) { ... }}
+            String clinicId = clinicService.resolveClinicIdBySubdomainOptional(sub).orElse(null);
+            if (clinicId != null) {
+                TenantContext.setClinicId(clinicId);
+                RequestTimings.tenant(clinicId);
+            }
         }
+        RequestTimings.add(RequestTimings.Phase.TENANT, System.nanoTime() - started);
 
         try {
             chain.doFilter(req, res);
@@ -76,5 +86,3 @@ public class TenantSubdomainFilter extends OncePerRequestFilter {
         }
     }
 }
-
-
@@ -0,0 +1,50 @@
+package com.bookify.bookify_app.filter;
+
+// ********************************************************************************************
+// * TokenBucketRateLimiter: token bucket expressed as GCRA (generic cell rate algorithm).    *
+// *                                                                                          *
+// * The whole bucket is one long: the "theoretical arrival time" (TAT) of the next request.  *
+// * Each admitted request pushes the TAT forward by one emission interval (window / limit).  *
+// * A request is admitted while the TAT is at most one full burst ahead of now.              *
+// * A key is idle once its TAT lies in the past (the bucket is full again).                  *
+// ********************************************************************************************
+
+public class TokenBucketRateLimiter extends KeyedRateLimiter {
+
+    private final long emissionIntervalMillis;
+    private final long burstToleranceMillis;
+
+    /**
+     * @param limit        bucket capacity (max burst), refilled evenly over the window
+     * @param windowMillis time to refill a completely empty bucket
+     */
+    public TokenBucketRateLimiter(int limit, long windowMillis, int maxKeys, long sweepIntervalMillis) {
+        super(maxKeys, sweepIntervalMillis);
+        this.emissionIntervalMillis = Math.max(1, windowMillis / limit);
+        this.burstToleranceMillis = emissionIntervalMillis * (limit - 1);
+    }
+
+    @Override
+    protected long initialState() {
+        return 0L;
+    }
+
+    @Override
+    protected long acquire(long tat, long nowMillis) {
+        long base = Math.max(tat, nowMillis);
+        if (base - nowMillis > burstToleranceMillis) {
+            return REJECT;
+        }
+        return base + emissionIntervalMillis;
+    }
+
+    @Override
+    protected long retryAfterMillis(long tat, long nowMillis) {
+        return Math.max(1, tat - burstToleranceMillis - nowMillis);
+    }
+
+    @Override
+    protected boolean isIdle(long tat, long nowMillis) {
+        return tat <= nowMillis;
+    }
+}
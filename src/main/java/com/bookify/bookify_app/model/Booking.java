@@ -5,12 +5,21 @@ import lombok.Setter;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import java.time.ZonedDateTime;
 
 @Setter
 @Getter
 @Document("bookings")
-@CompoundIndex(name="unique_booking", def="{ 'clinicId': 1, 'staffId': 1, 'roomId': 1, 'startTime': 1 }", unique=true)
+@CompoundIndexes({
+        // Only bookings with a staff member: staffless seats in a shared room may share a start time
+        @CompoundIndex(name="unique_staff_booking", def="{ 'clinicId': 1, 'staffId': 1, 'roomId': 1, 'startTime': 1 }", unique=true,
+                partialFilter="{ 'staffId': { $exists: true } }"),
+        // Time-windowed lookups (calendar per clinic, per staff member, per room)
+        @CompoundIndex(name="clinic_start", def="{ 'clinicId': 1, 'startTime': 1 }"),
+        @CompoundIndex(name="clinic_staff_start", def="{ 'clinicId': 1, 'staffId': 1, 'startTime': 1 }"),
+        @CompoundIndex(name="clinic_room_start", def="{ 'clinicId': 1, 'roomId': 1, 'startTime': 1 }")
+})
 public class Booking {
     @Id
     private String id;
@@ -21,6 +30,7 @@ public class Booking {
     private String treatmentVariantId;
     private ZonedDateTime startTime;
     private ZonedDateTime endTime;
+    private ZonedDateTime blockedUntil; // endTime + treatment buffer; resources are busy until then
     private String customerEmail;
     private String customerName;
     private String status; // BOOKED, CANCELLED, COMPLETED
@@ -0,0 +1,71 @@
+package com.bookify.bookify_app.model;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@Document(collection = "email_outbox")
+@CompoundIndex(name = "status_next_attempt", def = "{'status': 1, 'nextAttemptAt': 1}")
+public class OutboxEmail {
+
+    public enum Status { PENDING, SENDING, SENT, FAILED }
+
+    @Id
+    private String id;
+
+    private String to;
+    private String subject;
+
+    /**
+     * Mail text, including single-use token links; cleared once the mail is SENT or FAILED.
+     */
+
+    private String body;
+
+    /**
+     * Recipient mail domain (e.g. "gmail.com"); delivery is throttled per provider.
+     */
+
+    private String provider;
+
+    private Status status = Status.PENDING;
+    private int attempts;
+    private Instant nextAttemptAt;
+    private String lastError;
+    private Instant createdAt;
+    private Instant sentAt;
+
+    // Set while a dispatcher owns the mail (status SENDING)
+    private String claimToken;
+    private Instant lockedUntil;
+
+    /**
+     * Set once the mail is SENT or FAILED; Mongo's TTL monitor removes it afterwards.
+     */
+
+    @Indexed(expireAfter = "0s")
+    private Instant expiresAt;
+
+    public OutboxEmail(String to, String subject, String body, Instant now) {
+        this.to = to;
+        this.subject = subject;
+        this.body = body;
+        this.provider = providerOf(to);
+        this.createdAt = now;
+        this.nextAttemptAt = now;
+    }
+
+    private static String providerOf(String address) {
+        int at = address.lastIndexOf('@');
+        return at < 0 ? "" : address.substring(at + 1).toLowerCase();
+    }
+}
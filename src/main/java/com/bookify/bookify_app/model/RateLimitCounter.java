@@ -0,0 +1,31 @@
+package com.bookify.bookify_app.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "rate_limit_counters")
+public class RateLimitCounter {
+
+    @Id
+    private String id; // "<path>|<client key>|<window index>"
+
+    private long count;
+
+    /**
+     * Mongo's TTL monitor deletes the counter once this instant has passed.
+     */
+
+    @Indexed(expireAfter = "0s")
+    private Instant expiresAt;
+}
@@ -0,0 +1,31 @@
+package com.bookify.bookify_app.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "room_slot_counters")
+public class RoomSlotCounter {
+
+    @Id
+    private String id; // "<clinicId>|<roomId>|<slot start, epoch minutes>"
+
+    private long count; // occupying bookings overlapping the slot
+
+    /**
+     * Mongo's TTL monitor deletes the counter once the slot is a day in the past.
+     */
+
+    @Indexed(expireAfter = "0s")
+    private Instant expiresAt;
+}
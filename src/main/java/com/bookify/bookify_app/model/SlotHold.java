@@ -0,0 +1,44 @@
+package com.bookify.bookify_app.model;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+import java.time.ZonedDateTime;
+
+@Setter
+@Getter
+@Document("slot_holds")
+@CompoundIndexes({
+        // Overlap checks per staff member and room
+        @CompoundIndex(name="clinic_staff_start", def="{ 'clinicId': 1, 'staffId': 1, 'startTime': 1 }"),
+        @CompoundIndex(name="clinic_room_start", def="{ 'clinicId': 1, 'roomId': 1, 'startTime': 1 }"),
+        // Open holds per client
+        @CompoundIndex(name="clinic_client", def="{ 'clinicId': 1, 'clientKey': 1 }")
+})
+public class SlotHold {
+    @Id
+    private String id; // random token; whoever has it may book the slot
+
+    private String clinicId;
+    private String staffId;
+    private String roomId;
+    private String treatmentVariantId;
+    private ZonedDateTime startTime;
+    private ZonedDateTime endTime;
+    private ZonedDateTime blockedUntil; // endTime + treatment buffer, as on Booking
+    private String clientKey; // who asked for it (client IP); holds are limited per client
+
+    /**
+     * Mongo's TTL monitor deletes the hold once this instant has passed (within about a
+     * minute); queries must also filter on it.
+     */
+
+    @Indexed(expireAfter = "0s")
+    private Instant expiresAt;
+}
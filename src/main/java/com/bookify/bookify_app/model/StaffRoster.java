@@ -0,0 +1,31 @@
+package com.bookify.bookify_app.model;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import java.util.List;
+
+/**
+ * When a staff member works. Same string formats as ClinicSettings (see OpeningHoursParser):
+ * shifts recur weekly, shiftExceptions replace the shifts on their date and absences
+ * (whole days or parts of days) are subtracted from both.
+ * Staff members without a roster are not restricted.
+ */
+
+@Setter
+@Getter
+@Document("staff_rosters")
+@CompoundIndex(name="clinic_staff", def="{ 'clinicId': 1, 'staffId': 1 }", unique=true)
+public class StaffRoster {
+    @Id
+    private String id;
+
+    private String clinicId;
+    private String staffId;
+
+    private List<String> shifts;          // "MON-FRI 09:00-17:00"
+    private List<String> shiftExceptions; // "2025-12-27 10:00-14:00"
+    private List<String> absences;        // "2025-07-01" or "2025-07-02 08:00-12:00"
+}
@@ -0,0 +1,52 @@
+package com.bookify.bookify_app.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@Document(collection = "http_sessions")
+public class StoredHttpSession {
+
+    @Id
+    private String id; // session id (the SESSION cookie)
+
+    private Instant creationTime;
+
+    private Instant lastAccessedTime;
+
+    private long maxInactiveSeconds;
+
+    /**
+     * Attributes as (name, Java-serialized value) pairs. A list rather than a map, because
+     * attribute names contain dots, which Mongo field names cannot.
+     */
+
+    private List<Attribute> attributes = new ArrayList<>();
+
+    /**
+     * Mongo's TTL monitor deletes the session once this instant has passed.
+     */
+
+    @Indexed(expireAfter = "0s")
+    private Instant expiresAt;
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Attribute {
+        private String name;
+        private byte[] value;
+    }
+}
@@ -6,6 +6,9 @@ import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @Setter
 @Getter
 @Document("treatments")
@@ -21,4 +24,7 @@ public class Treatment {
 
     private String description;
 
+    // Skills a staff member needs to perform this treatment (StaffMember.skills); empty = anyone
+    private List<String> requiredSkills = new ArrayList<>();
+
 }
@@ -25,6 +25,13 @@ public class User {
 
     private String passwordHash;
 
+    /**
+     * Bumped when the password is changed or reset, never when the same password is only
+     * re-hashed; refresh tokens are bound to it.
+     */
+
+    private long passwordVersion;
+
     private Set<UserRole> roles;
 
     @Indexed
@@ -5,6 +5,7 @@ import lombok.Setter;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Transient;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
@@ -20,18 +21,36 @@ public class VerificationToken {
     @Id
     private String id;
 
-    @Indexed(unique = true)
+    /**
+     * SHA-256 of the token (base64url). The token itself is never stored, so a leaked
+     * collection cannot be used to verify accounts or reset passwords. Sparse, so tokens
+     * stored before hashing (no tokenHash) do not clash; they expire through the TTL index.
+     */
+
+    @Indexed(unique = true, sparse = true)
+    private String tokenHash;
+
+    /**
+     * The raw token, only set on the instance returned at creation (for the mail link).
+     */
+
+    @Transient
     private String token;
 
     @Indexed
     private String userId;
 
+    /**
+     * Mongo's TTL monitor deletes the token once this instant has passed.
+     */
+
+    @Indexed(expireAfter = "0s")
     private Instant expiresAt;
 
     private boolean used = false;
 
-    public VerificationToken(String token, String userId, Instant expiresAt) {
-        this.token = token;
+    public VerificationToken(String tokenHash, String userId, Instant expiresAt) {
+        this.tokenHash = tokenHash;
         this.userId = userId;
         this.expiresAt = expiresAt;
     }
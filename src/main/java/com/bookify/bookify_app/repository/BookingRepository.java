@@ -1,9 +1,37 @@
 package com.bookify.bookify_app.repository;
 
 import com.bookify.bookify_app.model.*;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+
+import java.time.ZonedDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface BookingRepository extends MongoRepository<Booking, String> {
+
+    // Loads the full booking history of a clinic; prefer the time-windowed queries below
     List<Booking> findByClinicId(String clinicId);
-}
\ No newline at end of file
+
+    // --- Time-windowed queries: startTime in [from, to), sorted by startTime ---
+    // Backed by the compound indexes declared on Booking.
+
+    @Query(value = "{ 'clinicId': ?0, 'startTime': { $gte: ?1, $lt: ?2 } }", sort = "{ 'startTime': 1 }")
+    List<Booking> findByClinicIdInRange(String clinicId, ZonedDateTime from, ZonedDateTime to);
+
+    @Query(value = "{ 'clinicId': ?0, 'staffId': ?1, 'startTime': { $gte: ?2, $lt: ?3 } }", sort = "{ 'startTime': 1 }")
+    List<Booking> findByClinicIdAndStaffIdInRange(String clinicId, String staffId, ZonedDateTime from, ZonedDateTime to);
+
+    @Query(value = "{ 'clinicId': ?0, 'roomId': ?1, 'startTime': { $gte: ?2, $lt: ?3 } }", sort = "{ 'startTime': 1 }")
+    List<Booking> findByClinicIdAndRoomIdInRange(String clinicId, String roomId, ZonedDateTime from, ZonedDateTime to);
+
+    // Slice avoids the extra count query a Page would need
+    @Query(value = "{ 'clinicId': ?0, 'startTime': { $gte: ?1, $lt: ?2 } }", sort = "{ 'startTime': 1 }")
+    Slice<Booking> findSliceByClinicIdInRange(String clinicId, ZonedDateTime from, ZonedDateTime to, Pageable pageable);
+
+    // Cursor-backed; the caller must close the stream
+    @Query(value = "{ 'clinicId': ?0, 'startTime': { $gte: ?1, $lt: ?2 } }", sort = "{ 'startTime': 1 }")
+    Stream<Booking> streamByClinicIdInRange(String clinicId, ZonedDateTime from, ZonedDateTime to);
+}
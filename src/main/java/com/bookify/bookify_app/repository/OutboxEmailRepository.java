@@ -0,0 +1,10 @@
+package com.bookify.bookify_app.repository;
+
+import com.bookify.bookify_app.model.OutboxEmail;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+import java.util.List;
+
+public interface OutboxEmailRepository extends MongoRepository<OutboxEmail, String> {
+    List<OutboxEmail> findByTo(String to);
+}
@@ -0,0 +1,11 @@
+package com.bookify.bookify_app.repository;
+
+import com.bookify.bookify_app.model.StaffRoster;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import java.util.List;
+import java.util.Optional;
+
+public interface StaffRosterRepository extends MongoRepository<StaffRoster, String> {
+    List<StaffRoster> findByClinicId(String clinicId);
+    Optional<StaffRoster> findByClinicIdAndStaffId(String clinicId, String staffId);
+}
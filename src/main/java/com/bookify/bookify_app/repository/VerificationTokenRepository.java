@@ -6,6 +6,6 @@ import org.springframework.data.mongodb.repository.MongoRepository;
 import java.util.Optional;
 
 public interface VerificationTokenRepository extends MongoRepository<VerificationToken, String> {
-    Optional<VerificationToken> findByToken(String token);
+    Optional<VerificationToken> findByTokenHash(String tokenHash);
     void deleteByUserId(String userId); // To delete old tokens
 }
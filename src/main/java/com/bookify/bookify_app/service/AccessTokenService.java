@@ -0,0 +1,238 @@
+package com.bookify.bookify_app.service;
+
+// ********************************************************************************************
+// * AccessTokenService issues and verifies the signed bearer tokens of auth mode TOKEN.      *
+// *                                                                                          *
+// * FORMAT: base64url(payload) "." base64url(HMAC-SHA256(payload)), where the payload holds  *
+// * the token type, email, roles and expiry (and, for refresh tokens, the user's password    *
+// * version), separated by newlines.                                                         *
+// *                                                                                          *
+// * - Access tokens are short-lived and verified from the signature alone: no session, no    *
+// *   database, so any node can serve any request.                                           *
+// * - Refresh tokens live longer and are exchanged for a new pair at /auth/refresh. That is  *
+// *   the only step that reads the user again (UserService, cached), so role changes apply   *
+// *   and a password change or reset, or a deleted account, ends every refresh chain. A mere *
+// *   re-hash of the same password (BCrypt cost upgrade) does not.                           *
+// * - Tokens cannot be revoked before they expire; keep access-ttl short.                    *
+// ********************************************************************************************
+
+import com.bookify.bookify_app.config.AuthProperties;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+
+@Service
+public class AccessTokenService {
+
+    private static final Logger log = LoggerFactory.getLogger(AccessTokenService.class);
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int MIN_KEY_BYTES = 32;
+    private static final String ACCESS = "a";
+    private static final String REFRESH = "r";
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final UserService userService;
+    private final long accessTtlSeconds;
+    private final long refreshTtlSeconds;
+    // Initialized once; every call works on a clone because Mac is not thread-safe
+    private final Mac prototype;
+
+    public AccessTokenService(UserService userService, AuthProperties properties) {
+        this.userService = userService;
+        this.accessTtlSeconds = properties.getToken().getAccessTtl().toSeconds();
+        this.refreshTtlSeconds = properties.getToken().getRefreshTtl().toSeconds();
+        this.prototype = initMac(secret(properties));
+    }
+
+    /**
+     * Issue an access and a refresh token for an authenticated user.
+     *
+     * @param user the authenticated user
+     * @return the token pair
+     */
+
+    public Tokens issue(UserDetails user) {
+        return issue(user, System.currentTimeMillis());
+    }
+
+    public Tokens issue(UserDetails user, long nowMillis) {
+        return issue(user, userService.passwordVersion(user.getUsername()), nowMillis);
+    }
+
+    private Tokens issue(UserDetails user, long passwordVersion, long nowMillis) {
+        // A newline in the email would let it smuggle fields into the signed payload
+        if (user.getUsername().indexOf('\n') >= 0) {
+            throw new IllegalArgumentException("Invalid username");
+        }
+        long now = nowMillis / 1000;
+        List<String> roles = user.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList();
+        String roleList = String.join(",", roles);
+
+        String access = sign(ACCESS + "\n" + user.getUsername() + "\n" + roleList + "\n"
+                + (now + accessTtlSeconds));
+        String refresh = sign(REFRESH + "\n" + user.getUsername() + "\n" + roleList + "\n"
+                + (now + refreshTtlSeconds) + "\n" + passwordVersion);
+        return new Tokens(user.getUsername(), roles, access, accessTtlSeconds, refresh);
+    }
+
+    /**
+     * Verify an access token without any I/O.
+     *
+     * @return the authenticated principal, or empty if the token is forged, malformed,
+     *         expired or not an access token
+     */
+
+    public Optional<Authentication> authenticate(String token) {
+        return authenticate(token, System.currentTimeMillis());
+    }
+
+    public Optional<Authentication> authenticate(String token, long nowMillis) {
+        String[] claims = verify(token, ACCESS, nowMillis);
+        if (claims == null) {
+            return Optional.empty();
+        }
+        List<GrantedAuthority> authorities = new ArrayList<>();
+        if (!claims[2].isEmpty()) {
+            for (String role : claims[2].split(",")) {
+                authorities.add(new SimpleGrantedAuthority(role));
+            }
+        }
+        return Optional.of(UsernamePasswordAuthenticationToken.authenticated(claims[1], null, authorities));
+    }
+
+    /**
+     * Exchange a valid refresh token for a new token pair with the user's current roles.
+     *
+     * @return the new pair, or empty if the token is invalid, expired, the user is gone or
+     *         the password was changed or reset since the token was issued
+     */
+
+    public Optional<Tokens> refresh(String token) {
+        return refresh(token, System.currentTimeMillis());
+    }
+
+    public Optional<Tokens> refresh(String token, long nowMillis) {
+        String[] claims = verify(token, REFRESH, nowMillis);
+        if (claims == null || claims.length < 5) {
+            return Optional.empty();
+        }
+        UserDetails user;
+        long passwordVersion;
+        try {
+            user = userService.loadUserByUsername(claims[1]);
+            passwordVersion = userService.passwordVersion(claims[1]);
+        } catch (UsernameNotFoundException e) {
+            return Optional.empty();
+        }
+        // The claim is signed, so a plain comparison is enough
+        if (!claims[4].equals(String.valueOf(passwordVersion))) {
+            return Optional.empty();
+        }
+        return Optional.of(issue(user, passwordVersion, nowMillis));
+    }
+
+    /**
+     * Tokens returned by login and refresh; expiresIn is the access token lifetime in seconds.
+     */
+
+    public record Tokens(String email, List<String> roles, String accessToken, long expiresIn,
+                         String refreshToken) {}
+
+    private String sign(String payload) {
+        byte[] body = payload.getBytes(StandardCharsets.UTF_8);
+        return ENCODER.encodeToString(body) + "." + ENCODER.encodeToString(mac().doFinal(body));
+    }
+
+    // Returns the payload fields, or null if the signature, type or expiry does not hold
+    private String[] verify(String token, String type, long nowMillis) {
+        if (token == null) {
+            return null;
+        }
+        int dot = token.indexOf('.');
+        if (dot <= 0 || dot != token.lastIndexOf('.')) {
+            return null;
+        }
+        byte[] body;
+        byte[] signature;
+        try {
+            body = DECODER.decode(token.substring(0, dot));
+            signature = DECODER.decode(token.substring(dot + 1));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        if (!MessageDigest.isEqual(mac().doFinal(body), signature)) {
+            return null;
+        }
+
+        String[] claims = new String(body, StandardCharsets.UTF_8).split("\n", -1);
+        if (claims.length < 4 || !type.equals(claims[0])) {
+            return null;
+        }
+        try {
+            if (Long.parseLong(claims[3]) <= nowMillis / 1000) {
+                return null;
+            }
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        return claims;
+    }
+
+    private Mac mac() {
+        try {
+            return (Mac) prototype.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException("HMAC provider does not support cloning", e);
+        }
+    }
+
+    private static byte[] secret(AuthProperties properties) {
+        String configured = properties.getToken().getSecret();
+        if (configured == null || configured.isBlank()) {
+            if (properties.getMode() == AuthProperties.Mode.TOKEN) {
+                log.warn("bookify.auth.token.secret is not set: using a random key, tokens are only "
+                        + "valid on this node until it restarts");
+            }
+            byte[] random = new byte[MIN_KEY_BYTES];
+            new SecureRandom().nextBytes(random);
+            return random;
+        }
+        byte[] key = Base64.getDecoder().decode(configured.trim());
+        if (key.length < MIN_KEY_BYTES) {
+            throw new IllegalArgumentException("bookify.auth.token.secret must be at least "
+                    + MIN_KEY_BYTES + " bytes (base64)");
+        }
+        return key;
+    }
+
+    private static Mac initMac(byte[] key) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(new SecretKeySpec(key, ALGORITHM));
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(ALGORITHM + " is not available", e);
+        }
+    }
+}
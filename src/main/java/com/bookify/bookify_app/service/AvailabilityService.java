@@ -0,0 +1,776 @@
+package com.bookify.bookify_app.service;
+
+// ********************************************************************************************
+// * AvailabilityService computes free booking slots per clinic from memory.                  *
+// *                                                                                          *
+// * HOW IT WORKS:                                                                            *
+// * - Each clinic day is laid out on a slot grid (ClinicSettings.slotIntervalMinutes).       *
+// * - An "open" bitmap is built from the clinic's compiled OpeningSchedule                   *
+// *   (ClinicScheduleService), without parsing the opening-hours strings again.              *
+// * - Every staff member and room gets a "busy" bitmap per day, built from its bookings      *
+// *   (treatment duration + bufferMinutes). Staff members with a roster are also limited to  *
+// *   the slots they work (RosterCache), and to staff having the treatment's required skills *
+// *   (StaffSkillIndex).                                                                     *
+// * - A free-slot query ANDs the open bitmap with each resource's free time and keeps the    *
+// *   start slots where the whole treatment fits for at least one staff member and room.     *
+// *   Rooms with capacity > 1 keep a booking count per slot and are busy only when full.     *
+// * - State is loaded per clinic and kept current by BookingService; changes to settings,    *
+// *   staff, rooms, treatments or variants invalidate the clinic. Booking changes are only   *
+// *   applied on the node that made them, so each clinic is reloaded from Mongo once it is   *
+// *   older than RELOAD_AFTER: changes from other nodes show up within that window (a slot   *
+// *   offered too long is still refused by BookingConflictDetector). Days before today are   *
+// *   dropped.                                                                               *
+// * - Slot holds (SlotHoldService) occupy their staff member and room like bookings. Holds   *
+// *   of other nodes are read from slot_holds when a clinic is loaded; a timing wheel per    *
+// *   clinic drops every hold when it expires, checked lazily on each query.                 *
+// *                                                                                          *
+// * WHY: Public booking pages ask for availability on every load. Answering from bitmaps     *
+// * avoids scanning the bookings collection per request.                                     *
+// ********************************************************************************************
+
+import com.bookify.bookify_app.model.Booking;
+import com.bookify.bookify_app.model.ClinicSettings;
+import com.bookify.bookify_app.model.Room;
+import com.bookify.bookify_app.model.SlotHold;
+import com.bookify.bookify_app.model.StaffMember;
+import com.bookify.bookify_app.model.Treatment;
+import com.bookify.bookify_app.model.TreatmentVariant;
+import com.bookify.bookify_app.repository.BookingRepository;
+import com.bookify.bookify_app.repository.ClinicSettingsRepository;
+import com.bookify.bookify_app.repository.RoomRepository;
+import com.bookify.bookify_app.repository.StaffMemberRepository;
+import com.bookify.bookify_app.repository.TreatmentRepository;
+import com.bookify.bookify_app.repository.TreatmentVariantRepository;
+import com.bookify.bookify_app.util.OpeningHoursParser;
+import com.bookify.bookify_app.util.OpeningSchedule;
+import com.bookify.bookify_app.util.TimingWheel;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+@Service
+public class AvailabilityService {
+
+    static final int DEFAULT_SLOT_MINUTES = 15;
+    static final String STATUS_CANCELLED = "CANCELLED";
+    // Reservation ids of slot holds, next to booking ids
+    static final String HOLD_PREFIX = "hold:";
+    static final long HOLD_TICK_MILLIS = 1000;
+    // Reload clinics after this long to pick up bookings made on other nodes
+    static final Duration RELOAD_AFTER = Duration.ofMinutes(5);
+
+    private final BookingRepository bookingRepository;
+    private final ClinicSettingsRepository settingsRepository;
+    private final StaffMemberRepository staffRepository;
+    private final RoomRepository roomRepository;
+    private final TreatmentRepository treatmentRepository;
+    private final TreatmentVariantRepository variantRepository;
+    private final ClinicScheduleService scheduleService;
+    private final RosterCache rosterCache;
+    private final StaffSkillIndex skillIndex;
+    private final SlotHoldStore holdStore;
+    private final ZoneId zone;
+    private final int maxDaysAhead;
+
+    private final Map<String, ClinicAvailability> clinics = new ConcurrentHashMap<>();
+    // One lock per clinic serializes its load with changes and invalidation. A ReentrantLock
+    // (not a monitor or computeIfAbsent) so virtual threads can unmount during the Mongo load.
+    private final Map<String, ReentrantLock> clinicLocks = new ConcurrentHashMap<>();
+
+    public AvailabilityService(BookingRepository bookingRepository,
+                               ClinicSettingsRepository settingsRepository,
+                               StaffMemberRepository staffRepository,
+                               RoomRepository roomRepository,
+                               TreatmentRepository treatmentRepository,
+                               TreatmentVariantRepository variantRepository,
+                               ClinicScheduleService scheduleService,
+                               RosterCache rosterCache,
+                               StaffSkillIndex skillIndex,
+                               SlotHoldStore holdStore,
+                               @Value("${bookify.availability.zone:Europe/Stockholm}") String zone,
+                               @Value("${bookify.availability.max-days-ahead:180}") int maxDaysAhead) {
+        this.bookingRepository = bookingRepository;
+        this.settingsRepository = settingsRepository;
+        this.staffRepository = staffRepository;
+        this.roomRepository = roomRepository;
+        this.treatmentRepository = treatmentRepository;
+        this.variantRepository = variantRepository;
+        this.scheduleService = scheduleService;
+        this.rosterCache = rosterCache;
+        this.skillIndex = skillIndex;
+        this.holdStore = holdStore;
+        this.zone = ZoneId.of(zone);
+        this.maxDaysAhead = maxDaysAhead;
+    }
+
+    /**
+     * Find all start times on a given date where the treatment variant fits.
+     * A slot is free when the clinic is open for the whole treatment (duration + buffer)
+     * and at least one staff member with the treatment's required skills and one room are
+     * unbooked for that time.
+     *
+     * @param clinicId            the clinic (tenant) to query
+     * @param date                the clinic-local date
+     * @param treatmentVariantId  the treatment variant to fit
+     * @param staffId             optional staff member to restrict to (null = any staff)
+     * @return free slots in chronological order; empty if the clinic has no settings,
+     *         the date is outside the bookable horizon or the variant is inactive
+     * @throws IllegalArgumentException if the variant does not belong to the clinic
+     */
+
+    public List<FreeSlot> findFreeSlots(String clinicId, LocalDate date, String treatmentVariantId, String staffId) {
+        ZonedDateTime now = ZonedDateTime.now(zone);
+        LocalDate today = now.toLocalDate();
+        if (date.isBefore(today) || date.isAfter(today.plusDays(maxDaysAhead))) {
+            return List.of();
+        }
+
+        ClinicAvailability clinic = clinic(clinicId);
+        if (clinic == null) {
+            return List.of();
+        }
+
+        VariantTiming timing = clinic.variants.get(treatmentVariantId);
+        if (timing == null) {
+            throw new IllegalArgumentException("Unknown treatment variant: " + treatmentVariantId);
+        }
+        if (!timing.active()) {
+            return List.of();
+        }
+
+        List<String> staff = eligibleStaff(clinicId, clinic, timing.requiredSkills(), staffId);
+        int needed = Math.max(1, ceilDiv(timing.blockedMinutes(), clinic.slotMinutes));
+
+        clinic.expireHolds(now.toInstant().toEpochMilli());
+        BitSet starts = clinic.day(date).startSlots(staff, clinic.roomIds, needed);
+
+        // Never offer slots that have already started
+        if (date.equals(today)) {
+            int nowMinute = now.getHour() * 60 + now.getMinute();
+            starts.clear(0, Math.min(clinic.slotsPerDay, ceilDiv(nowMinute, clinic.slotMinutes)));
+        }
+
+        List<FreeSlot> result = new ArrayList<>(starts.cardinality());
+        for (int slot = starts.nextSetBit(0); slot >= 0; slot = starts.nextSetBit(slot + 1)) {
+            ZonedDateTime start = clinic.slotStart(date, slot, zone);
+            result.add(new FreeSlot(start, start.plusMinutes(timing.durationMinutes())));
+        }
+        return result;
+    }
+
+    /**
+     * Apply a booking change to the in-memory state of its clinic.
+     * Either argument may be null (create: previous == null, delete: current == null).
+     * Clinics that have not been loaded yet are ignored; they read the change from Mongo
+     * on first use.
+     *
+     * @param previous the booking as it was before the change
+     * @param current  the booking as it is after the change
+     */
+
+    public void onBookingChanged(Booking previous, Booking current) {
+        if (previous != null && previous.getClinicId() != null) {
+            ifLoaded(previous.getClinicId(), clinic -> clinic.remove(previous));
+        }
+        if (current != null && current.getClinicId() != null) {
+            ifLoaded(current.getClinicId(), clinic -> clinic.add(current, zone));
+        }
+    }
+
+    /**
+     * Pick a staff member and room that are free for the treatment variant at the given start,
+     * for a slot hold. Only start times that findFreeSlots would offer are accepted.
+     *
+     * @param staffId optional staff member to restrict to (null = any eligible staff)
+     * @return the picked resources and the treatment's end and blocked-until times
+     * @throws IllegalArgumentException if the clinic, variant or start time is not bookable
+     * @throws BookingService.BookingConflictException if no staff member or room is free then
+     */
+
+    public Assignment assign(String clinicId, String treatmentVariantId, ZonedDateTime startTime, String staffId) {
+        ClinicAvailability clinic = clinic(clinicId);
+        if (clinic == null) {
+            throw new IllegalArgumentException("Clinic has no booking settings");
+        }
+        VariantTiming timing = clinic.variants.get(treatmentVariantId);
+        if (timing == null) {
+            throw new IllegalArgumentException("Unknown treatment variant: " + treatmentVariantId);
+        }
+        if (!timing.active()) {
+            throw new IllegalArgumentException("Treatment variant is not bookable: " + treatmentVariantId);
+        }
+
+        ZonedDateTime now = ZonedDateTime.now(zone);
+        LocalDateTime start = startTime.withZoneSameInstant(zone).toLocalDateTime();
+        LocalDate date = start.toLocalDate();
+        int minute = start.getHour() * 60 + start.getMinute();
+        if (!startTime.isAfter(now) || date.isAfter(now.toLocalDate().plusDays(maxDaysAhead))) {
+            throw new IllegalArgumentException("Start time is outside the bookable period");
+        }
+        if (minute % clinic.slotMinutes != 0 || start.getSecond() != 0 || start.getNano() != 0) {
+            throw new IllegalArgumentException("Start time is not on the clinic's slot grid");
+        }
+
+        List<String> staff = eligibleStaff(clinicId, clinic, timing.requiredSkills(), staffId);
+        int needed = Math.max(1, ceilDiv(timing.blockedMinutes(), clinic.slotMinutes));
+        clinic.expireHolds(now.toInstant().toEpochMilli());
+
+        Pick pick = clinic.day(date).pick(staff, clinic.roomIds, minute / clinic.slotMinutes, needed);
+        if (pick == null) {
+            throw new BookingService.BookingConflictException("That time is no longer available");
+        }
+        ZonedDateTime end = startTime.plusMinutes(timing.durationMinutes());
+        return new Assignment(pick.staffId(), pick.roomId(), end, end.plusMinutes(timing.bufferMinutes()));
+    }
+
+    /**
+     * Apply a slot hold change: a new hold occupies its slot until it expires, a released
+     * one frees it. Either argument may be null, as in {@link #onBookingChanged}.
+     */
+
+    public void onHoldChanged(SlotHold previous, SlotHold current) {
+        if (previous != null && previous.getClinicId() != null) {
+            ifLoaded(previous.getClinicId(), clinic -> clinic.removeHold(previous.getId()));
+        }
+        if (current != null && current.getClinicId() != null) {
+            ifLoaded(current.getClinicId(), clinic -> clinic.addHold(current, zone));
+        }
+    }
+
+    /**
+     * Drop all cached state for a clinic. The next query rebuilds it from Mongo.
+     * Call after changes to settings, staff, rooms, treatments or variants.
+     *
+     * @param clinicId the clinic to invalidate
+     */
+
+    public void invalidate(String clinicId) {
+        if (clinicId != null) {
+            ReentrantLock lock = lockFor(clinicId);
+            lock.lock();
+            try {
+                clinics.remove(clinicId);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private ClinicAvailability clinic(String clinicId) {
+        long now = System.currentTimeMillis();
+        ClinicAvailability cached = clinics.get(clinicId);
+        if (cached != null && !cached.isStale(now)) {
+            cached.dropDaysBefore(LocalDate.now(zone));
+            return cached;
+        }
+        // The lock keeps concurrent requests from loading the same clinic twice; a stale
+        // clinic is still served while another request reloads it
+        ReentrantLock lock = lockFor(clinicId);
+        if (cached == null) {
+            lock.lock();
+        } else if (!lock.tryLock()) {
+            return cached;
+        }
+        try {
+            cached = clinics.get(clinicId);
+            if (cached == null || cached.isStale(now)) {
+                cached = load(clinicId);
+                if (cached != null) {
+                    clinics.put(clinicId, cached);
+                } else {
+                    clinics.remove(clinicId);
+                }
+            }
+            return cached;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void ifLoaded(String clinicId, Consumer<ClinicAvailability> change) {
+        ReentrantLock lock = lockFor(clinicId);
+        lock.lock();
+        try {
+            ClinicAvailability clinic = clinics.get(clinicId);
+            if (clinic != null) {
+                change.accept(clinic);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private ReentrantLock lockFor(String clinicId) {
+        return clinicLocks.computeIfAbsent(clinicId, id -> new ReentrantLock());
+    }
+
+    private List<String> eligibleStaff(String clinicId, ClinicAvailability clinic, List<String> requiredSkills,
+                                       String staffId) {
+        if (staffId != null) {
+            return clinic.staffIds.contains(staffId) && skillIndex.canPerform(clinicId, staffId, requiredSkills)
+                    ? List.of(staffId)
+                    : List.of();
+        }
+        return requiredSkills.isEmpty() ? clinic.staffIds : skillIndex.eligibleStaff(clinicId, requiredSkills);
+    }
+
+    private ClinicAvailability load(String clinicId) {
+        ClinicSettings settings = settingsRepository.findByClinicId(clinicId);
+        OpeningSchedule schedule = scheduleService.schedule(clinicId);
+        RosterCache.ClinicRoster roster = rosterCache.roster(clinicId);
+        if (settings == null || schedule == null || roster == null) {
+            return null;
+        }
+        if (roster.slotMinutes() != slotMinutes(settings)) {
+            // Rosters compiled on an older slot grid (settings saved on another node)
+            rosterCache.invalidate(clinicId);
+            roster = rosterCache.roster(clinicId);
+            if (roster == null) {
+                return null;
+            }
+        }
+
+        Map<String, List<String>> skillsByTreatment = new HashMap<>();
+        for (Treatment t : treatmentRepository.findByClinicId(clinicId)) {
+            if (t.getRequiredSkills() != null && !t.getRequiredSkills().isEmpty()) {
+                skillsByTreatment.put(t.getId(), List.copyOf(t.getRequiredSkills()));
+            }
+        }
+        Map<String, VariantTiming> variants = new HashMap<>();
+        for (TreatmentVariant v : variantRepository.findByClinicId(clinicId)) {
+            variants.put(v.getId(), new VariantTiming(v.getDurationMinutes(), v.getBufferMinutes(), v.isActive(),
+                    skillsByTreatment.getOrDefault(v.getTreatmentId(), List.of())));
+        }
+
+        Map<String, Integer> rooms = new HashMap<>();
+        for (Room room : roomRepository.findByClinicId(clinicId)) {
+            rooms.put(room.getId(), room.getCapacity());
+        }
+
+        // Rebuild the skill index with the staff list read here: it is only kept current by
+        // saves on this node, so staff added or re-skilled elsewhere would otherwise be missing
+        skillIndex.invalidate(clinicId);
+
+        ClinicAvailability clinic = new ClinicAvailability(
+                settings,
+                schedule,
+                roster,
+                staffRepository.findByClinicId(clinicId).stream().map(StaffMember::getId).toList(),
+                rooms,
+                variants
+        );
+
+        // Only bookings inside the bookable horizon affect free-slot queries. Start one day
+        // early so bookings crossing midnight into today are included.
+        LocalDate today = LocalDate.now(zone);
+        ZonedDateTime horizonStart = today.atStartOfDay(zone);
+        try (Stream<Booking> bookings = bookingRepository.streamByClinicIdInRange(clinicId,
+                today.minusDays(1).atStartOfDay(zone), today.plusDays(maxDaysAhead + 1L).atStartOfDay(zone))) {
+            bookings.filter(b -> b.getEndTime() == null || b.getEndTime().isAfter(horizonStart))
+                    .forEach(b -> clinic.add(b, zone));
+        }
+        // Includes holds made on other nodes
+        holdStore.findActiveByClinic(clinicId, Instant.now()).forEach(h -> clinic.addHold(h, zone));
+        return clinic;
+    }
+
+    /**
+     * Slot length of a clinic's grid, in minutes.
+     */
+
+    static int slotMinutes(ClinicSettings settings) {
+        return settings.getSlotIntervalMinutes() > 0 ? settings.getSlotIntervalMinutes() : DEFAULT_SLOT_MINUTES;
+    }
+
+    private static int ceilDiv(int a, int b) {
+        return (a + b - 1) / b;
+    }
+
+    /**
+     * A bookable time window for a treatment variant (excluding buffer).
+     */
+
+    public record FreeSlot(ZonedDateTime startTime, ZonedDateTime endTime) {}
+
+    /**
+     * Resources picked for a slot hold, with the treatment's end and blocked-until times.
+     */
+
+    public record Assignment(String staffId, String roomId, ZonedDateTime endTime, ZonedDateTime blockedUntil) {}
+
+    private record VariantTiming(int durationMinutes, int bufferMinutes, boolean active,
+                                 List<String> requiredSkills) {
+        int blockedMinutes() {
+            return durationMinutes + bufferMinutes;
+        }
+    }
+
+    private record Reservation(String bookingId, String staffId, String roomId, int fromSlot, int toSlot) {}
+
+    private record Pick(String staffId, String roomId) {}
+
+    /**
+     * Per-clinic configuration plus lazily created day occupancies.
+     */
+
+    private static final class ClinicAvailability {
+        final int slotMinutes;
+        final int slotsPerDay;
+        final List<String> staffIds;
+        final List<String> roomIds;
+        // Rooms holding more than one booking at a time -> capacity
+        final Map<String, Integer> sharedRooms = new HashMap<>();
+        final Map<String, VariantTiming> variants;
+
+        final OpeningSchedule schedule;
+        final RosterCache.ClinicRoster roster;
+
+        final Map<LocalDate, DayOccupancy> days = new ConcurrentHashMap<>();
+        final long loadedAtMillis = System.currentTimeMillis();
+        // Days before this one have been dropped
+        volatile LocalDate firstDay = LocalDate.MIN;
+        // Hold id -> expiry; guarded by its own monitor because queries advance it
+        final TimingWheel<String> holdExpiry = new TimingWheel<>(HOLD_TICK_MILLIS, System.currentTimeMillis());
+
+        ClinicAvailability(ClinicSettings settings, OpeningSchedule schedule, RosterCache.ClinicRoster roster,
+                           List<String> staffIds, Map<String, Integer> rooms, Map<String, VariantTiming> variants) {
+            this.slotMinutes = slotMinutes(settings);
+            this.slotsPerDay = ceilDiv(OpeningHoursParser.MINUTES_PER_DAY, slotMinutes);
+            this.staffIds = staffIds;
+            this.roomIds = List.copyOf(rooms.keySet());
+            rooms.forEach((id, capacity) -> {
+                if (capacity > 1) {
+                    sharedRooms.put(id, capacity);
+                }
+            });
+            this.variants = variants;
+            this.schedule = schedule;
+            this.roster = roster;
+        }
+
+        boolean isStale(long nowMillis) {
+            return nowMillis - loadedAtMillis > RELOAD_AFTER.toMillis();
+        }
+
+        /**
+         * Drop the occupancy of past days; queries never ask for them.
+         */
+
+        void dropDaysBefore(LocalDate today) {
+            if (today.isAfter(firstDay)) {
+                firstDay = today;
+                days.keySet().removeIf(date -> date.isBefore(today));
+            }
+        }
+
+        DayOccupancy day(LocalDate date) {
+            return days.computeIfAbsent(date, d -> new DayOccupancy(openSlots(d), workingSlots(d), sharedRooms,
+                    slotsPerDay));
+        }
+
+        /**
+         * Slots that lie entirely inside opening hours. Special openings replace the weekly
+         * hours for their date; special closings are subtracted (see OpeningSchedule).
+         */
+
+        BitSet openSlots(LocalDate date) {
+            BitSet minutes = schedule.openMinutes(date);
+            BitSet open = new BitSet(slotsPerDay);
+            for (int slot = 0; (slot + 1) * slotMinutes <= OpeningHoursParser.MINUTES_PER_DAY; slot++) {
+                int from = slot * slotMinutes;
+                if (minutes.nextClearBit(from) >= from + slotMinutes) {
+                    open.set(slot);
+                }
+            }
+            return open;
+        }
+
+        /**
+         * Working slots of every staff member with a roster; the others are not restricted.
+         */
+
+        Map<String, BitSet> workingSlots(LocalDate date) {
+            Map<String, BitSet> working = new HashMap<>();
+            // load() reloads rosters on another grid; they can only differ if the settings
+            // changed again meanwhile, and that save invalidates this clinic anyway
+            if (roster.slotMinutes() == slotMinutes) {
+                for (String staffId : staffIds) {
+                    BitSet slots = roster.workingSlots(staffId, date);
+                    if (slots != null) {
+                        working.put(staffId, slots);
+                    }
+                }
+            }
+            return working;
+        }
+
+        ZonedDateTime slotStart(LocalDate date, int slot, ZoneId zone) {
+            return LocalDateTime.of(date, LocalTime.MIDNIGHT).plusMinutes((long) slot * slotMinutes).atZone(zone);
+        }
+
+        void add(Booking booking, ZoneId zone) {
+            if (booking.getId() == null || booking.getStartTime() == null
+                    || STATUS_CANCELLED.equals(booking.getStatus())) {
+                return;
+            }
+            VariantTiming timing = variants.get(booking.getTreatmentVariantId());
+            int buffer = timing != null ? timing.bufferMinutes() : 0;
+
+            // blockedUntil already includes the buffer; older bookings are derived from the variant
+
+            LocalDateTime start = booking.getStartTime().withZoneSameInstant(zone).toLocalDateTime();
+            LocalDateTime end;
+            if (booking.getBlockedUntil() != null) {
+                end = booking.getBlockedUntil().withZoneSameInstant(zone).toLocalDateTime();
+            } else {
+                end = booking.getEndTime() != null
+                        ? booking.getEndTime().withZoneSameInstant(zone).toLocalDateTime()
+                        : start.plusMinutes(timing != null ? timing.durationMinutes() : slotMinutes);
+                end = end.plusMinutes(buffer);
+            }
+            reserve(booking.getId(), booking.getStaffId(), booking.getRoomId(), start, end);
+        }
+
+        void addHold(SlotHold hold, ZoneId zone) {
+            if (hold.getId() == null || hold.getStartTime() == null || hold.getBlockedUntil() == null
+                    || hold.getExpiresAt() == null) {
+                return;
+            }
+            reserve(HOLD_PREFIX + hold.getId(), hold.getStaffId(), hold.getRoomId(),
+                    hold.getStartTime().withZoneSameInstant(zone).toLocalDateTime(),
+                    hold.getBlockedUntil().withZoneSameInstant(zone).toLocalDateTime());
+            synchronized (holdExpiry) {
+                holdExpiry.schedule(hold.getId(), hold.getExpiresAt().toEpochMilli());
+            }
+        }
+
+        void removeHold(String holdId) {
+            synchronized (holdExpiry) {
+                holdExpiry.cancel(holdId);
+            }
+            remove(HOLD_PREFIX + holdId);
+        }
+
+        /**
+         * Free the slots of holds that expired by now.
+         */
+
+        void expireHolds(long nowMillis) {
+            List<String> expired = new ArrayList<>();
+            synchronized (holdExpiry) {
+                holdExpiry.advance(nowMillis, expired::add);
+            }
+            expired.forEach(id -> remove(HOLD_PREFIX + id));
+        }
+
+        // A reservation may cross midnight; split it into one per day
+        private void reserve(String id, String staffId, String roomId, LocalDateTime start, LocalDateTime end) {
+            for (LocalDate date = start.toLocalDate(); !date.isAfter(end.toLocalDate()); date = date.plusDays(1)) {
+                int fromMinute = date.equals(start.toLocalDate()) ? minuteOfDay(start) : 0;
+                int toMinute = date.equals(end.toLocalDate()) ? minuteOfDay(end) : OpeningHoursParser.MINUTES_PER_DAY;
+                if (toMinute <= fromMinute) {
+                    continue;
+                }
+                day(date).add(new Reservation(id, staffId, roomId,
+                        fromMinute / slotMinutes, ceilDiv(toMinute, slotMinutes)));
+            }
+        }
+
+        void remove(Booking booking) {
+            if (booking.getId() == null) {
+                return;
+            }
+            remove(booking.getId());
+        }
+
+        private void remove(String reservationId) {
+            days.values().forEach(day -> day.remove(reservationId));
+        }
+
+        private static int minuteOfDay(LocalDateTime t) {
+            return t.getHour() * 60 + t.getMinute();
+        }
+    }
+
+    /**
+     * Occupancy of one clinic day: the open bitmap and a busy bitmap per staff member and room
+     * (for a shared room: the slots where it is full).
+     * Reservations are kept so a removed booking can be subtracted exactly even when
+     * resources were (historically) double-booked.
+     */
+
+    private static final class DayOccupancy {
+        final BitSet open;
+        // Slots each rostered staff member works; staff without an entry work every slot
+        final Map<String, BitSet> staffWorking;
+        final Map<String, Reservation> reservations = new HashMap<>();
+        final Map<String, BitSet> staffBusy = new HashMap<>();
+        final Map<String, BitSet> roomBusy = new HashMap<>();
+        final Map<String, Integer> sharedRooms;
+        // Bookings per slot of each shared room
+        final Map<String, int[]> roomLoad = new HashMap<>();
+        final int slotsPerDay;
+
+        DayOccupancy(BitSet open, Map<String, BitSet> staffWorking, Map<String, Integer> sharedRooms, int slotsPerDay) {
+            this.open = open;
+            this.staffWorking = staffWorking;
+            this.sharedRooms = sharedRooms;
+            this.slotsPerDay = slotsPerDay;
+        }
+
+        synchronized void add(Reservation r) {
+            Reservation old = reservations.put(r.bookingId(), r);
+            if (old != null) {
+                rebuild(old);
+            }
+            mark(staffBusy, r.staffId(), r);
+            if (sharedRooms.containsKey(r.roomId())) {
+                seat(r.roomId(), r, 1);
+            } else {
+                mark(roomBusy, r.roomId(), r);
+            }
+        }
+
+        synchronized void remove(String bookingId) {
+            Reservation old = reservations.remove(bookingId);
+            if (old != null) {
+                rebuild(old);
+            }
+        }
+
+        synchronized BitSet startSlots(List<String> staff, List<String> rooms, int needed) {
+            BitSet starts = new BitSet();
+            for (String id : staff) {
+                starts.or(fittingStarts(staffBusy.get(id), staffWorking.get(id), needed));
+            }
+            // Clinics without rooms only need a free staff member
+            if (!rooms.isEmpty()) {
+                BitSet roomStarts = new BitSet();
+                for (String id : rooms) {
+                    roomStarts.or(fittingStarts(roomBusy.get(id), null, needed));
+                }
+                starts.and(roomStarts);
+            }
+            return starts;
+        }
+
+        /**
+         * First staff member and room (if the clinic has rooms) free for {@code needed} slots
+         * from {@code from}, or null.
+         */
+
+        synchronized Pick pick(List<String> staff, List<String> rooms, int from, int needed) {
+            String staffId = null;
+            for (String id : staff) {
+                if (fits(staffBusy.get(id), staffWorking.get(id), from, needed)) {
+                    staffId = id;
+                    break;
+                }
+            }
+            if (staffId == null) {
+                return null;
+            }
+            if (rooms.isEmpty()) {
+                return new Pick(staffId, null);
+            }
+            for (String id : rooms) {
+                if (fits(roomBusy.get(id), null, from, needed)) {
+                    return new Pick(staffId, id);
+                }
+            }
+            return null;
+        }
+
+        private boolean fits(BitSet busy, BitSet working, int from, int needed) {
+            int to = from + needed;
+            if (to > slotsPerDay || open.nextClearBit(from) < to) {
+                return false;
+            }
+            if (working != null && working.nextClearBit(from) < to) {
+                return false;
+            }
+            int nextBusy = busy != null ? busy.nextSetBit(from) : -1;
+            return nextBusy < 0 || nextBusy >= to;
+        }
+
+        /**
+         * Start slots where {@code needed} consecutive slots are open, worked (if a roster
+         * applies) and not busy.
+         */
+
+        private BitSet fittingStarts(BitSet busy, BitSet working, int needed) {
+            BitSet free = (BitSet) open.clone();
+            if (working != null) {
+                free.and(working);
+            }
+            if (busy != null) {
+                free.andNot(busy);
+            }
+            BitSet starts = new BitSet();
+            for (int from = free.nextSetBit(0); from >= 0; ) {
+                int to = free.nextClearBit(from);
+                if (to - from >= needed) {
+                    starts.set(from, to - needed + 1);
+                }
+                from = free.nextSetBit(to);
+            }
+            return starts;
+        }
+
+        private void rebuild(Reservation old) {
+            rebuild(staffBusy, old.staffId(), true);
+            if (sharedRooms.containsKey(old.roomId())) {
+                seat(old.roomId(), old, -1);
+            } else {
+                rebuild(roomBusy, old.roomId(), false);
+            }
+        }
+
+        // Counts are exact per reservation, so a shared room is updated without a rebuild
+        private void seat(String roomId, Reservation r, int delta) {
+            int capacity = sharedRooms.get(roomId);
+            int[] load = roomLoad.computeIfAbsent(roomId, k -> new int[slotsPerDay]);
+            BitSet busy = roomBusy.computeIfAbsent(roomId, k -> new BitSet());
+            for (int slot = r.fromSlot(); slot < Math.min(r.toSlot(), slotsPerDay); slot++) {
+                load[slot] += delta;
+                busy.set(slot, load[slot] >= capacity);
+            }
+        }
+
+        private void rebuild(Map<String, BitSet> busy, String resourceId, boolean staff) {
+            if (resourceId == null) {
+                return;
+            }
+            BitSet bits = new BitSet();
+            for (Reservation r : reservations.values()) {
+                if (resourceId.equals(staff ? r.staffId() : r.roomId())) {
+                    bits.set(r.fromSlot(), r.toSlot());
+                }
+            }
+            busy.put(resourceId, bits);
+        }
+
+        private static void mark(Map<String, BitSet> busy, String resourceId, Reservation r) {
+            if (resourceId != null) {
+                busy.computeIfAbsent(resourceId, k -> new BitSet()).set(r.fromSlot(), r.toSlot());
+            }
+        }
+    }
+}
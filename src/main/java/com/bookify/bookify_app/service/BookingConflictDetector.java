@@ -0,0 +1,447 @@
+package com.bookify.bookify_app.service;
+
+// ********************************************************************************************
+// * BookingConflictDetector guards booking writes against staff and room double-booking.     *
+// *                                                                                          *
+// * HOW IT WORKS:                                                                            *
+// * - Every staff member and room has an in-memory IntervalIndex of its upcoming bookings    *
+// *   (startTime -> blockedUntil, i.e. including the treatment buffer), loaded lazily from   *
+// *   Mongo on first use and reloaded once it is older than INDEX_TTL.                       *
+// * - Other nodes' writes are not pushed into the index. A hit is confirmed in Mongo before  *
+// *   it rejects a write: bookings deleted, cancelled or moved elsewhere are dropped from    *
+// *   the index on the way. Bookings the index misses are caught by the Mongo re-check.      *
+// * - A write locks only the stripes of the resources it touches (never the whole clinic),   *
+// *   checks the indexes in O(log n), persists, and then re-checks Mongo for overlaps        *
+// *   written by other nodes. If Mongo shows a conflict the write is compensated (deleted    *
+// *   or restored) and rejected.                                                             *
+// *                                                                                          *
+// * - Rooms with capacity > 1 have no interval index: their seats are admitted atomically    *
+// *   through RoomSlotCounterStore, which already covers writes from other nodes.            *
+// * - Slot holds (SlotHoldService) go into the same indexes under "hold:<id>", so a held     *
+// *   slot is busy for everyone except the booking that presents the hold. The Mongo         *
+// *   re-check also looks at holds in slot_holds, written by any node.                       *
+// *                                                                                          *
+// * WHY: The unique_staff_booking index only rejects identical start times. Overlaps with    *
+// * other start minutes, or on staff or room alone, must be caught before they are stored.   *
+// ********************************************************************************************
+
+import com.bookify.bookify_app.model.Booking;
+import com.bookify.bookify_app.model.SlotHold;
+import com.bookify.bookify_app.repository.BookingRepository;
+import com.bookify.bookify_app.util.IntervalIndex;
+
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+
+@Service
+public class BookingConflictDetector {
+
+    static final int LOCK_STRIPES = 256;
+    // Longest allowed booking; bounds how far back an overlap check has to look
+    static final Duration MAX_BOOKING_LENGTH = Duration.ofHours(24);
+    // How far ahead a resource index is loaded
+    static final Duration LOAD_HORIZON = Duration.ofDays(3650);
+    // Age after which a resource index is reloaded from Mongo (drops past and foreign changes)
+    static final Duration INDEX_TTL = Duration.ofMinutes(15);
+    // Interval ids of slot holds, next to booking ids in the same indexes
+    static final String HOLD_PREFIX = "hold:";
+
+    private final BookingRepository repo;
+    private final RoomSlotCounterStore roomSlots;
+    private final SlotHoldStore holdStore;
+    private final ReentrantLock[] locks = new ReentrantLock[LOCK_STRIPES];
+    private final Map<String, ResourceIndex> indexes = new ConcurrentHashMap<>();
+
+    public BookingConflictDetector(BookingRepository repo, RoomSlotCounterStore roomSlots, SlotHoldStore holdStore) {
+        this.repo = repo;
+        this.roomSlots = roomSlots;
+        this.holdStore = holdStore;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Persist a booking if neither its staff member nor its room is busy in
+     * [startTime, blockedUntil); a room with capacity > 1 is busy once it is full.
+     * Cancelled bookings are persisted without a check.
+     *
+     * @param booking  the booking to write (startTime and blockedUntil must be set)
+     * @param previous the stored version when updating, otherwise null
+     * @param persist  the actual write (e.g. repo::save)
+     * @return the persisted booking
+     * @throws BookingService.BookingConflictException if the staff member or room is busy
+     */
+
+    public Booking reserve(Booking booking, Booking previous, UnaryOperator<Booking> persist) {
+        return reserve(booking, previous, persist, null);
+    }
+
+    /**
+     * Like {@link #reserve(Booking, Booking, UnaryOperator)}, but the given slot hold does not
+     * count as a conflict: the booking is taking the slot it was held for.
+     *
+     * @param holdId a hold owned by the customer, or null
+     */
+
+    public Booking reserve(Booking booking, Booking previous, UnaryOperator<Booking> persist, String holdId) {
+        List<String> keys = resourceKeys(booking.getClinicId(), booking.getStaffId(), booking.getRoomId());
+        Set<String> ignore = new HashSet<>(2);
+        if (booking.getId() != null) {
+            ignore.add(booking.getId());
+        }
+        if (holdId != null) {
+            ignore.add(HOLD_PREFIX + holdId);
+        }
+        List<String> lockKeys = new ArrayList<>(keys);
+        if (previous != null) {
+            lockKeys.addAll(resourceKeys(previous.getClinicId(), previous.getStaffId(), previous.getRoomId()));
+        }
+
+        List<ReentrantLock> held = lock(lockKeys);
+        try {
+            boolean occupying = occupies(booking);
+            if (occupying) {
+                for (String key : keys) {
+                    String hit = findLiveOverlap(key, millis(booking.getStartTime()),
+                            millis(booking.getBlockedUntil()), ignore);
+                    if (hit != null) {
+                        throw new BookingService.BookingConflictException(describe(key));
+                    }
+                }
+            }
+
+            // Seats in shared rooms: give back the old ones first so a move within a full room works
+            boolean seated = occupying && roomSlots.isShared(booking.getRoomId());
+            boolean previousSeated = previous != null && occupies(previous)
+                    && roomSlots.isShared(previous.getRoomId());
+            if (previousSeated) {
+                releaseSeats(previous);
+            }
+            if (seated && !roomSlots.tryAdmit(booking.getClinicId(), booking.getRoomId(),
+                    booking.getStartTime(), booking.getBlockedUntil())) {
+                if (previousSeated) {
+                    restoreSeats(previous);
+                }
+                throw new BookingService.BookingConflictException(
+                        "Room " + booking.getRoomId() + " is fully booked at that time");
+            }
+
+            Booking saved;
+            try {
+                saved = persist.apply(booking);
+            } catch (RuntimeException e) {
+                undoSeats(seated ? booking : null, previousSeated ? previous : null);
+                throw e;
+            }
+
+            // Another node may have written an overlapping booking at the same time; Mongo decides
+            if (occupying) {
+                String conflict = findPersistedConflict(saved.getClinicId(), saved.getStaffId(), saved.getRoomId(),
+                        saved.getStartTime(), saved.getBlockedUntil(), saved.getId(), holdId);
+                if (conflict != null) {
+                    if (previous != null) {
+                        repo.save(previous);
+                    } else {
+                        repo.deleteById(saved.getId());
+                    }
+                    undoSeats(seated ? saved : null, previousSeated ? previous : null);
+                    throw new BookingService.BookingConflictException(describe(conflict));
+                }
+            }
+
+            if (previous != null) {
+                resourceKeys(previous.getClinicId(), previous.getStaffId(), previous.getRoomId())
+                        .forEach(key -> indexIfLoaded(key, idx -> idx.remove(previous.getId())));
+            }
+            if (occupying) {
+                keys.forEach(key -> index(key).add(saved.getId(),
+                        millis(saved.getStartTime()), millis(saved.getBlockedUntil())));
+            }
+            return saved;
+        } finally {
+            held.forEach(ReentrantLock::unlock);
+        }
+    }
+
+    /**
+     * Reserve a slot hold's staff member and room like a booking, so nobody else can book them
+     * until the hold is released. Shared rooms are not blocked; their seat is taken at checkout.
+     *
+     * @param hold    the hold (startTime and blockedUntil set, id assigned)
+     * @param persist the Mongo write of the hold
+     * @throws BookingService.BookingConflictException if a booking or another hold is in the way
+     */
+
+    public SlotHold hold(SlotHold hold, UnaryOperator<SlotHold> persist) {
+        List<String> keys = resourceKeys(hold.getClinicId(), hold.getStaffId(), hold.getRoomId());
+        List<ReentrantLock> held = lock(keys);
+        try {
+            for (String key : keys) {
+                if (findLiveOverlap(key, millis(hold.getStartTime()), millis(hold.getBlockedUntil()),
+                        Set.of()) != null) {
+                    throw new BookingService.BookingConflictException(describe(key));
+                }
+            }
+            SlotHold saved = persist.apply(hold);
+
+            // Holds and bookings written by other nodes only show up in Mongo
+            String conflict = findPersistedConflict(saved.getClinicId(), saved.getStaffId(), saved.getRoomId(),
+                    saved.getStartTime(), saved.getBlockedUntil(), null, saved.getId());
+            if (conflict != null) {
+                holdStore.delete(saved.getId());
+                throw new BookingService.BookingConflictException(describe(conflict));
+            }
+            keys.forEach(key -> index(key).add(HOLD_PREFIX + saved.getId(),
+                    millis(saved.getStartTime()), millis(saved.getBlockedUntil())));
+            return saved;
+        } finally {
+            held.forEach(ReentrantLock::unlock);
+        }
+    }
+
+    /**
+     * Free the slot of a hold that was used, cancelled or expired.
+     */
+
+    public void unhold(SlotHold hold) {
+        List<String> keys = resourceKeys(hold.getClinicId(), hold.getStaffId(), hold.getRoomId());
+        List<ReentrantLock> held = lock(keys);
+        try {
+            keys.forEach(key -> indexIfLoaded(key, idx -> idx.remove(HOLD_PREFIX + hold.getId())));
+        } finally {
+            held.forEach(ReentrantLock::unlock);
+        }
+    }
+
+    /**
+     * Forget a deleted booking so its time can be booked again.
+     */
+
+    public void release(Booking booking) {
+        List<String> keys = resourceKeys(booking.getClinicId(), booking.getStaffId(), booking.getRoomId());
+        List<ReentrantLock> held = lock(keys);
+        try {
+            keys.forEach(key -> indexIfLoaded(key, idx -> idx.remove(booking.getId())));
+            if (occupies(booking) && roomSlots.isShared(booking.getRoomId())) {
+                releaseSeats(booking);
+            }
+        } finally {
+            held.forEach(ReentrantLock::unlock);
+        }
+    }
+
+    /**
+     * Drop a room's index, e.g. after its capacity changed; the next check reloads it.
+     */
+
+    public void evictRoom(String clinicId, String roomId) {
+        String key = key(clinicId, "room", roomId);
+        List<ReentrantLock> held = lock(List.of(key));
+        try {
+            indexes.remove(key);
+        } finally {
+            held.forEach(ReentrantLock::unlock);
+        }
+    }
+
+    private void releaseSeats(Booking b) {
+        roomSlots.release(b.getClinicId(), b.getRoomId(), b.getStartTime(), effectiveEnd(b));
+    }
+
+    private void restoreSeats(Booking b) {
+        roomSlots.restore(b.getClinicId(), b.getRoomId(), b.getStartTime(), effectiveEnd(b));
+    }
+
+    private void undoSeats(Booking admitted, Booking released) {
+        if (admitted != null) {
+            releaseSeats(admitted);
+        }
+        if (released != null) {
+            restoreSeats(released);
+        }
+    }
+
+    // Callers hold the key's stripe lock, so a load cannot race with another load of the key.
+    // Loading outside computeIfAbsent lets virtual threads unmount during the Mongo query.
+    private IntervalIndex index(String key) {
+        long now = System.currentTimeMillis();
+        ResourceIndex current = indexes.get(key);
+        if (current == null || now - current.loadedAtMillis() > INDEX_TTL.toMillis()) {
+            IntervalIndex loaded = load(key);
+            if (current != null) {
+                // This node's holds are not read back from Mongo; carry them over
+                current.intervals().forEach((id, start, end) -> {
+                    if (id.startsWith(HOLD_PREFIX)) {
+                        loaded.add(id, start, end);
+                    }
+                });
+            }
+            current = new ResourceIndex(loaded, now);
+            indexes.put(key, current);
+        }
+        return current.intervals();
+    }
+
+    private void indexIfLoaded(String key, Consumer<IntervalIndex> action) {
+        ResourceIndex current = indexes.get(key);
+        if (current != null) {
+            action.accept(current.intervals());
+        }
+    }
+
+    /**
+     * First interval of the key's index overlapping [start, end) that Mongo confirms. Entries
+     * whose booking was deleted, cancelled or moved by another node, or whose hold is gone,
+     * are corrected in the index instead of causing a false conflict.
+     */
+
+    private String findLiveOverlap(String key, long start, long end, Set<String> ignore) {
+        IntervalIndex idx = index(key);
+        String hit;
+        while ((hit = idx.findOverlap(start, end, ignore)) != null) {
+            if (hit.startsWith(HOLD_PREFIX)) {
+                if (holdStore.findActive(hit.substring(HOLD_PREFIX.length()), Instant.now()).isPresent()) {
+                    return hit;
+                }
+                idx.remove(hit);
+                continue;
+            }
+            Booking stored = repo.findById(hit).orElse(null);
+            idx.remove(hit);
+            if (stored != null && occupies(stored) && key.equals(keyFor(stored, key))) {
+                long storedStart = millis(stored.getStartTime());
+                long storedEnd = millis(effectiveEnd(stored));
+                idx.add(hit, storedStart, storedEnd);
+                if (storedStart < end && storedEnd > start) {
+                    return hit;
+                }
+            }
+        }
+        return null;
+    }
+
+    // The key of the same resource type as the given key, for where the booking is stored now
+    private static String keyFor(Booking b, String key) {
+        String type = key.split("\\|", 3)[1];
+        return key(b.getClinicId(), type, "staff".equals(type) ? b.getStaffId() : b.getRoomId());
+    }
+
+    private IntervalIndex load(String key) {
+        String[] parts = key.split("\\|", 3);
+        ZonedDateTime from = ZonedDateTime.now().minus(MAX_BOOKING_LENGTH);
+        ZonedDateTime to = from.plus(LOAD_HORIZON);
+
+        List<Booking> bookings = "staff".equals(parts[1])
+                ? repo.findByClinicIdAndStaffIdInRange(parts[0], parts[2], from, to)
+                : repo.findByClinicIdAndRoomIdInRange(parts[0], parts[2], from, to);
+
+        IntervalIndex idx = new IntervalIndex();
+        for (Booking b : bookings) {
+            if (occupies(b)) {
+                idx.add(b.getId(), millis(b.getStartTime()), millis(effectiveEnd(b)));
+            }
+        }
+        return idx;
+    }
+
+    /**
+     * Look in Mongo for another occupying booking or unexpired hold on the same staff member
+     * or room in [start, end).
+     *
+     * @param bookingId booking to skip (the one just written), may be null
+     * @param holdId    hold to skip (the one just written or being used), may be null
+     * @return the resource key with a conflict, or null
+     */
+
+    private String findPersistedConflict(String clinicId, String staffId, String roomId, ZonedDateTime start,
+                                         ZonedDateTime end, String bookingId, String holdId) {
+        ZonedDateTime from = start.minus(MAX_BOOKING_LENGTH);
+        String exclusiveRoom = roomId != null && !roomSlots.isShared(roomId) ? roomId : null;
+
+        if (staffId != null && overlapsAny(bookingId, start,
+                repo.findByClinicIdAndStaffIdInRange(clinicId, staffId, from, end))) {
+            return key(clinicId, "staff", staffId);
+        }
+        if (exclusiveRoom != null && overlapsAny(bookingId, start,
+                repo.findByClinicIdAndRoomIdInRange(clinicId, exclusiveRoom, from, end))) {
+            return key(clinicId, "room", exclusiveRoom);
+        }
+        String hold = holdStore.findConflict(clinicId, staffId, exclusiveRoom, start, end, holdId, Instant.now());
+        return hold != null ? key(clinicId, "hold", hold) : null;
+    }
+
+    private static boolean overlapsAny(String bookingId, ZonedDateTime start, List<Booking> candidates) {
+        for (Booking other : candidates) {
+            if (!other.getId().equals(bookingId) && occupies(other) && effectiveEnd(other).isAfter(start)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private List<ReentrantLock> lock(List<String> keys) {
+        // Lock stripes in ascending order so concurrent writers cannot deadlock
+        TreeSet<Integer> stripes = new TreeSet<>();
+        keys.forEach(key -> stripes.add(Math.floorMod(key.hashCode(), LOCK_STRIPES)));
+        List<ReentrantLock> held = new ArrayList<>(stripes.size());
+        for (int stripe : stripes) {
+            locks[stripe].lock();
+            held.add(locks[stripe]);
+        }
+        return held;
+    }
+
+    // Shared rooms (capacity > 1) are guarded by counters, not by an interval index
+    private List<String> resourceKeys(String clinicId, String staffId, String roomId) {
+        List<String> keys = new ArrayList<>(2);
+        if (staffId != null) {
+            keys.add(key(clinicId, "staff", staffId));
+        }
+        if (roomId != null && !roomSlots.isShared(roomId)) {
+            keys.add(key(clinicId, "room", roomId));
+        }
+        return keys;
+    }
+
+    private static String key(String clinicId, String type, String id) {
+        return clinicId + "|" + type + "|" + id;
+    }
+
+    private static String describe(String key) {
+        String[] parts = key.split("\\|", 3);
+        if ("hold".equals(parts[1])) {
+            return "That time is being booked by another customer";
+        }
+        return ("staff".equals(parts[1]) ? "Staff member " : "Room ") + parts[2] + " is already booked at that time";
+    }
+
+    private static boolean occupies(Booking b) {
+        return b.getStartTime() != null && effectiveEnd(b) != null
+                && !AvailabilityService.STATUS_CANCELLED.equals(b.getStatus());
+    }
+
+    // Bookings stored before blockedUntil existed fall back to endTime
+    private static ZonedDateTime effectiveEnd(Booking b) {
+        return b.getBlockedUntil() != null ? b.getBlockedUntil() : b.getEndTime();
+    }
+
+    private static long millis(ZonedDateTime t) {
+        return t.toInstant().toEpochMilli();
+    }
+
+    private record ResourceIndex(IntervalIndex intervals, long loadedAtMillis) {}
+}
@@ -2,33 +2,173 @@
 package com.bookify.bookify_app.service;
 
 import com.bookify.bookify_app.model.Booking;
+import com.bookify.bookify_app.model.SlotHold;
+import com.bookify.bookify_app.model.TreatmentVariant;
 import com.bookify.bookify_app.repository.BookingRepository;
+import com.bookify.bookify_app.repository.TreatmentVariantRepository;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 
+import java.time.ZonedDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Service
 public class BookingService {
     private final BookingRepository repo;
+    private final TreatmentVariantRepository variantRepo;
+    private final BookingConflictDetector conflictDetector;
+    private final AvailabilityService availabilityService;
+    private final SlotHoldService holdService;
 
-    public BookingService(BookingRepository repo) {
+    public BookingService(BookingRepository repo,
+                          TreatmentVariantRepository variantRepo,
+                          BookingConflictDetector conflictDetector,
+                          AvailabilityService availabilityService,
+                          SlotHoldService holdService) {
         this.repo = repo;
+        this.variantRepo = variantRepo;
+        this.conflictDetector = conflictDetector;
+        this.availabilityService = availabilityService;
+        this.holdService = holdService;
     }
 
     public List<Booking> getAll(String clinicId) {
         return repo.findByClinicId(clinicId);
     }
 
+    /**
+     * Bookings of a clinic starting in [from, to), ordered by start time.
+     */
+
+    public List<Booking> getInRange(String clinicId, ZonedDateTime from, ZonedDateTime to) {
+        return repo.findByClinicIdInRange(clinicId, from, to);
+    }
+
+    /**
+     * Bookings of one staff member starting in [from, to), ordered by start time.
+     */
+
+    public List<Booking> getForStaffInRange(String clinicId, String staffId, ZonedDateTime from, ZonedDateTime to) {
+        return repo.findByClinicIdAndStaffIdInRange(clinicId, staffId, from, to);
+    }
+
+    /**
+     * Bookings of one room starting in [from, to), ordered by start time.
+     */
+
+    public List<Booking> getForRoomInRange(String clinicId, String roomId, ZonedDateTime from, ZonedDateTime to) {
+        return repo.findByClinicIdAndRoomIdInRange(clinicId, roomId, from, to);
+    }
+
+    /**
+     * One page of bookings starting in [from, to). Uses a Slice so no count query is issued;
+     * check {@link Slice#hasNext()} to decide whether to fetch the next page.
+     *
+     * @param page zero-based page index
+     * @param size page size
+     */
+
+    public Slice<Booking> getPageInRange(String clinicId, ZonedDateTime from, ZonedDateTime to, int page, int size) {
+        return repo.findSliceByClinicIdInRange(clinicId, from, to, PageRequest.of(page, size));
+    }
+
+    /**
+     * Stream bookings starting in [from, to) from a Mongo cursor without loading them all.
+     * The caller must close the stream (try-with-resources).
+     */
+
+    public Stream<Booking> streamInRange(String clinicId, ZonedDateTime from, ZonedDateTime to) {
+        return repo.streamByClinicIdInRange(clinicId, from, to);
+    }
+
     public Optional<Booking> getById(String id) {
         return repo.findById(id);
     }
 
+    /**
+     * Create or update a booking without double-booking its staff member or room.
+     * - endTime defaults to startTime + the variant's duration.
+     * - blockedUntil is set to endTime + the variant's buffer.
+     * - Overlaps on staff or room (including buffer) are rejected; a room with capacity > 1
+     *   accepts overlapping bookings until it is full.
+     *
+     * @param booking the booking to store
+     * @return the persisted booking
+     * @throws IllegalArgumentException if the time range is missing or invalid
+     * @throws BookingConflictException if the staff member or room is already booked
+     */
+
     public Booking save(Booking booking) {
-        return repo.save(booking);
+        return save(booking, null);
+    }
+
+    /**
+     * Like {@link #save(Booking)}, but books the slot held under holdId (checkout): missing
+     * staff member and room are taken from the hold, the hold does not count as a conflict,
+     * and it is released once the booking is stored. An expired or non-matching hold is
+     * ignored and the booking is checked like any other.
+     *
+     * @param holdId slot hold from {@link SlotHoldService#hold}, may be null
+     */
+
+    public Booking save(Booking booking, String holdId) {
+        SlotHold hold = holdService.find(booking.getClinicId(), holdId)
+                .filter(h -> holdService.applyTo(h, booking))
+                .orElse(null);
+        applyTiming(booking);
+
+        // Updates must release the old time in the availability engine
+        Booking previous = booking.getId() != null ? repo.findById(booking.getId()).orElse(null) : null;
+        Booking saved = conflictDetector.reserve(booking, previous, repo::save, hold != null ? hold.getId() : null);
+        availabilityService.onBookingChanged(previous, saved);
+        if (hold != null) {
+            holdService.release(hold);
+        }
+        return saved;
     }
 
     public void delete(String id) {
+        Optional<Booking> existing = repo.findById(id);
         repo.deleteById(id);
+        existing.ifPresent(b -> {
+            conflictDetector.release(b);
+            availabilityService.onBookingChanged(b, null);
+        });
+    }
+
+    private void applyTiming(Booking booking) {
+        if (booking.getStartTime() == null) {
+            throw new IllegalArgumentException("Booking start time is required");
+        }
+        TreatmentVariant variant = booking.getTreatmentVariantId() != null
+                ? variantRepo.findById(booking.getTreatmentVariantId()).orElse(null)
+                : null;
+
+        if (booking.getEndTime() == null) {
+            if (variant == null) {
+                throw new IllegalArgumentException("Booking end time or treatment variant is required");
+            }
+            booking.setEndTime(booking.getStartTime().plusMinutes(variant.getDurationMinutes()));
+        }
+        if (!booking.getEndTime().isAfter(booking.getStartTime())) {
+            throw new IllegalArgumentException("Booking must end after it starts");
+        }
+        if (booking.getEndTime().isAfter(booking.getStartTime().plus(BookingConflictDetector.MAX_BOOKING_LENGTH))) {
+            throw new IllegalArgumentException("Booking is longer than allowed");
+        }
+        booking.setBlockedUntil(booking.getEndTime().plusMinutes(variant != null ? variant.getBufferMinutes() : 0));
+    }
+
+    /**
+     * Thrown when a booking would overlap another booking on the same staff member or room.
+     */
+
+    public static class BookingConflictException extends RuntimeException {
+        public BookingConflictException(String message) {
+            super(message);
+        }
     }
 }
@@ -0,0 +1,34 @@
+package com.bookify.bookify_app.service;
+
+// ********************************************************************************************
+// * ClinicEventListener keeps ClinicService's subdomain cache in step with the database.     *
+// * Spring Data publishes an event for every Clinic written through MongoTemplate or a       *
+// * repository, so every save path (admin API, DataSeeder, tests) invalidates the cache.     *
+// ********************************************************************************************
+
+import com.bookify.bookify_app.model.Clinic;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.stereotype.Component;
+
+@Component
+public class ClinicEventListener extends AbstractMongoEventListener<Clinic> {
+
+    private final ClinicService clinicService;
+
+    public ClinicEventListener(ClinicService clinicService) {
+        this.clinicService = clinicService;
+    }
+
+    @Override
+    public void onAfterSave(AfterSaveEvent<Clinic> event) {
+        clinicService.invalidate(event.getSource());
+    }
+
+    @Override
+    public void onAfterDelete(AfterDeleteEvent<Clinic> event) {
+        // Only the delete query is known here, not the subdomains it removed
+        clinicService.invalidateAll();
+    }
+}
@@ -0,0 +1,141 @@
+package com.bookify.bookify_app.service;
+
+// ********************************************************************************************
+// * ClinicRegistryWatcher loads all clinics into ClinicService at startup and keeps that     *
+// * registry fresh while the app runs.                                                       *
+// *                                                                                          *
+// * HOW IT WORKS:                                                                            *
+// * - start() (called by DataSeeder once seeding is done) loads the registry, then starts a  *
+// *   daemon thread.                                                                         *
+// * - The thread tails a change stream on the clinics collection and reloads the registry    *
+// *   on every change, so edits made on other nodes are visible within milliseconds.         *
+// * - Change streams need a replica set. On a standalone server (local dev, embedded Mongo), *
+// *   or with bookify.tenant.registry.change-stream=false, the thread polls instead.         *
+// *                                                                                          *
+// * WHY: A few thousand clinics fit easily in memory; holding them all removes the database  *
+// * from the tenant-resolution path of every request.                                        *
+// ********************************************************************************************
+
+import com.bookify.bookify_app.config.TenantProperties;
+import com.bookify.bookify_app.model.Clinic;
+import com.mongodb.MongoCommandException;
+import com.mongodb.MongoException;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import jakarta.annotation.PreDestroy;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+@Component
+public class ClinicRegistryWatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(ClinicRegistryWatcher.class);
+
+    // Server error codes meaning "change streams are not available on this deployment"
+    private static final int NOT_A_REPLICA_SET = 40573;
+    private static final int ILLEGAL_OPERATION = 20;
+
+    private final MongoTemplate mongoTemplate;
+    private final ClinicService clinicService;
+    private final TenantProperties.Registry properties;
+
+    private volatile boolean running;
+    private volatile Thread thread;
+    private volatile MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor;
+
+    public ClinicRegistryWatcher(MongoTemplate mongoTemplate, ClinicService clinicService,
+                                 TenantProperties properties) {
+        this.mongoTemplate = mongoTemplate;
+        this.clinicService = clinicService;
+        this.properties = properties.getRegistry();
+    }
+
+    /**
+     * Load the registry and start following changes. Calling it again is a no-op.
+     */
+
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        clinicService.reloadRegistry();
+        running = true;
+        Thread t = new Thread(this::run, "clinic-registry-watcher");
+        t.setDaemon(true);
+        thread = t;
+        t.start();
+    }
+
+    private void run() {
+        boolean changeStream = properties.isChangeStream();
+        while (running) {
+            try {
+                if (changeStream) {
+                    watch();
+                } else {
+                    Thread.sleep(properties.getPollInterval().toMillis());
+                    clinicService.reloadRegistry();
+                }
+            } catch (InterruptedException e) {
+                return;
+            } catch (MongoCommandException e) {
+                if (e.getErrorCode() == NOT_A_REPLICA_SET || e.getErrorCode() == ILLEGAL_OPERATION) {
+                    log.info("Change streams unavailable, polling clinics every {}", properties.getPollInterval());
+                    changeStream = false;
+                } else {
+                    pauseAfterFailure(e);
+                }
+            } catch (MongoException | IllegalStateException e) {
+                if (running) {
+                    pauseAfterFailure(e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Block on the change stream and reload on each event. Changes made while the stream was
+     * (re)opening are covered by the reload right after opening it.
+     */
+
+    private void watch() {
+        try (MongoChangeStreamCursor<ChangeStreamDocument<Document>> c = mongoTemplate
+                .getCollection(mongoTemplate.getCollectionName(Clinic.class))
+                .watch()
+                .cursor()) {
+            cursor = c;
+            clinicService.reloadRegistry();
+            while (running) {
+                c.next();
+                clinicService.reloadRegistry();
+            }
+        } finally {
+            cursor = null;
+        }
+    }
+
+    private void pauseAfterFailure(RuntimeException e) {
+        log.warn("Clinic registry refresh failed, retrying in {}", properties.getPollInterval(), e);
+        try {
+            Thread.sleep(properties.getPollInterval().toMillis());
+        } catch (InterruptedException ie) {
+            running = false;
+        }
+    }
+
+    @PreDestroy
+    synchronized void stop() {
+        running = false;
+        MongoChangeStreamCursor<?> c = cursor;
+        if (c != null) {
+            c.close();
+        }
+        Thread t = thread;
+        if (t != null) {
+            t.interrupt();
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.bookify.bookify_app.service;
+
+// ********************************************************************************************
+// * ClinicScheduleService keeps the compiled OpeningSchedule of every clinic in memory.      *
+// *                                                                                          *
+// * - A clinic's schedule is compiled from its ClinicSettings the first time it is asked     *
+// *   for, and replaced whenever ClinicSettingsService saves new settings (the only place    *
+// *   that writes them), so callers never parse opening-hours strings.                       *
+// * - Clinics without settings are remembered as well, so they do not cost a query each.     *
+// * - Only saves on this node update the cache, so entries older than RELOAD_AFTER are       *
+// *   compiled again from Mongo: settings saved on another node show up within that window.  *
+// ********************************************************************************************
+
+import com.bookify.bookify_app.model.ClinicSettings;
+import com.bookify.bookify_app.repository.ClinicSettingsRepository;
+import com.bookify.bookify_app.util.OpeningSchedule;
+
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Service
+public class ClinicScheduleService {
+
+    // Reload schedules after this long to pick up settings saved on other nodes
+    static final Duration RELOAD_AFTER = Duration.ofMinutes(5);
+
+    private final ClinicSettingsRepository repo;
+    private final Map<String, CachedSchedule> schedules = new ConcurrentHashMap<>();
+
+    public ClinicScheduleService(ClinicSettingsRepository repo) {
+        this.repo = repo;
+    }
+
+    /**
+     * The compiled schedule of a clinic.
+     *
+     * @return the schedule, or null if the clinic has no settings
+     */
+
+    public OpeningSchedule schedule(String clinicId) {
+        long now = System.currentTimeMillis();
+        CachedSchedule cached = schedules.get(clinicId);
+        if (cached == null || now - cached.loadedAtMillis() > RELOAD_AFTER.toMillis()) {
+            ClinicSettings settings = repo.findByClinicId(clinicId);
+            CachedSchedule loaded = new CachedSchedule(
+                    Optional.ofNullable(settings).map(ClinicScheduleService::compile), now);
+            // A save that ran meanwhile has already stored the newer schedule; keep it
+            boolean stored = cached == null
+                    ? schedules.putIfAbsent(clinicId, loaded) == null
+                    : schedules.replace(clinicId, cached, loaded);
+            cached = stored ? loaded : schedules.getOrDefault(clinicId, loaded);
+        }
+        return cached.schedule().orElse(null);
+    }
+
+    /**
+     * Is the clinic open at this clinic-local time? False for clinics without settings.
+     */
+
+    public boolean isOpen(String clinicId, LocalDateTime time) {
+        OpeningSchedule schedule = schedule(clinicId);
+        return schedule != null && schedule.isOpen(time);
+    }
+
+    /**
+     * Is the clinic open for the whole of [from, to)? False for clinics without settings.
+     */
+
+    public boolean isOpen(String clinicId, LocalDateTime from, LocalDateTime to) {
+        OpeningSchedule schedule = schedule(clinicId);
+        return schedule != null && schedule.isOpen(from, to);
+    }
+
+    /**
+     * Compile settings without storing them, e.g. to validate them before they are saved.
+     *
+     * @throws IllegalArgumentException if an opening-hours entry cannot be parsed
+     */
+
+    public static OpeningSchedule compile(ClinicSettings settings) {
+        return OpeningSchedule.compile(settings.getOpeningHours(), settings.getSpecialOpenings(),
+                settings.getSpecialClosings());
+    }
+
+    /**
+     * Store the schedule of settings that were just saved.
+     */
+
+    public void update(String clinicId, OpeningSchedule schedule) {
+        if (clinicId != null) {
+            schedules.put(clinicId, new CachedSchedule(Optional.of(schedule), System.currentTimeMillis()));
+        }
+    }
+
+    /**
+     * Forget a clinic's schedule; the next call compiles it again from Mongo.
+     */
+
+    public void evict(String clinicId) {
+        if (clinicId != null) {
+            schedules.remove(clinicId);
+        }
+    }
+
+    // Empty schedule = the clinic has no settings
+    private record CachedSchedule(Optional<OpeningSchedule> schedule, long loadedAtMillis) {}
+}
@@ -7,23 +7,64 @@ package com.bookify.bookify_app.service;
 // *   - Optional variant: returns Optional<String>, avoids exceptions, useful in filters.    *
 // *   - Throwing variant: fails fast with ClinicNotFoundException, for stricter contexts.    *
 // *                                                                                          *
+// * After startup every clinic is held in an in-memory registry (subdomain -> clinicId),     *
+// * loaded by ClinicRegistryWatcher and kept fresh from a change stream or by polling.       *
+// * Once loaded, lookups never touch the database.                                           *
+// *                                                                                          *
+// * Until then, lookups are cached lazily (TenantProperties.Cache):                          *
+// *   - Known subdomains for "ttl", unknown subdomains for the shorter "negative-ttl", so a  *
+// *     flood of made-up hosts cannot turn into a flood of Mongo queries.                    *
+// *   - Both maps are bounded by "max-entries".                                              *
+// *   - ClinicEventListener updates the registry and invalidates cache entries whenever a    *
+// *     Clinic is saved or deleted on this node.                                             *
+// *   - Hits and misses are counted (cacheStats()).                                          *
+// *                                                                                          *
 // * WHY: Makes the API explicit and safe for both filters and controllers depending on use   *
-// * case (graceful handling vs. strict validation).                                          *
+// * case (graceful handling vs. strict validation). The filter resolves the tenant on every  *
+// * request, so the warm path must not touch the database.                                   *
 // ********************************************************************************************
 
+import com.bookify.bookify_app.config.TenantProperties;
 import com.bookify.bookify_app.model.Clinic;
 import com.bookify.bookify_app.repository.ClinicRepository;
 import org.springframework.stereotype.Service;
 
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
 
 @Service
 public class ClinicService {
 
     private final ClinicRepository repo;
 
-    public ClinicService(ClinicRepository repo) {
+    private final long ttlNanos;
+    private final long negativeTtlNanos;
+    private final int maxEntries;
+
+    // subdomain -> cached lookup; known and unknown subdomains are bounded separately
+    private final Map<String, CachedClinicId> known = new ConcurrentHashMap<>();
+    private final Map<String, CachedClinicId> unknown = new ConcurrentHashMap<>();
+    // Bumped on every invalidation; a lookup started before it must not be cached
+    private final AtomicLong generation = new AtomicLong();
+
+    // Immutable snapshot of all clinics, replaced on every change; null until loaded
+    private volatile Map<String, Optional<String>> registry;
+    // Serializes registry writers; a ReentrantLock so a reload never pins a virtual thread
+    private final ReentrantLock registryLock = new ReentrantLock();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public ClinicService(ClinicRepository repo, TenantProperties properties) {
         this.repo = repo;
+        this.ttlNanos = properties.getCache().getTtl().toNanos();
+        this.negativeTtlNanos = properties.getCache().getNegativeTtl().toNanos();
+        this.maxEntries = properties.getCache().getMaxEntries();
     }
 
 
@@ -37,7 +78,37 @@ public class ClinicService {
      */
 
     public Optional<String> resolveClinicIdBySubdomainOptional(String subdomain) {
-        return repo.findBySubdomain(subdomain).map(Clinic::getId);
+        Map<String, Optional<String>> loaded = registry;
+        if (loaded != null) {
+            hits.increment();
+            return loaded.getOrDefault(subdomain, Optional.empty());
+        }
+
+        long now = System.nanoTime();
+        CachedClinicId cached = known.get(subdomain);
+        if (cached == null) {
+            cached = unknown.get(subdomain);
+        }
+        if (cached != null && now - cached.expiresAtNanos < 0) {
+            hits.increment();
+            return cached.clinicId;
+        }
+
+        misses.increment();
+        long loadedAt = generation.get();
+        Optional<String> clinicId = repo.findBySubdomain(subdomain).map(Clinic::getId);
+
+        Map<String, CachedClinicId> target = clinicId.isPresent() ? known : unknown;
+        if (target.size() >= maxEntries) {
+            evict(target, now);
+        }
+        target.put(subdomain, new CachedClinicId(clinicId,
+                now + (clinicId.isPresent() ? ttlNanos : negativeTtlNanos)));
+        // The clinic changed while we were reading it; drop what may be stale
+        if (generation.get() != loadedAt) {
+            target.remove(subdomain);
+        }
+        return clinicId;
     }
 
     /**
@@ -54,6 +125,104 @@ public class ClinicService {
                 .orElseThrow(() -> new ClinicNotFoundException(subdomain));
     }
 
+    /**
+     * Load every clinic into the registry, replacing the previous snapshot.
+     * From now on lookups are answered from memory only.
+     */
+
+    public void reloadRegistry() {
+        registryLock.lock();
+        try {
+            Map<String, Optional<String>> all = new HashMap<>();
+            for (Clinic clinic : repo.findAll()) {
+                if (clinic.getSubdomain() != null) {
+                    all.put(clinic.getSubdomain(), Optional.of(clinic.getId()));
+                }
+            }
+            registry = Map.copyOf(all);
+            invalidateCache();
+        } finally {
+            registryLock.unlock();
+        }
+    }
+
+    public boolean isRegistryLoaded() {
+        return registry != null;
+    }
+
+    /**
+     * A clinic was saved: point its (possibly renamed) subdomain at it in the registry and
+     * forget any cached lookup of the old or new subdomain.
+     */
+
+    public void invalidate(Clinic clinic) {
+        registryLock.lock();
+        try {
+            Map<String, Optional<String>> loaded = registry;
+            if (loaded != null && clinic.getId() != null) {
+                Map<String, Optional<String>> next = new HashMap<>(loaded);
+                next.values().removeIf(id -> id.filter(clinic.getId()::equals).isPresent());
+                if (clinic.getSubdomain() != null) {
+                    next.put(clinic.getSubdomain(), Optional.of(clinic.getId()));
+                }
+                registry = Map.copyOf(next);
+            }
+        } finally {
+            registryLock.unlock();
+        }
+
+        generation.incrementAndGet();
+        if (clinic.getSubdomain() != null) {
+            known.remove(clinic.getSubdomain());
+            unknown.remove(clinic.getSubdomain());
+        }
+        if (clinic.getId() != null) {
+            known.values().removeIf(c -> c.clinicId.filter(clinic.getId()::equals).isPresent());
+        }
+    }
+
+    /**
+     * Forget every cached lookup (e.g. after a delete, where only the query is known).
+     * A loaded registry is reloaded from the database.
+     */
+
+    public void invalidateAll() {
+        if (registry != null) {
+            reloadRegistry();
+        } else {
+            invalidateCache();
+        }
+    }
+
+    private void invalidateCache() {
+        generation.incrementAndGet();
+        known.clear();
+        unknown.clear();
+    }
+
+    public CacheStats cacheStats() {
+        Map<String, Optional<String>> loaded = registry;
+        return new CacheStats(hits.sum(), misses.sum(), known.size(), unknown.size(),
+                loaded == null ? 0 : loaded.size());
+    }
+
+    /**
+     * Hit/miss counters of tenant resolution since startup (registry lookups count as hits).
+     */
+
+    public record CacheStats(long hits, long misses, int knownEntries, int unknownEntries, int registeredClinics) {}
+
+    private void evict(Map<String, CachedClinicId> map, long now) {
+        map.values().removeIf(c -> now - c.expiresAtNanos >= 0);
+        // Still full of live entries (e.g. random hosts): start over rather than grow
+        if (map.size() >= maxEntries) {
+            map.clear();
+        }
+    }
+
+    // The Optional is cached too, so a hit allocates nothing
+    private record CachedClinicId(Optional<String> clinicId, long expiresAtNanos) {}
+
     /**
      * Custom runtime exception thrown when no clinic is found for a given subdomain.
      */
@@ -2,6 +2,7 @@ package com.bookify.bookify_app.service;
 
 import com.bookify.bookify_app.model.ClinicSettings;
 import com.bookify.bookify_app.repository.ClinicSettingsRepository;
+import com.bookify.bookify_app.util.OpeningSchedule;
 import org.springframework.stereotype.Service;
 
 import java.util.Optional;
@@ -9,20 +10,46 @@ import java.util.Optional;
 @Service
 public class ClinicSettingsService {
     private final ClinicSettingsRepository repo;
+    private final AvailabilityService availabilityService;
+    private final ClinicScheduleService scheduleService;
+    private final RosterCache rosterCache;
 
-    public ClinicSettingsService(ClinicSettingsRepository repo) {
+    public ClinicSettingsService(ClinicSettingsRepository repo, AvailabilityService availabilityService,
+                                 ClinicScheduleService scheduleService, RosterCache rosterCache) {
         this.repo = repo;
+        this.availabilityService = availabilityService;
+        this.scheduleService = scheduleService;
+        this.rosterCache = rosterCache;
     }
 
     public Optional<ClinicSettings> getByClinicId(String clinicId) {
         return Optional.ofNullable(repo.findByClinicId(clinicId));
     }
 
+    /**
+     * Save settings and rebuild the clinic's compiled opening schedule. Rosters are laid out
+     * on the slot grid of the settings, so they are rebuilt as well.
+     *
+     * @throws IllegalArgumentException if an opening-hours entry cannot be parsed (nothing is saved)
+     */
+
     public ClinicSettings save(ClinicSettings settings) {
-        return repo.save(settings);
+        // Compile first so malformed opening hours are rejected before they are stored
+        OpeningSchedule schedule = ClinicScheduleService.compile(settings);
+        ClinicSettings saved = repo.save(settings);
+        scheduleService.update(saved.getClinicId(), schedule);
+        rosterCache.invalidate(saved.getClinicId());
+        availabilityService.invalidate(saved.getClinicId());
+        return saved;
     }
 
     public void delete(String id) {
+        Optional<ClinicSettings> existing = repo.findById(id);
         repo.deleteById(id);
+        existing.ifPresent(deleted -> {
+            scheduleService.evict(deleted.getClinicId());
+            rosterCache.invalidate(deleted.getClinicId());
+            availabilityService.invalidate(deleted.getClinicId());
+        });
     }
 }
@@ -0,0 +1,268 @@
+package com.bookify.bookify_app.service;
+
+// ********************************************************************************************
+// * EmailDispatcher delivers the email outbox written by EmailService.                       *
+// *                                                                                          *
+// * HOW IT WORKS (every bookify.mail.poll-interval, on one background thread):               *
+// * - Claim: up to batch-size due mails are marked SENDING with a claim token and a lease,   *
+// *   so several app nodes never send the same mail. Mails whose lease ran out (crashed      *
+// *   node) become due again.                                                                *
+// * - Throttle: a token bucket per recipient provider (domain); mails over the limit are     *
+// *   put back with a later nextAttemptAt, without counting as a failed attempt.             *
+// * - Send: the batch goes out through JavaMailSender in one SMTP session. Without           *
+// *   spring.mail.host there is no JavaMailSender and mails are only logged (development):   *
+// *   recipient and subject at INFO, the body (token links) only at DEBUG.                   *
+// * - Retry: failed mails are retried with exponential backoff and jitter, and marked FAILED *
+// *   after max-attempts. Sent and failed mails expire through a TTL index.                  *
+// * - Sent and failed mails lose their body at once: it holds token links that must not sit  *
+// *   in the outbox for the retention period. Sent mails use the shorter sent-retention.     *
+// ********************************************************************************************
+
+import com.bookify.bookify_app.config.EmailProperties;
+import com.bookify.bookify_app.filter.RateLimiter;
+import com.bookify.bookify_app.filter.TokenBucketRateLimiter;
+import com.bookify.bookify_app.model.OutboxEmail;
+
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+@Component
+public class EmailDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(EmailDispatcher.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final ObjectProvider<JavaMailSender> mailSender;
+    private final EmailProperties properties;
+    private final RateLimiter providerThrottle;
+    private final ScheduledExecutorService scheduler;
+
+    public EmailDispatcher(MongoTemplate mongoTemplate, ObjectProvider<JavaMailSender> mailSender,
+                           EmailProperties properties) {
+        this.mongoTemplate = mongoTemplate;
+        this.mailSender = mailSender;
+        this.properties = properties;
+        this.providerThrottle = new TokenBucketRateLimiter(properties.getPerProviderLimit(),
+                properties.getPerProviderWindow().toMillis(), 10_000, Duration.ofMinutes(5).toMillis());
+
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "email-dispatcher");
+            t.setDaemon(true);
+            return t;
+        });
+        long pollMillis = properties.getPollInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(this::dispatchSafely, pollMillis, pollMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Run one claim/throttle/send round now (also used by tests instead of waiting).
+     *
+     * @return the number of mails delivered
+     */
+
+    public int dispatchOnce() {
+        Instant now = Instant.now();
+        List<OutboxEmail> claimed = claim(now);
+        if (claimed.isEmpty()) {
+            return 0;
+        }
+
+        List<OutboxEmail> sendable = new ArrayList<>(claimed.size());
+        for (OutboxEmail mail : claimed) {
+            long waitMillis = providerThrottle.tryAcquire(mail.getProvider(), now.toEpochMilli());
+            if (waitMillis > 0) {
+                release(mail, now.plusMillis(waitMillis));
+            } else {
+                sendable.add(mail);
+            }
+        }
+
+        Map<OutboxEmail, Exception> failures = send(sendable);
+        for (OutboxEmail mail : sendable) {
+            Exception failure = failures.get(mail);
+            if (failure == null) {
+                markSent(mail, now);
+            } else {
+                markFailed(mail, failure, now);
+            }
+        }
+        return sendable.size() - failures.size();
+    }
+
+    private void dispatchSafely() {
+        try {
+            // Keep going while full batches come back, so a backlog drains quickly
+            while (dispatchOnce() >= properties.getBatchSize()) {
+                // next batch
+            }
+        } catch (RuntimeException e) {
+            // Keep the schedule alive; claimed mails become due again when their lease ends
+            log.warn("Email dispatch failed", e);
+        }
+    }
+
+    /**
+     * Reserve up to batch-size due mails for this node: find candidates, mark them with a
+     * fresh claim token (only if still claimable), then read back what was actually won.
+     */
+
+    private List<OutboxEmail> claim(Instant now) {
+        Criteria due = new Criteria().orOperator(
+                where("status").is(OutboxEmail.Status.PENDING).and("nextAttemptAt").lte(now),
+                where("status").is(OutboxEmail.Status.SENDING).and("lockedUntil").lt(now));
+
+        Query candidates = Query.query(due).with(Sort.by("nextAttemptAt")).limit(properties.getBatchSize());
+        candidates.fields().include("_id");
+        List<Object> ids = mongoTemplate.find(candidates, OutboxEmail.class).stream()
+                .map(m -> (Object) m.getId())
+                .toList();
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        String token = UUID.randomUUID().toString();
+        mongoTemplate.updateMulti(
+                Query.query(new Criteria().andOperator(where("_id").in(ids), due)),
+                new Update().set("status", OutboxEmail.Status.SENDING)
+                        .set("claimToken", token)
+                        .set("lockedUntil", now.plus(properties.getClaimLease())),
+                OutboxEmail.class);
+        return mongoTemplate.find(Query.query(where("claimToken").is(token)), OutboxEmail.class);
+    }
+
+    /**
+     * Send a batch in one SMTP session.
+     *
+     * @return the mails that could not be delivered, with the reason
+     */
+
+    private Map<OutboxEmail, Exception> send(List<OutboxEmail> batch) {
+        Map<OutboxEmail, Exception> failures = new IdentityHashMap<>();
+        if (batch.isEmpty()) {
+            return failures;
+        }
+
+        JavaMailSender sender = mailSender.getIfAvailable();
+        if (sender == null) {
+            for (OutboxEmail mail : batch) {
+                log.info("Mail (no SMTP configured) to={} subject={}", mail.getTo(), mail.getSubject());
+                log.debug("Mail body for {}:\n{}", mail.getTo(), mail.getBody());
+            }
+            return failures;
+        }
+
+        Map<SimpleMailMessage, OutboxEmail> byMessage = new IdentityHashMap<>();
+        for (OutboxEmail mail : batch) {
+            SimpleMailMessage message = new SimpleMailMessage();
+            message.setFrom(properties.getFrom());
+            message.setTo(mail.getTo());
+            message.setSubject(mail.getSubject());
+            message.setText(mail.getBody());
+            byMessage.put(message, mail);
+        }
+
+        try {
+            sender.send(byMessage.keySet().toArray(SimpleMailMessage[]::new));
+        } catch (MailSendException e) {
+            if (e.getFailedMessages().isEmpty()) {
+                batch.forEach(mail -> failures.put(mail, e));
+            }
+            e.getFailedMessages().forEach((message, cause) -> {
+                OutboxEmail mail = byMessage.get(message);
+                if (mail != null) {
+                    failures.put(mail, cause);
+                }
+            });
+        } catch (MailException e) {
+            // Connection or authentication problem: nothing in the batch went out
+            batch.forEach(mail -> failures.put(mail, e));
+        }
+        return failures;
+    }
+
+    private void markSent(OutboxEmail mail, Instant now) {
+        mongoTemplate.updateFirst(owned(mail),
+                new Update().set("status", OutboxEmail.Status.SENT)
+                        .set("sentAt", now)
+                        .set("attempts", mail.getAttempts() + 1)
+                        .set("expiresAt", now.plus(properties.getSentRetention()))
+                        .unset("body").unset("claimToken").unset("lockedUntil").unset("lastError"),
+                OutboxEmail.class);
+    }
+
+    private void markFailed(OutboxEmail mail, Exception failure, Instant now) {
+        int attempts = mail.getAttempts() + 1;
+        Update update = new Update()
+                .set("attempts", attempts)
+                .set("lastError", String.valueOf(failure.getMessage()))
+                .unset("claimToken").unset("lockedUntil");
+
+        if (attempts >= properties.getMaxAttempts()) {
+            log.warn("Giving up on mail {} to {} after {} attempts", mail.getId(), mail.getTo(), attempts, failure);
+            update.set("status", OutboxEmail.Status.FAILED).set("expiresAt", now.plus(properties.getRetention()))
+                    .unset("body");
+        } else {
+            update.set("status", OutboxEmail.Status.PENDING).set("nextAttemptAt", now.plus(backoff(attempts)));
+        }
+        mongoTemplate.updateFirst(owned(mail), update, OutboxEmail.class);
+    }
+
+    // Throttled: back to the queue without using up an attempt
+    private void release(OutboxEmail mail, Instant nextAttemptAt) {
+        mongoTemplate.updateFirst(owned(mail),
+                new Update().set("status", OutboxEmail.Status.PENDING)
+                        .set("nextAttemptAt", nextAttemptAt)
+                        .unset("claimToken").unset("lockedUntil"),
+                OutboxEmail.class);
+    }
+
+    /**
+     * initialBackoff * 2^(attempts-1), capped at maxBackoff, with +-20% jitter so retries of
+     * one failed batch do not all hit the provider at the same moment.
+     */
+
+    Duration backoff(int attempts) {
+        long base = properties.getInitialBackoff().toMillis();
+        long max = properties.getMaxBackoff().toMillis();
+        long delay = attempts >= 31 ? max : Math.min(max, base << (attempts - 1));
+        double jitter = 0.8 + ThreadLocalRandom.current().nextDouble() * 0.4;
+        return Duration.ofMillis((long) (delay * jitter));
+    }
+
+    // Only the node holding the claim may complete a mail
+    private static Query owned(OutboxEmail mail) {
+        return Query.query(where("_id").is(mail.getId()).and("claimToken").is(mail.getClaimToken()));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        scheduler.shutdown();
+    }
+}
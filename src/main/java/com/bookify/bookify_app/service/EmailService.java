@@ -1,4 +1,79 @@
 package com.bookify.bookify_app.service;
 
+// ********************************************************************************************
+// * EmailService queues transactional mail (account verification, password reset).           *
+// *                                                                                          *
+// * HOW IT WORKS:                                                                            *
+// * - Every mail is written to the email_outbox collection in the calling request; that      *
+// *   insert is the only cost a request pays.                                                *
+// * - EmailDispatcher delivers the outbox in the background: batched, retried with backoff,  *
+// *   throttled per recipient provider.                                                      *
+// *                                                                                          *
+// * WHY: Registration and password reset must not wait for (or fail with) the mail server.   *
+// * A queued mail survives restarts and is retried until it is delivered.                    *
+// ********************************************************************************************
+
+import com.bookify.bookify_app.config.EmailProperties;
+import com.bookify.bookify_app.model.OutboxEmail;
+import com.bookify.bookify_app.repository.OutboxEmailRepository;
+
+import lombok.RequiredArgsConstructor;
+
+import org.springframework.stereotype.Service;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+@Service
+@RequiredArgsConstructor
 public class EmailService {
+
+    private final OutboxEmailRepository outboxRepository;
+    private final EmailProperties properties;
+
+    /**
+     * Queue the account verification mail with the activation link.
+     *
+     * @param to    recipient address
+     * @param token raw verification token
+     * @return the queued outbox entry
+     */
+
+    public OutboxEmail sendVerificationEmail(String to, String token) {
+        return enqueue(to, "Verify your account",
+                "Welcome!\n\nPlease confirm your email address by opening the link below:\n"
+                        + link("/verify-email", token)
+                        + "\n\nThe link is valid for 24 hours.");
+    }
+
+    /**
+     * Queue the password reset mail with the reset link.
+     *
+     * @param to    recipient address
+     * @param token raw password reset token
+     * @return the queued outbox entry
+     */
+
+    public OutboxEmail sendPasswordResetEmail(String to, String token) {
+        return enqueue(to, "Reset your password",
+                "A password reset was requested for your account.\n\nOpen the link below to choose a new password:\n"
+                        + link("/reset-password", token)
+                        + "\n\nThe link is valid for 30 minutes. If you did not ask for this, ignore this mail.");
+    }
+
+    /**
+     * Write a mail to the outbox; EmailDispatcher delivers it in the background.
+     */
+
+    public OutboxEmail enqueue(String to, String subject, String body) {
+        if (to == null || to.isBlank()) {
+            throw new IllegalArgumentException("Recipient is required");
+        }
+        return outboxRepository.save(new OutboxEmail(to.trim(), subject, body, Instant.now()));
+    }
+
+    private String link(String path, String token) {
+        return properties.getLinkBaseUrl() + path + "?token=" + URLEncoder.encode(token, StandardCharsets.UTF_8);
+    }
 }
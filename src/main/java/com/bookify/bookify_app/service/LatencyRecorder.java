@@ -0,0 +1,196 @@
+package com.bookify.bookify_app.service;
+
+// ********************************************************************************************
+// * LatencyRecorder keeps HDR histograms of request latency, read at /actuator/latency.      *
+// *                                                                                          *
+// * WHAT IS RECORDED (microseconds, reported in milliseconds):                               *
+// * - Per endpoint ("GET /api/v1/clinics/{id}"): total time and every phase of               *
+// *   RequestTimings (rate limit, auth, tenant resolution, controller, Mongo).               *
+// * - Per clinic: total time and Mongo time, to find tenants that are slow or expensive.     *
+// *   At most bookify.instrumentation.max-tenants clinics get their own histograms; the rest *
+// *   share "other", requests without a tenant go to "none".                                 *
+// * - Per repository method ("BookingRepository.findByClinicIdAndStaffIdInRange").           *
+// *                                                                                          *
+// * Histograms are lock-free to record into (ConcurrentHistogram), have a fixed size and     *
+// * keep 2 significant digits, so p99/p99.9 are exact to within 1% regardless of the number  *
+// * of samples. Counts accumulate until reset() (DELETE /actuator/latency).                  *
+// ********************************************************************************************
+
+import com.bookify.bookify_app.config.InstrumentationProperties;
+import com.bookify.bookify_app.util.RequestTimings;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+@Service
+public class LatencyRecorder {
+
+    public static final String TOTAL = "TOTAL";
+    public static final String UNMATCHED = "UNMATCHED";
+    public static final String OTHER = "other";
+    public static final String NO_TENANT = "none";
+
+    private static final RequestTimings.Phase[] PHASES = RequestTimings.Phase.values();
+
+    private final long highestMicros;
+    private final int significantDigits;
+    private final int maxTenants;
+    private final int maxEndpoints;
+
+    private final Map<String, EndpointStats> endpoints = new ConcurrentHashMap<>();
+    private final Map<String, TenantStats> tenants = new ConcurrentHashMap<>();
+    private final Map<String, Histogram> repositoryCalls = new ConcurrentHashMap<>();
+
+    public LatencyRecorder(InstrumentationProperties properties) {
+        this.highestMicros = Math.max(2, TimeUnit.NANOSECONDS.toMicros(properties.getHighestLatency().toNanos()));
+        this.significantDigits = properties.getSignificantDigits();
+        this.maxTenants = properties.getMaxTenants();
+        this.maxEndpoints = properties.getMaxEndpoints();
+    }
+
+    /**
+     * Record a finished request.
+     *
+     * @param endpoint    HTTP method and route pattern, or null if no handler matched
+     * @param timings     the request's phase timings
+     * @param totalNanos  wall-clock time of the whole request
+     */
+
+    public void recordRequest(String endpoint, RequestTimings timings, long totalNanos) {
+        EndpointStats stats = bounded(endpoints, endpoint != null ? endpoint : UNMATCHED, maxEndpoints,
+                OTHER, key -> new EndpointStats());
+        record(stats.total, totalNanos);
+        for (RequestTimings.Phase phase : PHASES) {
+            if (timings.recorded(phase)) {
+                record(stats.phases.get(phase), timings.nanos(phase));
+            }
+        }
+
+        String clinicId = timings.clinicId();
+        TenantStats tenant = bounded(tenants, clinicId != null ? clinicId : NO_TENANT, maxTenants,
+                OTHER, key -> new TenantStats());
+        record(tenant.total, totalNanos);
+        record(tenant.mongo, timings.nanos(RequestTimings.Phase.MONGO));
+    }
+
+    /**
+     * Record one repository call, e.g. "BookingRepository.findById".
+     */
+
+    public void recordRepositoryCall(String method, long nanos) {
+        record(repositoryCalls.computeIfAbsent(method, key -> newHistogram()), nanos);
+    }
+
+    /**
+     * Percentiles of everything recorded since startup or the last reset. Tenants are
+     * sorted by p99, slowest first.
+     */
+
+    public Snapshot snapshot() {
+        Map<String, Map<String, Stats>> byEndpoint = new TreeMap<>();
+        endpoints.forEach((endpoint, stats) -> {
+            Map<String, Stats> phases = new LinkedHashMap<>();
+            phases.put(TOTAL, Stats.of(stats.total));
+            stats.phases.forEach((phase, histogram) -> {
+                if (histogram.getTotalCount() > 0) {
+                    phases.put(phase.name(), Stats.of(histogram));
+                }
+            });
+            byEndpoint.put(endpoint, phases);
+        });
+
+        List<TenantSnapshot> byTenant = new ArrayList<>();
+        tenants.forEach((clinicId, stats) ->
+                byTenant.add(new TenantSnapshot(clinicId, Stats.of(stats.total), Stats.of(stats.mongo))));
+        byTenant.sort(Comparator.comparingDouble((TenantSnapshot t) -> t.total().p99()).reversed());
+
+        Map<String, Stats> byRepositoryCall = new TreeMap<>();
+        repositoryCalls.forEach((method, histogram) -> byRepositoryCall.put(method, Stats.of(histogram)));
+
+        return new Snapshot(byEndpoint, byTenant, byRepositoryCall);
+    }
+
+    /**
+     * Drop every histogram, e.g. before a load test.
+     */
+
+    public void reset() {
+        endpoints.clear();
+        tenants.clear();
+        repositoryCalls.clear();
+    }
+
+    public record Stats(long count, double p50, double p90, double p99, double p999, double max) {
+
+        static Stats of(Histogram histogram) {
+            Histogram copy = histogram.copy();
+            return new Stats(copy.getTotalCount(),
+                    millis(copy.getValueAtPercentile(50)),
+                    millis(copy.getValueAtPercentile(90)),
+                    millis(copy.getValueAtPercentile(99)),
+                    millis(copy.getValueAtPercentile(99.9)),
+                    millis(copy.getMaxValue()));
+        }
+
+        private static double millis(long micros) {
+            return micros / 1000.0;
+        }
+    }
+
+    public record TenantSnapshot(String clinicId, Stats total, Stats mongo) {}
+
+    public record Snapshot(Map<String, Map<String, Stats>> endpoints, List<TenantSnapshot> tenants,
+                           Map<String, Stats> repositoryCalls) {}
+
+    // Keys beyond the limit share one overflow entry, so a key space we do not control
+    // (clinics, unmatched URLs) cannot grow the maps without bound
+    private static <T> T bounded(Map<String, T> map, String key, int limit, String overflow,
+                                 Function<String, T> factory) {
+        T value = map.get(key);
+        if (value != null) {
+            return value;
+        }
+        if (map.size() >= limit) {
+            return map.computeIfAbsent(overflow, factory);
+        }
+        return map.computeIfAbsent(key, factory);
+    }
+
+    private void record(Histogram histogram, long nanos) {
+        // Out-of-range values would throw; clamp them to the top bucket instead
+        histogram.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(nanos), highestMicros));
+    }
+
+    private Histogram newHistogram() {
+        return new ConcurrentHistogram(1, highestMicros, significantDigits);
+    }
+
+    private final class EndpointStats {
+        private final Histogram total = newHistogram();
+        // One histogram per phase up front: never modified after construction, safe to share
+        private final Map<RequestTimings.Phase, Histogram> phases = new EnumMap<>(RequestTimings.Phase.class);
+
+        EndpointStats() {
+            for (RequestTimings.Phase phase : PHASES) {
+                phases.put(phase, newHistogram());
+            }
+        }
+    }
+
+    private final class TenantStats {
+        private final Histogram total = newHistogram();
+        private final Histogram mongo = newHistogram();
+    }
+}
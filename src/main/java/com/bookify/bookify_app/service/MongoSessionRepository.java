@@ -0,0 +1,346 @@
+package com.bookify.bookify_app.service;
+
+// ********************************************************************************************
+// * MongoSessionRepository stores HTTP sessions in Mongo so that a login survives restarts   *
+// * and works on every node (bookify.session.store=MONGO, enabled by SessionConfig).         *
+// *                                                                                          *
+// * HOW IT WORKS:                                                                            *
+// * - Near-cache: sessions read from Mongo are served from memory for near-cache-ttl. The    *
+// *   cache is bounded by near-cache-max-entries; a miss simply reads Mongo again, so        *
+// *   memory per node stays flat however many users are logged in.                           *
+// * - Writes only on change: a new session, a changed id (login), a set/removed attribute    *
+// *   or a new timeout is written synchronously, so the next request sees it on any node.    *
+// *   A request that changes nothing writes nothing.                                         *
+// * - Write-behind touches: extending the expiry is queued at most once per touch-interval   *
+// *   and written by a background thread in one bulk update per flush-interval.              *
+// * - Expired sessions are deleted by a TTL index on expiresAt; no cleanup job is needed.    *
+// *                                                                                          *
+// * Only setAttribute/removeAttribute mark a session as changed; an attribute value that is  *
+// * mutated in place must be set again to be stored (as with every Spring Session store).    *
+// ********************************************************************************************
+
+import com.bookify.bookify_app.config.HttpSessionProperties;
+import com.bookify.bookify_app.model.StoredHttpSession;
+
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.serializer.support.DeserializingConverter;
+import org.springframework.core.serializer.support.SerializingConverter;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.session.MapSession;
+import org.springframework.session.Session;
+import org.springframework.session.SessionRepository;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+@Service
+@ConditionalOnProperty(prefix = "bookify.session", name = "store", havingValue = "MONGO")
+public class MongoSessionRepository implements SessionRepository<MongoSessionRepository.TrackedSession> {
+
+    private static final Logger log = LoggerFactory.getLogger(MongoSessionRepository.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final Duration timeout;
+    private final long nearCacheTtlNanos;
+    private final int maxEntries;
+    private final Duration touchInterval;
+
+    // session id -> last known state; copies are handed out, never the cached instance
+    private final Map<String, Cached> nearCache = new ConcurrentHashMap<>();
+    // session id -> expiry extension not yet written
+    private final Map<String, Touch> pendingTouches = new ConcurrentHashMap<>();
+
+    private final SerializingConverter serializer = new SerializingConverter();
+    private final DeserializingConverter deserializer =
+            new DeserializingConverter(MongoSessionRepository.class.getClassLoader());
+    private final ScheduledExecutorService flusher;
+
+    public MongoSessionRepository(MongoTemplate mongoTemplate, HttpSessionProperties properties) {
+        this.mongoTemplate = mongoTemplate;
+        this.timeout = properties.getTimeout();
+        this.nearCacheTtlNanos = properties.getNearCacheTtl().toNanos();
+        this.maxEntries = properties.getNearCacheMaxEntries();
+        this.touchInterval = properties.getTouchInterval();
+
+        this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "session-flusher");
+            t.setDaemon(true);
+            return t;
+        });
+        long intervalMillis = properties.getFlushInterval().toMillis();
+        flusher.scheduleWithFixedDelay(this::flushTouches, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public TrackedSession createSession() {
+        MapSession session = new MapSession();
+        session.setMaxInactiveInterval(timeout);
+        return new TrackedSession(session, null, null);
+    }
+
+    @Override
+    public void save(TrackedSession session) {
+        MapSession state = session.delegate;
+        boolean isNew = session.persistedId == null;
+        boolean idChanged = !isNew && !state.getId().equals(session.persistedId);
+
+        if (isNew || idChanged || session.changed) {
+            if (idChanged) {
+                // Login changes the id (session fixation protection); the old one must go
+                deleteById(session.persistedId);
+            }
+            mongoTemplate.save(toDocument(state));
+            pendingTouches.remove(state.getId());
+            session.persistedId = state.getId();
+            cache(state, state.getLastAccessedTime());
+        } else if (Duration.between(session.persistedLastAccessed, state.getLastAccessedTime())
+                .compareTo(touchInterval) >= 0) {
+            pendingTouches.put(state.getId(), new Touch(state.getLastAccessedTime(),
+                    state.getLastAccessedTime().plus(state.getMaxInactiveInterval())));
+            recordAccess(state, state.getLastAccessedTime());
+        } else {
+            // Nothing worth writing; remember the access locally only
+            recordAccess(state, session.persistedLastAccessed);
+        }
+        session.changed = false;
+    }
+
+    @Override
+    public TrackedSession findById(String id) {
+        long now = System.nanoTime();
+        Cached cached = nearCache.get(id);
+        if (cached == null || now - cached.cachedAtNanos >= nearCacheTtlNanos) {
+            cached = load(id);
+            if (cached == null) {
+                nearCache.remove(id);
+                return null;
+            }
+        }
+        if (cached.session.isExpired()) {
+            deleteById(id);
+            return null;
+        }
+        return new TrackedSession(new MapSession(cached.session), id, cached.persistedLastAccessed);
+    }
+
+    @Override
+    public void deleteById(String id) {
+        nearCache.remove(id);
+        pendingTouches.remove(id);
+        mongoTemplate.remove(Query.query(where("_id").is(id)), StoredHttpSession.class);
+    }
+
+    /**
+     * Write all queued expiry extensions in one bulk update (also used by tests instead of
+     * waiting for the background thread).
+     */
+
+    public void flushTouches() {
+        if (pendingTouches.isEmpty()) {
+            return;
+        }
+        Map<String, Touch> batch = new HashMap<>();
+        for (String id : pendingTouches.keySet()) {
+            Touch touch = pendingTouches.remove(id);
+            if (touch != null) {
+                batch.put(id, touch);
+            }
+        }
+        try {
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, StoredHttpSession.class);
+            // Never move an expiry backwards, e.g. over a newer write from another node
+            batch.forEach((id, touch) -> bulk.updateOne(
+                    Query.query(where("_id").is(id).and("lastAccessedTime").lt(touch.lastAccessedTime)),
+                    new Update().set("lastAccessedTime", touch.lastAccessedTime)
+                            .set("expiresAt", touch.expiresAt)));
+            bulk.execute();
+        } catch (RuntimeException e) {
+            // Keep them for the next round unless a newer touch arrived meanwhile
+            batch.forEach(pendingTouches::putIfAbsent);
+            log.warn("Could not extend {} sessions, retrying: {}", batch.size(), e.getMessage());
+        }
+    }
+
+    public int nearCacheSize() {
+        return nearCache.size();
+    }
+
+    @PreDestroy
+    public void stop() {
+        flusher.shutdown();
+        flushTouches();
+    }
+
+    private Cached load(String id) {
+        StoredHttpSession doc = mongoTemplate.findById(id, StoredHttpSession.class);
+        if (doc == null) {
+            return null;
+        }
+        MapSession session = new MapSession(doc.getId());
+        session.setCreationTime(doc.getCreationTime());
+        session.setLastAccessedTime(doc.getLastAccessedTime());
+        session.setMaxInactiveInterval(Duration.ofSeconds(doc.getMaxInactiveSeconds()));
+        for (StoredHttpSession.Attribute attribute : doc.getAttributes()) {
+            session.setAttribute(attribute.getName(), deserializer.convert(attribute.getValue()));
+        }
+
+        // A touch of ours that is not written yet is newer than what Mongo has
+        Instant persisted = doc.getLastAccessedTime();
+        Touch pending = pendingTouches.get(id);
+        if (pending != null && pending.lastAccessedTime.isAfter(persisted)) {
+            session.setLastAccessedTime(pending.lastAccessedTime);
+            persisted = pending.lastAccessedTime;
+        }
+        return cache(session, persisted);
+    }
+
+    private Cached cache(MapSession session, Instant persistedLastAccessed) {
+        long now = System.nanoTime();
+        if (nearCache.size() >= maxEntries && !nearCache.containsKey(session.getId())) {
+            nearCache.values().removeIf(c -> now - c.cachedAtNanos >= nearCacheTtlNanos);
+            // Still full of live entries: start over rather than grow
+            if (nearCache.size() >= maxEntries) {
+                nearCache.clear();
+            }
+        }
+        Cached cached = new Cached(new MapSession(session), persistedLastAccessed, now);
+        nearCache.put(session.getId(), cached);
+        return cached;
+    }
+
+    // Keeps the time the entry was read, so a busy session still notices remote changes
+    private void recordAccess(MapSession session, Instant persistedLastAccessed) {
+        nearCache.computeIfPresent(session.getId(), (id, cached) ->
+                new Cached(new MapSession(session), persistedLastAccessed, cached.cachedAtNanos));
+    }
+
+    private StoredHttpSession toDocument(MapSession session) {
+        StoredHttpSession doc = new StoredHttpSession();
+        doc.setId(session.getId());
+        doc.setCreationTime(session.getCreationTime());
+        doc.setLastAccessedTime(session.getLastAccessedTime());
+        doc.setMaxInactiveSeconds(session.getMaxInactiveInterval().toSeconds());
+        doc.setExpiresAt(session.getLastAccessedTime().plus(session.getMaxInactiveInterval()));
+        List<StoredHttpSession.Attribute> attributes = new ArrayList<>();
+        for (String name : session.getAttributeNames()) {
+            attributes.add(new StoredHttpSession.Attribute(name, serializer.convert(session.getAttribute(name))));
+        }
+        doc.setAttributes(attributes);
+        return doc;
+    }
+
+    private record Cached(MapSession session, Instant persistedLastAccessed, long cachedAtNanos) {}
+
+    private record Touch(Instant lastAccessedTime, Instant expiresAt) {}
+
+    /**
+     * A session handed out for one request. Remembers whether anything that must be stored
+     * synchronously has changed, and when its expiry was last written.
+     */
+
+    public static final class TrackedSession implements Session {
+
+        private final MapSession delegate;
+        private final Instant persistedLastAccessed;
+        // Id the session is stored under; null until the first save
+        private String persistedId;
+        private boolean changed;
+
+        TrackedSession(MapSession delegate, String persistedId, Instant persistedLastAccessed) {
+            this.delegate = delegate;
+            this.persistedId = persistedId;
+            this.persistedLastAccessed = persistedLastAccessed != null
+                    ? persistedLastAccessed : delegate.getLastAccessedTime();
+        }
+
+        @Override
+        public String getId() {
+            return delegate.getId();
+        }
+
+        @Override
+        public String changeSessionId() {
+            return delegate.changeSessionId();
+        }
+
+        @Override
+        public <T> T getAttribute(String attributeName) {
+            return delegate.getAttribute(attributeName);
+        }
+
+        @Override
+        public Set<String> getAttributeNames() {
+            return delegate.getAttributeNames();
+        }
+
+        @Override
+        public void setAttribute(String attributeName, Object attributeValue) {
+            Object previous = delegate.getAttribute(attributeName);
+            if (!Objects.equals(previous, attributeValue)) {
+                changed = true;
+            }
+            delegate.setAttribute(attributeName, attributeValue);
+        }
+
+        @Override
+        public void removeAttribute(String attributeName) {
+            if (delegate.getAttribute(attributeName) != null) {
+                changed = true;
+            }
+            delegate.removeAttribute(attributeName);
+        }
+
+        @Override
+        public Instant getCreationTime() {
+            return delegate.getCreationTime();
+        }
+
+        @Override
+        public void setLastAccessedTime(Instant lastAccessedTime) {
+            delegate.setLastAccessedTime(lastAccessedTime);
+        }
+
+        @Override
+        public Instant getLastAccessedTime() {
+            return delegate.getLastAccessedTime();
+        }
+
+        @Override
+        public void setMaxInactiveInterval(Duration interval) {
+            if (!interval.equals(delegate.getMaxInactiveInterval())) {
+                changed = true;
+            }
+            delegate.setMaxInactiveInterval(interval);
+        }
+
+        @Override
+        public Duration getMaxInactiveInterval() {
+            return delegate.getMaxInactiveInterval();
+        }
+
+        @Override
+        public boolean isExpired() {
+            return delegate.isExpired();
+        }
+    }
+}
@@ -0,0 +1,489 @@
+package com.bookify.bookify_app.service;
+
+// ********************************************************************************************
+// * QueryProfiler measures every command the Mongo driver sends (registered as a driver      *
+// * CommandListener by QueryProfilingConfig) and attributes it to the repository method      *
+// * that issued it.                                                                          *
+// *                                                                                          *
+// * PER METHOD ("BookingRepository.findByClinicId", or "bookings.find" for MongoTemplate):   *
+// * - command count, failures, latency histogram, documents returned.                        *
+// * - the index the query uses: the first time a method is seen, its command is explained    *
+// *   (queryPlanner, never executed) on a background thread. COLLSCAN = no usable index,     *
+// *   logged once as a warning.                                                              *
+// *                                                                                          *
+// * SLOW QUERIES (>= bookify.query-profiling.slow-threshold) are logged with the correlation *
+// * ID and clinic of the request and kept in a bounded list, with the shape of the filter    *
+// * (field names and operators, values replaced by "?") and their own explain.               *
+// *                                                                                          *
+// * The sync driver calls the listener on the thread that runs the query, so the repository  *
+// * method, correlation ID and tenant are read from that thread's context. Cost per query:   *
+// * one copy of the command document (queries only, never inserted documents).               *
+// ********************************************************************************************
+
+import com.bookify.bookify_app.config.QueryProfilingProperties;
+import com.bookify.bookify_app.filter.TenantContext;
+import com.bookify.bookify_app.util.CorrelationIdHolder;
+
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+@Service
+@ConditionalOnProperty(prefix = "bookify.query-profiling", name = "enabled", matchIfMissing = true)
+public class QueryProfiler implements CommandListener {
+
+    private static final Logger log = LoggerFactory.getLogger(QueryProfiler.class);
+
+    public static final String OTHER = "other";
+    public static final String COLLSCAN = "COLLSCAN";
+
+    // Repository method running on this thread; set by the repository advice in InstrumentationConfig
+    private static final ThreadLocal<String> REPOSITORY_METHOD = new ThreadLocal<>();
+
+    private static final Set<String> EXPLAINABLE =
+            Set.of("find", "aggregate", "count", "distinct", "delete", "update", "findAndModify");
+    // Driver housekeeping, authentication and our own explains
+    private static final Set<String> IGNORED = Set.of("explain", "hello", "isMaster", "ismaster", "ping",
+            "buildInfo", "saslStart", "saslContinue", "endSessions", "killCursors");
+    // Session and transaction fields the driver adds; an explain must not carry them
+    private static final Set<String> SESSION_FIELDS = Set.of("$db", "lsid", "txnNumber", "$clusterTime",
+            "$readPreference", "autocommit", "startTransaction", "readConcern", "writeConcern");
+    private static final long HIGHEST_MICROS = TimeUnit.SECONDS.toMicros(60);
+    private static final int MAX_SHAPE_LENGTH = 500;
+    private static final int EXPLAIN_QUEUE = 64;
+
+    private final ObjectProvider<MongoTemplate> mongoTemplate;
+    private final long slowNanos;
+    private final int slowQueryCapacity;
+    private final boolean explain;
+    private final int maxMethods;
+
+    // Commands between started and succeeded/failed, by driver request id
+    private final Map<Integer, InFlight> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, MethodStats> methods = new ConcurrentHashMap<>();
+    private final ReentrantLock slowLock = new ReentrantLock();
+    private final ArrayDeque<SlowQuery> slowQueries = new ArrayDeque<>();
+    // One background thread; explains that do not fit in the queue are skipped
+    private final ThreadPoolExecutor explainer;
+
+    public QueryProfiler(QueryProfilingProperties properties, ObjectProvider<MongoTemplate> mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+        this.slowNanos = properties.getSlowThreshold().toNanos();
+        this.slowQueryCapacity = properties.getSlowQueryCapacity();
+        this.explain = properties.isExplain();
+        this.maxMethods = properties.getMaxMethods();
+        this.explainer = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(EXPLAIN_QUEUE), runnable -> {
+                    Thread thread = new Thread(runnable, "query-explain");
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.DiscardPolicy());
+    }
+
+    /**
+     * Mark the start of a repository call on this thread.
+     *
+     * @return the method that was running before (repositories may call each other), to be
+     *         passed to {@link #exitRepositoryMethod}
+     */
+
+    public static String enterRepositoryMethod(String method) {
+        String previous = REPOSITORY_METHOD.get();
+        REPOSITORY_METHOD.set(method);
+        return previous;
+    }
+
+    public static void exitRepositoryMethod(String previous) {
+        if (previous == null) {
+            REPOSITORY_METHOD.remove();
+        } else {
+            REPOSITORY_METHOD.set(previous);
+        }
+    }
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        String command = event.getCommandName();
+        if (IGNORED.contains(command)) {
+            return;
+        }
+        String collection = collection(command, event.getCommand());
+        String method = REPOSITORY_METHOD.get();
+        // The event's document is only valid during this call: copy what we may need later
+        BsonDocument query = EXPLAINABLE.contains(command) ? event.getCommand().clone() : null;
+
+        inFlight.put(event.getRequestId(), new InFlight(
+                method != null ? method : collection + "." + command,
+                collection, command, event.getDatabaseName(), query,
+                CorrelationIdHolder.getId(), TenantContext.getClinicId()));
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        InFlight started = inFlight.remove(event.getRequestId());
+        if (started != null) {
+            finish(started, event.getElapsedTime(TimeUnit.NANOSECONDS), documentsReturned(event.getResponse()),
+                    false);
+        }
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        InFlight started = inFlight.remove(event.getRequestId());
+        if (started != null) {
+            finish(started, event.getElapsedTime(TimeUnit.NANOSECONDS), 0, true);
+        }
+    }
+
+    /**
+     * Statistics per method (most total time first) and the most recent slow queries
+     * (newest first).
+     */
+
+    public Snapshot snapshot() {
+        List<MethodSnapshot> byMethod = new ArrayList<>();
+        methods.forEach((method, stats) -> byMethod.add(stats.snapshot(method)));
+        byMethod.sort(Comparator.comparingDouble(MethodSnapshot::totalMs).reversed());
+
+        List<SlowQuery> slow;
+        slowLock.lock();
+        try {
+            slow = new ArrayList<>(slowQueries);
+        } finally {
+            slowLock.unlock();
+        }
+        return new Snapshot(byMethod, slow.reversed());
+    }
+
+    public void reset() {
+        methods.clear();
+        slowLock.lock();
+        try {
+            slowQueries.clear();
+        } finally {
+            slowLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        explainer.shutdownNow();
+    }
+
+    public record MethodSnapshot(String method, String collection, long commands, long failures,
+                                 long documentsReturned, double p50, double p99, double max,
+                                 double totalMs, String plan) {}
+
+    public record Snapshot(List<MethodSnapshot> methods, List<SlowQuery> slowQueries) {}
+
+    @Getter
+    public static final class SlowQuery {
+        private final Instant at;
+        private final String method;
+        private final String collection;
+        private final String command;
+        private final double durationMs;
+        private final long documentsReturned;
+        private final boolean failed;
+        private final String shape;
+        private final String correlationId;
+        private final String clinicId;
+        // Filled in by the background explain
+        private volatile String plan;
+
+        SlowQuery(InFlight started, long nanos, long documents, boolean failed) {
+            this.at = Instant.now();
+            this.method = started.method();
+            this.collection = started.collection();
+            this.command = started.command();
+            this.durationMs = nanos / 1_000_000.0;
+            this.documentsReturned = documents;
+            this.failed = failed;
+            this.shape = started.query() != null ? shape(started.command(), started.query()) : null;
+            this.correlationId = started.correlationId();
+            this.clinicId = started.clinicId();
+        }
+    }
+
+    private void finish(InFlight started, long nanos, long documents, boolean failed) {
+        MethodStats stats = stats(started);
+        stats.record(nanos, documents, failed);
+
+        if (explain && started.query() != null && stats.explained.compareAndSet(false, true)) {
+            explain(started, plan -> {
+                stats.plan = plan;
+                if (COLLSCAN.equals(plan)) {
+                    log.warn("Mongo query {} scans the whole {} collection (no usable index): {}",
+                            started.method(), started.collection(), shape(started.command(), started.query()));
+                }
+            });
+        }
+
+        if (nanos >= slowNanos) {
+            SlowQuery slow = new SlowQuery(started, nanos, documents, failed);
+            log.warn("Slow Mongo query: {} on {} took {} ms, {} documents [correlationId={}, clinicId={}] {}",
+                    slow.getMethod(), slow.getCollection(), Math.round(slow.getDurationMs()), documents,
+                    slow.getCorrelationId(), slow.getClinicId(), slow.getShape());
+            keep(slow);
+            if (explain && started.query() != null) {
+                explain(started, plan -> slow.plan = plan);
+            }
+        }
+    }
+
+    private MethodStats stats(InFlight started) {
+        MethodStats stats = methods.get(started.method());
+        if (stats != null) {
+            return stats;
+        }
+        // Unknown methods beyond the limit share one entry so the map cannot grow without bound
+        String key = methods.size() >= maxMethods ? OTHER : started.method();
+        return methods.computeIfAbsent(key, k -> new MethodStats(started.collection()));
+    }
+
+    private void keep(SlowQuery slow) {
+        slowLock.lock();
+        try {
+            if (slowQueries.size() >= slowQueryCapacity) {
+                slowQueries.pollFirst();
+            }
+            slowQueries.addLast(slow);
+        } finally {
+            slowLock.unlock();
+        }
+    }
+
+    private void explain(InFlight started, Consumer<String> onPlan) {
+        explainer.execute(() -> {
+            try {
+                BsonDocument command = new BsonDocument();
+                started.query().forEach((name, value) -> {
+                    if (!SESSION_FIELDS.contains(name)) {
+                        command.append(name, value);
+                    }
+                });
+                Document result = mongoTemplate.getObject().getMongoDatabaseFactory()
+                        .getMongoDatabase(started.database())
+                        .runCommand(new BsonDocument("explain", command)
+                                .append("verbosity", new BsonString("queryPlanner")));
+                onPlan.accept(plan(result));
+            } catch (RuntimeException e) {
+                log.debug("Could not explain {} on {}: {}", started.command(), started.collection(), e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Summarize a queryPlanner explain: "COLLSCAN", "IXSCAN <index names>" or the stages of
+     * the winning plan (e.g. "IDHACK", "EOF").
+     */
+
+    public static String plan(Document explain) {
+        Object winning = find(explain, "winningPlan");
+        if (winning == null) {
+            return null;
+        }
+        Set<String> stages = new LinkedHashSet<>();
+        Set<String> indexes = new LinkedHashSet<>();
+        collectStages(winning, stages, indexes);
+        if (stages.contains(COLLSCAN)) {
+            return COLLSCAN;
+        }
+        if (!indexes.isEmpty()) {
+            return "IXSCAN " + String.join(",", indexes);
+        }
+        return String.join(",", stages);
+    }
+
+    // Finds the first value stored under key, anywhere in the document (aggregate explains nest it)
+    private static Object find(Object node, String key) {
+        if (node instanceof Map<?, ?> map) {
+            if (map.containsKey(key)) {
+                return map.get(key);
+            }
+            for (Object value : map.values()) {
+                Object found = find(value, key);
+                if (found != null) {
+                    return found;
+                }
+            }
+        } else if (node instanceof List<?> list) {
+            for (Object value : list) {
+                Object found = find(value, key);
+                if (found != null) {
+                    return found;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static void collectStages(Object node, Set<String> stages, Set<String> indexes) {
+        if (node instanceof Map<?, ?> map) {
+            if (map.get("stage") instanceof String stage) {
+                stages.add(stage);
+            }
+            if (map.get("indexName") instanceof String index) {
+                indexes.add(index);
+            }
+            map.values().forEach(value -> collectStages(value, stages, indexes));
+        } else if (node instanceof List<?> list) {
+            list.forEach(value -> collectStages(value, stages, indexes));
+        }
+    }
+
+    /**
+     * The query part of a command with every value replaced by "?", e.g.
+     * {clinicId: ?, startTime: {$gte: ?}}. Shows which fields need an index without
+     * logging customer data.
+     */
+
+    public static String shape(String command, BsonDocument query) {
+        BsonValue part = switch (command) {
+            case "find" -> query.get("filter");
+            case "aggregate" -> query.get("pipeline");
+            case "count", "distinct", "findAndModify" -> query.get("query");
+            case "delete" -> first(query.get("deletes"), "q");
+            case "update" -> first(query.get("updates"), "q");
+            default -> null;
+        };
+        if (part == null) {
+            return "{}";
+        }
+        StringBuilder out = new StringBuilder();
+        appendShape(part, out);
+        if (command.equals("find") && query.get("sort") instanceof BsonDocument sort) {
+            out.append(" sort ");
+            appendShape(sort, out);
+        }
+        return out.length() > MAX_SHAPE_LENGTH ? out.substring(0, MAX_SHAPE_LENGTH) + "..." : out.toString();
+    }
+
+    private static BsonValue first(BsonValue statements, String field) {
+        if (statements instanceof BsonArray array && !array.isEmpty()
+                && array.get(0) instanceof BsonDocument statement) {
+            return statement.get(field);
+        }
+        return null;
+    }
+
+    private static void appendShape(BsonValue value, StringBuilder out) {
+        if (value instanceof BsonDocument document) {
+            out.append('{');
+            boolean first = true;
+            for (Map.Entry<String, BsonValue> entry : document.entrySet()) {
+                if (!first) {
+                    out.append(", ");
+                }
+                first = false;
+                out.append(entry.getKey()).append(": ");
+                appendShape(entry.getValue(), out);
+            }
+            out.append('}');
+        } else if (value instanceof BsonArray array) {
+            out.append('[');
+            // Operator arrays ($and, $or, pipelines) keep their structure; value lists collapse
+            for (int i = 0; i < array.size(); i++) {
+                if (!(array.get(i) instanceof BsonDocument)) {
+                    out.append('?');
+                    break;
+                }
+                if (i > 0) {
+                    out.append(", ");
+                }
+                appendShape(array.get(i), out);
+            }
+            out.append(']');
+        } else {
+            out.append('?');
+        }
+    }
+
+    private static String collection(String command, BsonDocument document) {
+        BsonValue target = document.get(command.equals("getMore") ? "collection" : command);
+        return target != null && target.isString() ? target.asString().getValue() : "-";
+    }
+
+    private static long documentsReturned(BsonDocument response) {
+        if (response.get("cursor") instanceof BsonDocument cursor) {
+            BsonValue batch = cursor.containsKey("firstBatch") ? cursor.get("firstBatch") : cursor.get("nextBatch");
+            return batch instanceof BsonArray array ? array.size() : 0;
+        }
+        if (response.get("values") instanceof BsonArray values) {
+            return values.size();
+        }
+        if (response.containsKey("value")) {
+            return response.get("value").isDocument() ? 1 : 0;
+        }
+        BsonValue n = response.get("n");
+        return n != null && n.isNumber() ? n.asNumber().longValue() : 0;
+    }
+
+    private record InFlight(String method, String collection, String command, String database,
+                            BsonDocument query, String correlationId, String clinicId) {}
+
+    private static final class MethodStats {
+        private final String collection;
+        private final Histogram latency = new ConcurrentHistogram(1, HIGHEST_MICROS, 2);
+        private final LongAdder commands = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder documents = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicBoolean explained = new AtomicBoolean();
+        private volatile String plan;
+
+        MethodStats(String collection) {
+            this.collection = collection;
+        }
+
+        void record(long nanos, long documentsReturned, boolean failed) {
+            latency.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(nanos), HIGHEST_MICROS));
+            commands.increment();
+            totalNanos.add(nanos);
+            documents.add(documentsReturned);
+            if (failed) {
+                failures.increment();
+            }
+        }
+
+        MethodSnapshot snapshot(String method) {
+            Histogram copy = latency.copy();
+            return new MethodSnapshot(method, collection, commands.sum(), failures.sum(), documents.sum(),
+                    copy.getValueAtPercentile(50) / 1000.0, copy.getValueAtPercentile(99) / 1000.0,
+                    copy.getMaxValue() / 1000.0, totalNanos.sum() / 1_000_000.0, plan);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.bookify.bookify_app.service;
+
+// ********************************************************************************************
+// * RateLimitCounterStore shares rate-limit counters between app nodes through Mongo.        *
+// *                                                                                          *
+// * HOW IT WORKS:                                                                            *
+// * - Limiters count requests locally and register themselves here.                          *
+// * - A single background thread flushes every registered limiter at a fixed interval:       *
+// *   one unordered bulk upsert ($inc + TTL expiry) followed by one read of the global       *
+// *   counts. The request path never waits for Mongo.                                        *
+// * - Counter documents expire through a TTL index on expiresAt, so nothing needs cleanup.   *
+// *                                                                                          *
+// * WHY: With N nodes behind a load balancer, per-JVM limits add up to N x limit and are     *
+// * lost on every redeploy.                                                                  *
+// ********************************************************************************************
+
+import com.bookify.bookify_app.config.RateLimitProperties;
+import com.bookify.bookify_app.model.RateLimitCounter;
+
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+@Service
+@ConditionalOnProperty(prefix = "bookify.rate-limit", name = "store", havingValue = "MONGO")
+public class RateLimitCounterStore {
+
+    private static final Logger log = LoggerFactory.getLogger(RateLimitCounterStore.class);
+
+    /**
+     * Something that buffers counts locally and flushes them through this store.
+     */
+
+    public interface Flushable {
+        void flush(RateLimitCounterStore store, long nowMillis);
+    }
+
+    private final MongoTemplate mongoTemplate;
+    private final List<Flushable> registered = new CopyOnWriteArrayList<>();
+    private final ScheduledExecutorService flusher;
+
+    public RateLimitCounterStore(MongoTemplate mongoTemplate, RateLimitProperties properties) {
+        this.mongoTemplate = mongoTemplate;
+
+        this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "rate-limit-flusher");
+            t.setDaemon(true);
+            return t;
+        });
+        long intervalMillis = properties.getFlushInterval().toMillis();
+        flusher.scheduleWithFixedDelay(this::flushAll, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public void register(Flushable limiter) {
+        registered.add(limiter);
+    }
+
+    /**
+     * Add local deltas to the shared counters in one bulk round trip.
+     *
+     * @param deltas    counter id -> number of requests to add
+     * @param expiresAt expiry for counters created by this call
+     */
+
+    public void increment(Map<String, Long> deltas, Instant expiresAt) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, RateLimitCounter.class);
+        deltas.forEach((id, delta) -> bulk.upsert(
+                Query.query(where("_id").is(id)),
+                new Update().inc("count", delta).setOnInsert("expiresAt", expiresAt)));
+        bulk.execute();
+    }
+
+    /**
+     * Read the global counts of the given counters. Missing counters are absent from the result.
+     */
+
+    public Map<String, Long> readCounts(Collection<String> ids) {
+        Map<String, Long> counts = new HashMap<>();
+        if (ids.isEmpty()) {
+            return counts;
+        }
+        Query query = Query.query(where("_id").in(ids));
+        query.fields().include("count");
+        for (RateLimitCounter counter : mongoTemplate.find(query, RateLimitCounter.class)) {
+            counts.put(counter.getId(), counter.getCount());
+        }
+        return counts;
+    }
+
+    /**
+     * Flush all registered limiters now (also used by tests instead of waiting).
+     */
+
+    public void flushAll() {
+        long now = System.currentTimeMillis();
+        for (Flushable limiter : registered) {
+            try {
+                limiter.flush(this, now);
+            } catch (RuntimeException e) {
+                // Keep the schedule alive; limiters retain unflushed counts and retry next round
+                log.warn("Rate limit counter flush failed", e);
+            }
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flusher.shutdown();
+        // Hand the last local counts to the other nodes before this one goes away
+        flushAll();
+    }
+}
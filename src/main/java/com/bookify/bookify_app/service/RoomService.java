@@ -10,9 +10,16 @@ import java.util.Optional;
 @Service
 public class RoomService {
     private final RoomRepository repo;
+    private final AvailabilityService availabilityService;
+    private final RoomSlotCounterStore roomSlots;
+    private final BookingConflictDetector conflictDetector;
 
-    public RoomService(RoomRepository repo) {
+    public RoomService(RoomRepository repo, AvailabilityService availabilityService, RoomSlotCounterStore roomSlots,
+                       BookingConflictDetector conflictDetector) {
         this.repo = repo;
+        this.availabilityService = availabilityService;
+        this.roomSlots = roomSlots;
+        this.conflictDetector = conflictDetector;
     }
 
     public List<Room> getAll(String clinicId) {
@@ -23,11 +30,33 @@ public class RoomService {
         return repo.findById(id);
     }
 
+    /**
+     * Save a room. A capacity change switches how its bookings are guarded, so the room's
+     * seat counters are recounted (capacity > 1) and its conflict index is reloaded.
+     */
+
     public Room save(Room room) {
-        return repo.save(room);
+        if (room.getCapacity() < 1) {
+            throw new IllegalArgumentException("Room capacity must be at least 1");
+        }
+        Integer previousCapacity = room.getId() != null
+                ? repo.findById(room.getId()).map(Room::getCapacity).orElse(null)
+                : null;
+        Room saved = repo.save(room);
+        roomSlots.evict(saved.getId());
+        if (previousCapacity != null && previousCapacity != saved.getCapacity()) {
+            conflictDetector.evictRoom(saved.getClinicId(), saved.getId());
+            if (saved.getCapacity() > 1) {
+                roomSlots.rebuild(saved.getClinicId(), saved.getId());
+            }
+        }
+        availabilityService.invalidate(saved.getClinicId());
+        return saved;
     }
 
     public void delete(String id) {
+        repo.findById(id).ifPresent(existing -> availabilityService.invalidate(existing.getClinicId()));
         repo.deleteById(id);
+        roomSlots.evict(id);
     }
 }
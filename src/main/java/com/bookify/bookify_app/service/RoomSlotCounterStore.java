@@ -0,0 +1,238 @@
+package com.bookify.bookify_app.service;
+
+// ********************************************************************************************
+// * RoomSlotCounterStore admits bookings into rooms that hold more than one booking at a     *
+// * time (Room.capacity > 1), e.g. group sessions or rooms with several treatment beds.      *
+// *                                                                                          *
+// * HOW IT WORKS:                                                                            *
+// * - Time is cut into fixed slots (bookify.booking.room-slot-minutes). Every room slot has  *
+// *   a counter document in room_slot_counters.                                              *
+// * - Admission is one ordered bulk write with one upsert per slot the booking covers:       *
+// *   { _id: slot, count: { $lt: capacity } } -> $inc count. A full slot does not match,     *
+// *   the upsert then collides with the existing _id and the bulk stops there; the slots     *
+// *   taken before it are given back. No documents are counted and no reads are needed.      *
+// * - Releasing a booking is one $inc -1 over its slots. Counters expire through a TTL index.*
+// * - Capacities are cached per room for a minute; RoomService evicts them and rebuilds a    *
+// *   room's counters from its bookings when the capacity changes.                           *
+// *                                                                                          *
+// * Rooms with capacity 1 do not use counters: BookingConflictDetector checks them exactly   *
+// * (to the minute) with its interval indexes.                                               *
+// ********************************************************************************************
+
+import com.bookify.bookify_app.model.Booking;
+import com.bookify.bookify_app.model.Room;
+import com.bookify.bookify_app.model.RoomSlotCounter;
+import com.bookify.bookify_app.repository.BookingRepository;
+import com.bookify.bookify_app.repository.RoomRepository;
+
+import com.mongodb.bulk.BulkWriteError;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+@Service
+public class RoomSlotCounterStore {
+
+    static final int DUPLICATE_KEY = 11000;
+    // A slot that filled up between our upsert and the insert fallback is retried this often
+    static final int MAX_ATTEMPTS = 3;
+    // Counters outlive their slot by this long, then the TTL monitor removes them
+    static final Duration RETENTION = Duration.ofDays(1);
+    // How long other nodes may use a capacity after it was changed elsewhere
+    static final long CAPACITY_TTL_MILLIS = Duration.ofMinutes(1).toMillis();
+
+    private final MongoTemplate mongoTemplate;
+    private final RoomRepository roomRepository;
+    private final BookingRepository bookingRepository;
+    private final int slotMinutes;
+
+    // roomId -> capacity; unknown rooms count as capacity 1
+    private final Map<String, CachedCapacity> capacities = new ConcurrentHashMap<>();
+
+    public RoomSlotCounterStore(MongoTemplate mongoTemplate, RoomRepository roomRepository,
+                                BookingRepository bookingRepository,
+                                @Value("${bookify.booking.room-slot-minutes:5}") int slotMinutes) {
+        if (slotMinutes <= 0 || 60 % slotMinutes != 0) {
+            throw new IllegalArgumentException("bookify.booking.room-slot-minutes must divide 60");
+        }
+        this.mongoTemplate = mongoTemplate;
+        this.roomRepository = roomRepository;
+        this.bookingRepository = bookingRepository;
+        this.slotMinutes = slotMinutes;
+    }
+
+    /**
+     * Capacity of a room (cached). Rooms that do not exist count as 1.
+     */
+
+    public int capacity(String roomId) {
+        long now = System.currentTimeMillis();
+        CachedCapacity cached = capacities.get(roomId);
+        if (cached == null || now - cached.loadedAt() > CAPACITY_TTL_MILLIS) {
+            cached = new CachedCapacity(roomRepository.findById(roomId).map(Room::getCapacity).orElse(1), now);
+            capacities.put(roomId, cached);
+        }
+        return cached.capacity();
+    }
+
+    /**
+     * Does the room hold more than one booking at a time (and therefore use counters)?
+     */
+
+    public boolean isShared(String roomId) {
+        return roomId != null && capacity(roomId) > 1;
+    }
+
+    /**
+     * Take one seat in every slot of [from, to), all or nothing.
+     *
+     * @return false if a slot is already at the room's capacity (nothing is taken then)
+     */
+
+    public boolean tryAdmit(String clinicId, String roomId, ZonedDateTime from, ZonedDateTime to) {
+        int capacity = capacity(roomId);
+        List<Long> slots = slots(from, to);
+        int taken = 0;
+        for (int attempt = 0; attempt < MAX_ATTEMPTS && taken < slots.size(); attempt++) {
+            int failed = admit(clinicId, roomId, capacity, slots.subList(taken, slots.size()));
+            if (failed < 0) {
+                return true;
+            }
+            taken += failed;
+            // Either the slot is full, or another writer created its counter at the same moment
+            RoomSlotCounter counter = mongoTemplate.findById(id(clinicId, roomId, slots.get(taken)),
+                    RoomSlotCounter.class);
+            if (counter != null && counter.getCount() >= capacity) {
+                break;
+            }
+        }
+        if (taken < slots.size()) {
+            increment(clinicId, roomId, slots.subList(0, taken), -1);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Give back the seats of a booking admitted with {@link #tryAdmit}.
+     */
+
+    public void release(String clinicId, String roomId, ZonedDateTime from, ZonedDateTime to) {
+        increment(clinicId, roomId, slots(from, to), -1);
+    }
+
+    /**
+     * Take the seats of a booking back without a capacity check (undoing a release).
+     */
+
+    public void restore(String clinicId, String roomId, ZonedDateTime from, ZonedDateTime to) {
+        increment(clinicId, roomId, slots(from, to), 1);
+    }
+
+    /**
+     * Forget a room's cached capacity after it was changed or deleted.
+     */
+
+    public void evict(String roomId) {
+        capacities.remove(roomId);
+    }
+
+    /**
+     * Recount a room's counters from its stored bookings, e.g. after its capacity was raised
+     * from 1 (bookings made before were not counted). Bookings written while this runs may be
+     * counted twice or not at all, so run it from the admin path only.
+     */
+
+    public void rebuild(String clinicId, String roomId) {
+        String prefix = clinicId + "|" + roomId + "|";
+        mongoTemplate.remove(Query.query(where("_id").regex("^" + Pattern.quote(prefix))), RoomSlotCounter.class);
+
+        ZonedDateTime from = ZonedDateTime.now().minus(BookingConflictDetector.MAX_BOOKING_LENGTH);
+        Map<Long, Long> counts = new HashMap<>();
+        for (Booking b : bookingRepository.findByClinicIdAndRoomIdInRange(clinicId, roomId, from,
+                from.plus(BookingConflictDetector.LOAD_HORIZON))) {
+            ZonedDateTime end = b.getBlockedUntil() != null ? b.getBlockedUntil() : b.getEndTime();
+            if (end != null && !AvailabilityService.STATUS_CANCELLED.equals(b.getStatus())) {
+                slots(b.getStartTime(), end).forEach(slot -> counts.merge(slot, 1L, Long::sum));
+            }
+        }
+        if (counts.isEmpty()) {
+            return;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, RoomSlotCounter.class);
+        counts.forEach((slot, count) -> bulk.upsert(Query.query(where("_id").is(id(clinicId, roomId, slot))),
+                new Update().inc("count", count).setOnInsert("expiresAt", expiresAt(slot))));
+        bulk.execute();
+    }
+
+    /**
+     * Slot starts (epoch minutes) covering [from, to), rounded outwards to the slot grid.
+     */
+
+    List<Long> slots(ZonedDateTime from, ZonedDateTime to) {
+        long first = Math.floorDiv(from.toEpochSecond(), 60L * slotMinutes) * slotMinutes;
+        long end = to.toEpochSecond();
+        List<Long> slots = new ArrayList<>();
+        for (long slot = first; slot * 60 < end; slot += slotMinutes) {
+            slots.add(slot);
+        }
+        return slots;
+    }
+
+    // Returns the index (within slots) of the first full slot, or -1 if all were taken
+    private int admit(String clinicId, String roomId, int capacity, List<Long> slots) {
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.ORDERED, RoomSlotCounter.class);
+        for (long slot : slots) {
+            bulk.upsert(Query.query(where("_id").is(id(clinicId, roomId, slot)).and("count").lt(capacity)),
+                    new Update().inc("count", 1).setOnInsert("expiresAt", expiresAt(slot)));
+        }
+        try {
+            bulk.execute();
+            return -1;
+        } catch (BulkOperationException e) {
+            BulkWriteError error = e.getErrors().get(0);
+            if (error.getCode() != DUPLICATE_KEY) {
+                // Ordered: everything before the failed write was applied
+                increment(clinicId, roomId, slots.subList(0, error.getIndex()), -1);
+                throw e;
+            }
+            return error.getIndex();
+        }
+    }
+
+    private void increment(String clinicId, String roomId, List<Long> slots, int delta) {
+        if (slots.isEmpty()) {
+            return;
+        }
+        List<String> ids = slots.stream().map(slot -> id(clinicId, roomId, slot)).toList();
+        mongoTemplate.updateMulti(Query.query(where("_id").in(ids)), new Update().inc("count", delta),
+                RoomSlotCounter.class);
+    }
+
+    private Instant expiresAt(long slot) {
+        return Instant.ofEpochSecond((slot + slotMinutes) * 60).plus(RETENTION);
+    }
+
+    private static String id(String clinicId, String roomId, long slot) {
+        return clinicId + "|" + roomId + "|" + slot;
+    }
+
+    private record CachedCapacity(int capacity, long loadedAt) {}
+}
@@ -0,0 +1,293 @@
+package com.bookify.bookify_app.service;
+
+// ********************************************************************************************
+// * RosterCache holds every clinic's staff rosters compiled into per-day bitsets.            *
+// *                                                                                          *
+// * HOW IT WORKS:                                                                            *
+// * - Per clinic, each roster is compiled once into an OpeningSchedule (no string parsing    *
+// *   afterwards) and staff members are numbered 0..n-1.                                     *
+// * - A day is laid out on the clinic's slot grid (ClinicSettings.slotIntervalMinutes) as    *
+// *   one staff bitmask per slot: bit i of slot s = staff member i works all of slot s.      *
+// *   Days are built on first use and kept until the clinic is invalidated or reloaded.      *
+// * - "Who works the whole of slots s..s+k-1" is the AND of k masks; with 30 staff that is   *
+// *   one 64-bit word per slot, so scanning 60 days for any staff member is a few thousand   *
+// *   word operations.                                                                       *
+// * - Staff members without a roster work every slot (rosters are optional).                 *
+// *                                                                                          *
+// * StaffRosterService and StaffMemberService invalidate a clinic when its rosters or staff  *
+// * change, ClinicSettingsService when its slot grid may have; AvailabilityService reads the *
+// * per-staff working slots from here. Invalidation is local to the node, so a clinic older  *
+// * than RELOAD_AFTER is compiled again from Mongo: changes saved on another node show up    *
+// * within that window, and past days are dropped with the old copy.                         *
+// ********************************************************************************************
+
+import com.bookify.bookify_app.model.ClinicSettings;
+import com.bookify.bookify_app.model.StaffMember;
+import com.bookify.bookify_app.model.StaffRoster;
+import com.bookify.bookify_app.repository.ClinicSettingsRepository;
+import com.bookify.bookify_app.repository.StaffMemberRepository;
+import com.bookify.bookify_app.repository.StaffRosterRepository;
+import com.bookify.bookify_app.util.OpeningHoursParser;
+import com.bookify.bookify_app.util.OpeningSchedule;
+
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Service
+public class RosterCache {
+
+    // Reload clinics after this long to pick up rosters and staff saved on other nodes
+    static final Duration RELOAD_AFTER = Duration.ofMinutes(5);
+
+    private final StaffRosterRepository rosterRepository;
+    private final StaffMemberRepository staffRepository;
+    private final ClinicSettingsRepository settingsRepository;
+
+    private final Map<String, ClinicRoster> clinics = new ConcurrentHashMap<>();
+    // Same locking as AvailabilityService: one ReentrantLock per clinic around its load
+    private final Map<String, ReentrantLock> clinicLocks = new ConcurrentHashMap<>();
+
+    public RosterCache(StaffRosterRepository rosterRepository, StaffMemberRepository staffRepository,
+                       ClinicSettingsRepository settingsRepository) {
+        this.rosterRepository = rosterRepository;
+        this.staffRepository = staffRepository;
+        this.settingsRepository = settingsRepository;
+    }
+
+    /**
+     * The compiled rosters of a clinic.
+     *
+     * @return the rosters, or null if the clinic has no settings (and so no slot grid)
+     */
+
+    public ClinicRoster roster(String clinicId) {
+        long now = System.currentTimeMillis();
+        ClinicRoster cached = clinics.get(clinicId);
+        if (cached != null && !cached.isStale(now)) {
+            return cached;
+        }
+        // A stale roster is still served while another request reloads it
+        ReentrantLock lock = lockFor(clinicId);
+        if (cached == null) {
+            lock.lock();
+        } else if (!lock.tryLock()) {
+            return cached;
+        }
+        try {
+            cached = clinics.get(clinicId);
+            if (cached == null || cached.isStale(now)) {
+                cached = load(clinicId);
+                if (cached != null) {
+                    clinics.put(clinicId, cached);
+                } else {
+                    clinics.remove(clinicId);
+                }
+            }
+            return cached;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Drop a clinic's compiled rosters; the next call rebuilds them from Mongo.
+     */
+
+    public void invalidate(String clinicId) {
+        if (clinicId != null) {
+            ReentrantLock lock = lockFor(clinicId);
+            lock.lock();
+            try {
+                clinics.remove(clinicId);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private ReentrantLock lockFor(String clinicId) {
+        return clinicLocks.computeIfAbsent(clinicId, id -> new ReentrantLock());
+    }
+
+    private ClinicRoster load(String clinicId) {
+        ClinicSettings settings = settingsRepository.findByClinicId(clinicId);
+        if (settings == null) {
+            return null;
+        }
+        Map<String, OpeningSchedule> schedules = new HashMap<>();
+        for (StaffRoster roster : rosterRepository.findByClinicId(clinicId)) {
+            schedules.put(roster.getStaffId(), compile(roster));
+        }
+        List<String> staffIds = staffRepository.findByClinicId(clinicId).stream().map(StaffMember::getId).toList();
+        return new ClinicRoster(AvailabilityService.slotMinutes(settings), staffIds, schedules);
+    }
+
+    /**
+     * Compile a roster, e.g. to validate it before it is saved.
+     *
+     * @throws IllegalArgumentException if an entry cannot be parsed
+     */
+
+    public static OpeningSchedule compile(StaffRoster roster) {
+        return OpeningSchedule.compile(roster.getShifts(), roster.getShiftExceptions(), roster.getAbsences());
+    }
+
+    /**
+     * The rosters of one clinic on its slot grid. Thread-safe; days are compiled lazily.
+     */
+
+    public static final class ClinicRoster {
+        private final int slotMinutes;
+        private final int slotsPerDay;
+        // Words per slot mask: one bit per staff member
+        private final int words;
+        private final List<String> staffIds;
+        private final Map<String, Integer> staffIndex = new HashMap<>();
+        private final OpeningSchedule[] schedules;
+        private final Map<LocalDate, long[]> days = new ConcurrentHashMap<>();
+        private final long loadedAtMillis = System.currentTimeMillis();
+
+        ClinicRoster(int slotMinutes, List<String> staffIds, Map<String, OpeningSchedule> rosters) {
+            this.slotMinutes = slotMinutes;
+            this.slotsPerDay = OpeningHoursParser.MINUTES_PER_DAY / slotMinutes;
+            this.words = Math.max(1, (staffIds.size() + 63) >>> 6);
+            this.staffIds = List.copyOf(staffIds);
+            this.schedules = new OpeningSchedule[staffIds.size()];
+            for (int i = 0; i < staffIds.size(); i++) {
+                staffIndex.put(staffIds.get(i), i);
+                schedules[i] = rosters.get(staffIds.get(i));
+            }
+        }
+
+        boolean isStale(long nowMillis) {
+            return nowMillis - loadedAtMillis > RELOAD_AFTER.toMillis();
+        }
+
+        public int slotMinutes() {
+            return slotMinutes;
+        }
+
+        public List<String> staffIds() {
+            return staffIds;
+        }
+
+        /**
+         * Staff members working all of slots [fromSlot, fromSlot + slots) on a date.
+         */
+
+        public List<String> workingStaff(LocalDate date, int fromSlot, int slots) {
+            long[] mask = working(day(date), fromSlot, slots);
+            List<String> result = new ArrayList<>();
+            for (int w = 0; w < words; w++) {
+                for (long bits = mask[w]; bits != 0; bits &= bits - 1) {
+                    result.add(staffIds.get((w << 6) + Long.numberOfTrailingZeros(bits)));
+                }
+            }
+            return result;
+        }
+
+        /**
+         * Does anyone work all of slots [fromSlot, fromSlot + slots) on a date?
+         */
+
+        public boolean anyWorking(LocalDate date, int fromSlot, int slots) {
+            long[] mask = working(day(date), fromSlot, slots);
+            for (long word : mask) {
+                if (word != 0) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Start slots on a date where at least one staff member works {@code slots}
+         * consecutive slots.
+         */
+
+        public BitSet startSlots(LocalDate date, int slots) {
+            long[] day = day(date);
+            BitSet starts = new BitSet(slotsPerDay);
+            for (int start = 0; start + slots <= slotsPerDay; start++) {
+                long[] mask = working(day, start, slots);
+                for (long word : mask) {
+                    if (word != 0) {
+                        starts.set(start);
+                        break;
+                    }
+                }
+            }
+            return starts;
+        }
+
+        /**
+         * The slots one staff member works on a date.
+         *
+         * @return the slots, or null if the staff member has no roster (works every slot)
+         *         or is unknown
+         */
+
+        public BitSet workingSlots(String staffId, LocalDate date) {
+            Integer index = staffIndex.get(staffId);
+            if (index == null || schedules[index] == null) {
+                return null;
+            }
+            long[] day = day(date);
+            int word = index >>> 6;
+            long bit = 1L << (index & 63);
+            BitSet slots = new BitSet(slotsPerDay);
+            for (int slot = 0; slot < slotsPerDay; slot++) {
+                if ((day[slot * words + word] & bit) != 0) {
+                    slots.set(slot);
+                }
+            }
+            return slots;
+        }
+
+        // AND of the masks of the given slots; all zero if the range leaves the day
+        private long[] working(long[] day, int fromSlot, int slots) {
+            long[] mask = new long[words];
+            if (fromSlot < 0 || slots <= 0 || fromSlot + slots > slotsPerDay) {
+                return mask;
+            }
+            System.arraycopy(day, fromSlot * words, mask, 0, words);
+            for (int slot = fromSlot + 1; slot < fromSlot + slots; slot++) {
+                int base = slot * words;
+                for (int w = 0; w < words; w++) {
+                    mask[w] &= day[base + w];
+                }
+            }
+            return mask;
+        }
+
+        private long[] day(LocalDate date) {
+            // Compiling a day is CPU only, so computeIfAbsent is fine here
+            return days.computeIfAbsent(date, this::compileDay);
+        }
+
+        private long[] compileDay(LocalDate date) {
+            long[] day = new long[slotsPerDay * words];
+            for (int i = 0; i < schedules.length; i++) {
+                int word = i >>> 6;
+                long bit = 1L << (i & 63);
+                BitSet minutes = schedules[i] != null ? schedules[i].openMinutes(date) : null;
+                for (int slot = 0; slot < slotsPerDay; slot++) {
+                    int from = slot * slotMinutes;
+                    if (minutes == null || minutes.nextClearBit(from) >= from + slotMinutes) {
+                        day[slot * words + word] |= bit;
+                    }
+                }
+            }
+            return day;
+        }
+    }
+}
@@ -0,0 +1,272 @@
+package com.bookify.bookify_app.service;
+
+// ********************************************************************************************
+// * SlotHoldService reserves a slot for a few minutes while a customer completes checkout.   *
+// *                                                                                          *
+// * HOW IT WORKS:                                                                            *
+// * - hold() lets AvailabilityService pick a free staff member and room for the start time,  *
+// *   then BookingConflictDetector reserves them under the hold (in memory and in Mongo,     *
+// *   re-checked against other nodes). Availability stops offering the slot at once.         *
+// * - Checkout presents the hold id to BookingService.save, which books the held resources   *
+// *   without conflicting with the hold and then releases it.                                *
+// * - Expiry: every hold sits in a hierarchical TimingWheel (O(1) schedule and cancel). A    *
+// *   background thread advances the wheel every tick and frees expired slots; the Mongo     *
+// *   copy is removed by its TTL index.                                                      *
+// *                                                                                          *
+// * Hold ids are random tokens: only the customer who created a hold can book or release it. *
+// * Limits: max-per-client open holds per client (counted in Mongo, so across nodes) and     *
+// * max-per-clinic per node. Beyond them hold() fails with HoldLimitException (429).         *
+// ********************************************************************************************
+
+import com.bookify.bookify_app.config.SlotHoldProperties;
+import com.bookify.bookify_app.model.Booking;
+import com.bookify.bookify_app.model.SlotHold;
+import com.bookify.bookify_app.util.TimingWheel;
+
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Service
+public class SlotHoldService {
+
+    private static final Logger log = LoggerFactory.getLogger(SlotHoldService.class);
+
+    private final SlotHoldStore store;
+    private final AvailabilityService availabilityService;
+    private final BookingConflictDetector conflictDetector;
+    private final TokenGenerator tokenGenerator;
+    private final SlotHoldProperties properties;
+
+    // Holds created on this node; wheel, map and counts are guarded by lock
+    private final ReentrantLock lock = new ReentrantLock();
+    private final TimingWheel<String> wheel;
+    private final Map<String, SlotHold> holds = new HashMap<>();
+    private final Map<String, Integer> holdsPerClinic = new HashMap<>();
+    private final ScheduledExecutorService ticker;
+
+    public SlotHoldService(SlotHoldStore store, AvailabilityService availabilityService,
+                           BookingConflictDetector conflictDetector, TokenGenerator tokenGenerator,
+                           SlotHoldProperties properties) {
+        this.store = store;
+        this.availabilityService = availabilityService;
+        this.conflictDetector = conflictDetector;
+        this.tokenGenerator = tokenGenerator;
+        this.properties = properties;
+
+        long tickMillis = properties.getTick().toMillis();
+        this.wheel = new TimingWheel<>(tickMillis, System.currentTimeMillis());
+        this.ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "slot-hold-expiry");
+            t.setDaemon(true);
+            return t;
+        });
+        ticker.scheduleAtFixedRate(this::expireSafely, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Hold a start time for a treatment variant until checkout or expiry.
+     *
+     * @param staffId   optional staff member (null = any eligible staff)
+     * @param clientKey who asks (client IP); limits the holds one client can keep open
+     * @return the hold; its id is needed to book or release it
+     * @throws IllegalArgumentException if the variant or start time is not bookable
+     * @throws HoldLimitException if the client or the clinic has too many open holds
+     * @throws BookingService.BookingConflictException if the slot is no longer free
+     */
+
+    public SlotHold hold(String clinicId, String treatmentVariantId, ZonedDateTime startTime, String staffId,
+                         String clientKey) {
+        if (store.countActiveByClient(clinicId, clientKey, Instant.now()) >= properties.getMaxPerClient()) {
+            throw new HoldLimitException("Too many open holds; book or release one first", properties.getTtl());
+        }
+        if (countFor(clinicId) >= properties.getMaxPerClinic()) {
+            throw new HoldLimitException("Too many open holds, try again shortly", properties.getTtl());
+        }
+        AvailabilityService.Assignment assignment =
+                availabilityService.assign(clinicId, treatmentVariantId, startTime, staffId);
+
+        SlotHold hold = new SlotHold();
+        hold.setId(tokenGenerator.next());
+        hold.setClinicId(clinicId);
+        hold.setStaffId(assignment.staffId());
+        hold.setRoomId(assignment.roomId());
+        hold.setTreatmentVariantId(treatmentVariantId);
+        hold.setStartTime(startTime);
+        hold.setEndTime(assignment.endTime());
+        hold.setBlockedUntil(assignment.blockedUntil());
+        hold.setClientKey(clientKey);
+        hold.setExpiresAt(Instant.now().plus(properties.getTtl()));
+
+        SlotHold saved = conflictDetector.hold(hold, store::insert);
+        lock.lock();
+        try {
+            holds.put(saved.getId(), saved);
+            holdsPerClinic.merge(clinicId, 1, Integer::sum);
+            wheel.schedule(saved.getId(), saved.getExpiresAt().toEpochMilli());
+        } finally {
+            lock.unlock();
+        }
+        availabilityService.onHoldChanged(null, saved);
+        return saved;
+    }
+
+    /**
+     * An unexpired hold of the clinic, created on this or another node.
+     */
+
+    public Optional<SlotHold> find(String clinicId, String holdId) {
+        if (holdId == null) {
+            return Optional.empty();
+        }
+        Instant now = Instant.now();
+        SlotHold local;
+        lock.lock();
+        try {
+            local = holds.get(holdId);
+        } finally {
+            lock.unlock();
+        }
+        Optional<SlotHold> hold = local != null ? Optional.of(local) : store.findActive(holdId, now);
+        return hold.filter(h -> h.getClinicId().equals(clinicId) && h.getExpiresAt().isAfter(now));
+    }
+
+    /**
+     * Fill a booking's staff member, room and times from a hold for the same treatment variant
+     * and start time, so it books exactly what was held.
+     *
+     * @return true if the hold applies to the booking
+     */
+
+    public boolean applyTo(SlotHold hold, Booking booking) {
+        if (!hold.getTreatmentVariantId().equals(booking.getTreatmentVariantId())
+                || booking.getStartTime() == null || !hold.getStartTime().isEqual(booking.getStartTime())) {
+            return false;
+        }
+        if (booking.getStaffId() == null) {
+            booking.setStaffId(hold.getStaffId());
+        }
+        if (booking.getRoomId() == null) {
+            booking.setRoomId(hold.getRoomId());
+        }
+        return true;
+    }
+
+    /**
+     * Give a held slot back (checkout done or abandoned). Unknown holds are ignored.
+     */
+
+    public void release(String clinicId, String holdId) {
+        find(clinicId, holdId).ifPresent(this::release);
+    }
+
+    public void release(SlotHold hold) {
+        forget(hold.getId());
+        // Also frees the slot for other nodes' Mongo re-checks right away
+        store.delete(hold.getId());
+        conflictDetector.unhold(hold);
+        availabilityService.onHoldChanged(hold, null);
+    }
+
+    /**
+     * Release every hold whose time is up (also used by tests instead of waiting).
+     */
+
+    public void expire(long nowMillis) {
+        List<SlotHold> expired = new ArrayList<>();
+        lock.lock();
+        try {
+            wheel.advance(nowMillis, id -> {
+                SlotHold hold = holds.remove(id);
+                if (hold != null) {
+                    holdsPerClinic.computeIfPresent(hold.getClinicId(), (k, n) -> n > 1 ? n - 1 : null);
+                    expired.add(hold);
+                }
+            });
+        } finally {
+            lock.unlock();
+        }
+        // The TTL index removes the Mongo copies
+        for (SlotHold hold : expired) {
+            conflictDetector.unhold(hold);
+            availabilityService.onHoldChanged(hold, null);
+        }
+    }
+
+    public int activeCount() {
+        lock.lock();
+        try {
+            return holds.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        ticker.shutdownNow();
+    }
+
+    private void forget(String holdId) {
+        lock.lock();
+        try {
+            SlotHold hold = holds.remove(holdId);
+            if (hold != null) {
+                wheel.cancel(holdId);
+                holdsPerClinic.computeIfPresent(hold.getClinicId(), (k, n) -> n > 1 ? n - 1 : null);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int countFor(String clinicId) {
+        lock.lock();
+        try {
+            return holdsPerClinic.getOrDefault(clinicId, 0);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Thrown when a client or clinic has too many open holds; they free up within retryAfter.
+     */
+
+    public static class HoldLimitException extends RuntimeException {
+        private final Duration retryAfter;
+
+        public HoldLimitException(String message, Duration retryAfter) {
+            super(message);
+            this.retryAfter = retryAfter;
+        }
+
+        public long getRetryAfterSeconds() {
+            return retryAfter.toSeconds();
+        }
+    }
+
+    private void expireSafely() {
+        try {
+            expire(System.currentTimeMillis());
+        } catch (RuntimeException e) {
+            // Keep the schedule alive; the wheel retries what is left on the next tick
+            log.warn("Slot hold expiry failed", e);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.bookify.bookify_app.service;
+
+// ********************************************************************************************
+// * SlotHoldStore mirrors slot holds to Mongo (slot_holds) so every node can see them.       *
+// *                                                                                          *
+// * - A hold is one document with a TTL index on expiresAt; Mongo removes it after expiry,   *
+// *   so a crashed node never leaves a slot blocked for longer than the hold's lifetime.     *
+// * - The TTL monitor runs about once a minute, so every read filters on expiresAt too.      *
+// * - Used by BookingConflictDetector to re-check holds written by other nodes, and by       *
+// *   SlotHoldService to look up holds it did not create itself.                             *
+// ********************************************************************************************
+
+import com.bookify.bookify_app.model.SlotHold;
+
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+@Service
+public class SlotHoldStore {
+
+    private final MongoTemplate mongoTemplate;
+
+    public SlotHoldStore(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    public SlotHold insert(SlotHold hold) {
+        return mongoTemplate.insert(hold);
+    }
+
+    public void delete(String holdId) {
+        mongoTemplate.remove(Query.query(where("_id").is(holdId)), SlotHold.class);
+    }
+
+    /**
+     * A hold that has not expired yet.
+     */
+
+    public Optional<SlotHold> findActive(String holdId, Instant now) {
+        return Optional.ofNullable(mongoTemplate.findOne(
+                Query.query(where("_id").is(holdId).and("expiresAt").gt(now)), SlotHold.class));
+    }
+
+    /**
+     * All unexpired holds of a clinic (loaded into availability with the clinic).
+     */
+
+    public List<SlotHold> findActiveByClinic(String clinicId, Instant now) {
+        return mongoTemplate.find(Query.query(where("clinicId").is(clinicId).and("expiresAt").gt(now)),
+                SlotHold.class);
+    }
+
+    /**
+     * Number of unexpired holds a client has in a clinic (on any node).
+     */
+
+    public long countActiveByClient(String clinicId, String clientKey, Instant now) {
+        return mongoTemplate.count(Query.query(where("clinicId").is(clinicId)
+                .and("clientKey").is(clientKey).and("expiresAt").gt(now)), SlotHold.class);
+    }
+
+    /**
+     * Find an unexpired hold on the given staff member or room overlapping [from, to).
+     *
+     * @param staffId      staff member to check, or null
+     * @param roomId       room to check, or null (e.g. a shared room, which holds do not block)
+     * @param ignoreHoldId hold to skip (the one being created or consumed), may be null
+     * @return the id of a conflicting hold, or null
+     */
+
+    public String findConflict(String clinicId, String staffId, String roomId, ZonedDateTime from,
+                               ZonedDateTime to, String ignoreHoldId, Instant now) {
+        List<Criteria> resources = new ArrayList<>(2);
+        if (staffId != null) {
+            resources.add(where("staffId").is(staffId));
+        }
+        if (roomId != null) {
+            resources.add(where("roomId").is(roomId));
+        }
+        if (resources.isEmpty()) {
+            return null;
+        }
+        Criteria criteria = where("clinicId").is(clinicId)
+                .and("startTime").lt(to)
+                .and("blockedUntil").gt(from)
+                .and("expiresAt").gt(now)
+                .orOperator(resources);
+        if (ignoreHoldId != null) {
+            criteria = criteria.and("_id").ne(ignoreHoldId);
+        }
+        Query query = Query.query(criteria);
+        query.fields().include("_id");
+        SlotHold hold = mongoTemplate.findOne(query, SlotHold.class);
+        return hold != null ? hold.getId() : null;
+    }
+}
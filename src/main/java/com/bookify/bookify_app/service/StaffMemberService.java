@@ -10,9 +10,16 @@ import java.util.Optional;
 @Service
 public class StaffMemberService {
     private final StaffMemberRepository repo;
+    private final AvailabilityService availabilityService;
+    private final RosterCache rosterCache;
+    private final StaffSkillIndex skillIndex;
 
-    public StaffMemberService(StaffMemberRepository repo) {
+    public StaffMemberService(StaffMemberRepository repo, AvailabilityService availabilityService,
+                              RosterCache rosterCache, StaffSkillIndex skillIndex) {
         this.repo = repo;
+        this.availabilityService = availabilityService;
+        this.rosterCache = rosterCache;
+        this.skillIndex = skillIndex;
     }
 
     public List<StaffMember> getAll(String clinicId) {
@@ -24,10 +31,20 @@ public class StaffMemberService {
     }
 
     public StaffMember save(StaffMember staff) {
-        return repo.save(staff);
+        StaffMember previous = staff.getId() != null ? repo.findById(staff.getId()).orElse(null) : null;
+        StaffMember saved = repo.save(staff);
+        skillIndex.onStaffSaved(previous, saved);
+        rosterCache.invalidate(saved.getClinicId());
+        availabilityService.invalidate(saved.getClinicId());
+        return saved;
     }
 
     public void delete(String id) {
+        repo.findById(id).ifPresent(existing -> {
+            skillIndex.onStaffDeleted(existing);
+            rosterCache.invalidate(existing.getClinicId());
+            availabilityService.invalidate(existing.getClinicId());
+        });
         repo.deleteById(id);
     }
 }
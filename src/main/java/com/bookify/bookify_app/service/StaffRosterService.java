@@ -0,0 +1,55 @@
+package com.bookify.bookify_app.service;
+
+import com.bookify.bookify_app.model.StaffRoster;
+import com.bookify.bookify_app.repository.StaffRosterRepository;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Optional;
+
+@Service
+public class StaffRosterService {
+    private final StaffRosterRepository repo;
+    private final RosterCache rosterCache;
+    private final AvailabilityService availabilityService;
+
+    public StaffRosterService(StaffRosterRepository repo, RosterCache rosterCache,
+                              AvailabilityService availabilityService) {
+        this.repo = repo;
+        this.rosterCache = rosterCache;
+        this.availabilityService = availabilityService;
+    }
+
+    public List<StaffRoster> getAll(String clinicId) {
+        return repo.findByClinicId(clinicId);
+    }
+
+    public Optional<StaffRoster> getForStaff(String clinicId, String staffId) {
+        return repo.findByClinicIdAndStaffId(clinicId, staffId);
+    }
+
+    /**
+     * Save a roster; the clinic's compiled rosters and availability are rebuilt on next use.
+     *
+     * @throws IllegalArgumentException if a shift, exception or absence cannot be parsed
+     *                                  (nothing is saved)
+     */
+
+    public StaffRoster save(StaffRoster roster) {
+        RosterCache.compile(roster);
+        StaffRoster saved = repo.save(roster);
+        invalidate(saved.getClinicId());
+        return saved;
+    }
+
+    public void delete(String id) {
+        Optional<StaffRoster> existing = repo.findById(id);
+        repo.deleteById(id);
+        existing.ifPresent(deleted -> invalidate(deleted.getClinicId()));
+    }
+
+    private void invalidate(String clinicId) {
+        rosterCache.invalidate(clinicId);
+        availabilityService.invalidate(clinicId);
+    }
+}
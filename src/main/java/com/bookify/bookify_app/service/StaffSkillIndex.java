@@ -0,0 +1,264 @@
+package com.bookify.bookify_app.service;
+
+// ********************************************************************************************
+// * StaffSkillIndex answers "which staff members can perform this treatment" per clinic      *
+// * without scanning skill lists.                                                            *
+// *                                                                                          *
+// * HOW IT WORKS:                                                                            *
+// * - Skill names are numbered per clinic (0, 1, 2, ...) and every staff member gets a bit   *
+// *   position; the index holds one staff bitmap per skill number.                           *
+// * - Eligible staff = AND of the bitmaps of the treatment's required skills; usually one    *
+// *   skill, so a hash lookup and a bitmap copy. No required skills = all staff.             *
+// * - A clinic is loaded from Mongo on first use. StaffMemberService keeps it current        *
+// *   incrementally: a save or delete changes one staff member's bits. That only happens on  *
+// *   the saving node, so AvailabilityService invalidates the clinic whenever it reloads it  *
+// *   (every RELOAD_AFTER); staff saved on other nodes show up within that window.           *
+// * - Updates copy the clinic's index and swap it in (copy-on-write), so lookups on the      *
+// *   public booking path never take a lock.                                                 *
+// ********************************************************************************************
+
+import com.bookify.bookify_app.model.StaffMember;
+import com.bookify.bookify_app.repository.StaffMemberRepository;
+
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.UnaryOperator;
+
+@Service
+public class StaffSkillIndex {
+
+    private final StaffMemberRepository staffRepository;
+
+    private final Map<String, ClinicSkills> clinics = new ConcurrentHashMap<>();
+    // Serializes a clinic's load and updates (readers never lock)
+    private final Map<String, ReentrantLock> clinicLocks = new ConcurrentHashMap<>();
+
+    public StaffSkillIndex(StaffMemberRepository staffRepository) {
+        this.staffRepository = staffRepository;
+    }
+
+    /**
+     * Staff members of a clinic who have all of the given skills.
+     *
+     * @param requiredSkills skill names; null or empty = every staff member
+     * @return staff ids in no particular order
+     */
+
+    public List<String> eligibleStaff(String clinicId, Collection<String> requiredSkills) {
+        ClinicSkills skills = clinic(clinicId);
+        return skills.staffIds(skills.eligible(requiredSkills));
+    }
+
+    /**
+     * Does this staff member have all of the given skills?
+     */
+
+    public boolean canPerform(String clinicId, String staffId, Collection<String> requiredSkills) {
+        ClinicSkills skills = clinic(clinicId);
+        Integer position = skills.positions.get(staffId);
+        return position != null && skills.eligible(requiredSkills).get(position);
+    }
+
+    /**
+     * Apply a saved staff member. Also handles a move from one clinic to another.
+     *
+     * @param previous the stored version before the save, or null for a new staff member
+     * @param saved    the staff member as saved
+     */
+
+    public void onStaffSaved(StaffMember previous, StaffMember saved) {
+        if (previous != null && previous.getClinicId() != null
+                && !previous.getClinicId().equals(saved.getClinicId())) {
+            ifLoaded(previous.getClinicId(), skills -> skills.without(previous.getId()));
+        }
+        if (saved.getClinicId() != null) {
+            ifLoaded(saved.getClinicId(), skills -> skills.with(saved));
+        }
+    }
+
+    public void onStaffDeleted(StaffMember deleted) {
+        if (deleted.getClinicId() != null) {
+            ifLoaded(deleted.getClinicId(), skills -> skills.without(deleted.getId()));
+        }
+    }
+
+    /**
+     * Drop a clinic's index; the next lookup loads it from Mongo.
+     */
+
+    public void invalidate(String clinicId) {
+        if (clinicId != null) {
+            ReentrantLock lock = lockFor(clinicId);
+            lock.lock();
+            try {
+                clinics.remove(clinicId);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private ClinicSkills clinic(String clinicId) {
+        ClinicSkills cached = clinics.get(clinicId);
+        if (cached != null) {
+            return cached;
+        }
+        ReentrantLock lock = lockFor(clinicId);
+        lock.lock();
+        try {
+            cached = clinics.get(clinicId);
+            if (cached == null) {
+                cached = ClinicSkills.EMPTY;
+                for (StaffMember staff : staffRepository.findByClinicId(clinicId)) {
+                    cached = cached.with(staff);
+                }
+                clinics.put(clinicId, cached);
+            }
+            return cached;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Clinics that are not loaded read the change from Mongo on first use
+    private void ifLoaded(String clinicId, UnaryOperator<ClinicSkills> change) {
+        ReentrantLock lock = lockFor(clinicId);
+        lock.lock();
+        try {
+            clinics.computeIfPresent(clinicId, (id, skills) -> change.apply(skills));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private ReentrantLock lockFor(String clinicId) {
+        return clinicLocks.computeIfAbsent(clinicId, id -> new ReentrantLock());
+    }
+
+    /**
+     * Immutable index of one clinic; with() and without() return changed copies.
+     */
+
+    private static final class ClinicSkills {
+        static final ClinicSkills EMPTY = new ClinicSkills(Map.of(), List.of(), Map.of(), List.of(), new BitSet());
+
+        // Skill name -> skill number; numbers are never reused
+        final Map<String, Integer> skillNumbers;
+        // Skill number -> staff bitmap
+        final List<BitSet> staffBySkill;
+        // Staff id -> bit position, and back (null = free position)
+        final Map<String, Integer> positions;
+        final List<String> staffAt;
+        final BitSet allStaff;
+
+        ClinicSkills(Map<String, Integer> skillNumbers, List<BitSet> staffBySkill, Map<String, Integer> positions,
+                     List<String> staffAt, BitSet allStaff) {
+            this.skillNumbers = skillNumbers;
+            this.staffBySkill = staffBySkill;
+            this.positions = positions;
+            this.staffAt = staffAt;
+            this.allStaff = allStaff;
+        }
+
+        /**
+         * Bitmap of the staff having every skill; callers must not modify it.
+         */
+
+        BitSet eligible(Collection<String> requiredSkills) {
+            if (requiredSkills == null || requiredSkills.isEmpty()) {
+                return allStaff;
+            }
+            BitSet result = null;
+            boolean copied = false;
+            for (String skill : requiredSkills) {
+                Integer number = skillNumbers.get(skill);
+                if (number == null) {
+                    return new BitSet();
+                }
+                BitSet staff = staffBySkill.get(number);
+                if (result == null) {
+                    result = staff;
+                } else {
+                    // The first bitmap belongs to the index; AND into a copy
+                    if (!copied) {
+                        result = (BitSet) result.clone();
+                        copied = true;
+                    }
+                    result.and(staff);
+                }
+            }
+            return result;
+        }
+
+        List<String> staffIds(BitSet bits) {
+            List<String> ids = new ArrayList<>(bits.cardinality());
+            for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1)) {
+                ids.add(staffAt.get(i));
+            }
+            return ids;
+        }
+
+        ClinicSkills with(StaffMember staff) {
+            ClinicSkills base = positions.containsKey(staff.getId()) ? without(staff.getId()) : this;
+            Map<String, Integer> numbers = new HashMap<>(base.skillNumbers);
+            List<BitSet> bySkill = copy(base.staffBySkill);
+            Map<String, Integer> newPositions = new HashMap<>(base.positions);
+            List<String> newStaffAt = new ArrayList<>(base.staffAt);
+            BitSet all = (BitSet) base.allStaff.clone();
+
+            // Reuse the lowest free position so bitmaps stay dense
+            int position = newStaffAt.indexOf(null);
+            if (position < 0) {
+                position = newStaffAt.size();
+                newStaffAt.add(staff.getId());
+            } else {
+                newStaffAt.set(position, staff.getId());
+            }
+            newPositions.put(staff.getId(), position);
+            all.set(position);
+
+            if (staff.getSkills() != null) {
+                for (String skill : staff.getSkills()) {
+                    Integer number = numbers.get(skill);
+                    if (number == null) {
+                        number = bySkill.size();
+                        numbers.put(skill, number);
+                        bySkill.add(new BitSet());
+                    }
+                    bySkill.get(number).set(position);
+                }
+            }
+            return new ClinicSkills(numbers, bySkill, newPositions, newStaffAt, all);
+        }
+
+        ClinicSkills without(String staffId) {
+            Integer position = positions.get(staffId);
+            if (position == null) {
+                return this;
+            }
+            List<BitSet> bySkill = copy(staffBySkill);
+            bySkill.forEach(bits -> bits.clear(position));
+            Map<String, Integer> newPositions = new HashMap<>(positions);
+            newPositions.remove(staffId);
+            List<String> newStaffAt = new ArrayList<>(staffAt);
+            newStaffAt.set(position, null);
+            BitSet all = (BitSet) allStaff.clone();
+            all.clear(position);
+            return new ClinicSkills(skillNumbers, bySkill, newPositions, newStaffAt, all);
+        }
+
+        private static List<BitSet> copy(List<BitSet> bitmaps) {
+            List<BitSet> result = new ArrayList<>(bitmaps.size());
+            bitmaps.forEach(bits -> result.add((BitSet) bits.clone()));
+            return result;
+        }
+    }
+}
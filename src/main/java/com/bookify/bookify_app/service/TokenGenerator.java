@@ -0,0 +1,164 @@
+package com.bookify.bookify_app.service;
+
+// ********************************************************************************************
+// * TokenGenerator produces URL-safe 256-bit random tokens (Base64 URL, no padding) without  *
+// * funnelling every thread through one SecureRandom.                                        *
+// *                                                                                          *
+// * HOW IT WORKS:                                                                            *
+// * - A fixed set of stripes, each with its own DRBG (NIST SP 800-90A, seeded once from the  *
+// *   system entropy source when the stripe is created at startup) and its own buffer.       *
+// * - A caller starts at the stripe picked by its thread id and takes the first one that is  *
+// *   free (tryLock), so threads only wait when every stripe is busy.                        *
+// * - Striped rather than per-thread: with virtual threads every request has its own thread, *
+// *   so a ThreadLocal DRBG would be seeded (entropy read) on every request.                 *
+// * - Optional prefill: a background thread keeps a bounded queue of ready tokens; callers   *
+// *   take one without waiting and generate inline when it is empty.                         *
+// ********************************************************************************************
+
+import com.bookify.bookify_app.config.TokenGeneratorProperties;
+
+import jakarta.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.security.DrbgParameters;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Component
+public class TokenGenerator implements AutoCloseable {
+
+    static final int TOKEN_BYTES = 32;
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private final Stripe[] stripes;
+    private final int mask;
+    // Pre-generated tokens; null when prefill is off
+    private final BlockingQueue<String> ready;
+    private final Thread refiller;
+
+    @Autowired
+    public TokenGenerator(TokenGeneratorProperties properties) {
+        this(properties.getStripes(), properties.getPrefill());
+    }
+
+    /**
+     * @param stripes number of DRBG instances, rounded up to a power of two; 0 = two per core
+     * @param prefill tokens kept ready by a background thread; 0 = none
+     */
+
+    public TokenGenerator(int stripes, int prefill) {
+        int count = stripes > 0 ? stripes : 2 * Runtime.getRuntime().availableProcessors();
+        count = count <= 1 ? 1 : Integer.highestOneBit(count - 1) << 1;
+        this.stripes = new Stripe[count];
+        for (int i = 0; i < count; i++) {
+            this.stripes[i] = new Stripe(newDrbg(i));
+        }
+        this.mask = count - 1;
+
+        if (prefill > 0) {
+            this.ready = new ArrayBlockingQueue<>(prefill);
+            this.refiller = new Thread(this::refill, "token-prefill");
+            refiller.setDaemon(true);
+            refiller.start();
+        } else {
+            this.ready = null;
+            this.refiller = null;
+        }
+    }
+
+    /**
+     * Next random token: 32 bytes from a DRBG, Base64 URL-encoded without padding.
+     */
+
+    public String next() {
+        if (ready != null) {
+            String token = ready.poll();
+            if (token != null) {
+                return token;
+            }
+        }
+        return generate();
+    }
+
+    public int stripeCount() {
+        return stripes.length;
+    }
+
+    @PreDestroy
+    @Override
+    public void close() {
+        if (refiller != null) {
+            refiller.interrupt();
+        }
+    }
+
+    private String generate() {
+        int home = (int) Thread.currentThread().threadId() & mask;
+        for (int i = 0; i < stripes.length; i++) {
+            Stripe stripe = stripes[(home + i) & mask];
+            if (stripe.lock.tryLock()) {
+                try {
+                    return stripe.next();
+                } finally {
+                    stripe.lock.unlock();
+                }
+            }
+        }
+        // Every stripe is busy: queue up on our own
+        Stripe stripe = stripes[home];
+        stripe.lock.lock();
+        try {
+            return stripe.next();
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    // Blocks on put() while the queue is full, so it only works when tokens are taken
+    private void refill() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                ready.put(generate());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static SecureRandom newDrbg(int index) {
+        try {
+            // The personalization string keeps stripes apart even if the seed source repeats
+            byte[] personalization = ByteBuffer.allocate(16)
+                    .putLong(System.nanoTime()).putInt(index).array();
+            return SecureRandom.getInstance("DRBG", DrbgParameters.instantiation(
+                    256, DrbgParameters.Capability.RESEED_ONLY, personalization));
+        } catch (NoSuchAlgorithmException e) {
+            return new SecureRandom();
+        }
+    }
+
+    private static final class Stripe {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final SecureRandom random;
+        private final byte[] buffer = new byte[TOKEN_BYTES];
+
+        Stripe(SecureRandom random) {
+            this.random = random;
+            // Draw once so seeding happens now, not on the first request
+            random.nextBytes(buffer);
+        }
+
+        String next() {
+            random.nextBytes(buffer);
+            return ENCODER.encodeToString(buffer);
+        }
+    }
+}
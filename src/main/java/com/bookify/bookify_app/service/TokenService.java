@@ -1,14 +1,17 @@
 package com.bookify.bookify_app.service;
 
 // ********************************************************************************************
-// * TokenService manages creation, validation, and consumption of verification and            *
-// * password-reset tokens. Tokens are URL-safe, random, time-bound, and single-use.          *
+// * TokenService manages creation and consumption of verification and password-reset         *
+// * tokens. Tokens are URL-safe, random, time-bound, and single-use.                         *
 // *                                                                                          *
 // * HOW:                                                                                     *
-// * - Generate 256-bit tokens using SecureRandom, Base64 URL encoding (no padding).          *
-// * - Persist tokens with expiry timestamps per use case.                                    *
-// * - Validate by checking existence, unused flag, and not expired.                          *
-// * - Mark tokens as used to enforce single-use semantics.                                   *
+// * - Generate 256-bit tokens with TokenGenerator (striped DRBGs), Base64 URL (no padding).  *
+// * - Persist only the SHA-256 of a token; the raw value goes out by mail and is never       *
+// *   stored, so the lookup is an exact match on the hash.                                   *
+// * - Consume in one atomic findAndModify: matches an unused, unexpired token and marks it   *
+// *   used in the same round trip, so two concurrent requests cannot both redeem it.         *
+// * - A TTL index on expiresAt lets Mongo delete expired tokens; the collections only hold   *
+// *   tokens that are still (or were recently) valid.                                        *
 // *                                                                                          *
 // * WHY: Centralizes token lifecycle with clear security properties and invariants.          *
 // ********************************************************************************************
@@ -20,75 +23,86 @@ import com.bookify.bookify_app.repository.PasswordResetTokenRepository;
 
 import lombok.RequiredArgsConstructor;
 
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
-import java.security.SecureRandom;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.Base64;
 import java.util.Optional;
 
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
 @Service
 @RequiredArgsConstructor
 public class TokenService {
 
     private final PasswordResetTokenRepository passwordResetTokenRepository;
     private final VerificationTokenRepository verificationTokenRepository;
+    private final MongoTemplate mongoTemplate;
+    private final TokenGenerator tokenGenerator;
 
-    // Cryptographically strong RNG for token bytes
-    private static final SecureRandom RANDOM = new SecureRandom();
     // URL-safe Base64 without padding to make token copy/paste and URL friendly
     private static final Base64.Encoder BASE64_ENCODER = Base64.getUrlEncoder().withoutPadding();
 
     /**
-     * Generate a URL-safe, 256-bit random token string.
-     * Uses SecureRandom and Base64 URL encoding without padding.
+     * Generate a URL-safe, 256-bit random token string (see TokenGenerator).
+     */
+
+    public String generateTokenString() {
+        return tokenGenerator.next();
+    }
+
+    /**
+     * SHA-256 of a raw token, base64url-encoded; the form tokens are stored and looked up in.
+     * A 256-bit random token needs no salt or slow hash: it cannot be guessed either way.
      */
 
-    private String generateTokenString() {
-        byte[] randomBytes = new byte[32];
-        RANDOM.nextBytes(randomBytes);
-        return BASE64_ENCODER.encodeToString(randomBytes);
+    public static String hashToken(String rawToken) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(rawToken.getBytes(StandardCharsets.UTF_8));
+            return BASE64_ENCODER.encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
     }
 
-    // --- Email verification tokens ---
+// --- Email verification tokens ---
 
     /**
      * Create and persist a new email verification token for a user.
      *
      * @param userId        the user identifier to bind the token to
      * @param minutesValid  validity window in minutes from now
-     * @return the persisted VerificationToken
+     * @return the persisted VerificationToken, with the raw token in getToken()
      */
 
     public VerificationToken createVerificationToken(String userId, int minutesValid) {
         String token = generateTokenString();
-        VerificationToken verificationToken = new VerificationToken(token, userId, Instant.now().plus(minutesValid, ChronoUnit.MINUTES));
-        return verificationTokenRepository.save(verificationToken);
+        VerificationToken verificationToken = new VerificationToken(hashToken(token), userId,
+                Instant.now().plus(minutesValid, ChronoUnit.MINUTES));
+        VerificationToken saved = verificationTokenRepository.save(verificationToken);
+        saved.setToken(token);
+        return saved;
     }
 
     /**
-     * Validate a verification token by value.
-     * A token is valid if it exists, is not used, and has not expired.
+     * Redeem a verification token: if it exists, is unused and has not expired, it is marked
+     * used and returned, atomically and in a single round trip.
      *
      * @param token the raw token string
-     * @return Optional containing the token if valid; otherwise Optional.empty()
-     */
-
-    public Optional<VerificationToken> validateVerificationToken(String token) {
-        return verificationTokenRepository.findByToken(token)
-        .filter(t -> !t.isUsed() && t.getExpiresAt().isAfter(Instant.now()));
-    }
-
-    /**
-     * Mark a verification token as used (single-use enforcement).
-     *
-     * @param token the token to consume
+     * @return Optional containing the consumed token if it was valid; otherwise Optional.empty()
      */
 
-    public void markVerificationTokenUsed(VerificationToken token) {
-        token.setUsed(true);
-        verificationTokenRepository.save(token);
+    public Optional<VerificationToken> consumeVerificationToken(String token) {
+        return consume(token, VerificationToken.class);
     }
 
     // --- Password reset tokens ---
@@ -98,36 +112,39 @@ public class TokenService {
      *
      * @param userId        the user identifier to bind the token to
      * @param minutesValid  validity window in minutes from now
-     * @return the persisted PasswordResetToken
+     * @return the persisted PasswordResetToken, with the raw token in getToken()
      */
 
     public PasswordResetToken createPasswordResetToken(String userId, int minutesValid) {
         String token = generateTokenString();
-        PasswordResetToken r = new PasswordResetToken(token, userId, Instant.now().plus(minutesValid, ChronoUnit.MINUTES));
-        return passwordResetTokenRepository.save(r);
+        PasswordResetToken r = new PasswordResetToken(hashToken(token), userId,
+                Instant.now().plus(minutesValid, ChronoUnit.MINUTES));
+        PasswordResetToken saved = passwordResetTokenRepository.save(r);
+        saved.setToken(token);
+        return saved;
     }
 
     /**
-     * Validate a password reset token by value.
-     * A token is valid if it exists, is not used, and has not expired.
+     * Redeem a password reset token: if it exists, is unused and has not expired, it is
+     * marked used and returned, atomically and in a single round trip.
      *
      * @param token the raw token string
-     * @return Optional containing the token if valid; otherwise Optional.empty()
+     * @return Optional containing the consumed token if it was valid; otherwise Optional.empty()
      */
 
-    public Optional<PasswordResetToken> validatePasswordResetToken(String token) {
-        return passwordResetTokenRepository.findByToken(token)
-                .filter(t -> !t.isUsed() && t.getExpiresAt().isAfter(Instant.now()));
+    public Optional<PasswordResetToken> consumePasswordResetToken(String token) {
+        return consume(token, PasswordResetToken.class);
     }
 
-    /**
-     * Mark a password reset token as used (single-use enforcement).
-     *
-     * @param token the token to consume
-     */
-
-    public void markPasswordResetTokenUsed(PasswordResetToken token) {
-        token.setUsed(true);
-        passwordResetTokenRepository.save(token);
+    private <T> Optional<T> consume(String token, Class<T> type) {
+        if (token == null || token.isBlank()) {
+            return Optional.empty();
+        }
+        // The TTL monitor runs about once a minute, so expiry is still checked here
+        Query query = Query.query(where("tokenHash").is(hashToken(token))
+                .and("used").is(false)
+                .and("expiresAt").gt(Instant.now()));
+        return Optional.ofNullable(mongoTemplate.findAndModify(query, new Update().set("used", true),
+                FindAndModifyOptions.options().returnNew(true), type));
     }
 }
@@ -10,9 +10,11 @@ import java.util.Optional;
 @Service
 public class TreatmentService {
     private final TreatmentRepository repo;
+    private final AvailabilityService availabilityService;
 
-    public TreatmentService(TreatmentRepository repo) {
+    public TreatmentService(TreatmentRepository repo, AvailabilityService availabilityService) {
         this.repo = repo;
+        this.availabilityService = availabilityService;
     }
 
     public List<Treatment> getAll(String clinicId) {
@@ -24,10 +26,14 @@ public class TreatmentService {
     }
 
     public Treatment save(Treatment treatment) {
-        return repo.save(treatment);
+        Treatment saved = repo.save(treatment);
+        // Required skills decide which staff availability offers
+        availabilityService.invalidate(saved.getClinicId());
+        return saved;
     }
 
     public void delete(String id) {
+        repo.findById(id).ifPresent(existing -> availabilityService.invalidate(existing.getClinicId()));
         repo.deleteById(id);
     }
 }
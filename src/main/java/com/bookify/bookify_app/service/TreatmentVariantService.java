@@ -10,9 +10,11 @@ import java.util.Optional;
 @Service
 public class TreatmentVariantService {
     private final TreatmentVariantRepository repo;
+    private final AvailabilityService availabilityService;
 
-    public TreatmentVariantService(TreatmentVariantRepository repo) {
+    public TreatmentVariantService(TreatmentVariantRepository repo, AvailabilityService availabilityService) {
         this.repo = repo;
+        this.availabilityService = availabilityService;
     }
 
     public List<TreatmentVariant> getAll(String clinicId) {
@@ -24,10 +26,13 @@ public class TreatmentVariantService {
     }
 
     public TreatmentVariant save(TreatmentVariant variant) {
-        return repo.save(variant);
+        TreatmentVariant saved = repo.save(variant);
+        availabilityService.invalidate(saved.getClinicId());
+        return saved;
     }
 
     public void delete(String id) {
+        repo.findById(id).ifPresent(existing -> availabilityService.invalidate(existing.getClinicId()));
         repo.deleteById(id);
     }
 }
@@ -0,0 +1,34 @@
+package com.bookify.bookify_app.service;
+
+// ********************************************************************************************
+// * UserEventListener keeps UserService's login cache in step with the database.             *
+// * Spring Data publishes an event for every User written through MongoTemplate or a         *
+// * repository, so role changes and other writes outside UserService evict the cache too.    *
+// ********************************************************************************************
+
+import com.bookify.bookify_app.model.User;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.stereotype.Component;
+
+@Component
+public class UserEventListener extends AbstractMongoEventListener<User> {
+
+    private final UserService userService;
+
+    public UserEventListener(UserService userService) {
+        this.userService = userService;
+    }
+
+    @Override
+    public void onAfterSave(AfterSaveEvent<User> event) {
+        userService.invalidate(event.getSource());
+    }
+
+    @Override
+    public void onAfterDelete(AfterDeleteEvent<User> event) {
+        // Only the delete query is known here, not the emails it removed
+        userService.invalidate((String) null);
+    }
+}
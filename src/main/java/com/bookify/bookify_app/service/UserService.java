@@ -6,31 +6,63 @@ package com.bookify.bookify_app.service;
 // * - registerUser: creates a new user in the current tenant (clinic) with a secure          *
 // *   password hash and a default role.                                                      *
 // * - loadUserByUsername: adapts our User entity to Spring Security's UserDetails for login. *
+// * - updatePassword(UserDetails, hash): stores a re-hashed password after a login when the  *
+// *   stored BCrypt cost is lower than the current one (called by Spring Security).          *
+// * - passwordVersion: changes only with a real password change or reset, unlike the hash.   *
+// *                                                                                          *
+// * Loaded users are cached by email (AuthProperties.PrincipalCache), so a login burst does  *
+// * not turn into a burst of Mongo reads:                                                    *
+// *   - Only found users are cached; "not found" is never remembered, so probing emails      *
+// *     cannot fill the cache. Either way the BCrypt check (a dummy one for unknown users in *
+// *     DaoAuthenticationProvider) dominates the response time, not the Mongo read.          *
+// *   - Every write through this service, and every User saved or deleted anywhere on this   *
+// *     node (UserEventListener, e.g. role changes), evicts the entry.                       *
+// *   - Entries hold an immutable snapshot; each call builds a fresh UserDetails, because    *
+// *     Spring Security erases the password of the instance it authenticated.                *
 // *                                                                                          *
 // * WHY: Centralizes user-related business logic and the bridge to Spring Security.          *
 // ********************************************************************************************
 
+import com.bookify.bookify_app.config.AuthProperties;
 import com.bookify.bookify_app.model.User;
 import com.bookify.bookify_app.repository.UserRepository;
 import com.bookify.bookify_app.util.UserRole;
 import com.bookify.bookify_app.filter.TenantContext;
 
-import lombok.RequiredArgsConstructor;
-
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.security.core.userdetails.*;
 
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Service
-@RequiredArgsConstructor
-public class UserService implements UserDetailsService {
+public class UserService implements UserDetailsService, UserDetailsPasswordService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
 
+    private final long ttlNanos;
+    private final int maxEntries;
+    // email -> snapshot of the user as Spring Security needs it
+    private final Map<String, CachedPrincipal> principals = new ConcurrentHashMap<>();
+    // Bumped on every invalidation; a lookup started before it must not be cached
+    private final AtomicLong generation = new AtomicLong();
+
+    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder,
+                       AuthProperties properties) {
+        this.userRepository = userRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.ttlNanos = properties.getPrincipalCache().getTtl().toNanos();
+        this.maxEntries = properties.getPrincipalCache().getMaxEntries();
+    }
+
     /**
      * Register a new user for the current tenant (clinic).
      * - Validates that the email is unique.
@@ -66,6 +98,7 @@ public class UserService implements UserDetailsService {
                 .orElseThrow(() -> new IllegalArgumentException("User not found"));
         user.setActive(true);
         userRepository.save(user);
+        invalidate(user);
     }
 
     /**
@@ -79,15 +112,17 @@ public class UserService implements UserDetailsService {
 
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found"));
+        return principal(email).toUserDetails();
+    }
 
-        // Map domain roles to Spring Security roles (as strings) for authorization decisions
-        return org.springframework.security.core.userdetails.User.builder()
-                .username(user.getEmail())
-                .password(user.getPasswordHash())
-                .roles(user.getRoles().stream().map(Enum::name).toArray(String[]::new))
-                .build();
+    /**
+     * Version of the user's password (see User.passwordVersion), served from the login cache.
+     *
+     * @throws UsernameNotFoundException if the user does not exist
+     */
+
+    public long passwordVersion(String email) throws UsernameNotFoundException {
+        return principal(email).passwordVersion();
     }
 
     public Optional<User> findByEmail(String email) {
@@ -95,14 +130,112 @@ public class UserService implements UserDetailsService {
     }
 
     /**
-     * Update the user's password securely.
+     * Update the user's password securely (password change or reset). Refresh tokens issued
+     * before stop working.
      */
 
     public void updatePassword(String userId, String rawPassword) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new IllegalArgumentException("User not found"));
         user.setPasswordHash(passwordEncoder.encode(rawPassword));
+        user.setPasswordVersion(user.getPasswordVersion() + 1);
         userRepository.save(user);
+        invalidate(user);
+    }
+
+    /**
+     * Store a password that Spring Security re-hashed on a successful login because the
+     * stored hash used a lower BCrypt cost (PasswordEncoder.upgradeEncoding). The password
+     * itself is unchanged, so passwordVersion stays as it is.
+     *
+     * @param user        the authenticated user
+     * @param newPassword the new hash, already encoded
+     * @return the user details with the new hash
+     */
+
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        userRepository.findByEmail(user.getUsername()).ifPresent(u -> {
+            u.setPasswordHash(newPassword);
+            userRepository.save(u);
+        });
+        invalidate(user.getUsername());
+        return org.springframework.security.core.userdetails.User.withUserDetails(user)
+                .password(newPassword)
+                .build();
+    }
+
+    private CachedPrincipal principal(String email) {
+        long now = System.nanoTime();
+        CachedPrincipal cached = principals.get(email);
+        if (cached != null && now - cached.expiresAtNanos < 0) {
+            return cached;
+        }
+
+        long loadedAt = generation.get();
+        User user = userRepository.findByEmail(email)
+                .orElseThrow(() -> new UsernameNotFoundException("User not found"));
+
+        // Map domain roles to Spring Security roles (ROLE_*) for authorization decisions
+        List<GrantedAuthority> authorities = user.getRoles() == null ? List.of()
+                : user.getRoles().stream()
+                        .map(role -> (GrantedAuthority) new SimpleGrantedAuthority("ROLE_" + role.name()))
+                        .toList();
+        CachedPrincipal principal = new CachedPrincipal(user.getId(), user.getEmail(), user.getPasswordHash(),
+                user.getPasswordVersion(), authorities, now + ttlNanos);
+
+        if (ttlNanos > 0) {
+            if (principals.size() >= maxEntries) {
+                evict(now);
+            }
+            principals.put(email, principal);
+            // The user changed while we were reading it; drop what may be stale
+            if (generation.get() != loadedAt) {
+                principals.remove(email);
+            }
+        }
+        return principal;
+    }
+
+    /**
+     * Forget the cached login data of a user, e.g. after its password or roles changed.
+     *
+     * @param email the user's email; null forgets every user
+     */
+
+    public void invalidate(String email) {
+        generation.incrementAndGet();
+        if (email == null) {
+            principals.clear();
+        } else {
+            principals.remove(email);
+        }
     }
 
+    /**
+     * Forget the cached login data of a saved user under its current and any previous email.
+     */
+
+    public void invalidate(User user) {
+        invalidate(user.getEmail());
+        if (user.getId() != null) {
+            principals.values().removeIf(p -> user.getId().equals(p.userId));
+        }
+    }
+
+    private void evict(long now) {
+        principals.values().removeIf(p -> now - p.expiresAtNanos >= 0);
+        // Still full of live entries: start over rather than grow
+        if (principals.size() >= maxEntries) {
+            principals.clear();
+        }
+    }
+
+    private record CachedPrincipal(String userId, String email, String passwordHash, long passwordVersion,
+                                   List<GrantedAuthority> authorities, long expiresAtNanos) {
+
+        UserDetails toUserDetails() {
+            return new org.springframework.security.core.userdetails.User(email, passwordHash, authorities);
+        }
+    }
 }
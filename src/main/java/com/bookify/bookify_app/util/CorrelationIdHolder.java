@@ -3,15 +3,24 @@ package com.bookify.bookify_app.util;
 // ********************************************************************************************
 // * CorrelationIdHolder stores the correlation ID in a ThreadLocal for the current request.  *
 // * Provides methods to set, get, and clear the ID, ensuring request-specific traceability.  *
+// * Use RequestContext to carry the ID into @Async work or other threads.                    *
+// * The ID is also put in the logging MDC ("correlationId") when set, so every log line of   *
+// * the request carries it without looking it up.                                            *
 // ********************************************************************************************
 
+import org.slf4j.MDC;
+
 public final class CorrelationIdHolder {
+
+    public static final String MDC_KEY = "correlationId";
+
     private static final ThreadLocal<String> CORRELATION_ID = new ThreadLocal<>();
 
     private CorrelationIdHolder() {}
 
     public static void setId(String id) {
         CORRELATION_ID.set(id);
+        MDC.put(MDC_KEY, id);
     }
 
     public static String getId() {
@@ -20,6 +29,7 @@ public final class CorrelationIdHolder {
 
     public static void clear() {
         CORRELATION_ID.remove();
+        MDC.remove(MDC_KEY);
     }
 
 }
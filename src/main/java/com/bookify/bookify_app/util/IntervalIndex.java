@@ -0,0 +1,101 @@
+package com.bookify.bookify_app.util;
+
+// ********************************************************************************************
+// * IntervalIndex keeps the booked intervals of one resource (staff member or room) sorted   *
+// * by start time and answers "does [start, end) overlap anything?" in O(log n + k).         *
+// *                                                                                          *
+// * HOW: Intervals are stored in a TreeMap keyed by start. Because no interval is longer     *
+// * than the longest one seen so far, only intervals starting in                             *
+// * [start - maxLength, end) can overlap, which is a single sub-map range scan.              *
+// *                                                                                          *
+// * Not thread-safe: callers guard each index with the lock of its resource.                 *
+// ********************************************************************************************
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+public final class IntervalIndex {
+
+    // start -> (id -> end); several bookings may share a start time
+    private final TreeMap<Long, Map<String, Long>> byStart = new TreeMap<>();
+    private final Map<String, Long> startById = new HashMap<>();
+    private long maxLength;
+
+    /**
+     * Add or replace the interval with the given id.
+     *
+     * @param id    unique id (e.g. booking id)
+     * @param start inclusive start (epoch millis)
+     * @param end   exclusive end (epoch millis)
+     */
+
+    public void add(String id, long start, long end) {
+        remove(id);
+        byStart.computeIfAbsent(start, k -> new HashMap<>(2)).put(id, end);
+        startById.put(id, start);
+        maxLength = Math.max(maxLength, end - start);
+    }
+
+    /**
+     * Remove the interval with the given id, if present.
+     */
+
+    public void remove(String id) {
+        Long start = startById.remove(id);
+        if (start == null) {
+            return;
+        }
+        Map<String, Long> atStart = byStart.get(start);
+        atStart.remove(id);
+        if (atStart.isEmpty()) {
+            byStart.remove(start);
+        }
+    }
+
+    /**
+     * Find an interval overlapping [start, end).
+     *
+     * @param ignoreId id to skip (the interval being updated), may be null
+     * @return the id of an overlapping interval, or null if there is none
+     */
+
+    public String findOverlap(long start, long end, String ignoreId) {
+        return findOverlap(start, end, ignoreId != null ? Set.of(ignoreId) : Set.of());
+    }
+
+    /**
+     * Find an interval overlapping [start, end), skipping several ids (e.g. a booking and the
+     * slot hold it replaces).
+     */
+
+    public String findOverlap(long start, long end, Set<String> ignoreIds) {
+        for (Map.Entry<Long, Map<String, Long>> entry
+                : byStart.subMap(start - maxLength, false, end, false).entrySet()) {
+            for (Map.Entry<String, Long> interval : entry.getValue().entrySet()) {
+                if (interval.getValue() > start && !ignoreIds.contains(interval.getKey())) {
+                    return interval.getKey();
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Call the action for every interval, in no particular order.
+     */
+
+    public void forEach(IntervalAction action) {
+        byStart.forEach((start, atStart) -> atStart.forEach((id, end) -> action.accept(id, start, end)));
+    }
+
+    public int size() {
+        return startById.size();
+    }
+
+    @FunctionalInterface
+    public interface IntervalAction {
+        void accept(String id, long start, long end);
+    }
+}
@@ -0,0 +1,146 @@
+package com.bookify.bookify_app.util;
+
+// ********************************************************************************************
+// * OpeningHoursParser turns the free-form strings stored in ClinicSettings into minute      *
+// * ranges that can be laid out on a slot grid.                                              *
+// *                                                                                          *
+// * FORMATS                                                                                  *
+// * - openingHours:     "MON 09:00-17:00" or "MON-FRI 09:00-17:00" (several per day allowed).*
+// * - specialOpenings:  "2025-12-24 10:00-14:00" (replaces the weekly hours for that date).  *
+// * - specialClosings:  "2025-12-25" (whole day) or "2025-12-24 12:00-13:00" (partial).      *
+// *                                                                                          *
+// * WHY: Keeps the string format in one place so availability and booking validation agree   *
+// * on what "open" means.                                                                    *
+// ********************************************************************************************
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+public final class OpeningHoursParser {
+
+    public static final int MINUTES_PER_DAY = 24 * 60;
+
+    private OpeningHoursParser() {}
+
+    /** A recurring opening range on a weekday, in minutes from midnight (end exclusive). */
+    public record WeeklyHours(DayOfWeek day, int fromMinute, int toMinute) {}
+
+    /** An opening or closing range on a specific date, in minutes from midnight (end exclusive). */
+    public record DatedHours(LocalDate date, int fromMinute, int toMinute) {}
+
+    /**
+     * Parse weekly opening hours such as "MON 09:00-17:00" or "MON-FRI 09:00-17:00".
+     *
+     * @param entries raw strings from ClinicSettings.openingHours (may be null)
+     * @return one WeeklyHours per weekday covered by each entry
+     * @throws IllegalArgumentException if an entry cannot be parsed
+     */
+
+    public static List<WeeklyHours> parseWeekly(List<String> entries) {
+        List<WeeklyHours> result = new ArrayList<>();
+        if (entries == null) {
+            return result;
+        }
+        for (String entry : entries) {
+            String[] parts = split(entry);
+            int[] range = parseRange(parts[1], entry);
+
+            String[] days = parts[0].split("-");
+            DayOfWeek first = parseDay(days[0], entry);
+            DayOfWeek last = days.length > 1 ? parseDay(days[1], entry) : first;
+
+            // Walk forward so that wrap-around ranges like "SAT-MON" also work
+            DayOfWeek day = first;
+            while (true) {
+                result.add(new WeeklyHours(day, range[0], range[1]));
+                if (day == last) {
+                    break;
+                }
+                day = day.plus(1);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Parse dated entries such as "2025-12-24 10:00-14:00" or "2025-12-25" (whole day).
+     *
+     * @param entries raw strings from ClinicSettings.specialOpenings/specialClosings (may be null)
+     * @return parsed ranges; whole-day entries span 00:00-24:00
+     * @throws IllegalArgumentException if an entry cannot be parsed
+     */
+
+    public static List<DatedHours> parseDated(List<String> entries) {
+        List<DatedHours> result = new ArrayList<>();
+        if (entries == null) {
+            return result;
+        }
+        for (String entry : entries) {
+            String trimmed = entry == null ? "" : entry.trim();
+            int space = trimmed.indexOf(' ');
+            String datePart = space < 0 ? trimmed : trimmed.substring(0, space);
+            LocalDate date;
+            try {
+                date = LocalDate.parse(datePart);
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("Invalid date in opening hours entry: " + entry);
+            }
+            if (space < 0) {
+                result.add(new DatedHours(date, 0, MINUTES_PER_DAY));
+            } else {
+                int[] range = parseRange(trimmed.substring(space + 1).trim(), entry);
+                result.add(new DatedHours(date, range[0], range[1]));
+            }
+        }
+        return result;
+    }
+
+    private static String[] split(String entry) {
+        String[] parts = entry == null ? new String[0] : entry.trim().split("\\s+");
+        if (parts.length != 2) {
+            throw new IllegalArgumentException("Invalid opening hours entry: " + entry);
+        }
+        return parts;
+    }
+
+    private static DayOfWeek parseDay(String token, String entry) {
+        String t = token.toUpperCase(Locale.ROOT);
+        for (DayOfWeek day : DayOfWeek.values()) {
+            if (day.name().startsWith(t) && t.length() >= 3) {
+                return day;
+            }
+        }
+        throw new IllegalArgumentException("Invalid weekday in opening hours entry: " + entry);
+    }
+
+    private static int[] parseRange(String token, String entry) {
+        String[] times = token.split("-");
+        if (times.length != 2) {
+            throw new IllegalArgumentException("Invalid time range in opening hours entry: " + entry);
+        }
+        int from = parseMinute(times[0], entry);
+        int to = parseMinute(times[1], entry);
+        if (to <= from) {
+            throw new IllegalArgumentException("Time range must end after it starts: " + entry);
+        }
+        return new int[] { from, to };
+    }
+
+    private static int parseMinute(String token, String entry) {
+        // "24:00" is allowed as an end-of-day marker
+        if ("24:00".equals(token)) {
+            return MINUTES_PER_DAY;
+        }
+        try {
+            LocalTime time = LocalTime.parse(token);
+            return time.getHour() * 60 + time.getMinute();
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid time in opening hours entry: " + entry);
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.bookify.bookify_app.util;
+
+// ********************************************************************************************
+// * OpeningSchedule is the compiled form of a clinic's opening hours: parsed once (when the  *
+// * settings are saved or first used), then queried without any string handling.             *
+// *                                                                                          *
+// * LAYOUT (all times clinic-local, minute resolution, ranges end-exclusive):                *
+// * - weekly:   one bit per minute of the week (7 x 1440 bits) from openingHours.            *
+// * - openings: dates with specialOpenings (sorted) and their merged minute intervals.       *
+// *             On such a date the weekly hours do not apply.                                *
+// * - closings: merged minute intervals from specialClosings, subtracted from both.          *
+// * Dated intervals are "epoch day * 1440 + minute of day" in sorted arrays, so a lookup is  *
+// * a binary search over the exceptions and a bit test for the weekly hours.                 *
+// *                                                                                          *
+// * Instances are immutable and safe to share between threads.                               *
+// ********************************************************************************************
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+
+public final class OpeningSchedule {
+
+    private static final int DAY = OpeningHoursParser.MINUTES_PER_DAY;
+
+    private final BitSet weekly;
+    private final long[] specialDays;
+    private final long[] openStarts;
+    private final long[] openEnds;
+    private final long[] closedStarts;
+    private final long[] closedEnds;
+
+    private OpeningSchedule(BitSet weekly, long[] specialDays, long[][] openings, long[][] closings) {
+        this.weekly = weekly;
+        this.specialDays = specialDays;
+        this.openStarts = openings[0];
+        this.openEnds = openings[1];
+        this.closedStarts = closings[0];
+        this.closedEnds = closings[1];
+    }
+
+    /**
+     * Compile the raw strings of ClinicSettings (see OpeningHoursParser for the formats).
+     *
+     * @throws IllegalArgumentException if an entry cannot be parsed
+     */
+
+    public static OpeningSchedule compile(List<String> openingHours, List<String> specialOpenings,
+                                          List<String> specialClosings) {
+        BitSet weekly = new BitSet(7 * DAY);
+        for (OpeningHoursParser.WeeklyHours h : OpeningHoursParser.parseWeekly(openingHours)) {
+            int base = weekBase(h.day().getValue());
+            weekly.set(base + h.fromMinute(), base + h.toMinute());
+        }
+
+        List<OpeningHoursParser.DatedHours> openings = OpeningHoursParser.parseDated(specialOpenings);
+        long[] specialDays = openings.stream().mapToLong(h -> h.date().toEpochDay()).distinct().sorted().toArray();
+
+        return new OpeningSchedule(weekly, specialDays, merge(openings),
+                merge(OpeningHoursParser.parseDated(specialClosings)));
+    }
+
+    /**
+     * Is the clinic open at this minute?
+     */
+
+    public boolean isOpen(LocalDateTime time) {
+        long minute = minute(time);
+        return isOpen(minute, minute + 1);
+    }
+
+    /**
+     * Is the clinic open for the whole of [from, to)? Seconds are rounded outwards.
+     */
+
+    public boolean isOpen(LocalDateTime from, LocalDateTime to) {
+        long start = minute(from);
+        long end = minute(to) + (to.getSecond() > 0 || to.getNano() > 0 ? 1 : 0);
+        return end > start && isOpen(start, end);
+    }
+
+    /**
+     * The open minutes of one date (bit n = minute n after midnight), e.g. to lay out a
+     * slot grid. The returned set is a copy.
+     */
+
+    public BitSet openMinutes(LocalDate date) {
+        long day = date.toEpochDay();
+        long dayStart = day * DAY;
+        BitSet open;
+        if (Arrays.binarySearch(specialDays, day) >= 0) {
+            open = new BitSet(DAY);
+            forEachOverlap(openStarts, openEnds, dayStart, dayStart + DAY,
+                    (from, to) -> open.set(from, to));
+        } else {
+            int base = weekBase(date.getDayOfWeek().getValue());
+            open = weekly.get(base, base + DAY);
+        }
+        forEachOverlap(closedStarts, closedEnds, dayStart, dayStart + DAY,
+                (from, to) -> open.clear(from, to));
+        return open;
+    }
+
+    private boolean isOpen(long from, long to) {
+        if (overlaps(closedStarts, closedEnds, from, to)) {
+            return false;
+        }
+        // A range crossing midnight has to be open on each day it touches
+        for (long day = Math.floorDiv(from, DAY); day * DAY < to; day++) {
+            long segmentFrom = Math.max(from, day * DAY);
+            long segmentTo = Math.min(to, (day + 1) * DAY);
+            if (Arrays.binarySearch(specialDays, day) >= 0) {
+                if (!covers(openStarts, openEnds, segmentFrom, segmentTo)) {
+                    return false;
+                }
+            } else {
+                int base = weekBase(LocalDate.ofEpochDay(day).getDayOfWeek().getValue());
+                int fromInDay = (int) (segmentFrom - day * DAY);
+                int toInDay = (int) (segmentTo - day * DAY);
+                if (weekly.nextClearBit(base + fromInDay) < base + toInDay) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    // Index of the last interval starting at or before minute, or -1
+    private static int floor(long[] starts, long minute) {
+        int i = Arrays.binarySearch(starts, minute);
+        return i >= 0 ? i : -i - 2;
+    }
+
+    private static boolean covers(long[] starts, long[] ends, long from, long to) {
+        int i = floor(starts, from);
+        return i >= 0 && ends[i] >= to;
+    }
+
+    private static boolean overlaps(long[] starts, long[] ends, long from, long to) {
+        int i = floor(starts, to - 1);
+        return i >= 0 && ends[i] > from;
+    }
+
+    private interface RangeAction {
+        void apply(int from, int to);
+    }
+
+    // Calls action with the parts of the intervals inside [dayStart, dayEnd), relative to dayStart
+    private static void forEachOverlap(long[] starts, long[] ends, long dayStart, long dayEnd, RangeAction action) {
+        for (int i = Math.max(0, floor(starts, dayStart)); i < starts.length && starts[i] < dayEnd; i++) {
+            if (ends[i] > dayStart) {
+                action.apply((int) (Math.max(starts[i], dayStart) - dayStart),
+                        (int) (Math.min(ends[i], dayEnd) - dayStart));
+            }
+        }
+    }
+
+    // Sorted, non-overlapping intervals: {starts, ends}; touching intervals are joined
+    private static long[][] merge(List<OpeningHoursParser.DatedHours> hours) {
+        long[][] ranges = hours.stream()
+                .map(h -> new long[] { h.date().toEpochDay() * DAY + h.fromMinute(),
+                        h.date().toEpochDay() * DAY + h.toMinute() })
+                .sorted(Comparator.comparingLong(r -> r[0]))
+                .toArray(long[][]::new);
+        long[] starts = new long[ranges.length];
+        long[] ends = new long[ranges.length];
+        int n = 0;
+        for (long[] r : ranges) {
+            if (n > 0 && r[0] <= ends[n - 1]) {
+                ends[n - 1] = Math.max(ends[n - 1], r[1]);
+            } else {
+                starts[n] = r[0];
+                ends[n] = r[1];
+                n++;
+            }
+        }
+        return new long[][] { Arrays.copyOf(starts, n), Arrays.copyOf(ends, n) };
+    }
+
+    private static long minute(LocalDateTime t) {
+        return t.toLocalDate().toEpochDay() * DAY + t.getHour() * 60L + t.getMinute();
+    }
+
+    // First bit of a weekday (1 = Monday) in the weekly set
+    private static int weekBase(int isoDayOfWeek) {
+        return (isoDayOfWeek - 1) * DAY;
+    }
+}
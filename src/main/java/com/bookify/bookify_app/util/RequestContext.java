@@ -0,0 +1,95 @@
+package com.bookify.bookify_app.util;
+
+// ********************************************************************************************
+// * RequestContext is an immutable snapshot of the per-request context: the tenant           *
+// * (TenantContext) and the correlation ID (CorrelationIdHolder).                            *
+// *                                                                                          *
+// * HOW: capture() on the request thread, then run work elsewhere through wrap(...). The     *
+// * wrapped task installs the snapshot on the executing thread and restores whatever that    *
+// * thread held before once it is done, so pooled threads never keep another request's       *
+// * tenant and virtual threads start from exactly the submitter's context.                   *
+// *                                                                                          *
+// * WHY: Both holders are plain ThreadLocals, which is correct for one thread (platform or   *
+// * virtual) per request, but nothing flows into @Async methods or executors by itself.      *
+// * AsyncConfig applies wrap() to every task of the application executor.                    *
+// ********************************************************************************************
+
+import com.bookify.bookify_app.filter.TenantContext;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+public record RequestContext(String clinicId, String correlationId) {
+
+    /**
+     * Snapshot of the current thread's context (values may be null).
+     */
+
+    public static RequestContext capture() {
+        return new RequestContext(TenantContext.getClinicId(), CorrelationIdHolder.getId());
+    }
+
+    /**
+     * Run with the captured context of the calling thread.
+     */
+
+    public static Runnable wrap(Runnable task) {
+        return capture().bind(task);
+    }
+
+    public static <T> Callable<T> wrap(Callable<T> task) {
+        return capture().bind(task);
+    }
+
+    /**
+     * An executor that hands the submitter's context to every task it runs.
+     */
+
+    public static Executor wrap(Executor executor) {
+        return task -> executor.execute(wrap(task));
+    }
+
+    public Runnable bind(Runnable task) {
+        return () -> {
+            RequestContext previous = install();
+            try {
+                task.run();
+            } finally {
+                previous.install();
+            }
+        };
+    }
+
+    public <T> Callable<T> bind(Callable<T> task) {
+        return () -> {
+            RequestContext previous = install();
+            try {
+                return task.call();
+            } finally {
+                previous.install();
+            }
+        };
+    }
+
+    /**
+     * Make this snapshot the current context.
+     *
+     * @return the context that was current before, to be installed again afterwards
+     */
+
+    private RequestContext install() {
+        RequestContext previous = capture();
+        set(clinicId, TenantContext::setClinicId, TenantContext::clear);
+        set(correlationId, CorrelationIdHolder::setId, CorrelationIdHolder::clear);
+        return previous;
+    }
+
+    private static void set(String value, Consumer<String> setter, Runnable clear) {
+        if (value != null) {
+            setter.accept(value);
+        } else {
+            clear.run();
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.bookify.bookify_app.util;
+
+// ********************************************************************************************
+// * RequestTimings collects how long the current request spent in each phase. It lives in a  *
+// * ThreadLocal for the request (set up by RequestTimingFilter), like CorrelationIdHolder.   *
+// *                                                                                          *
+// * Phases may nest: MONGO (every repository call) happens inside CONTROLLER. Calls outside  *
+// * a request (startup, @Async work, schedulers) find no timings and record nothing.         *
+// ********************************************************************************************
+
+public final class RequestTimings {
+
+    public enum Phase { RATE_LIMIT, TENANT, AUTH, CONTROLLER, MONGO }
+
+    private static final ThreadLocal<RequestTimings> CURRENT = new ThreadLocal<>();
+    private static final Phase[] PHASES = Phase.values();
+
+    private final long startNanos = System.nanoTime();
+    private final long[] phaseNanos = new long[PHASES.length];
+    // Start of a phase that is still running, 0 if none
+    private final long[] openedAt = new long[PHASES.length];
+    private int mongoCalls;
+    private String clinicId;
+
+    private RequestTimings() {}
+
+    /**
+     * Start timing a new request on this thread.
+     */
+
+    public static RequestTimings start() {
+        RequestTimings timings = new RequestTimings();
+        CURRENT.set(timings);
+        return timings;
+    }
+
+    public static RequestTimings current() {
+        return CURRENT.get();
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Add time spent in a phase to the current request, if there is one.
+     */
+
+    public static void add(Phase phase, long nanos) {
+        RequestTimings timings = CURRENT.get();
+        if (timings != null) {
+            timings.phaseNanos[phase.ordinal()] += nanos;
+            if (phase == Phase.MONGO) {
+                timings.mongoCalls++;
+            }
+        }
+    }
+
+    /**
+     * Mark the start of a phase whose end is seen elsewhere (e.g. by a later filter).
+     */
+
+    public static void begin(Phase phase) {
+        RequestTimings timings = CURRENT.get();
+        if (timings != null) {
+            timings.openedAt[phase.ordinal()] = System.nanoTime();
+        }
+    }
+
+    public static void end(Phase phase) {
+        RequestTimings timings = CURRENT.get();
+        if (timings != null) {
+            timings.close(phase.ordinal(), System.nanoTime());
+        }
+    }
+
+    /**
+     * Remember which clinic the request belongs to (set by TenantSubdomainFilter).
+     */
+
+    public static void tenant(String clinicId) {
+        RequestTimings timings = CURRENT.get();
+        if (timings != null) {
+            timings.clinicId = clinicId;
+        }
+    }
+
+    /**
+     * End the request: close phases that never saw their end (e.g. auth rejected the
+     * request) and return the total time.
+     */
+
+    public long finish() {
+        long now = System.nanoTime();
+        for (int i = 0; i < PHASES.length; i++) {
+            close(i, now);
+        }
+        return now - startNanos;
+    }
+
+    public long nanos(Phase phase) {
+        return phaseNanos[phase.ordinal()];
+    }
+
+    public boolean recorded(Phase phase) {
+        return phaseNanos[phase.ordinal()] > 0;
+    }
+
+    public int mongoCalls() {
+        return mongoCalls;
+    }
+
+    public String clinicId() {
+        return clinicId;
+    }
+
+    private void close(int phase, long now) {
+        if (openedAt[phase] != 0) {
+            phaseNanos[phase] += now - openedAt[phase];
+            openedAt[phase] = 0;
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.bookify.bookify_app.util;
+
+// ********************************************************************************************
+// * TimingWheel tracks deadlines for many keys with O(1) schedule, cancel and expiry.        *
+// *                                                                                          *
+// * HOW: Time is cut into ticks. Level 0 has one bucket per tick for the next 64 ticks;      *
+// * level 1 one bucket per 64 ticks for the next 64^2 ticks, and so on (levels are added     *
+// * when a deadline needs them). advance() walks the ticks that passed: it expires the       *
+// * level-0 bucket of each tick and, whenever a lower level wraps around, moves the next     *
+// * bucket of the level above down to where it now belongs.                                  *
+// *                                                                                          *
+// * Deadlines are rounded up to whole ticks, so a key expires at most one tick late and      *
+// * never early. Not thread-safe: callers guard the wheel with their own lock.               *
+// ********************************************************************************************
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+public final class TimingWheel<K> {
+
+    static final int BITS = 6;
+    static final int SIZE = 1 << BITS;
+    static final int MASK = SIZE - 1;
+
+    private final long tickMillis;
+    // levels.get(i)[bucket] = entries due in that bucket
+    private final List<Set<Entry<K>>[]> levels = new ArrayList<>();
+    private final Map<K, Entry<K>> entries = new HashMap<>();
+    // Last tick that has been processed
+    private long currentTick;
+
+    /**
+     * @param tickMillis resolution of the wheel
+     * @param nowMillis  current time; deadlines before it expire on the next advance()
+     */
+
+    public TimingWheel(long tickMillis, long nowMillis) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("tickMillis must be positive");
+        }
+        this.tickMillis = tickMillis;
+        this.currentTick = nowMillis / tickMillis;
+    }
+
+    /**
+     * Schedule (or reschedule) a key to expire at the given time.
+     */
+
+    public void schedule(K key, long deadlineMillis) {
+        cancel(key);
+        // Round up so a key never expires before its deadline
+        Entry<K> entry = new Entry<>(key, Math.max(currentTick + 1, Math.ceilDiv(deadlineMillis, tickMillis)));
+        entries.put(key, entry);
+        place(entry);
+    }
+
+    /**
+     * Remove a key before it expires.
+     *
+     * @return true if the key was scheduled
+     */
+
+    public boolean cancel(K key) {
+        Entry<K> entry = entries.remove(key);
+        if (entry == null) {
+            return false;
+        }
+        entry.bucket.remove(entry);
+        return true;
+    }
+
+    public boolean contains(K key) {
+        return entries.containsKey(key);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Move the wheel to the given time and hand every key whose deadline has passed to the
+     * consumer (removed from the wheel before the call).
+     */
+
+    public void advance(long nowMillis, Consumer<K> expired) {
+        long target = nowMillis / tickMillis;
+        while (currentTick < target) {
+            currentTick++;
+            cascade(1);
+            Set<Entry<K>> due = levels.isEmpty() ? null : levels.get(0)[(int) (currentTick & MASK)];
+            if (due != null && !due.isEmpty()) {
+                List<Entry<K>> batch = new ArrayList<>(due);
+                due.clear();
+                for (Entry<K> entry : batch) {
+                    entries.remove(entry.key);
+                    expired.accept(entry.key);
+                }
+            }
+        }
+    }
+
+    // When level - 1 wraps around, the next bucket of this level becomes due for re-placement
+    private void cascade(int level) {
+        if (level >= levels.size() || (currentTick & ((1L << (BITS * level)) - 1)) != 0) {
+            return;
+        }
+        cascade(level + 1);
+        Set<Entry<K>> bucket = levels.get(level)[(int) ((currentTick >>> (BITS * level)) & MASK)];
+        if (bucket != null && !bucket.isEmpty()) {
+            List<Entry<K>> moved = new ArrayList<>(bucket);
+            bucket.clear();
+            moved.forEach(this::place);
+        }
+    }
+
+    private void place(Entry<K> entry) {
+        long delta = Math.max(0, entry.deadlineTick - currentTick);
+        int level = 0;
+        while (level < 63 / BITS && delta >= (1L << (BITS * (level + 1)))) {
+            level++;
+        }
+        while (levels.size() <= level) {
+            @SuppressWarnings("unchecked")
+            Set<Entry<K>>[] buckets = new Set[SIZE];
+            levels.add(buckets);
+        }
+        Set<Entry<K>>[] buckets = levels.get(level);
+        int index = (int) ((entry.deadlineTick >>> (BITS * level)) & MASK);
+        if (buckets[index] == null) {
+            buckets[index] = new HashSet<>();
+        }
+        buckets[index].add(entry);
+        entry.bucket = buckets[index];
+    }
+
+    private static final class Entry<K> {
+        final K key;
+        final long deadlineTick;
+        Set<Entry<K>> bucket;
+
+        Entry(K key, long deadlineTick) {
+            this.key = key;
+            this.deadlineTick = deadlineTick;
+        }
+    }
+}
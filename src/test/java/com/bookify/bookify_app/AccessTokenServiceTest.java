@@ -0,0 +1,104 @@
+package com.bookify.bookify_app;
+
+// ********************************************************************************************
+// * AccessTokenServiceTest verifies the signed tokens of the stateless auth mode.            *
+// *                                                                                          *
+// * Covered scenarios:                                                                       *
+// *  - An access token verifies without I/O and carries the user's roles.                    *
+// *  - Tampered, expired or foreign-key tokens are rejected; a refresh token is not accepted *
+// *    as an access token.                                                                   *
+// *  - Refresh issues a new pair, survives a re-hash of the same password, and stops working *
+// *    once the password was changed or reset (password version bumped).                     *
+// *                                                                                          *
+// * Time is passed explicitly, so no test sleeps.                                            *
+// ********************************************************************************************
+
+import com.bookify.bookify_app.config.AuthProperties;
+import com.bookify.bookify_app.service.AccessTokenService;
+import com.bookify.bookify_app.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Base64;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class AccessTokenServiceTest {
+
+    private static final long T0 = 1_700_000_000_000L;
+    private static final long MINUTE = 60_000L;
+
+    private UserService userService;
+    private AccessTokenService service;
+    private UserDetails user;
+
+    @BeforeEach
+    void setUp() {
+        userService = mock(UserService.class);
+        service = new AccessTokenService(userService, properties("a".repeat(32)));
+        user = User.withUsername("a@x.com").password("$2a$10$hash").roles("OWNER").build();
+        when(userService.loadUserByUsername("a@x.com")).thenReturn(user);
+        when(userService.passwordVersion("a@x.com")).thenReturn(3L);
+    }
+
+    @Test
+    void shouldAuthenticateAccessTokenWithoutLookup() {
+        AccessTokenService.Tokens tokens = service.issue(user, T0);
+        clearInvocations(userService);
+
+        Optional<Authentication> auth = service.authenticate(tokens.accessToken(), T0 + MINUTE);
+
+        assertThat(auth).isPresent();
+        assertThat(auth.get().getName()).isEqualTo("a@x.com");
+        assertThat(auth.get().getAuthorities()).extracting(GrantedAuthority::getAuthority)
+                .containsExactly("ROLE_OWNER");
+        assertThat(tokens.expiresIn()).isEqualTo(15 * 60);
+        verifyNoInteractions(userService);
+    }
+
+    @Test
+    void shouldRejectTamperedExpiredAndMisusedTokens() {
+        AccessTokenService.Tokens tokens = service.issue(user, T0);
+        String access = tokens.accessToken();
+        String tampered = (access.charAt(0) == 'A' ? 'B' : 'A') + access.substring(1);
+        AccessTokenService other = new AccessTokenService(userService, properties("b".repeat(32)));
+
+        assertThat(service.authenticate(tampered, T0)).isEmpty();
+        assertThat(service.authenticate(access, T0 + 15 * MINUTE)).isEmpty();
+        assertThat(service.authenticate(tokens.refreshToken(), T0)).isEmpty();
+        assertThat(other.authenticate(access, T0)).isEmpty();
+        assertThat(service.authenticate("not.a.token", T0)).isEmpty();
+    }
+
+    @Test
+    void shouldRefreshUntilPasswordIsChanged() {
+        AccessTokenService.Tokens tokens = service.issue(user, T0);
+
+        Optional<AccessTokenService.Tokens> refreshed = service.refresh(tokens.refreshToken(), T0 + 20 * MINUTE);
+        assertThat(refreshed).isPresent();
+        assertThat(service.authenticate(refreshed.get().accessToken(), T0 + 21 * MINUTE)).isPresent();
+        // Access tokens cannot be used to refresh
+        assertThat(service.refresh(tokens.accessToken(), T0)).isEmpty();
+
+        // Same password re-hashed with a higher cost
+        when(userService.loadUserByUsername("a@x.com"))
+                .thenReturn(User.withUsername("a@x.com").password("$2a$12$rehash").roles("OWNER").build());
+        assertThat(service.refresh(tokens.refreshToken(), T0 + 20 * MINUTE)).isPresent();
+
+        when(userService.passwordVersion("a@x.com")).thenReturn(4L);
+        assertThat(service.refresh(tokens.refreshToken(), T0 + 20 * MINUTE)).isEmpty();
+    }
+
+    private static AuthProperties properties(String key) {
+        AuthProperties properties = new AuthProperties();
+        properties.setMode(AuthProperties.Mode.TOKEN);
+        properties.getToken().setSecret(Base64.getEncoder().encodeToString(key.getBytes()));
+        return properties;
+    }
+}
@@ -0,0 +1,320 @@
+package com.bookify.bookify_app;
+
+// ********************************************************************************************
+// * AvailabilityServiceTest verifies free-slot computation in AvailabilityService.           *
+// *                                                                                          *
+// * Test setup:                                                                              *
+// *  - Uses Mockito mocks for all repositories (no database required).                       *
+// *  - One clinic open MON-FRI 09:00-17:00 on a 15-minute grid, one staff member, one room.  *
+// *  - Treatment variant: 30 minutes + 15 minutes buffer (three slots).                      *
+// *                                                                                          *
+// * Covered scenarios:                                                                       *
+// *  - Existing bookings (incl. buffer) block overlapping start times.                       *
+// *  - Special closings remove a whole day.                                                  *
+// *  - Booking changes are applied incrementally (delete frees the slot again).              *
+// *  - A staff roster limits slots to the staff member's shifts, also after the slot grid    *
+// *    changed under a cached roster.                                                        *
+// *  - Required treatment skills limit slots to staff members who have them, and skills      *
+// *    changed elsewhere are picked up when the clinic is reloaded.                          *
+// *  - A room with capacity > 1 stays available until it is full.                            *
+// *  - A slot hold takes its slot out of availability until it is released.                  *
+// ********************************************************************************************
+
+import com.bookify.bookify_app.model.Booking;
+import com.bookify.bookify_app.model.ClinicSettings;
+import com.bookify.bookify_app.model.Room;
+import com.bookify.bookify_app.model.SlotHold;
+import com.bookify.bookify_app.model.StaffMember;
+import com.bookify.bookify_app.model.StaffRoster;
+import com.bookify.bookify_app.model.Treatment;
+import com.bookify.bookify_app.model.TreatmentVariant;
+import com.bookify.bookify_app.repository.BookingRepository;
+import com.bookify.bookify_app.repository.ClinicSettingsRepository;
+import com.bookify.bookify_app.repository.RoomRepository;
+import com.bookify.bookify_app.repository.StaffMemberRepository;
+import com.bookify.bookify_app.repository.StaffRosterRepository;
+import com.bookify.bookify_app.repository.TreatmentRepository;
+import com.bookify.bookify_app.repository.TreatmentVariantRepository;
+import com.bookify.bookify_app.service.AvailabilityService;
+import com.bookify.bookify_app.service.BookingService;
+import com.bookify.bookify_app.service.ClinicScheduleService;
+import com.bookify.bookify_app.service.RosterCache;
+import com.bookify.bookify_app.service.SlotHoldStore;
+import com.bookify.bookify_app.service.StaffSkillIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+class AvailabilityServiceTest {
+
+    private static final String CLINIC = "clinic1";
+    private static final ZoneId ZONE = ZoneId.of("Europe/Stockholm");
+
+    private BookingRepository bookingRepo;
+    private ClinicSettingsRepository settingsRepo;
+    private StaffRosterRepository rosterRepo;
+    private StaffMemberRepository staffRepo;
+    private TreatmentRepository treatmentRepo;
+    private RoomRepository roomRepo;
+    private RosterCache rosterCache;
+    private AvailabilityService service;
+    private ClinicSettings settings;
+    private LocalDate monday;
+
+    @BeforeEach
+    void setUp() {
+        bookingRepo = mock(BookingRepository.class);
+        settingsRepo = mock(ClinicSettingsRepository.class);
+        rosterRepo = mock(StaffRosterRepository.class);
+        staffRepo = mock(StaffMemberRepository.class);
+        treatmentRepo = mock(TreatmentRepository.class);
+        roomRepo = mock(RoomRepository.class);
+        TreatmentVariantRepository variantRepo = mock(TreatmentVariantRepository.class);
+
+        monday = LocalDate.now(ZONE).plusDays(7).with(TemporalAdjusters.nextOrSame(DayOfWeek.MONDAY));
+
+        settings = new ClinicSettings();
+        settings.setClinicId(CLINIC);
+        settings.setSlotIntervalMinutes(15);
+        settings.setOpeningHours(List.of("MON-FRI 09:00-17:00"));
+        when(settingsRepo.findByClinicId(CLINIC)).thenReturn(settings);
+
+        StaffMember staff = new StaffMember();
+        staff.setId("staff1");
+        when(staffRepo.findByClinicId(CLINIC)).thenReturn(List.of(staff));
+
+        Room room = new Room();
+        room.setId("room1");
+        when(roomRepo.findByClinicId(CLINIC)).thenReturn(List.of(room));
+
+        TreatmentVariant variant = new TreatmentVariant();
+        variant.setId("tv1");
+        variant.setTreatmentId("t1");
+        variant.setDurationMinutes(30);
+        variant.setBufferMinutes(15);
+        variant.setActive(true);
+        when(variantRepo.findByClinicId(CLINIC)).thenReturn(List.of(variant));
+
+        rosterCache = new RosterCache(rosterRepo, staffRepo, settingsRepo);
+        service = new AvailabilityService(bookingRepo, settingsRepo, staffRepo, roomRepo, treatmentRepo, variantRepo,
+                new ClinicScheduleService(settingsRepo), rosterCache,
+                new StaffSkillIndex(staffRepo), mock(SlotHoldStore.class), ZONE.getId(), 180);
+    }
+
+    @Test
+    void shouldBlockStartTimesOverlappingBookingAndBuffer() {
+        when(bookingRepo.streamByClinicIdInRange(eq(CLINIC), any(), any()))
+                .thenReturn(Stream.of(booking("b1", LocalTime.of(10, 0))));
+
+        List<LocalTime> starts = startTimes(service.findFreeSlots(CLINIC, monday, "tv1", null));
+
+        assertThat(starts).startsWith(LocalTime.of(9, 0), LocalTime.of(9, 15), LocalTime.of(10, 45));
+        assertThat(starts).doesNotContain(LocalTime.of(9, 30), LocalTime.of(10, 0), LocalTime.of(10, 30));
+        // Last start where 45 minutes still fit before 17:00
+        assertThat(starts).endsWith(LocalTime.of(16, 15));
+    }
+
+    @Test
+    void shouldReturnNoSlotsOnSpecialClosingDay() {
+        settings.setSpecialClosings(List.of(monday.toString()));
+        when(bookingRepo.streamByClinicIdInRange(eq(CLINIC), any(), any())).thenReturn(Stream.empty());
+
+        assertThat(service.findFreeSlots(CLINIC, monday, "tv1", null)).isEmpty();
+    }
+
+    @Test
+    void shouldFreeSlotWhenBookingIsRemoved() {
+        Booking booking = booking("b1", LocalTime.of(9, 0));
+        when(bookingRepo.streamByClinicIdInRange(eq(CLINIC), any(), any())).thenReturn(Stream.of(booking));
+
+        assertThat(startTimes(service.findFreeSlots(CLINIC, monday, "tv1", null)))
+                .doesNotContain(LocalTime.of(9, 0));
+
+        service.onBookingChanged(booking, null);
+
+        assertThat(startTimes(service.findFreeSlots(CLINIC, monday, "tv1", null)))
+                .contains(LocalTime.of(9, 0));
+        // State is served from memory after the first load
+        verify(bookingRepo, times(1)).streamByClinicIdInRange(eq(CLINIC), any(), any());
+        verify(bookingRepo, never()).findByClinicId(any());
+    }
+
+    @Test
+    void shouldOnlyOfferSlotsInsideStaffShifts() {
+        StaffRoster roster = new StaffRoster();
+        roster.setClinicId(CLINIC);
+        roster.setStaffId("staff1");
+        roster.setShifts(List.of("MON 12:00-15:00"));
+        roster.setAbsences(List.of(monday + " 13:00-14:00"));
+        when(rosterRepo.findByClinicId(CLINIC)).thenReturn(List.of(roster));
+        when(bookingRepo.streamByClinicIdInRange(eq(CLINIC), any(), any())).thenReturn(Stream.empty());
+
+        assertThat(startTimes(service.findFreeSlots(CLINIC, monday, "tv1", null)))
+                .containsExactly(LocalTime.of(12, 0), LocalTime.of(12, 15), LocalTime.of(14, 0),
+                        LocalTime.of(14, 15));
+        assertThat(service.findFreeSlots(CLINIC, monday.plusDays(1), "tv1", null)).isEmpty();
+    }
+
+    @Test
+    void shouldReloadRosterCompiledOnOlderSlotGrid() {
+        StaffRoster roster = new StaffRoster();
+        roster.setClinicId(CLINIC);
+        roster.setStaffId("staff1");
+        roster.setShifts(List.of("MON 12:00-15:00"));
+        roster.setAbsences(List.of(monday + " 13:00-14:00"));
+        when(rosterRepo.findByClinicId(CLINIC)).thenReturn(List.of(roster));
+        when(bookingRepo.streamByClinicIdInRange(eq(CLINIC), any(), any())).thenReturn(Stream.empty());
+
+        // Roster cached on the 15-minute grid, then the clinic moves to 30 minutes
+        assertThat(rosterCache.roster(CLINIC).slotMinutes()).isEqualTo(15);
+        settings.setSlotIntervalMinutes(30);
+
+        assertThat(startTimes(service.findFreeSlots(CLINIC, monday, "tv1", null)))
+                .containsExactly(LocalTime.of(12, 0), LocalTime.of(14, 0));
+    }
+
+    @Test
+    void shouldOnlyOfferStaffWithRequiredSkills() {
+        StaffMember junior = new StaffMember();
+        junior.setId("staff1");
+        junior.setSkills(List.of("massage"));
+        StaffMember senior = new StaffMember();
+        senior.setId("staff2");
+        senior.setSkills(List.of("massage", "laser"));
+        when(staffRepo.findByClinicId(CLINIC)).thenReturn(List.of(junior, senior));
+
+        Treatment treatment = new Treatment();
+        treatment.setId("t1");
+        treatment.setRequiredSkills(List.of("laser"));
+        when(treatmentRepo.findByClinicId(CLINIC)).thenReturn(List.of(treatment));
+
+        // The only laser-skilled staff member is busy at 10:00; staff1 is free but not eligible
+        Booking booking = booking("b1", LocalTime.of(10, 0));
+        booking.setStaffId("staff2");
+        when(bookingRepo.streamByClinicIdInRange(eq(CLINIC), any(), any())).thenReturn(Stream.of(booking));
+
+        assertThat(startTimes(service.findFreeSlots(CLINIC, monday, "tv1", null)))
+                .contains(LocalTime.of(9, 0))
+                .doesNotContain(LocalTime.of(10, 0));
+        assertThat(service.findFreeSlots(CLINIC, monday, "tv1", "staff1")).isEmpty();
+    }
+
+    @Test
+    void shouldRebuildSkillsWhenClinicIsReloaded() {
+        StaffMember staff = new StaffMember();
+        staff.setId("staff1");
+        when(staffRepo.findByClinicId(CLINIC)).thenReturn(List.of(staff));
+        Treatment treatment = new Treatment();
+        treatment.setId("t1");
+        treatment.setRequiredSkills(List.of("laser"));
+        when(treatmentRepo.findByClinicId(CLINIC)).thenReturn(List.of(treatment));
+        when(bookingRepo.streamByClinicIdInRange(eq(CLINIC), any(), any()))
+                .thenAnswer(inv -> Stream.empty());
+
+        assertThat(service.findFreeSlots(CLINIC, monday, "tv1", null)).isEmpty();
+
+        // Re-skilled on another node: only Mongo changed, no onStaffSaved here
+        StaffMember reskilled = new StaffMember();
+        reskilled.setId("staff1");
+        reskilled.setSkills(List.of("laser"));
+        when(staffRepo.findByClinicId(CLINIC)).thenReturn(List.of(reskilled));
+        service.invalidate(CLINIC);
+
+        assertThat(startTimes(service.findFreeSlots(CLINIC, monday, "tv1", null))).contains(LocalTime.of(9, 0));
+    }
+
+    @Test
+    void shouldSubtractHeldSlotUntilReleased() {
+        when(bookingRepo.streamByClinicIdInRange(eq(CLINIC), any(), any())).thenReturn(Stream.empty());
+        ZonedDateTime nine = monday.atTime(9, 0).atZone(ZONE);
+
+        AvailabilityService.Assignment assignment = service.assign(CLINIC, "tv1", nine, null);
+        assertThat(assignment.staffId()).isEqualTo("staff1");
+        assertThat(assignment.roomId()).isEqualTo("room1");
+        assertThat(assignment.blockedUntil()).isEqualTo(nine.plusMinutes(45));
+
+        SlotHold hold = new SlotHold();
+        hold.setId("h1");
+        hold.setClinicId(CLINIC);
+        hold.setStaffId(assignment.staffId());
+        hold.setRoomId(assignment.roomId());
+        hold.setTreatmentVariantId("tv1");
+        hold.setStartTime(nine);
+        hold.setEndTime(assignment.endTime());
+        hold.setBlockedUntil(assignment.blockedUntil());
+        hold.setExpiresAt(Instant.now().plusSeconds(300));
+        service.onHoldChanged(null, hold);
+
+        assertThat(startTimes(service.findFreeSlots(CLINIC, monday, "tv1", null)))
+                .doesNotContain(LocalTime.of(9, 0), LocalTime.of(9, 30));
+        assertThrows(BookingService.BookingConflictException.class,
+                () -> service.assign(CLINIC, "tv1", nine, null));
+
+        service.onHoldChanged(hold, null);
+
+        assertThat(startTimes(service.findFreeSlots(CLINIC, monday, "tv1", null)))
+                .contains(LocalTime.of(9, 0), LocalTime.of(9, 30));
+    }
+
+    @Test
+    void shouldKeepSharedRoomAvailableUntilFull() {
+        Room hall = new Room();
+        hall.setId("room1");
+        hall.setCapacity(2);
+        when(roomRepo.findByClinicId(CLINIC)).thenReturn(List.of(hall));
+        List<StaffMember> staff = new ArrayList<>();
+        for (String id : List.of("staff1", "staff2", "staff3")) {
+            StaffMember member = new StaffMember();
+            member.setId(id);
+            staff.add(member);
+        }
+        when(staffRepo.findByClinicId(CLINIC)).thenReturn(staff);
+
+        Booking first = booking("b1", LocalTime.of(10, 0));
+        Booking other = booking("b2", LocalTime.of(10, 0));
+        other.setStaffId("staff2");
+        when(bookingRepo.streamByClinicIdInRange(eq(CLINIC), any(), any())).thenReturn(Stream.of(first));
+
+        // One of two seats taken: staff2 and staff3 can still use the room
+        assertThat(startTimes(service.findFreeSlots(CLINIC, monday, "tv1", null))).contains(LocalTime.of(10, 0));
+
+        service.onBookingChanged(null, other);
+        assertThat(startTimes(service.findFreeSlots(CLINIC, monday, "tv1", null)))
+                .doesNotContain(LocalTime.of(10, 0));
+
+        service.onBookingChanged(other, null);
+        assertThat(startTimes(service.findFreeSlots(CLINIC, monday, "tv1", "staff3")))
+                .contains(LocalTime.of(10, 0));
+    }
+
+    private Booking booking(String id, LocalTime start) {
+        Booking b = new Booking();
+        b.setId(id);
+        b.setClinicId(CLINIC);
+        b.setStaffId("staff1");
+        b.setRoomId("room1");
+        b.setTreatmentVariantId("tv1");
+        b.setStartTime(monday.atTime(start).atZone(ZONE));
+        b.setEndTime(monday.atTime(start.plusMinutes(30)).atZone(ZONE));
+        b.setStatus("BOOKED");
+        return b;
+    }
+
+    private static List<LocalTime> startTimes(List<AvailabilityService.FreeSlot> slots) {
+        return slots.stream().map(s -> s.startTime().toLocalTime()).toList();
+    }
+}
@@ -28,6 +28,7 @@ import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexRes
 import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
 
 import java.time.ZonedDateTime;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -108,4 +109,34 @@ class BookingRepositoryTest {
         assertEquals(start.toInstant().toEpochMilli(), found.getStartTime().toInstant().toEpochMilli());
         assertEquals(end.toInstant().toEpochMilli(), found.getEndTime().toInstant().toEpochMilli());
     }
+
+    @Test
+    void shouldReturnOnlyBookingsInsideTimeWindow() {
+        ZonedDateTime day = ZonedDateTime.now().withNano(0);
+        repo.save(booking("clinicR", "staff1", "room1", day.minusDays(1)));
+        repo.save(booking("clinicR", "staff1", "room1", day.plusHours(2)));
+        repo.save(booking("clinicR", "staff2", "room2", day.plusHours(1)));
+        repo.save(booking("clinicR", "staff1", "room1", day.plusDays(1)));
+
+        ZonedDateTime to = day.plusDays(1);
+
+        // Window is [from, to) and results are ordered by startTime
+        List<Booking> all = repo.findByClinicIdInRange("clinicR", day, to);
+        assertEquals(2, all.size());
+        assertEquals("staff2", all.get(0).getStaffId());
+
+        assertEquals(1, repo.findByClinicIdAndStaffIdInRange("clinicR", "staff1", day, to).size());
+        assertEquals(1, repo.findByClinicIdAndRoomIdInRange("clinicR", "room2", day, to).size());
+    }
+
+    private static Booking booking(String clinicId, String staffId, String roomId, ZonedDateTime start) {
+        Booking b = new Booking();
+        b.setClinicId(clinicId);
+        b.setStaffId(staffId);
+        b.setRoomId(roomId);
+        b.setStartTime(start);
+        b.setEndTime(start.plusMinutes(30));
+        b.setStatus("BOOKED");
+        return b;
+    }
 }
@@ -0,0 +1,182 @@
+package com.bookify.bookify_app;
+
+// ********************************************************************************************
+// * BookingServiceTest verifies overlap-safe booking creation in BookingService.             *
+// *                                                                                          *
+// * Test setup:                                                                              *
+// *  - BookingRepository is a Mockito mock backed by an in-memory list (no database).        *
+// *  - Treatment variant: 30 minutes + 15 minutes buffer.                                    *
+// *                                                                                          *
+// * Covered scenarios:                                                                       *
+// *  - Overlap on the same staff member (different room, different start minute) is rejected.*
+// *  - Overlap on the same room (different staff member) is rejected.                        *
+// *  - A booking starting when the previous buffer ends is accepted.                         *
+// *  - A conflicting booking written by another node is detected in Mongo and rolled back.   *
+// *  - A booking deleted by another node no longer blocks its slot on this node.             *
+// *  - A shared room (capacity > 1) takes overlapping bookings until its counters are full.  *
+// ********************************************************************************************
+
+import com.bookify.bookify_app.model.Booking;
+import com.bookify.bookify_app.model.TreatmentVariant;
+import com.bookify.bookify_app.repository.BookingRepository;
+import com.bookify.bookify_app.repository.TreatmentVariantRepository;
+import com.bookify.bookify_app.service.AvailabilityService;
+import com.bookify.bookify_app.service.BookingConflictDetector;
+import com.bookify.bookify_app.service.BookingService;
+import com.bookify.bookify_app.service.RoomSlotCounterStore;
+import com.bookify.bookify_app.service.SlotHoldService;
+import com.bookify.bookify_app.service.SlotHoldStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+class BookingServiceTest {
+
+    private final List<Booking> stored = new ArrayList<>();
+    private BookingRepository repo;
+    private RoomSlotCounterStore roomSlots;
+    private BookingService service;
+    private ZonedDateTime tenOClock;
+
+    @BeforeEach
+    void setUp() {
+        repo = mock(BookingRepository.class);
+        roomSlots = mock(RoomSlotCounterStore.class);
+        when(roomSlots.isShared("hall")).thenReturn(true);
+        TreatmentVariantRepository variantRepo = mock(TreatmentVariantRepository.class);
+
+        TreatmentVariant variant = new TreatmentVariant();
+        variant.setId("tv1");
+        variant.setDurationMinutes(30);
+        variant.setBufferMinutes(15);
+        when(variantRepo.findById("tv1")).thenReturn(Optional.of(variant));
+
+        when(repo.save(any(Booking.class))).thenAnswer(inv -> {
+            Booking b = inv.getArgument(0);
+            if (b.getId() == null) {
+                b.setId(UUID.randomUUID().toString());
+            }
+            stored.removeIf(s -> s.getId().equals(b.getId()));
+            stored.add(b);
+            return b;
+        });
+        doAnswer(inv -> stored.removeIf(s -> s.getId().equals(inv.getArgument(0))))
+                .when(repo).deleteById(anyString());
+        when(repo.findById(anyString())).thenAnswer(inv -> stored.stream()
+                .filter(b -> b.getId().equals(inv.getArgument(0)))
+                .findFirst());
+        when(repo.findByClinicIdAndStaffIdInRange(anyString(), anyString(), any(), any()))
+                .thenAnswer(inv -> stored.stream()
+                        .filter(b -> b.getStaffId().equals(inv.getArgument(1)))
+                        .toList());
+        when(repo.findByClinicIdAndRoomIdInRange(anyString(), anyString(), any(), any()))
+                .thenAnswer(inv -> stored.stream()
+                        .filter(b -> b.getRoomId().equals(inv.getArgument(1)))
+                        .toList());
+
+        service = new BookingService(repo, variantRepo,
+                new BookingConflictDetector(repo, roomSlots, mock(SlotHoldStore.class)),
+                mock(AvailabilityService.class), mock(SlotHoldService.class));
+
+        tenOClock = ZonedDateTime.now().plusDays(3).withHour(10).withMinute(0).withSecond(0).withNano(0);
+    }
+
+    @Test
+    void shouldRejectOverlapOnSameStaffMember() {
+        service.save(booking("staff1", "room1", tenOClock));
+
+        // Starts during the buffer of the first booking, in another room
+        assertThrows(BookingService.BookingConflictException.class,
+                () -> service.save(booking("staff1", "room2", tenOClock.plusMinutes(40))));
+        assertThat(stored).hasSize(1);
+    }
+
+    @Test
+    void shouldRejectOverlapOnSameRoom() {
+        service.save(booking("staff1", "room1", tenOClock));
+
+        assertThrows(BookingService.BookingConflictException.class,
+                () -> service.save(booking("staff2", "room1", tenOClock.minusMinutes(20))));
+    }
+
+    @Test
+    void shouldAcceptBookingStartingWhenBufferEnds() {
+        service.save(booking("staff1", "room1", tenOClock));
+        Booking next = service.save(booking("staff1", "room1", tenOClock.plusMinutes(45)));
+
+        assertThat(next.getBlockedUntil()).isEqualTo(tenOClock.plusMinutes(45 + 30 + 15));
+        assertThat(stored).hasSize(2);
+    }
+
+    @Test
+    void shouldRollBackWhenAnotherNodeBookedConcurrently() {
+        // Warm the in-memory index, then let "another node" write directly to Mongo
+        service.save(booking("staff1", "room2", tenOClock));
+        Booking foreign = booking("staff2", "room2", tenOClock.plusHours(2));
+        foreign.setId("foreign");
+        foreign.setBlockedUntil(foreign.getEndTime().plusMinutes(15));
+        stored.add(foreign);
+
+        assertThrows(BookingService.BookingConflictException.class,
+                () -> service.save(booking("staff1", "room2", tenOClock.plusHours(2))));
+        verify(repo).deleteById(anyString());
+        assertThat(stored).hasSize(2);
+    }
+
+    @Test
+    void shouldAcceptSlotFreedByAnotherNode() {
+        Booking first = service.save(booking("staff1", "room1", tenOClock));
+        // "Another node" deletes it directly in Mongo; this node's index still has it
+        stored.remove(first);
+
+        Booking again = service.save(booking("staff1", "room1", tenOClock));
+
+        assertThat(stored).containsExactly(again);
+    }
+
+    @Test
+    void shouldAdmitSharedRoomBookingsUntilFull() {
+        when(roomSlots.tryAdmit(eq("clinic1"), eq("hall"), any(), any())).thenReturn(true, true, false);
+
+        service.save(booking("staff1", "hall", tenOClock));
+        service.save(booking("staff2", "hall", tenOClock.plusMinutes(15)));
+        assertThrows(BookingService.BookingConflictException.class,
+                () -> service.save(booking("staff3", "hall", tenOClock)));
+        assertThat(stored).hasSize(2);
+
+        // Staff stay exclusive: a staff conflict found in Mongo gives the seat back
+        when(roomSlots.tryAdmit(eq("clinic1"), eq("hall"), any(), any())).thenReturn(true);
+        service.save(booking("staff4", "hall", tenOClock.plusHours(3)));
+        Booking foreign = booking("staff4", "room1", tenOClock.plusHours(5));
+        foreign.setId("foreign");
+        foreign.setBlockedUntil(foreign.getEndTime());
+        stored.add(foreign);
+
+        assertThrows(BookingService.BookingConflictException.class,
+                () -> service.save(booking("staff4", "hall", tenOClock.plusHours(5))));
+        verify(roomSlots).release(eq("clinic1"), eq("hall"), eq(tenOClock.plusHours(5)), any());
+        // Shared rooms are never checked by scanning their bookings
+        verify(repo, never()).findByClinicIdAndRoomIdInRange(anyString(), eq("hall"), any(), any());
+    }
+
+    private static Booking booking(String staffId, String roomId, ZonedDateTime start) {
+        Booking b = new Booking();
+        b.setClinicId("clinic1");
+        b.setStaffId(staffId);
+        b.setRoomId(roomId);
+        b.setTreatmentVariantId("tv1");
+        b.setStartTime(start);
+        b.setEndTime(start.plusMinutes(30));
+        b.setStatus("BOOKED");
+        return b;
+    }
+}
@@ -0,0 +1,100 @@
+package com.bookify.bookify_app;
+
+// ********************************************************************************************
+// * BoundedPasswordEncoderTest verifies bounded, calibrated password hashing.                *
+// *                                                                                          *
+// * Covered scenarios:                                                                       *
+// *  - Hashes made on the pool verify as regular BCrypt hashes.                              *
+// *  - A full queue fails fast with HashingBusyException instead of blocking.                *
+// *  - Calibration stays within bounds; only hashes with a lower cost are rehashed.          *
+// *  - UserService stores the re-hashed password Spring Security hands back after login.     *
+// ********************************************************************************************
+
+import com.bookify.bookify_app.config.AuthProperties;
+import com.bookify.bookify_app.config.BoundedPasswordEncoder;
+import com.bookify.bookify_app.model.User;
+import com.bookify.bookify_app.repository.UserRepository;
+import com.bookify.bookify_app.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class BoundedPasswordEncoderTest {
+
+    @Test
+    void shouldHashAndVerifyOnPool() {
+        try (BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(4, 2, 8)) {
+            String hash = encoder.encode("secret");
+
+            assertThat(hash).startsWith("$2a$04$");
+            assertThat(encoder.matches("secret", hash)).isTrue();
+            assertThat(new BCryptPasswordEncoder().matches("secret", hash)).isTrue();
+        }
+    }
+
+    @Test
+    void shouldRejectWhenQueueIsFull() throws Exception {
+        List<Future<String>> results = new ArrayList<>();
+        try (BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(12, 1, 1);
+             ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 6; i++) {
+                results.add(callers.submit(() -> encoder.encode("secret")));
+            }
+
+            int busy = 0;
+            for (Future<String> result : results) {
+                try {
+                    result.get();
+                } catch (ExecutionException e) {
+                    assertThat(e.getCause()).isInstanceOf(BoundedPasswordEncoder.HashingBusyException.class);
+                    assertThat(((BoundedPasswordEncoder.HashingBusyException) e.getCause()).getRetryAfterSeconds())
+                            .isPositive();
+                    busy++;
+                }
+            }
+            // One hashing thread + one queue slot: the rest is turned away
+            assertThat(busy).isGreaterThanOrEqualTo(4);
+        }
+    }
+
+    @Test
+    void shouldCalibrateWithinBoundsAndFlagLowerCosts() {
+        int strength = BoundedPasswordEncoder.calibrateStrength(Duration.ofMillis(100), 4, 12);
+        assertThat(strength).isBetween(4, 12);
+        assertThat(BoundedPasswordEncoder.calibrateStrength(Duration.ZERO, 4, 12)).isEqualTo(4);
+
+        try (BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(5, 1, 1)) {
+            assertThat(encoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode("pw"))).isTrue();
+            // Another node calibrated higher: keep the hash instead of flipping it back
+            assertThat(encoder.upgradeEncoding(new BCryptPasswordEncoder(6).encode("pw"))).isFalse();
+            assertThat(encoder.upgradeEncoding(encoder.encode("pw"))).isFalse();
+        }
+    }
+
+    @Test
+    void shouldStoreRehashedPasswordAfterLogin() {
+        UserRepository repo = mock(UserRepository.class);
+        User user = User.builder().id("u1").email("a@x.com").passwordHash("$2a$04$old").build();
+        when(repo.findByEmail("a@x.com")).thenReturn(Optional.of(user));
+        UserService service = new UserService(repo, new BCryptPasswordEncoder(4), new AuthProperties());
+
+        var details = org.springframework.security.core.userdetails.User
+                .withUsername("a@x.com").password("$2a$04$old").roles("OWNER").build();
+        var updated = service.updatePassword(details, "$2a$10$new");
+
+        assertThat(updated.getPassword()).isEqualTo("$2a$10$new");
+        assertThat(user.getPasswordHash()).isEqualTo("$2a$10$new");
+        verify(repo).save(user);
+    }
+}
@@ -0,0 +1,108 @@
+package com.bookify.bookify_app;
+
+// ********************************************************************************************
+// * ClinicServiceTest verifies the cached subdomain -> clinicId resolution in ClinicService. *
+// *                                                                                          *
+// * Test setup:                                                                              *
+// *  - Uses a Mockito mock for ClinicRepository (no database required).                      *
+// *                                                                                          *
+// * Covered scenarios:                                                                       *
+// *  - Known and unknown subdomains hit the database once, then are served from memory.      *
+// *  - Saving a clinic (also under a new subdomain) invalidates its cached lookups.          *
+// *  - Expired entries are loaded again; the cache never grows beyond max-entries.           *
+// *  - Once the registry is loaded, lookups and saves never query by subdomain again.        *
+// ********************************************************************************************
+
+import com.bookify.bookify_app.config.TenantProperties;
+import com.bookify.bookify_app.model.Clinic;
+import com.bookify.bookify_app.repository.ClinicRepository;
+import com.bookify.bookify_app.service.ClinicService;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class ClinicServiceTest {
+
+    private final ClinicRepository repo = mock(ClinicRepository.class);
+    private final TenantProperties properties = new TenantProperties();
+
+    @Test
+    void shouldServeRepeatedLookupsFromCache() {
+        when(repo.findBySubdomain("kliniken")).thenReturn(Optional.of(clinic("c1", "kliniken")));
+        ClinicService service = new ClinicService(repo, properties);
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(service.resolveClinicIdBySubdomainOptional("kliniken")).contains("c1");
+            assertThat(service.resolveClinicIdBySubdomainOptional("okand")).isEmpty();
+        }
+
+        verify(repo, times(1)).findBySubdomain("kliniken");
+        verify(repo, times(1)).findBySubdomain("okand");
+        assertThat(service.cacheStats().hits()).isEqualTo(8);
+        assertThat(service.cacheStats().misses()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldInvalidateOnSave() {
+        when(repo.findBySubdomain("kliniken")).thenReturn(Optional.of(clinic("c1", "kliniken")));
+        ClinicService service = new ClinicService(repo, properties);
+        service.resolveClinicIdBySubdomainOptional("kliniken");
+        service.resolveClinicIdBySubdomainOptional("nyaklinken");
+
+        // The clinic is renamed: the old subdomain is gone, the new one (cached as unknown) exists
+        when(repo.findBySubdomain("kliniken")).thenReturn(Optional.empty());
+        when(repo.findBySubdomain("nyaklinken")).thenReturn(Optional.of(clinic("c1", "nyaklinken")));
+        service.invalidate(clinic("c1", "nyaklinken"));
+
+        assertThat(service.resolveClinicIdBySubdomainOptional("kliniken")).isEmpty();
+        assertThat(service.resolveClinicIdBySubdomainOptional("nyaklinken")).contains("c1");
+    }
+
+    @Test
+    void shouldReloadExpiredEntriesAndStayBounded() {
+        properties.getCache().setTtl(Duration.ZERO);
+        properties.getCache().setMaxEntries(100);
+        when(repo.findBySubdomain(anyString())).thenReturn(Optional.empty());
+        when(repo.findBySubdomain("kliniken")).thenReturn(Optional.of(clinic("c1", "kliniken")));
+        ClinicService service = new ClinicService(repo, properties);
+
+        service.resolveClinicIdBySubdomainOptional("kliniken");
+        service.resolveClinicIdBySubdomainOptional("kliniken");
+        verify(repo, times(2)).findBySubdomain("kliniken");
+
+        for (int i = 0; i < 1_000; i++) {
+            service.resolveClinicIdBySubdomainOptional("random" + i);
+        }
+        assertThat(service.cacheStats().unknownEntries()).isLessThanOrEqualTo(100);
+    }
+
+    @Test
+    void shouldResolveFromRegistryWithoutQueries() {
+        when(repo.findAll()).thenReturn(List.of(clinic("c1", "kliniken"), clinic("c2", "salongen")));
+        ClinicService service = new ClinicService(repo, properties);
+        service.reloadRegistry();
+
+        assertThat(service.resolveClinicIdBySubdomainOptional("kliniken")).contains("c1");
+        assertThat(service.resolveClinicIdBySubdomainOptional("okand")).isEmpty();
+
+        // A clinic saved on this node is visible immediately, under its new subdomain only
+        service.invalidate(clinic("c2", "salongen-city"));
+        assertThat(service.resolveClinicIdBySubdomainOptional("salongen-city")).contains("c2");
+        assertThat(service.resolveClinicIdBySubdomainOptional("salongen")).isEmpty();
+
+        verify(repo, never()).findBySubdomain(anyString());
+        assertThat(service.cacheStats().registeredClinics()).isEqualTo(2);
+    }
+
+    private static Clinic clinic(String id, String subdomain) {
+        Clinic c = new Clinic();
+        c.setId(id);
+        c.setSubdomain(subdomain);
+        return c;
+    }
+}
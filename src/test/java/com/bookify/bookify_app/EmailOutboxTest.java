@@ -0,0 +1,123 @@
+package com.bookify.bookify_app;
+
+// ********************************************************************************************
+// * EmailOutboxTest verifies the outbox pipeline of EmailService and EmailDispatcher.        *
+// *                                                                                          *
+// * Test setup:                                                                              *
+// *  - Embedded Mongo via @DataMongoTest holds the email_outbox collection.                  *
+// *  - GreenMail runs a local SMTP server on port 3025 as the mail provider.                 *
+// *  - dispatchOnce() is called explicitly instead of waiting for the background thread.     *
+// *                                                                                          *
+// * Covered scenarios:                                                                       *
+// *  - Queued mails are delivered over SMTP in one batch, marked SENT and their body (token  *
+// *    links) cleared.                                                                       *
+// *  - With the SMTP server down, mails stay PENDING with a later retry time.                *
+// *  - Mails over the per-provider limit are postponed without using up an attempt.          *
+// ********************************************************************************************
+
+import com.bookify.bookify_app.config.EmailProperties;
+import com.bookify.bookify_app.model.OutboxEmail;
+import com.bookify.bookify_app.repository.OutboxEmailRepository;
+import com.bookify.bookify_app.service.EmailDispatcher;
+import com.bookify.bookify_app.service.EmailService;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataMongoTest
+class EmailOutboxTest {
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    @Autowired
+    OutboxEmailRepository outboxRepository;
+
+    @Autowired
+    MongoTemplate mongoTemplate;
+
+    private EmailProperties properties;
+    private EmailService emailService;
+
+    @BeforeEach
+    void setUp() {
+        outboxRepository.deleteAll();
+        properties = new EmailProperties();
+        properties.setPollInterval(Duration.ofHours(1)); // dispatched manually below
+        emailService = new EmailService(outboxRepository, properties);
+    }
+
+    @Test
+    void shouldDeliverQueuedMailsInOneBatch() throws Exception {
+        emailService.sendVerificationEmail("anna@example.com", "tok-1");
+        emailService.sendPasswordResetEmail("bo@example.org", "tok-2");
+
+        assertThat(dispatcher(ServerSetupTest.SMTP.getPort()).dispatchOnce()).isEqualTo(2);
+
+        MimeMessage[] received = greenMail.getReceivedMessages();
+        assertThat(received).hasSize(2);
+        assertThat(received[0].getContent().toString()).contains("/verify-email?token=tok-1");
+        assertThat(outboxRepository.findAll()).allSatisfy(mail -> {
+            assertThat(mail.getStatus()).isEqualTo(OutboxEmail.Status.SENT);
+            assertThat(mail.getExpiresAt()).isAfter(Instant.now())
+                    .isBefore(Instant.now().plus(properties.getSentRetention()).plusSeconds(60));
+            assertThat(mail.getBody()).isNull();
+        });
+    }
+
+    @Test
+    void shouldRetryLaterWhenSmtpIsDown() {
+        emailService.sendVerificationEmail("anna@example.com", "tok-1");
+
+        // Nothing listens on this port
+        assertThat(dispatcher(1).dispatchOnce()).isZero();
+
+        OutboxEmail mail = outboxRepository.findByTo("anna@example.com").get(0);
+        assertThat(mail.getStatus()).isEqualTo(OutboxEmail.Status.PENDING);
+        assertThat(mail.getAttempts()).isEqualTo(1);
+        assertThat(mail.getNextAttemptAt()).isAfter(Instant.now().plusSeconds(20));
+        assertThat(mail.getLastError()).isNotBlank();
+    }
+
+    @Test
+    void shouldThrottlePerProvider() {
+        properties.setPerProviderLimit(2);
+        for (int i = 0; i < 3; i++) {
+            emailService.enqueue("user" + i + "@gmail.com", "Hello", "Body");
+        }
+        emailService.enqueue("someone@outlook.com", "Hello", "Body");
+
+        assertThat(dispatcher(ServerSetupTest.SMTP.getPort()).dispatchOnce()).isEqualTo(3);
+
+        assertThat(outboxRepository.findAll())
+                .filteredOn(mail -> mail.getStatus() == OutboxEmail.Status.PENDING)
+                .singleElement()
+                .satisfies(mail -> {
+                    assertThat(mail.getProvider()).isEqualTo("gmail.com");
+                    assertThat(mail.getAttempts()).isZero();
+                });
+    }
+
+    private EmailDispatcher dispatcher(int smtpPort) {
+        JavaMailSenderImpl sender = new JavaMailSenderImpl();
+        sender.setHost("localhost");
+        sender.setPort(smtpPort);
+        StaticListableBeanFactory beans = new StaticListableBeanFactory(Map.of("mailSender", sender));
+        return new EmailDispatcher(mongoTemplate, beans.getBeanProvider(JavaMailSender.class), properties);
+    }
+}
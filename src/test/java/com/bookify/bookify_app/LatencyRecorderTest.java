@@ -0,0 +1,112 @@
+package com.bookify.bookify_app;
+
+// ********************************************************************************************
+// * LatencyRecorderTest verifies request phase timing and the histograms behind              *
+// * /actuator/latency.                                                                       *
+// *                                                                                          *
+// * Covered scenarios:                                                                       *
+// *  - Percentiles per endpoint and phase; phases never entered are left out.                *
+// *  - Clinics beyond max-tenants share "other"; tenants are sorted by p99, slowest first.   *
+// *  - RequestTimings closes phases whose end was never reached and ignores calls outside    *
+// *    a request.                                                                            *
+// ********************************************************************************************
+
+import com.bookify.bookify_app.config.InstrumentationProperties;
+import com.bookify.bookify_app.service.LatencyRecorder;
+import com.bookify.bookify_app.util.RequestTimings;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class LatencyRecorderTest {
+
+    private LatencyRecorder recorder;
+
+    @BeforeEach
+    void setUp() {
+        InstrumentationProperties properties = new InstrumentationProperties();
+        properties.setMaxTenants(2);
+        properties.setHighestLatency(Duration.ofSeconds(10));
+        recorder = new LatencyRecorder(properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestTimings.clear();
+    }
+
+    @Test
+    void shouldReportPercentilesPerEndpointAndPhase() {
+        // 1..100 ms, each with 1 ms of Mongo time
+        for (int ms = 1; ms <= 100; ms++) {
+            RequestTimings timings = RequestTimings.start();
+            RequestTimings.add(RequestTimings.Phase.MONGO, TimeUnit.MILLISECONDS.toNanos(1));
+            recorder.recordRequest("GET /api/v1/clinics/{id}", timings, TimeUnit.MILLISECONDS.toNanos(ms));
+        }
+
+        Map<String, LatencyRecorder.Stats> phases = recorder.snapshot().endpoints().get("GET /api/v1/clinics/{id}");
+        LatencyRecorder.Stats total = phases.get(LatencyRecorder.TOTAL);
+        assertThat(total.count()).isEqualTo(100);
+        assertThat(total.p50()).isCloseTo(50, within(1.0));
+        assertThat(total.p99()).isCloseTo(99, within(1.0));
+        assertThat(total.max()).isCloseTo(100, within(1.0));
+        assertThat(phases.get("MONGO").p99()).isCloseTo(1, within(0.05));
+        assertThat(phases).doesNotContainKeys("AUTH", "CONTROLLER");
+    }
+
+    @Test
+    void shouldBoundTenantsAndSortBySlowestP99() {
+        record("clinicA", 5);
+        record("clinicB", 50);
+        record("clinicC", 500);
+        record(null, 1);
+
+        var tenants = recorder.snapshot().tenants();
+        assertThat(tenants).extracting(LatencyRecorder.TenantSnapshot::clinicId)
+                .containsExactly(LatencyRecorder.OTHER, "clinicB", "clinicA");
+        assertThat(tenants.get(0).total().count()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldClampLatencyAboveHighestTrackable() {
+        record("clinicA", 60_000);
+
+        assertThat(recorder.snapshot().tenants().get(0).total().max()).isCloseTo(10_000, within(100.0));
+    }
+
+    @Test
+    void shouldCloseOpenPhasesWhenRequestFinishes() throws InterruptedException {
+        RequestTimings timings = RequestTimings.start();
+        RequestTimings.begin(RequestTimings.Phase.AUTH);
+        RequestTimings.tenant("clinicA");
+        Thread.sleep(5);
+
+        long total = timings.finish();
+
+        assertThat(timings.nanos(RequestTimings.Phase.AUTH)).isPositive().isLessThanOrEqualTo(total);
+        assertThat(timings.clinicId()).isEqualTo("clinicA");
+        assertThat(timings.recorded(RequestTimings.Phase.CONTROLLER)).isFalse();
+    }
+
+    @Test
+    void shouldIgnoreTimingsOutsideRequest() {
+        RequestTimings.add(RequestTimings.Phase.MONGO, 1_000);
+        RequestTimings.begin(RequestTimings.Phase.AUTH);
+
+        assertThat(RequestTimings.current()).isNull();
+    }
+
+    private void record(String clinicId, long millis) {
+        RequestTimings timings = RequestTimings.start();
+        RequestTimings.tenant(clinicId);
+        recorder.recordRequest("GET /api/v1/bookings", timings, TimeUnit.MILLISECONDS.toNanos(millis));
+        RequestTimings.clear();
+    }
+}
@@ -0,0 +1,96 @@
+package com.bookify.bookify_app;
+
+// ********************************************************************************************
+// * MongoIndexInitializerTest verifies that entity indexes exist without auto-index-creation.*
+// *                                                                                          *
+// * Test setup:                                                                              *
+// *  - Embedded Mongo via @DataMongoTest with spring.data.mongodb.auto-index-creation=false, *
+// *    as in production; the bookings collection starts without indexes.                     *
+// *                                                                                          *
+// * Covered scenarios:                                                                       *
+// *  - The booking indexes declared on the entity are created at startup.                    *
+// *  - Running it again (another node, a restart) changes nothing.                           *
+// *  - A TTL index created unnamed by an older version is replaced by the declared one.      *
+// *  - The retired unique_booking index is dropped for unique_staff_booking.                 *
+// ********************************************************************************************
+
+import com.bookify.bookify_app.config.MongoIndexInitializer;
+import com.bookify.bookify_app.model.Booking;
+import com.bookify.bookify_app.model.RateLimitCounter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataMongoTest(properties = "spring.data.mongodb.auto-index-creation=false")
+class MongoIndexInitializerTest {
+
+    @Autowired
+    MongoTemplate mongoTemplate;
+
+    private MongoIndexInitializer initializer;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate.dropCollection(Booking.class);
+        mongoTemplate.createCollection(Booking.class);
+        mongoTemplate.dropCollection(RateLimitCounter.class);
+        initializer = new MongoIndexInitializer(mongoTemplate);
+    }
+
+    @Test
+    void shouldCreateBookingIndexes() {
+        initializer.createIndexes();
+
+        assertThat(indexNames()).contains("clinic_start", "clinic_staff_start", "clinic_room_start",
+                "unique_staff_booking");
+    }
+
+    @Test
+    void shouldDropRetiredBookingIndex() {
+        mongoTemplate.indexOps(Booking.class).createIndex(new Index()
+                .on("clinicId", Sort.Direction.ASC).on("staffId", Sort.Direction.ASC)
+                .on("roomId", Sort.Direction.ASC).on("startTime", Sort.Direction.ASC)
+                .unique().named("unique_booking"));
+
+        initializer.createIndexes();
+
+        assertThat(indexNames()).contains("unique_staff_booking").doesNotContain("unique_booking");
+    }
+
+    @Test
+    void shouldBeIdempotent() {
+        initializer.createIndexes();
+        List<String> first = indexNames();
+
+        initializer.createIndexes();
+
+        assertThat(indexNames()).containsExactlyInAnyOrderElementsOf(first);
+    }
+
+    @Test
+    void shouldReplaceUnnamedTtlIndex() {
+        mongoTemplate.indexOps(RateLimitCounter.class)
+                .createIndex(new Index("expiresAt", Sort.Direction.ASC).expire(0));
+
+        initializer.createIndexes();
+
+        assertThat(indexNames(RateLimitCounter.class)).contains("expiresAt").doesNotContain("expiresAt_1");
+    }
+
+    private List<String> indexNames() {
+        return indexNames(Booking.class);
+    }
+
+    private List<String> indexNames(Class<?> type) {
+        return mongoTemplate.indexOps(type).getIndexInfo().stream().map(IndexInfo::getName).toList();
+    }
+}
@@ -0,0 +1,104 @@
+package com.bookify.bookify_app;
+
+// ********************************************************************************************
+// * MongoSessionRepositoryTest verifies HTTP sessions shared between nodes through Mongo.    *
+// *                                                                                          *
+// * Test setup:                                                                              *
+// *  - Embedded Mongo via @DataMongoTest.                                                    *
+// *  - Two MongoSessionRepository instances ("nodes") share one collection.                  *
+// *  - flushTouches() is called explicitly instead of waiting for the background flusher.    *
+// *                                                                                          *
+// * Covered scenarios:                                                                       *
+// *  - A session created on one node is found with its attributes on the other.              *
+// *  - A request that changes nothing writes nothing; a touch is written behind.             *
+// *  - A changed id (login) replaces the stored session; a logout removes it everywhere.     *
+// ********************************************************************************************
+
+import com.bookify.bookify_app.config.HttpSessionProperties;
+import com.bookify.bookify_app.model.StoredHttpSession;
+import com.bookify.bookify_app.service.MongoSessionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataMongoTest
+class MongoSessionRepositoryTest {
+
+    @Autowired
+    MongoTemplate mongoTemplate;
+
+    private MongoSessionRepository nodeA;
+    private MongoSessionRepository nodeB;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate.dropCollection(StoredHttpSession.class);
+        HttpSessionProperties properties = new HttpSessionProperties();
+        properties.setFlushInterval(Duration.ofHours(1)); // flushed manually below
+        properties.setNearCacheTtl(Duration.ZERO);        // always see the other node's writes
+        nodeA = new MongoSessionRepository(mongoTemplate, properties);
+        nodeB = new MongoSessionRepository(mongoTemplate, properties);
+    }
+
+    @Test
+    void shouldShareSessionsBetweenNodes() {
+        MongoSessionRepository.TrackedSession session = nodeA.createSession();
+        session.setAttribute("clinic", "clinic1");
+        nodeA.save(session);
+
+        MongoSessionRepository.TrackedSession found = nodeB.findById(session.getId());
+        assertThat(found).isNotNull();
+        assertThat(found.<String>getAttribute("clinic")).isEqualTo("clinic1");
+    }
+
+    @Test
+    void shouldWriteOnlyChangesAndTouchBehind() {
+        MongoSessionRepository.TrackedSession session = nodeA.createSession();
+        nodeA.save(session);
+        Instant stored = storedLastAccessed(session.getId());
+
+        // Same attribute value again and a recent access: nothing to write
+        MongoSessionRepository.TrackedSession next = nodeA.findById(session.getId());
+        next.setAttribute("clinic", null);
+        next.setLastAccessedTime(stored.plusSeconds(5));
+        nodeA.save(next);
+        nodeA.flushTouches();
+        assertThat(storedLastAccessed(session.getId())).isEqualTo(stored);
+
+        // Past the touch interval the expiry is extended, but only by the flusher
+        MongoSessionRepository.TrackedSession later = nodeA.findById(session.getId());
+        later.setLastAccessedTime(stored.plus(Duration.ofMinutes(2)));
+        nodeA.save(later);
+        assertThat(storedLastAccessed(session.getId())).isEqualTo(stored);
+        nodeA.flushTouches();
+        assertThat(storedLastAccessed(session.getId())).isEqualTo(stored.plus(Duration.ofMinutes(2)));
+    }
+
+    @Test
+    void shouldReplaceSessionOnIdChangeAndDeleteEverywhere() {
+        MongoSessionRepository.TrackedSession session = nodeA.createSession();
+        nodeA.save(session);
+        String oldId = session.getId();
+
+        String newId = session.changeSessionId();
+        session.setAttribute("SPRING_SECURITY_CONTEXT", "authenticated");
+        nodeA.save(session);
+
+        assertThat(nodeB.findById(oldId)).isNull();
+        assertThat(nodeB.findById(newId)).isNotNull();
+
+        nodeB.deleteById(newId);
+        assertThat(nodeA.findById(newId)).isNull();
+    }
+
+    private Instant storedLastAccessed(String id) {
+        return mongoTemplate.findById(id, StoredHttpSession.class).getLastAccessedTime();
+    }
+}
@@ -0,0 +1,122 @@
+package com.bookify.bookify_app;
+
+// ********************************************************************************************
+// * OpeningScheduleTest verifies the compiled opening hours used for "is the clinic open".   *
+// *                                                                                          *
+// * Test setup:                                                                              *
+// *  - Clinic open MON-FRI 09:00-17:00 and SAT 10:00-14:00.                                  *
+// *  - Special opening on a Sunday, full and partial special closings.                       *
+// *                                                                                          *
+// * Covered scenarios:                                                                       *
+// *  - Weekly hours, end-exclusive ranges and ranges that are only partly open.              *
+// *  - Special openings replace the weekly hours; special closings win over both.            *
+// *  - Open minutes of a day for the slot grid.                                              *
+// *  - ClinicScheduleService compiles once and only recompiles when settings are saved.      *
+// ********************************************************************************************
+
+import com.bookify.bookify_app.model.ClinicSettings;
+import com.bookify.bookify_app.repository.ClinicSettingsRepository;
+import com.bookify.bookify_app.service.AvailabilityService;
+import com.bookify.bookify_app.service.ClinicScheduleService;
+import com.bookify.bookify_app.service.ClinicSettingsService;
+import com.bookify.bookify_app.service.RosterCache;
+import com.bookify.bookify_app.util.OpeningSchedule;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.BitSet;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+class OpeningScheduleTest {
+
+    // 2025-12-22 is a Monday
+    private static final LocalDate MONDAY = LocalDate.of(2025, 12, 22);
+    private static final LocalDate SUNDAY = MONDAY.plusDays(6);
+
+    private final OpeningSchedule schedule = OpeningSchedule.compile(
+            List.of("MON-FRI 09:00-17:00", "SAT 10:00-14:00"),
+            List.of(SUNDAY + " 11:00-13:00", SUNDAY + " 13:00-15:00"),
+            List.of(MONDAY.plusDays(3).toString(), MONDAY.plusDays(2) + " 12:00-13:00"));
+
+    @Test
+    void shouldFollowWeeklyHours() {
+        assertThat(schedule.isOpen(at(MONDAY, 9, 0))).isTrue();
+        assertThat(schedule.isOpen(at(MONDAY, 16, 59))).isTrue();
+        assertThat(schedule.isOpen(at(MONDAY, 17, 0))).isFalse();
+        assertThat(schedule.isOpen(at(MONDAY, 8, 59))).isFalse();
+        assertThat(schedule.isOpen(at(MONDAY.plusDays(5), 10, 30))).isTrue();
+        assertThat(schedule.isOpen(at(MONDAY.plusDays(7), 9, 0))).isTrue();
+
+        assertThat(schedule.isOpen(at(MONDAY, 16, 0), at(MONDAY, 17, 0))).isTrue();
+        assertThat(schedule.isOpen(at(MONDAY, 16, 30), at(MONDAY, 17, 15))).isFalse();
+        assertThat(schedule.isOpen(at(MONDAY, 16, 30), at(MONDAY.plusDays(1), 9, 30))).isFalse();
+    }
+
+    @Test
+    void shouldApplySpecialOpeningsAndClosings() {
+        // Sunday has no weekly hours but a special opening; touching ranges are joined
+        assertThat(schedule.isOpen(at(SUNDAY, 10, 59))).isFalse();
+        assertThat(schedule.isOpen(at(SUNDAY, 11, 0), at(SUNDAY, 15, 0))).isTrue();
+        // Thursday closed all day, Wednesday over lunch
+        assertThat(schedule.isOpen(at(MONDAY.plusDays(3), 10, 0))).isFalse();
+        assertThat(schedule.isOpen(at(MONDAY.plusDays(2), 11, 0), at(MONDAY.plusDays(2), 12, 0))).isTrue();
+        assertThat(schedule.isOpen(at(MONDAY.plusDays(2), 11, 30), at(MONDAY.plusDays(2), 12, 30))).isFalse();
+        assertThat(schedule.isOpen(at(MONDAY.plusDays(2), 13, 0))).isTrue();
+    }
+
+    @Test
+    void shouldListOpenMinutesOfDay() {
+        BitSet wednesday = schedule.openMinutes(MONDAY.plusDays(2));
+        assertThat(wednesday.cardinality()).isEqualTo(7 * 60);
+        assertThat(wednesday.get(12 * 60)).isFalse();
+
+        assertThat(schedule.openMinutes(SUNDAY).cardinality()).isEqualTo(4 * 60);
+        assertThat(schedule.openMinutes(MONDAY.plusDays(3)).isEmpty()).isTrue();
+    }
+
+    @Test
+    void shouldRejectMalformedEntries() {
+        assertThrows(IllegalArgumentException.class,
+                () -> OpeningSchedule.compile(List.of("MON 9-17"), null, null));
+    }
+
+    @Test
+    void shouldCompileOnceAndRebuildOnSave() {
+        ClinicSettingsRepository repo = mock(ClinicSettingsRepository.class);
+        ClinicSettings settings = new ClinicSettings();
+        settings.setClinicId("clinic1");
+        settings.setOpeningHours(List.of("MON-FRI 09:00-17:00"));
+        when(repo.findByClinicId("clinic1")).thenReturn(settings);
+        when(repo.save(any(ClinicSettings.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        ClinicScheduleService schedules = new ClinicScheduleService(repo);
+        RosterCache rosters = mock(RosterCache.class);
+        ClinicSettingsService settingsService =
+                new ClinicSettingsService(repo, mock(AvailabilityService.class), schedules, rosters);
+
+        assertThat(schedules.isOpen("clinic1", at(MONDAY, 8, 0))).isFalse();
+        assertThat(schedules.isOpen("clinic1", at(MONDAY, 9, 0))).isTrue();
+        verify(repo, times(1)).findByClinicId("clinic1");
+
+        ClinicSettings earlier = new ClinicSettings();
+        earlier.setClinicId("clinic1");
+        earlier.setOpeningHours(List.of("MON-FRI 07:00-17:00"));
+        settingsService.save(earlier);
+
+        assertThat(schedules.isOpen("clinic1", at(MONDAY, 8, 0))).isTrue();
+        verify(repo, times(1)).findByClinicId("clinic1");
+        // The slot grid may have changed, so rosters are rebuilt too
+        verify(rosters).invalidate("clinic1");
+        assertThat(schedules.schedule("unknown")).isNull();
+    }
+
+    private static LocalDateTime at(LocalDate date, int hour, int minute) {
+        return LocalDateTime.of(date, LocalTime.of(hour, minute));
+    }
+}
@@ -0,0 +1,119 @@
+package com.bookify.bookify_app;
+
+// ********************************************************************************************
+// * QueryProfilerTest verifies per-method Mongo command statistics and slow-query capture.   *
+// *                                                                                          *
+// * Test setup:                                                                              *
+// *  - Driver command events are built by hand (no database); explain is off.                *
+// *                                                                                          *
+// * Covered scenarios:                                                                       *
+// *  - Commands are attributed to the repository method running on the thread, with the      *
+// *    documents returned by find and getMore; MongoTemplate commands fall back to           *
+// *    "<collection>.<command>".                                                             *
+// *  - Slow queries keep the correlation ID and the filter shape without its values.         *
+// *  - Explain output is summarized as COLLSCAN or IXSCAN with the index name.               *
+// ********************************************************************************************
+
+import com.bookify.bookify_app.config.QueryProfilingProperties;
+import com.bookify.bookify_app.service.QueryProfiler;
+import com.bookify.bookify_app.util.CorrelationIdHolder;
+import com.mongodb.ServerAddress;
+import com.mongodb.connection.ClusterId;
+import com.mongodb.connection.ConnectionDescription;
+import com.mongodb.connection.ServerId;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class QueryProfilerTest {
+
+    private static final ConnectionDescription CONNECTION =
+            new ConnectionDescription(new ServerId(new ClusterId(), new ServerAddress()));
+
+    private QueryProfiler profiler;
+    private int requestId;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        QueryProfilingProperties properties = new QueryProfilingProperties();
+        properties.setSlowThreshold(Duration.ofMillis(100));
+        properties.setExplain(false);
+        profiler = new QueryProfiler(properties, mock(ObjectProvider.class));
+    }
+
+    @AfterEach
+    void tearDown() {
+        CorrelationIdHolder.clear();
+        profiler.stop();
+    }
+
+    @Test
+    void shouldAttributeCommandsToRepositoryMethod() {
+        String outer = QueryProfiler.enterRepositoryMethod("BookingRepository.findByClinicId");
+        try {
+            run("find", "{find: 'bookings', filter: {clinicId: 'c1'}}",
+                    "{cursor: {id: 7, firstBatch: [{}, {}, {}]}, ok: 1}", 5);
+            run("getMore", "{getMore: 7, collection: 'bookings'}",
+                    "{cursor: {id: 0, nextBatch: [{}, {}]}, ok: 1}", 2);
+        } finally {
+            QueryProfiler.exitRepositoryMethod(outer);
+        }
+        run("count", "{count: 'rooms', query: {clinicId: 'c1'}}", "{n: 4, ok: 1}", 1);
+
+        List<QueryProfiler.MethodSnapshot> methods = profiler.snapshot().methods();
+        assertThat(methods).extracting(QueryProfiler.MethodSnapshot::method)
+                .containsExactly("BookingRepository.findByClinicId", "rooms.count");
+        assertThat(methods.get(0).commands()).isEqualTo(2);
+        assertThat(methods.get(0).documentsReturned()).isEqualTo(5);
+        assertThat(methods.get(0).collection()).isEqualTo("bookings");
+        assertThat(methods.get(1).documentsReturned()).isEqualTo(4);
+        assertThat(profiler.snapshot().slowQueries()).isEmpty();
+    }
+
+    @Test
+    void shouldCaptureSlowQueryWithCorrelationIdAndShape() {
+        CorrelationIdHolder.setId("corr-1");
+        run("find", "{find: 'bookings', filter: {clinicId: 'c1', startTime: {$gte: 5}, "
+                        + "status: {$in: ['BOOKED', 'DONE']}}, sort: {startTime: 1}, $db: 'bookify'}",
+                "{cursor: {id: 0, firstBatch: []}, ok: 1}", 250);
+
+        List<QueryProfiler.SlowQuery> slow = profiler.snapshot().slowQueries();
+        assertThat(slow).hasSize(1);
+        assertThat(slow.get(0).getCorrelationId()).isEqualTo("corr-1");
+        assertThat(slow.get(0).getDurationMs()).isEqualTo(250.0);
+        assertThat(slow.get(0).getShape())
+                .isEqualTo("{clinicId: ?, startTime: {$gte: ?}, status: {$in: [?]}} sort {startTime: ?}");
+    }
+
+    @Test
+    void shouldSummarizeExplainPlans() {
+        Document collscan = Document.parse("{queryPlanner: {winningPlan: {stage: 'SORT', "
+                + "inputStage: {stage: 'COLLSCAN', filter: {}}}}}");
+        Document ixscan = Document.parse("{stages: [{$cursor: {queryPlanner: {winningPlan: {stage: 'FETCH', "
+                + "inputStage: {stage: 'IXSCAN', indexName: 'clinic_start'}}}}}]}");
+
+        assertThat(QueryProfiler.plan(collscan)).isEqualTo(QueryProfiler.COLLSCAN);
+        assertThat(QueryProfiler.plan(ixscan)).isEqualTo("IXSCAN clinic_start");
+    }
+
+    private void run(String command, String body, String response, long millis) {
+        int id = ++requestId;
+        profiler.commandStarted(new CommandStartedEvent(null, id, id, CONNECTION, "bookify", command,
+                BsonDocument.parse(body)));
+        profiler.commandSucceeded(new CommandSucceededEvent(null, id, id, CONNECTION, "bookify", command,
+                BsonDocument.parse(response), TimeUnit.MILLISECONDS.toNanos(millis)));
+    }
+}
@@ -0,0 +1,85 @@
+package com.bookify.bookify_app;
+
+// ********************************************************************************************
+// * RateLimitCounterStoreTest verifies rate limits shared between nodes through Mongo.       *
+// *                                                                                          *
+// * Test setup:                                                                              *
+// *  - Embedded Mongo via @DataMongoTest.                                                    *
+// *  - Two DistributedRateLimiter instances ("nodes") register with one store.               *
+// *  - flushAll() is called explicitly instead of waiting for the background flusher.        *
+// *                                                                                          *
+// * Covered scenarios:                                                                       *
+// *  - Requests admitted by one node count against the limit on the other after a flush.     *
+// *  - Counter documents carry an expiry for the TTL index.                                  *
+// ********************************************************************************************
+
+import com.bookify.bookify_app.config.RateLimitProperties;
+import com.bookify.bookify_app.filter.DistributedRateLimiter;
+import com.bookify.bookify_app.model.RateLimitCounter;
+import com.bookify.bookify_app.service.RateLimitCounterStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataMongoTest
+class RateLimitCounterStoreTest {
+
+    private static final long MINUTE = 60_000L;
+
+    @Autowired
+    MongoTemplate mongoTemplate;
+
+    private RateLimitCounterStore store;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate.dropCollection(RateLimitCounter.class);
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setFlushInterval(Duration.ofHours(1)); // flushed manually below
+        store = new RateLimitCounterStore(mongoTemplate, properties);
+    }
+
+    @Test
+    void shouldEnforceLimitAcrossNodes() {
+        DistributedRateLimiter nodeA = new DistributedRateLimiter("/login", 10, MINUTE, 1000);
+        DistributedRateLimiter nodeB = new DistributedRateLimiter("/login", 10, MINUTE, 1000);
+        store.register(nodeA);
+        store.register(nodeB);
+
+        long windowStart = System.currentTimeMillis() / MINUTE * MINUTE;
+        for (int i = 0; i < 6; i++) {
+            assertThat(nodeA.tryAcquire("1.2.3.4", windowStart)).isZero();
+        }
+        store.flushAll();
+
+        // Node B sees the 6 requests of node A and admits only the remaining 4
+        for (int i = 0; i < 4; i++) {
+            assertThat(nodeB.tryAcquire("1.2.3.4", windowStart)).isZero();
+        }
+        assertThat(nodeB.tryAcquire("1.2.3.4", windowStart)).isPositive();
+        // Other clients are unaffected
+        assertThat(nodeB.tryAcquire("5.6.7.8", windowStart)).isZero();
+    }
+
+    @Test
+    void shouldStoreCountersWithExpiry() {
+        DistributedRateLimiter node = new DistributedRateLimiter("/register", 10, MINUTE, 1000);
+        store.register(node);
+
+        node.tryAcquire("1.2.3.4", System.currentTimeMillis());
+        node.tryAcquire("1.2.3.4", System.currentTimeMillis());
+        store.flushAll();
+
+        List<RateLimitCounter> counters = mongoTemplate.findAll(RateLimitCounter.class);
+        assertThat(counters).hasSize(1);
+        assertThat(counters.get(0).getCount()).isEqualTo(2);
+        assertThat(counters.get(0).getExpiresAt()).isAfter(java.time.Instant.now());
+    }
+}
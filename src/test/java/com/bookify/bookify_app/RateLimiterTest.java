@@ -0,0 +1,99 @@
+package com.bookify.bookify_app;
+
+// ********************************************************************************************
+// * RateLimiterTest verifies the rate-limiter engines used by RateLimitFilter.               *
+// *                                                                                          *
+// * Covered scenarios:                                                                       *
+// *  - Token bucket: allows a full burst, rejects the next request, refills over time.       *
+// *  - Sliding window: rejects at the limit and frees capacity as the window slides.         *
+// *  - Memory: spoofed client keys never grow the state beyond maxKeys, and idle keys are    *
+// *    evicted.                                                                              *
+// *  - Distributed: local counts survive an unavailable store and keep limiting per node.    *
+// *                                                                                          *
+// * Time is passed explicitly, so no test sleeps.                                            *
+// ********************************************************************************************
+
+import com.bookify.bookify_app.filter.DistributedRateLimiter;
+import com.bookify.bookify_app.filter.RateLimiter;
+import com.bookify.bookify_app.filter.SlidingWindowRateLimiter;
+import com.bookify.bookify_app.filter.TokenBucketRateLimiter;
+import com.bookify.bookify_app.service.RateLimitCounterStore;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class RateLimiterTest {
+
+    private static final long MINUTE = 60_000L;
+    private static final long T0 = 1_700_000_040_000L; // aligned to a minute boundary
+
+    @Test
+    void tokenBucketShouldAllowBurstThenRefill() {
+        RateLimiter limiter = new TokenBucketRateLimiter(20, MINUTE, 1000, MINUTE);
+
+        for (int i = 0; i < 20; i++) {
+            assertThat(limiter.tryAcquire("1.2.3.4", T0)).isZero();
+        }
+        long retryAfter = limiter.tryAcquire("1.2.3.4", T0);
+        assertThat(retryAfter).isPositive().isLessThanOrEqualTo(3_000L);
+
+        // One token is refilled every 3 seconds (60s / 20)
+        assertThat(limiter.tryAcquire("1.2.3.4", T0 + 3_000L)).isZero();
+        assertThat(limiter.tryAcquire("1.2.3.4", T0 + 3_000L)).isPositive();
+        // Other clients are unaffected
+        assertThat(limiter.tryAcquire("5.6.7.8", T0)).isZero();
+    }
+
+    @Test
+    void slidingWindowShouldRejectAtLimitAndSlide() {
+        RateLimiter limiter = new SlidingWindowRateLimiter(20, MINUTE, 1000, MINUTE);
+
+        for (int i = 0; i < 20; i++) {
+            assertThat(limiter.tryAcquire("1.2.3.4", T0 + 30_000L)).isZero();
+        }
+        assertThat(limiter.tryAcquire("1.2.3.4", T0 + 59_000L)).isPositive();
+
+        // Halfway into the next window, half of the previous count still weighs in
+        long halfway = T0 + MINUTE + 30_000L;
+        for (int i = 0; i < 10; i++) {
+            assertThat(limiter.tryAcquire("1.2.3.4", halfway)).isZero();
+        }
+        assertThat(limiter.tryAcquire("1.2.3.4", halfway)).isPositive();
+    }
+
+    @Test
+    void shouldBoundTrackedKeysUnderSpoofedAddresses() {
+        RateLimiter limiter = new SlidingWindowRateLimiter(20, MINUTE, 100, MINUTE);
+
+        for (int i = 0; i < 10_000; i++) {
+            limiter.tryAcquire("10.0." + (i / 256) + "." + (i % 256), T0);
+        }
+        assertThat(limiter.trackedKeys()).isLessThanOrEqualTo(100);
+        // Until the next sweep, new keys share the (exhausted) overflow state
+        assertThat(limiter.tryAcquire("10.1.0.1", T0 + 1_000L)).isPositive();
+
+        // Once the windows have passed, a sweep evicts every idle key
+        limiter.tryAcquire("fresh", T0 + 3 * MINUTE);
+        assertThat(limiter.trackedKeys()).isEqualTo(1);
+    }
+
+    @Test
+    void distributedLimiterShouldKeepLimitingWhenStoreIsDown() {
+        RateLimitCounterStore store = mock(RateLimitCounterStore.class);
+        doThrow(new IllegalStateException("mongo down")).when(store).increment(any(), any());
+        DistributedRateLimiter limiter = new DistributedRateLimiter("/login", 5, MINUTE, 1000);
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(limiter.tryAcquire("1.2.3.4", T0)).isZero();
+        }
+        assertThrows(IllegalStateException.class, () -> limiter.flush(store, T0));
+
+        // The three unflushed requests still count
+        assertThat(limiter.tryAcquire("1.2.3.4", T0)).isZero();
+        assertThat(limiter.tryAcquire("1.2.3.4", T0)).isZero();
+        assertThat(limiter.tryAcquire("1.2.3.4", T0)).isPositive();
+    }
+}
@@ -0,0 +1,95 @@
+package com.bookify.bookify_app;
+
+// ********************************************************************************************
+// * RequestContextTest verifies that tenant and correlation ID follow work to other threads. *
+// *                                                                                          *
+// * Covered scenarios:                                                                       *
+// *  - A wrapped task on a virtual thread sees the submitter's clinic and correlation ID.    *
+// *  - A pooled worker gets its own previous context back after the task (no leaks).         *
+// *  - The TaskDecorator used for @Async carries the context as well.                        *
+// *  - The correlation ID is in the logging MDC on both threads and removed afterwards.      *
+// ********************************************************************************************
+
+import com.bookify.bookify_app.config.AsyncConfig;
+import com.bookify.bookify_app.filter.TenantContext;
+import com.bookify.bookify_app.util.CorrelationIdHolder;
+import com.bookify.bookify_app.util.RequestContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RequestContextTest {
+
+    @AfterEach
+    void clear() {
+        TenantContext.clear();
+        CorrelationIdHolder.clear();
+    }
+
+    @Test
+    void shouldCarryContextIntoVirtualThread() throws Exception {
+        TenantContext.setClinicId("clinic1");
+        CorrelationIdHolder.setId("corr-1");
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            RequestContext seen = executor.submit(RequestContext.wrap(RequestContext::capture)).get();
+            assertThat(seen).isEqualTo(new RequestContext("clinic1", "corr-1"));
+        }
+    }
+
+    @Test
+    void shouldMirrorCorrelationIdInMdc() throws Exception {
+        CorrelationIdHolder.setId("corr-1");
+        assertThat(MDC.get(CorrelationIdHolder.MDC_KEY)).isEqualTo("corr-1");
+
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            String inside = pool.submit(RequestContext.wrap(() -> MDC.get(CorrelationIdHolder.MDC_KEY))).get();
+            String after = pool.submit(() -> MDC.get(CorrelationIdHolder.MDC_KEY)).get();
+
+            assertThat(inside).isEqualTo("corr-1");
+            assertThat(after).isNull();
+        } finally {
+            pool.shutdown();
+        }
+
+        CorrelationIdHolder.clear();
+        assertThat(MDC.get(CorrelationIdHolder.MDC_KEY)).isNull();
+    }
+
+    @Test
+    void shouldRestoreWorkerContextAfterTask() throws Exception {
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            // The worker already carries another request's context
+            pool.submit(() -> TenantContext.setClinicId("stale")).get();
+
+            TenantContext.setClinicId("clinic1");
+            String inside = pool.submit(RequestContext.wrap(TenantContext::getClinicId)).get();
+            String after = pool.submit(TenantContext::getClinicId).get();
+
+            assertThat(inside).isEqualTo("clinic1");
+            assertThat(after).isEqualTo("stale");
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void asyncTaskDecoratorShouldPropagateContext() throws Exception {
+        CorrelationIdHolder.setId("corr-2");
+        AtomicReference<String> seen = new AtomicReference<>();
+        Runnable decorated = new AsyncConfig().requestContextTaskDecorator()
+                .decorate(() -> seen.set(CorrelationIdHolder.getId()));
+        CorrelationIdHolder.clear();
+
+        Thread.ofVirtual().start(decorated).join();
+        assertThat(seen.get()).isEqualTo("corr-2");
+    }
+}
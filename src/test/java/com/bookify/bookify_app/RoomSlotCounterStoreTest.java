@@ -0,0 +1,110 @@
+package com.bookify.bookify_app;
+
+// ********************************************************************************************
+// * RoomSlotCounterStoreTest verifies seat admission in rooms with capacity > 1.             *
+// *                                                                                          *
+// * Test setup:                                                                              *
+// *  - Embedded Mongo via @DataMongoTest; one room with capacity 2, 5-minute counter slots.  *
+// *                                                                                          *
+// * Covered scenarios:                                                                       *
+// *  - A slot admits up to capacity bookings; a partly full booking takes nothing.           *
+// *  - Released seats can be taken again.                                                    *
+// *  - rebuild() recounts the counters from stored bookings.                                 *
+// ********************************************************************************************
+
+import com.bookify.bookify_app.model.Booking;
+import com.bookify.bookify_app.model.Room;
+import com.bookify.bookify_app.model.RoomSlotCounter;
+import com.bookify.bookify_app.repository.BookingRepository;
+import com.bookify.bookify_app.repository.RoomRepository;
+import com.bookify.bookify_app.service.RoomSlotCounterStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.time.ZonedDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataMongoTest
+class RoomSlotCounterStoreTest {
+
+    @Autowired
+    MongoTemplate mongoTemplate;
+
+    @Autowired
+    RoomRepository roomRepository;
+
+    @Autowired
+    BookingRepository bookingRepository;
+
+    private RoomSlotCounterStore store;
+    private String roomId;
+    private ZonedDateTime ten;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate.dropCollection(RoomSlotCounter.class);
+        bookingRepository.deleteAll();
+        roomRepository.deleteAll();
+
+        Room room = new Room();
+        room.setClinicId("clinic1");
+        room.setName("Hall");
+        room.setCapacity(2);
+        roomId = roomRepository.save(room).getId();
+
+        store = new RoomSlotCounterStore(mongoTemplate, roomRepository, bookingRepository, 5);
+        ten = ZonedDateTime.now().plusDays(2).withHour(10).withMinute(0).withSecond(0).withNano(0);
+    }
+
+    @Test
+    void shouldAdmitUpToCapacity() {
+        assertThat(store.tryAdmit("clinic1", roomId, ten, ten.plusMinutes(30))).isTrue();
+        assertThat(store.tryAdmit("clinic1", roomId, ten.plusMinutes(15), ten.plusMinutes(45))).isTrue();
+
+        // 10:15-10:30 is full; 10:30-10:45 had room but must not keep a seat
+        assertThat(store.tryAdmit("clinic1", roomId, ten.plusMinutes(25), ten.plusMinutes(40))).isFalse();
+        assertThat(count(ten.plusMinutes(35))).isEqualTo(1);
+        assertThat(count(ten.plusMinutes(20))).isEqualTo(2);
+    }
+
+    @Test
+    void shouldAdmitAgainAfterRelease() {
+        store.tryAdmit("clinic1", roomId, ten, ten.plusMinutes(30));
+        store.tryAdmit("clinic1", roomId, ten, ten.plusMinutes(30));
+        assertThat(store.tryAdmit("clinic1", roomId, ten, ten.plusMinutes(10))).isFalse();
+
+        store.release("clinic1", roomId, ten, ten.plusMinutes(30));
+
+        assertThat(store.tryAdmit("clinic1", roomId, ten, ten.plusMinutes(10))).isTrue();
+    }
+
+    @Test
+    void shouldRebuildCountersFromBookings() {
+        for (int i = 0; i < 2; i++) {
+            Booking b = new Booking();
+            b.setClinicId("clinic1");
+            b.setRoomId(roomId);
+            b.setStartTime(ten);
+            b.setEndTime(ten.plusMinutes(30));
+            b.setBlockedUntil(ten.plusMinutes(30));
+            b.setStatus("BOOKED");
+            bookingRepository.save(b);
+        }
+
+        store.rebuild("clinic1", roomId);
+
+        assertThat(count(ten)).isEqualTo(2);
+        assertThat(store.tryAdmit("clinic1", roomId, ten.plusMinutes(20), ten.plusMinutes(40))).isFalse();
+        assertThat(store.tryAdmit("clinic1", roomId, ten.plusMinutes(30), ten.plusMinutes(40))).isTrue();
+    }
+
+    private long count(ZonedDateTime slotTime) {
+        long slot = slotTime.toEpochSecond() / 300 * 5;
+        RoomSlotCounter counter = mongoTemplate.findById("clinic1|" + roomId + "|" + slot, RoomSlotCounter.class);
+        return counter != null ? counter.getCount() : 0;
+    }
+}
@@ -0,0 +1,123 @@
+package com.bookify.bookify_app;
+
+// ********************************************************************************************
+// * RosterCacheTest verifies staff rosters compiled into per-day slot bitmasks.              *
+// *                                                                                          *
+// * Test setup:                                                                              *
+// *  - Mockito mocks for the repositories; 15-minute slot grid.                              *
+// *  - 70 staff members (two mask words per slot): most work MON-FRI 09:00-17:00, one only   *
+// *    Monday afternoons with a dated extra shift, one has no roster at all.                 *
+// *                                                                                          *
+// * Covered scenarios:                                                                       *
+// *  - Who works a span of slots, across the 64-staff word boundary.                         *
+// *  - Shift exceptions replace the weekly shifts; absences remove time.                     *
+// *  - Staff without a roster work every slot; invalidate() reloads from Mongo.              *
+// ********************************************************************************************
+
+import com.bookify.bookify_app.model.ClinicSettings;
+import com.bookify.bookify_app.model.StaffMember;
+import com.bookify.bookify_app.model.StaffRoster;
+import com.bookify.bookify_app.repository.ClinicSettingsRepository;
+import com.bookify.bookify_app.repository.StaffMemberRepository;
+import com.bookify.bookify_app.repository.StaffRosterRepository;
+import com.bookify.bookify_app.service.RosterCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class RosterCacheTest {
+
+    private static final String CLINIC = "clinic1";
+    // 2025-12-22 is a Monday
+    private static final LocalDate MONDAY = LocalDate.of(2025, 12, 22);
+    private static final int NINE = 9 * 4;
+    private static final int ONE_PM = 13 * 4;
+
+    private StaffRosterRepository rosterRepo;
+    private RosterCache cache;
+
+    @BeforeEach
+    void setUp() {
+        rosterRepo = mock(StaffRosterRepository.class);
+        StaffMemberRepository staffRepo = mock(StaffMemberRepository.class);
+        ClinicSettingsRepository settingsRepo = mock(ClinicSettingsRepository.class);
+
+        ClinicSettings settings = new ClinicSettings();
+        settings.setClinicId(CLINIC);
+        settings.setSlotIntervalMinutes(15);
+        when(settingsRepo.findByClinicId(CLINIC)).thenReturn(settings);
+
+        List<StaffMember> staff = new ArrayList<>();
+        List<StaffRoster> rosters = new ArrayList<>();
+        for (int i = 0; i < 70; i++) {
+            StaffMember member = new StaffMember();
+            member.setId("s" + i);
+            staff.add(member);
+            if (i < 68) {
+                rosters.add(roster("s" + i, List.of("MON-FRI 09:00-17:00"), null, null));
+            }
+        }
+        // s68: Monday afternoons, plus a Saturday extra shift, absent on the second Monday
+        rosters.add(roster("s68", List.of("MON 13:00-17:00"), List.of(MONDAY.plusDays(5) + " 10:00-12:00"),
+                List.of(MONDAY.plusDays(7).toString())));
+        // s69 has no roster
+        when(staffRepo.findByClinicId(CLINIC)).thenReturn(staff);
+        when(rosterRepo.findByClinicId(CLINIC)).thenReturn(rosters);
+
+        cache = new RosterCache(rosterRepo, staffRepo, settingsRepo);
+    }
+
+    @Test
+    void shouldFindStaffWorkingWholeSpan() {
+        RosterCache.ClinicRoster roster = cache.roster(CLINIC);
+
+        assertThat(roster.workingStaff(MONDAY, NINE, 4)).hasSize(69).doesNotContain("s68");
+        assertThat(roster.workingStaff(MONDAY, ONE_PM, 4)).hasSize(70);
+        // 16:30-17:30 crosses the end of every shift
+        assertThat(roster.workingStaff(MONDAY, 16 * 4 + 2, 4)).containsExactly("s69");
+        assertThat(roster.anyWorking(MONDAY, 0, 4)).isTrue();
+    }
+
+    @Test
+    void shouldApplyShiftExceptionsAndAbsences() {
+        RosterCache.ClinicRoster roster = cache.roster(CLINIC);
+
+        assertThat(roster.workingStaff(MONDAY.plusDays(5), 10 * 4, 8)).containsExactly("s68", "s69");
+        assertThat(roster.workingStaff(MONDAY.plusDays(7), ONE_PM, 4)).doesNotContain("s68").hasSize(69);
+        assertThat(roster.workingSlots("s68", MONDAY).cardinality()).isEqualTo(16);
+        assertThat(roster.workingSlots("s69", MONDAY)).isNull();
+    }
+
+    @Test
+    void shouldFindStartSlotsWhereAnyoneWorks() {
+        assertThat(cache.roster(CLINIC).startSlots(MONDAY, 4).cardinality()).isEqualTo(96 - 3);
+    }
+
+    @Test
+    void shouldReloadAfterInvalidate() {
+        RosterCache.ClinicRoster first = cache.roster(CLINIC);
+        assertThat(cache.roster(CLINIC)).isSameAs(first);
+
+        cache.invalidate(CLINIC);
+
+        assertThat(cache.roster(CLINIC)).isNotSameAs(first);
+        verify(rosterRepo, times(2)).findByClinicId(CLINIC);
+    }
+
+    private static StaffRoster roster(String staffId, List<String> shifts, List<String> exceptions,
+                                      List<String> absences) {
+        StaffRoster roster = new StaffRoster();
+        roster.setClinicId(CLINIC);
+        roster.setStaffId(staffId);
+        roster.setShifts(shifts);
+        roster.setShiftExceptions(exceptions);
+        roster.setAbsences(absences);
+        return roster;
+    }
+}
@@ -0,0 +1,83 @@
+package com.bookify.bookify_app;
+
+// ********************************************************************************************
+// * SlotHoldServiceTest verifies the limits on open slot holds.                              *
+// *                                                                                          *
+// * Test setup:                                                                              *
+// *  - Mockito mocks for the store, availability and conflict detector.                      *
+// *  - max-per-client=2, max-per-clinic=3.                                                   *
+// *                                                                                          *
+// * Covered scenarios:                                                                       *
+// *  - A client with max-per-client open holds gets HoldLimitException; others do not.       *
+// *  - A full clinic gets HoldLimitException (429), not IllegalArgumentException (400).      *
+// ********************************************************************************************
+
+import com.bookify.bookify_app.config.SlotHoldProperties;
+import com.bookify.bookify_app.model.SlotHold;
+import com.bookify.bookify_app.service.AvailabilityService;
+import com.bookify.bookify_app.service.BookingConflictDetector;
+import com.bookify.bookify_app.service.SlotHoldService;
+import com.bookify.bookify_app.service.SlotHoldStore;
+import com.bookify.bookify_app.service.TokenGenerator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class SlotHoldServiceTest {
+
+    private static final String CLINIC = "clinic1";
+    private static final ZonedDateTime START = ZonedDateTime.of(2025, 12, 22, 9, 0, 0, 0, ZoneId.of("Europe/Stockholm"));
+
+    private SlotHoldStore store;
+    private SlotHoldService service;
+
+    @BeforeEach
+    void setUp() {
+        store = mock(SlotHoldStore.class);
+        AvailabilityService availability = mock(AvailabilityService.class);
+        BookingConflictDetector detector = mock(BookingConflictDetector.class);
+        TokenGenerator tokens = mock(TokenGenerator.class);
+
+        AtomicInteger ids = new AtomicInteger();
+        when(tokens.next()).thenAnswer(inv -> "hold" + ids.incrementAndGet());
+        when(availability.assign(eq(CLINIC), anyString(), any(), any())).thenReturn(
+                new AvailabilityService.Assignment("staff1", "room1", START.plusMinutes(45), START.plusMinutes(60)));
+        when(detector.hold(any(), any())).thenAnswer(inv -> inv.getArgument(0));
+
+        SlotHoldProperties properties = new SlotHoldProperties();
+        properties.setMaxPerClient(2);
+        properties.setMaxPerClinic(3);
+        service = new SlotHoldService(store, availability, detector, tokens, properties);
+    }
+
+    @Test
+    void shouldLimitOpenHoldsPerClient() {
+        when(store.countActiveByClient(eq(CLINIC), eq("10.0.0.1"), any())).thenReturn(2L);
+
+        assertThatThrownBy(() -> service.hold(CLINIC, "variant1", START, null, "10.0.0.1"))
+                .isInstanceOf(SlotHoldService.HoldLimitException.class);
+
+        SlotHold hold = service.hold(CLINIC, "variant1", START, null, "10.0.0.2");
+        assertThat(hold.getClientKey()).isEqualTo("10.0.0.2");
+    }
+
+    @Test
+    void shouldRejectHoldsWhenClinicIsFull() {
+        for (int i = 0; i < 3; i++) {
+            service.hold(CLINIC, "variant1", START.plusHours(i), null, "10.0.0." + i);
+        }
+
+        assertThatThrownBy(() -> service.hold(CLINIC, "variant1", START.plusHours(5), null, "10.0.0.9"))
+                .isInstanceOf(SlotHoldService.HoldLimitException.class)
+                .satisfies(e -> assertThat(((SlotHoldService.HoldLimitException) e).getRetryAfterSeconds())
+                        .isPositive());
+    }
+}
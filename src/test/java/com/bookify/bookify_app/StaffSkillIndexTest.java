@@ -0,0 +1,89 @@
+package com.bookify.bookify_app;
+
+// ********************************************************************************************
+// * StaffSkillIndexTest verifies the per-clinic skill -> staff bitmap index.                 *
+// *                                                                                          *
+// * Test setup:                                                                              *
+// *  - StaffMemberRepository is a Mockito mock; one clinic with three staff members.         *
+// *                                                                                          *
+// * Covered scenarios:                                                                       *
+// *  - Eligible staff for one skill, several skills, an unknown skill and no skills.         *
+// *  - Saves and deletes update a loaded clinic without reading Mongo again.                 *
+// *  - A staff member moved to another clinic leaves the old clinic's index.                 *
+// ********************************************************************************************
+
+import com.bookify.bookify_app.model.StaffMember;
+import com.bookify.bookify_app.repository.StaffMemberRepository;
+import com.bookify.bookify_app.service.StaffSkillIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class StaffSkillIndexTest {
+
+    private static final String CLINIC = "clinic1";
+
+    private StaffMemberRepository staffRepo;
+    private StaffSkillIndex index;
+
+    @BeforeEach
+    void setUp() {
+        staffRepo = mock(StaffMemberRepository.class);
+        when(staffRepo.findByClinicId(CLINIC)).thenReturn(List.of(
+                staff("anna", CLINIC, "massage", "laser"),
+                staff("bo", CLINIC, "massage"),
+                staff("cleo", CLINIC)));
+        when(staffRepo.findByClinicId("clinic2")).thenReturn(List.of());
+        index = new StaffSkillIndex(staffRepo);
+    }
+
+    @Test
+    void shouldResolveEligibleStaffFromSkills() {
+        assertThat(index.eligibleStaff(CLINIC, List.of("massage"))).containsExactlyInAnyOrder("anna", "bo");
+        assertThat(index.eligibleStaff(CLINIC, List.of("massage", "laser"))).containsExactly("anna");
+        assertThat(index.eligibleStaff(CLINIC, List.of("nails"))).isEmpty();
+        assertThat(index.eligibleStaff(CLINIC, List.of())).containsExactlyInAnyOrder("anna", "bo", "cleo");
+
+        assertThat(index.canPerform(CLINIC, "bo", List.of("massage"))).isTrue();
+        assertThat(index.canPerform(CLINIC, "bo", List.of("laser"))).isFalse();
+        assertThat(index.canPerform(CLINIC, "unknown", List.of())).isFalse();
+    }
+
+    @Test
+    void shouldApplySavesAndDeletesIncrementally() {
+        index.eligibleStaff(CLINIC, List.of("laser"));
+
+        index.onStaffSaved(staff("bo", CLINIC, "massage"), staff("bo", CLINIC, "laser"));
+        index.onStaffSaved(null, staff("dan", CLINIC, "laser", "nails"));
+        index.onStaffDeleted(staff("anna", CLINIC, "massage", "laser"));
+
+        assertThat(index.eligibleStaff(CLINIC, List.of("laser"))).containsExactlyInAnyOrder("bo", "dan");
+        assertThat(index.eligibleStaff(CLINIC, List.of("massage"))).isEmpty();
+        assertThat(index.eligibleStaff(CLINIC, List.of("nails"))).containsExactly("dan");
+        assertThat(index.eligibleStaff(CLINIC, null)).containsExactlyInAnyOrder("bo", "cleo", "dan");
+        verify(staffRepo, times(1)).findByClinicId(CLINIC);
+    }
+
+    @Test
+    void shouldMoveStaffBetweenClinics() {
+        index.eligibleStaff(CLINIC, List.of());
+        index.eligibleStaff("clinic2", List.of());
+
+        index.onStaffSaved(staff("bo", CLINIC, "massage"), staff("bo", "clinic2", "massage"));
+
+        assertThat(index.eligibleStaff(CLINIC, List.of("massage"))).containsExactly("anna");
+        assertThat(index.eligibleStaff("clinic2", List.of("massage"))).containsExactly("bo");
+    }
+
+    private static StaffMember staff(String id, String clinicId, String... skills) {
+        StaffMember member = new StaffMember();
+        member.setId(id);
+        member.setClinicId(clinicId);
+        member.setSkills(List.of(skills));
+        return member;
+    }
+}
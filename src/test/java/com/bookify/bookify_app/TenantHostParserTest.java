@@ -0,0 +1,51 @@
+package com.bookify.bookify_app;
+
+// ********************************************************************************************
+// * TenantHostParserTest verifies subdomain extraction used by TenantSubdomainFilter.        *
+// *                                                                                          *
+// * Covered scenarios:                                                                       *
+// *  - "<sub>.<base domain>" with and without port, any letter case, any configured domain. *
+// *  - Hosts the former regex rejected stay rejected (nested labels, bare or foreign hosts).*
+// *  - Comma-separated X-Forwarded-Host values and loopback detection for dev mode.          *
+// ********************************************************************************************
+
+import com.bookify.bookify_app.filter.TenantHostParser;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TenantHostParserTest {
+
+    private final TenantHostParser parser = new TenantHostParser(List.of("minapp.se", "Localhost"));
+
+    @Test
+    void shouldExtractSubdomainOfConfiguredBaseDomains() {
+        assertThat(parser.subdomain("hudvardskliniken.minapp.se")).isEqualTo("hudvardskliniken");
+        assertThat(parser.subdomain("hudvardskliniken.minapp.se:8443")).isEqualTo("hudvardskliniken");
+        assertThat(parser.subdomain("HudvardsKliniken.MINAPP.se")).isEqualTo("hudvardskliniken");
+        assertThat(parser.subdomain("kliniken.localhost:8080")).isEqualTo("kliniken");
+        assertThat(parser.subdomain("kliniken.minapp.se, proxy.internal")).isEqualTo("kliniken");
+    }
+
+    @Test
+    void shouldRejectHostsWithoutSingleLabelSubdomain() {
+        assertThat(parser.subdomain("minapp.se")).isNull();
+        assertThat(parser.subdomain(".minapp.se")).isNull();
+        assertThat(parser.subdomain("a.b.minapp.se")).isNull();
+        assertThat(parser.subdomain("kliniken.otherminapp.se")).isNull();
+        assertThat(parser.subdomain("kliniken.minapp.se.evil.com")).isNull();
+        assertThat(parser.subdomain("kliniken.minapp.se:")).isNull();
+        assertThat(parser.subdomain("")).isNull();
+        assertThat(parser.subdomain(null)).isNull();
+    }
+
+    @Test
+    void shouldRecognizeLoopbackHosts() {
+        assertThat(TenantHostParser.isLoopback("localhost:8080")).isTrue();
+        assertThat(TenantHostParser.isLoopback("127.0.0.1")).isTrue();
+        assertThat(TenantHostParser.isLoopback("[::1]:8080")).isTrue();
+        assertThat(TenantHostParser.isLoopback("kliniken.localhost")).isFalse();
+    }
+}
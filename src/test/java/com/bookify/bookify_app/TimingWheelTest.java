@@ -0,0 +1,76 @@
+package com.bookify.bookify_app;
+
+// ********************************************************************************************
+// * TimingWheelTest verifies the hierarchical timing wheel behind slot hold expiry.          *
+// *                                                                                          *
+// * Test setup:                                                                              *
+// *  - A 1-second tick starting at time 0; time is advanced by hand (no sleeping).           *
+// *                                                                                          *
+// * Covered scenarios:                                                                       *
+// *  - Keys never expire early and at most one tick late.                                    *
+// *  - Cancelled keys never expire; rescheduling a key moves it.                             *
+// *  - Deadlines beyond the first level (hours away) cascade down and expire on time.        *
+// ********************************************************************************************
+
+import com.bookify.bookify_app.util.TimingWheel;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimingWheelTest {
+
+    private static final long TICK = 1000;
+
+    @Test
+    void shouldExpireNoEarlierThanDeadlineAndWithinOneTick() {
+        TimingWheel<String> wheel = new TimingWheel<>(TICK, 0);
+        wheel.schedule("a", 2500);
+        wheel.schedule("b", 3000);
+        List<String> expired = new ArrayList<>();
+
+        wheel.advance(2499, expired::add);
+        assertThat(expired).isEmpty();
+
+        wheel.advance(3000, expired::add);
+        assertThat(expired).containsExactlyInAnyOrder("a", "b");
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void shouldNotExpireCancelledKey() {
+        TimingWheel<String> wheel = new TimingWheel<>(TICK, 0);
+        wheel.schedule("a", 5000);
+        wheel.schedule("b", 5000);
+        List<String> expired = new ArrayList<>();
+
+        assertThat(wheel.cancel("a")).isTrue();
+        assertThat(wheel.cancel("a")).isFalse();
+        wheel.schedule("b", 60_000);
+        wheel.advance(10_000, expired::add);
+
+        assertThat(expired).isEmpty();
+        assertThat(wheel.contains("b")).isTrue();
+    }
+
+    @Test
+    void shouldCascadeLongDeadlines() {
+        TimingWheel<Long> wheel = new TimingWheel<>(TICK, 0);
+        // One level holds 64 ticks, two 4096, three 262144
+        long[] deadlines = {63_000, 64_000, 65_000, 4_095_000, 4_097_000, 3 * 3600_000L};
+        for (long deadline : deadlines) {
+            wheel.schedule(deadline, deadline);
+        }
+
+        for (long now = 0; now <= 3 * 3600_000L + TICK; now += 7 * TICK) {
+            long current = now;
+            wheel.advance(now, deadline -> {
+                assertThat(deadline).isLessThanOrEqualTo(current);
+                assertThat(current - deadline).isLessThan(7 * TICK + TICK);
+            });
+        }
+        assertThat(wheel.size()).isZero();
+    }
+}
@@ -5,12 +5,16 @@ package com.bookify.bookify_app;
 // * password reset tokens.                                                                   *
 // *                                                                                          *
 // * Test setup:                                                                              *
-// *  - Uses Mockito mocks for VerificationTokenRepository and PasswordResetTokenRepository.  *
+// *  - Uses Mockito mocks for VerificationTokenRepository, PasswordResetTokenRepository and  *
+// *    MongoTemplate.                                                                        *
 // *  - TokenService is created with these mocks (no database required).                      *
 // *                                                                                          *
 // * Covered scenarios:                                                                       *
-// *  - Verification tokens: creation, validation of valid/expired tokens, mark as used.      *
-// *  - Password reset tokens: creation, validation of valid/used tokens, mark as used.       *
+// *  - Verification tokens: creation stores only the hash, consumption is one atomic         *
+// *    findAndModify on the hash, an unknown/used/expired token is rejected.                 *
+// *  - Password reset tokens: creation stores only the hash, consumption as above.           *
+// *  - TokenGenerator: 43-char URL-safe tokens, unique across concurrent threads, with and   *
+// *    without the prefilled queue.                                                          *
 // *                                                                                          *
 // * WHY: Ensures secure token lifecycle (randomness, expiry, single-use) before integrating  *
 // * with persistence or controllers.                                                         *
@@ -20,13 +24,23 @@ import com.bookify.bookify_app.model.PasswordResetToken;
 import com.bookify.bookify_app.model.VerificationToken;
 import com.bookify.bookify_app.repository.PasswordResetTokenRepository;
 import com.bookify.bookify_app.repository.VerificationTokenRepository;
+import com.bookify.bookify_app.service.TokenGenerator;
 import com.bookify.bookify_app.service.TokenService;
+import org.bson.Document;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 
 import java.time.Instant;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.*;
@@ -35,19 +49,21 @@ class TokenServiceTest {
 
     private VerificationTokenRepository verificationRepo;
     private PasswordResetTokenRepository resetRepo;
+    private MongoTemplate mongoTemplate;
     private TokenService tokenService;
 
     @BeforeEach
     void setUp() {
         resetRepo = mock(PasswordResetTokenRepository.class);
         verificationRepo = mock(VerificationTokenRepository.class);
-        tokenService = new TokenService(resetRepo, verificationRepo);
+        mongoTemplate = mock(MongoTemplate.class);
+        tokenService = new TokenService(resetRepo, verificationRepo, mongoTemplate, new TokenGenerator(4, 0));
     }
 
     // --- Verification token tests ---
 
     @Test
-    void shouldCreateVerificationTokenWithFutureExpiry() {
+    void shouldCreateVerificationTokenStoringOnlyTheHash() {
         String userId = "user123";
         ArgumentCaptor<VerificationToken> captor = ArgumentCaptor.forClass(VerificationToken.class);
 
@@ -58,43 +74,48 @@ class TokenServiceTest {
         verify(verificationRepo).save(captor.capture());
         assertThat(token.getUserId()).isEqualTo(userId);
         assertThat(token.getToken()).isNotBlank();
+        assertThat(token.getTokenHash()).isEqualTo(TokenService.hashToken(token.getToken()))
+                .isNotEqualTo(token.getToken());
         assertThat(token.getExpiresAt()).isAfter(Instant.now());
         assertThat(token.isUsed()).isFalse();
     }
 
     @Test
-    void shouldValidateValidVerificationToken() {
-        VerificationToken token = new VerificationToken("tok123", "user123", Instant.now().plusSeconds(60));
-        when(verificationRepo.findByToken("tok123")).thenReturn(Optional.of(token));
-
-        Optional<VerificationToken> result = tokenService.validateVerificationToken("tok123");
-
-        assertThat(result).isPresent();
+    void shouldConsumeVerificationTokenInOneAtomicCall() {
+        VerificationToken stored = new VerificationToken(TokenService.hashToken("tok123"), "user123",
+                Instant.now().plusSeconds(60));
+        stored.setUsed(true);
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        when(mongoTemplate.findAndModify(query.capture(), update.capture(), any(FindAndModifyOptions.class),
+                eq(VerificationToken.class))).thenReturn(stored);
+
+        Optional<VerificationToken> result = tokenService.consumeVerificationToken("tok123");
+
+        assertThat(result).contains(stored);
+        Document criteria = query.getValue().getQueryObject();
+        assertThat(criteria.get("tokenHash")).isEqualTo(TokenService.hashToken("tok123"));
+        assertThat(criteria.get("used")).isEqualTo(false);
+        assertThat(criteria).containsKey("expiresAt");
+        assertThat(update.getValue().getUpdateObject().get("$set", Document.class).get("used")).isEqualTo(true);
+        verifyNoInteractions(verificationRepo);
     }
 
     @Test
-    void shouldRejectExpiredVerificationToken() {
-        VerificationToken token = new VerificationToken("tok123", "user123", Instant.now().minusSeconds(60));
-        when(verificationRepo.findByToken("tok123")).thenReturn(Optional.of(token));
-
-        Optional<VerificationToken> result = tokenService.validateVerificationToken("tok123");
-
-        assertThat(result).isEmpty();
-    }
-
-    @Test
-    void shouldMarkVerificationTokenAsUsed() {
-        VerificationToken token = new VerificationToken("tok123", "user123", Instant.now().plusSeconds(60));
-        tokenService.markVerificationTokenUsed(token);
-
-        assertThat(token.isUsed()).isTrue();
-        verify(verificationRepo).save(token);
+    void shouldRejectUnknownUsedOrExpiredVerificationToken() {
+        // No document matches "unused and unexpired": findAndModify returns null
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(VerificationToken.class))).thenReturn(null);
+
+        assertThat(tokenService.consumeVerificationToken("tok123")).isEmpty();
+        assertThat(tokenService.consumeVerificationToken("")).isEmpty();
+        assertThat(tokenService.consumeVerificationToken(null)).isEmpty();
     }
 
     // --- Password reset token tests ---
 
     @Test
-    void shouldCreatePasswordResetTokenWithFutureExpiry() {
+    void shouldCreatePasswordResetTokenStoringOnlyTheHash() {
         String userId = "user123";
         ArgumentCaptor<PasswordResetToken> captor = ArgumentCaptor.forClass(PasswordResetToken.class);
 
@@ -105,39 +126,43 @@ class TokenServiceTest {
         verify(resetRepo).save(captor.capture());
         assertThat(token.getUserId()).isEqualTo(userId);
         assertThat(token.getToken()).isNotBlank();
+        assertThat(token.getTokenHash()).isEqualTo(TokenService.hashToken(token.getToken()));
         assertThat(token.getExpiresAt()).isAfter(Instant.now());
         assertThat(token.isUsed()).isFalse();
     }
 
     @Test
-    void shouldValidateValidPasswordResetToken() {
-        PasswordResetToken token = new PasswordResetToken("res123", "user123", Instant.now().plusSeconds(60));
-        when(resetRepo.findByToken("res123")).thenReturn(Optional.of(token));
-
-        Optional<PasswordResetToken> result = tokenService.validatePasswordResetToken("res123");
-
-        assertThat(result).isPresent();
+    void shouldConsumePasswordResetTokenOnlyOnce() {
+        PasswordResetToken stored = new PasswordResetToken(TokenService.hashToken("res123"), "user123",
+                Instant.now().plusSeconds(60));
+        // Mongo matches the unused token once; afterwards it is marked used
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(PasswordResetToken.class))).thenReturn(stored, (PasswordResetToken) null);
+
+        assertThat(tokenService.consumePasswordResetToken("res123")).contains(stored);
+        assertThat(tokenService.consumePasswordResetToken("res123")).isEmpty();
+        verifyNoInteractions(resetRepo);
     }
 
-    @Test
-    void shouldRejectUsedResetToken() {
-        PasswordResetToken token = new PasswordResetToken("res123", "user123", Instant.now().plusSeconds(60));
-        token.setUsed(true);
-        when(resetRepo.findByToken("res123")).thenReturn(Optional.of(token));
-
-        Optional<PasswordResetToken> result = tokenService.validatePasswordResetToken("res123");
-
-        assertThat(result).isEmpty();
-    }
+    // --- Token generation ---
 
     @Test
-    void shouldMarkResetTokenAsUsed() {
-        PasswordResetToken token = new PasswordResetToken("res123", "user123", Instant.now().plusSeconds(60));
-        tokenService.markPasswordResetTokenUsed(token);
-
-        assertThat(token.isUsed()).isTrue();
-        verify(resetRepo).save(token);
+    void shouldGenerateUniqueUrlSafeTokensAcrossThreads() throws Exception {
+        for (int prefill : new int[] {0, 64}) {
+            Set<String> seen = ConcurrentHashMap.newKeySet();
+            try (TokenGenerator generator = new TokenGenerator(3, prefill);
+                 ExecutorService pool = Executors.newFixedThreadPool(8)) {
+                assertThat(generator.stripeCount()).isEqualTo(4);
+                for (int t = 0; t < 8; t++) {
+                    pool.submit(() -> {
+                        for (int i = 0; i < 1_000; i++) {
+                            seen.add(generator.next());
+                        }
+                    });
+                }
+            }
+            assertThat(seen).hasSize(8_000)
+                    .allMatch(token -> token.length() == 43 && token.matches("[A-Za-z0-9_-]+"));
+        }
     }
 }
-
-
@@ -11,26 +11,36 @@ package com.bookify.bookify_app;
 // *  - Registering a new user should create a user with hashed password, default OWNER role, *
 // *    and matching email.                                                                   *
 // *  - Registering with a duplicate email should throw IllegalArgumentException.             *
+// *  - Repeated logins are served from the principal cache until the user changes; unknown   *
+// *    emails are never cached.                                                              *
+// *  - A password change bumps the password version; a re-hash after login does not.         *
 // *                                                                                          *
 // * WHY: Ensures that critical user registration logic (unique email + password hashing)     *
 // * works correctly and safely before relying on persistence or integration tests.           *
 // ********************************************************************************************
 
+import com.bookify.bookify_app.config.AuthProperties;
 import com.bookify.bookify_app.model.User;
 import com.bookify.bookify_app.repository.UserRepository;
 import com.bookify.bookify_app.service.UserService;
 import com.bookify.bookify_app.util.UserRole;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 
+import java.util.Optional;
+import java.util.Set;
+
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
 class UserServiceTest {
 
     private final UserRepository repo = mock(UserRepository.class);
-    private final UserService service = new UserService(repo, new BCryptPasswordEncoder(12));
+    private final UserService service =
+            new UserService(repo, new BCryptPasswordEncoder(12), new AuthProperties());
 
     @Test
     void shouldCreateUser_whenRegister() {
@@ -48,4 +58,48 @@ class UserServiceTest {
         when(repo.existsByEmail("exists@x.com")).thenReturn(true);
         assertThrows(IllegalArgumentException.class, () -> service.registerUser("exists@x.com", "pw"));
     }
+
+    @Test
+    void shouldBumpPasswordVersionOnChangeButNotOnRehash() {
+        User user = User.builder().id("u1").email("a@x.com").passwordHash("$2a$04$old").build();
+        when(repo.findByEmail("a@x.com")).thenReturn(Optional.of(user));
+        when(repo.findById("u1")).thenReturn(Optional.of(user));
+
+        service.updatePassword(org.springframework.security.core.userdetails.User
+                .withUsername("a@x.com").password("$2a$04$old").roles("OWNER").build(), "$2a$10$rehash");
+        assertEquals(0, service.passwordVersion("a@x.com"));
+
+        service.updatePassword("u1", "new-secret");
+        assertEquals(1, service.passwordVersion("a@x.com"));
+    }
+
+    @Test
+    void shouldServeRepeatedLoginsFromCacheUntilUserChanges() {
+        User user = User.builder().id("u1").email("a@x.com").passwordHash("hash")
+                .roles(Set.of(UserRole.OWNER)).build();
+        when(repo.findByEmail("a@x.com")).thenReturn(Optional.of(user));
+        when(repo.findById("u1")).thenReturn(Optional.of(user));
+
+        UserDetails first = service.loadUserByUsername("a@x.com");
+        // Spring Security erases the credentials of the instance it authenticated
+        ((org.springframework.security.core.userdetails.User) first).eraseCredentials();
+        UserDetails second = service.loadUserByUsername("a@x.com");
+
+        assertEquals("hash", second.getPassword());
+        assertTrue(second.getAuthorities().stream().anyMatch(a -> a.getAuthority().equals("ROLE_OWNER")));
+        verify(repo, times(1)).findByEmail("a@x.com");
+
+        service.activateUser("u1");
+        service.loadUserByUsername("a@x.com");
+        verify(repo, times(2)).findByEmail("a@x.com");
+    }
+
+    @Test
+    void shouldNotCacheUnknownEmails() {
+        when(repo.findByEmail("ghost@x.com")).thenReturn(Optional.empty());
+
+        assertThrows(UsernameNotFoundException.class, () -> service.loadUserByUsername("ghost@x.com"));
+        assertThrows(UsernameNotFoundException.class, () -> service.loadUserByUsername("ghost@x.com"));
+        verify(repo, times(2)).findByEmail("ghost@x.com");
+    }
 }
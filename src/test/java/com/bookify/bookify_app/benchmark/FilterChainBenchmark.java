@@ -0,0 +1,135 @@
+package com.bookify.bookify_app.benchmark;
+
+// ********************************************************************************************
+// * FilterChainBenchmark measures the servlet filters every request passes through:          *
+// *  - each filter in isolation (RateLimitFilter, CorrelationIdFilter, TenantSubdomainFilter)*
+// *  - the full chain in production order, ending in an empty servlet.                       *
+// *                                                                                          *
+// * Setup: Spring mock requests/responses, default RateLimitProperties, a clinic registry    *
+// * with 1000 clinics (no database). Requests rotate over 4096 client addresses; on the      *
+// * guarded path most of them end up rejected after warm-up, which is the flood case the     *
+// * limiter must stay cheap for.                                                             *
+// *                                                                                          *
+// * Run: mvn -Pbenchmark test -Djmh.include=FilterChainBenchmark                             *
+// ********************************************************************************************
+
+import com.bookify.bookify_app.config.RateLimitProperties;
+import com.bookify.bookify_app.config.TenantProperties;
+import com.bookify.bookify_app.filter.CorrelationIdFilter;
+import com.bookify.bookify_app.filter.RateLimitFilter;
+import com.bookify.bookify_app.filter.TenantSubdomainFilter;
+import com.bookify.bookify_app.model.Clinic;
+import com.bookify.bookify_app.repository.ClinicRepository;
+import com.bookify.bookify_app.service.ClinicService;
+import com.bookify.bookify_app.service.RateLimitCounterStore;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FilterChainBenchmark {
+
+    private static final int CLIENTS = 4096;
+    private static final FilterChain NOOP = (req, res) -> { };
+
+    @Param({"/api/v1/auth/login", "/api/v1/public/availability"})
+    public String path;
+
+    private RateLimitFilter rateLimitFilter;
+    private CorrelationIdFilter correlationIdFilter;
+    private TenantSubdomainFilter tenantFilter;
+    private MockFilterChain fullChain;
+
+    private MockHttpServletRequest[] requests;
+    private MockHttpServletResponse response;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        rateLimitFilter = new RateLimitFilter(new RateLimitProperties(),
+                new StaticListableBeanFactory().getBeanProvider(RateLimitCounterStore.class));
+        correlationIdFilter = new CorrelationIdFilter();
+
+        ClinicRepository repo = mock(ClinicRepository.class);
+        List<Clinic> clinics = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            Clinic c = new Clinic();
+            c.setId("clinic" + i);
+            c.setSubdomain("klinik" + i);
+            clinics.add(c);
+        }
+        when(repo.findAll()).thenReturn(clinics);
+        TenantProperties tenantProperties = new TenantProperties();
+        ClinicService clinicService = new ClinicService(repo, tenantProperties);
+        clinicService.reloadRegistry();
+        tenantFilter = new TenantSubdomainFilter(clinicService, tenantProperties);
+
+        HttpServlet emptyServlet = new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse res) { }
+        };
+        fullChain = new MockFilterChain(emptyServlet, rateLimitFilter, correlationIdFilter, tenantFilter);
+
+        requests = new MockHttpServletRequest[CLIENTS];
+        for (int i = 0; i < CLIENTS; i++) {
+            MockHttpServletRequest req = new MockHttpServletRequest("GET", path);
+            req.setRemoteAddr("10.0." + (i / 256) + "." + (i % 256));
+            req.addHeader("Host", "klinik" + (i % 1000) + ".minapp.se");
+            if (i % 2 == 0) {
+                req.addHeader(CorrelationIdFilter.CORRELATION_ID_HEADER, "corr-" + i);
+            }
+            requests[i] = req;
+        }
+        response = new MockHttpServletResponse();
+    }
+
+    private MockHttpServletRequest nextRequest() {
+        next = (next + 1) & (CLIENTS - 1);
+        return requests[next];
+    }
+
+    @Benchmark
+    public int rateLimitFilter() throws ServletException, IOException {
+        rateLimitFilter.doFilter(nextRequest(), response, NOOP);
+        return response.getStatus();
+    }
+
+    @Benchmark
+    public int correlationIdFilter() throws ServletException, IOException {
+        correlationIdFilter.doFilter(nextRequest(), response, NOOP);
+        return response.getStatus();
+    }
+
+    @Benchmark
+    public int tenantSubdomainFilter() throws ServletException, IOException {
+        tenantFilter.doFilter(nextRequest(), response, NOOP);
+        return response.getStatus();
+    }
+
+    @Benchmark
+    public int fullChain() throws ServletException, IOException {
+        fullChain.reset();
+        fullChain.doFilter(nextRequest(), response);
+        return response.getStatus();
+    }
+}
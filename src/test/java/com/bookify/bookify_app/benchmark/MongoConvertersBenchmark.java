@@ -0,0 +1,45 @@
+package com.bookify.bookify_app.benchmark;
+
+// ********************************************************************************************
+// * MongoConvertersBenchmark measures the ZonedDateTime <-> Date converters registered by    *
+// * MongoConvertersConfig, called through a ConversionService as the Mongo mapping layer     *
+// * does for every date field it reads or writes.                                            *
+// *                                                                                          *
+// * Run: mvn -Pbenchmark test -Djmh.include=MongoConvertersBenchmark                         *
+// ********************************************************************************************
+
+import com.bookify.bookify_app.config.MongoConvertersConfig;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.convert.support.DefaultConversionService;
+
+import java.time.ZonedDateTime;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MongoConvertersBenchmark {
+
+    private final DefaultConversionService conversionService = new DefaultConversionService();
+    private final ZonedDateTime zoned = ZonedDateTime.parse("2025-09-01T10:15:00+02:00[Europe/Stockholm]");
+    private final Date date = Date.from(zoned.toInstant());
+
+    @Setup
+    public void setUp() {
+        new MongoConvertersConfig().customConversions().registerConvertersIn(conversionService);
+    }
+
+    @Benchmark
+    public Date write() {
+        return conversionService.convert(zoned, Date.class);
+    }
+
+    @Benchmark
+    public ZonedDateTime read() {
+        return conversionService.convert(date, ZonedDateTime.class);
+    }
+}
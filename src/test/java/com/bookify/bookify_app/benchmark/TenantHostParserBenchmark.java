@@ -0,0 +1,59 @@
+package com.bookify.bookify_app.benchmark;
+
+// ********************************************************************************************
+// * TenantHostParserBenchmark compares subdomain extraction in TenantSubdomainFilter:        *
+// *  - regex:  the former path (Optional chain, toLowerCase, named-group Matcher).           *
+// *  - parser: TenantHostParser (char scan, no copies).                                      *
+// *                                                                                          *
+// * Run: mvn -Pbenchmark test -Djmh.include=TenantHostParserBenchmark                        *
+// * (or main() from the IDE). Use "-prof gc" to compare allocations per operation.           *
+// ********************************************************************************************
+
+import com.bookify.bookify_app.filter.TenantHostParser;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TenantHostParserBenchmark {
+
+    private static final Pattern SUB = Pattern.compile("^(?<sub>[^.]+)\\.minapp\\.se(:\\d+)?$");
+
+    @Param({"hudvardskliniken.minapp.se", "hudvardskliniken.minapp.se:443", "api.example.com"})
+    public String host;
+
+    private final TenantHostParser parser = new TenantHostParser(List.of("minapp.se", "localhost"));
+
+    @Benchmark
+    public void regex(Blackhole bh) {
+        String hostHeader = Optional.ofNullable((String) null)
+                .orElseGet(() -> Optional.ofNullable(host).orElse(""))
+                .toLowerCase();
+        Matcher m = SUB.matcher(hostHeader);
+        bh.consume(m.find() ? m.group("sub") : null);
+    }
+
+    @Benchmark
+    public void parser(Blackhole bh) {
+        bh.consume(parser.subdomain(host));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(TenantHostParserBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
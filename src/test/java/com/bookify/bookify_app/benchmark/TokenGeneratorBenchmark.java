@@ -0,0 +1,95 @@
+package com.bookify.bookify_app.benchmark;
+
+// ********************************************************************************************
+// * TokenGeneratorBenchmark compares 256-bit token generation (Base64 URL-encoded) through   *
+// * one shared SecureRandom (the previous TokenService code) with TokenGenerator's striped   *
+// * DRBGs, with and without the prefilled queue, at 1, 4 and all available threads.          *
+// *                                                                                          *
+// * Throughput (ops/s) of the striped variants should grow with the thread count, while the  *
+// * shared generator stays flat or drops.                                                    *
+// *                                                                                          *
+// * Run: mvn -Pbenchmark test -Djmh.include=TokenGeneratorBenchmark                          *
+// ********************************************************************************************
+
+import com.bookify.bookify_app.service.TokenGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenGeneratorBenchmark {
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private final SecureRandom shared = new SecureRandom();
+    private TokenGenerator striped;
+    private TokenGenerator prefilled;
+
+    @Setup
+    public void setUp() {
+        striped = new TokenGenerator(0, 0);
+        prefilled = new TokenGenerator(0, 1024);
+    }
+
+    @TearDown
+    public void tearDown() {
+        striped.close();
+        prefilled.close();
+    }
+
+    private String sharedToken() {
+        byte[] bytes = new byte[32];
+        shared.nextBytes(bytes);
+        return ENCODER.encodeToString(bytes);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public String shared1() {
+        return sharedToken();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String shared4() {
+        return sharedToken();
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public String sharedMax() {
+        return sharedToken();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public String striped1() {
+        return striped.next();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String striped4() {
+        return striped.next();
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public String stripedMax() {
+        return striped.next();
+    }
+
+    // Measures a burst drawing from the queue; sustained load falls back to striped generation
+    @Benchmark
+    @Threads(Threads.MAX)
+    public String prefilledMax() {
+        return prefilled.next();
+    }
+}